@@ -188,14 +188,6 @@ public class MmdSkinClient {
         return;
     }
 
-    public static String calledFrom(int i){
-        StackTraceElement[] steArray = Thread.currentThread().getStackTrace();
-        if (steArray.length <= i) {
-            return "";
-        }
-        return steArray[i].getClassName();
-    }
-
     public static Vector3f str2Vec3f(String arg){
         Vector3f vector3f = new Vector3f();
         String[] splittedStr = arg.split(",");
@@ -543,6 +543,29 @@ public class NativeFunc {
      */
     public native void TransitionLayerTo(long model, long layer, long anim, float transitionTime);
 
+    /**
+     * 跳转动画层到指定帧
+     * @param model 模型句柄
+     * @param layer 动画层ID（0-3）
+     * @param frame 目标帧号（30fps）
+     */
+    public native void SeekLayer(long model, long layer, float frame);
+
+    /**
+     * 获取动画层当前帧
+     * @param model 模型句柄
+     * @param layer 动画层ID（0-3）
+     * @return 当前帧号（30fps），模型或层不存在时返回 0
+     */
+    public native float GetLayerFrame(long model, long layer);
+
+    /**
+     * 设置循环动画是否使用预采样姿态缓存（全局）
+     * 循环播放的动画首次求值时按帧采样，之后每帧直接插值采样结果，结果与实时求值一致
+     * @param enabled 是否启用
+     */
+    public native void SetPoseCacheEnabled(boolean enabled);
+
     public native void ResetModelPhysics(long model);
 
     public native long CreateMat();
@@ -608,6 +631,15 @@ public class NativeFunc {
      */
     public native boolean HasMorphData(long anim);
     
+    /**
+     * 探测 VMD 文件各段关键帧数量（只读头部与段计数，不解析关键帧、不创建动画句柄）
+     * 布局: bone_keyframes, morph_keyframes, camera_keyframes (3×i32)
+     * @param filename VMD 文件路径
+     * @param buffer 目标 DirectByteBuffer (至少 12 字节)
+     * @return 文件有效且探测成功时返回 true
+     */
+    public native boolean ProbeVmdFile(String filename, ByteBuffer buffer);
+    
     /**
      * 将 source 动画的骨骼和 Morph 数据合并到 target 动画中
      * @param target 目标动画句柄（将被修改）
@@ -615,6 +647,14 @@ public class NativeFunc {
      */
     public native void MergeAnimation(long target, long source);
 
+    /**
+     * 将 source 动画合并到 target 并释放 source 句柄（关键帧按移动转交，不克隆）
+     * 调用后 source 句柄失效，无需再 DeleteAnimation
+     * @param target 目标动画句柄（将被修改）
+     * @param source 源动画句柄（将被消耗）
+     */
+    public native void MergeAnimationMove(long target, long source);
+
     public native void SetHeadAngle(long model, float x, float y, float z, boolean flag);
     
     /**
@@ -1043,6 +1083,13 @@ public class NativeFunc {
      */
     public native long GetGpuUvMorphOffsetsSize(long model);
     
+    /**
+     * 获取 GPU UV Morph 偏移数据指针（密集格式：uv_morph_count * vertex_count * 2）
+     * @param model 模型句柄
+     * @return 数据指针
+     */
+    public native long GetGpuUvMorphOffsets(long model);
+    
     /**
      * 复制 GPU UV Morph 偏移数据到 ByteBuffer
      * @param model 模型句柄
@@ -1099,6 +1146,51 @@ public class NativeFunc {
      */
     public native int BatchGetSubMeshData(long model, java.nio.ByteBuffer buffer);
     
+    /**
+     * 每帧模型命令缓冲：一次调用完成输入应用、模型更新与输出写回
+     * 替代 SetHeadAngle / SetEyeAngle / SetModelPositionAndYaw / SetPhysicsLodDistance /
+     * UpdateModel / GetRightHandMat / GetEyeBonePosition / CopyMaterialMorphResultsToBuffer 等逐项调用
+     * 缓冲区可连续存放多个模型的记录，布局见 {@link com.shiroha.mmdskin.renderer.core.ModelFrameBuffer}
+     * 
+     * @param buffer 记录缓冲区（DirectByteBuffer，小端序，每条 ModelFrameBuffer.RECORD_SIZE 字节）
+     * @param count  记录数量
+     * @return 句柄有效并已处理的记录数量
+     */
+    public native int UpdateModelFrames(java.nio.ByteBuffer buffer, int count);
+    
+    /**
+     * 设置是否启用分阶段帧耗时统计（全局，开启时清空旧数据）
+     * 关闭时原生侧每帧只检查一次标志，不计时
+     * @param enabled 是否启用
+     */
+    public native void SetFrameProfilerEnabled(boolean enabled);
+    
+    /**
+     * 批量读取模型帧耗时统计汇总，布局见 {@link com.shiroha.mmdskin.renderer.core.FrameProfiler}
+     * 
+     * @param buffer 记录缓冲区（DirectByteBuffer，小端序，每条 192 字节，调用前写入模型句柄）
+     * @param count  记录数量
+     * @return 句柄有效的记录数量
+     */
+    public native int FetchFrameProfiles(java.nio.ByteBuffer buffer, int count);
+
+    /**
+     * 获取模型持有的原生内存（按容量统计，不含共享的动画、烘焙舞台与纹理）
+     * 物理为 Rapier 刚体、碰撞体、关节与接触对的估算，宽相与求解器缓冲不计入；
+     * 异步/共享物理正在步进时不等待，物理一项沿用上次统计值
+     * @param model 模型句柄
+     * @param out 输出数组 [网格, 运行时缓冲, Morph, 骨骼, 物理]（字节），长度至少为 5，否则不写入
+     * @return 总字节数，句柄无效时返回 0
+     */
+    public native long GetModelMemoryUsage(long model, long[] out);
+
+    /**
+     * 获取共享资源的原生内存（按句柄表中的资源去重统计）
+     * @param out 输出数组 [动画关键帧, 姿态缓存, 烘焙舞台]（字节），长度至少为 3，否则不写入
+     * @return 总字节数
+     */
+    public native long GetSharedMemoryUsage(long[] out);
+
     // ========== NativeRender 顶点构建（P2-9 优化）==========
     
     /**
@@ -1189,6 +1281,40 @@ public class NativeFunc {
         boolean debugLog
     );
     
+    /**
+     * 设置物理是否在独立线程中以固定步长模拟（渲染时在最近两次物理步之间插值）
+     * 已加载的模型在下一次更新时切换，物理状态保留
+     * @param enabled 是否启用
+     */
+    public native void SetPhysicsAsyncSimulation(boolean enabled);
+    
+    /**
+     * 设置所有模型是否共用一个物理世界（每个物理步只运行一次求解流水线，模型之间互不碰撞）
+     * 共享模式优先于独立线程模式；已加载的模型在下一次更新时按 PMX 数据重建物理
+     * @param enabled 是否启用
+     */
+    public native void SetPhysicsSharedWorld(boolean enabled);
+    
+    /**
+     * 设置物理休眠检测与距离 LOD 参数
+     * 休眠：姿势静止且所有动态刚体低于速度阈值一段时间后跳过求解，任何移动立即唤醒
+     * LOD：超过近距离子步数上限降为 2、迭代减半；超过远距离子步数 1、迭代降为 1/4
+     * @param sleepEnabled 是否启用休眠检测
+     * @param sleepLinearVelocity 休眠线速度阈值
+     * @param sleepAngularVelocity 休眠角速度阈值
+     * @param lodNearDistance LOD 近距离（方块）
+     * @param lodFarDistance LOD 远距离（方块）
+     */
+    public native void SetPhysicsSleepLodConfig(boolean sleepEnabled, float sleepLinearVelocity,
+                                                float sleepAngularVelocity, float lodNearDistance, float lodFarDistance);
+    
+    /**
+     * 设置模型与相机的距离（用于物理 LOD）
+     * @param model 模型句柄
+     * @param distance 距离（方块）
+     */
+    public native void SetPhysicsLodDistance(long model, float distance);
+    
     // ========== 第一人称模式相关 ==========
     
     /**
@@ -1221,4 +1347,87 @@ public class NativeFunc {
      * @param out 输出数组 [x, y, z]，长度至少为 3
      */
     public native void GetEyeBonePosition(long model, float[] out);
+    
+    // ========== 舞台烘焙 ==========
+    
+    /**
+     * 创建舞台烘焙器（独立加载一份模型，强制同步物理，按固定步长离线运行舞台动作）
+     * @param modelPath PMX 模型文件路径
+     * @param motionAnim 合并后的动作句柄
+     * @param cameraAnim 相机动画句柄（0 表示使用动作中的相机数据）
+     * @param outputPath 输出文件路径
+     * @param fps 采样率
+     * @return 烘焙器句柄，失败返回 0
+     */
+    public native long CreateStageBaker(String modelPath, long motionAnim, long cameraAnim, String outputPath, float fps);
+    
+    /**
+     * 获取烘焙总帧数
+     */
+    public native int GetStageBakerFrameCount(long baker);
+    
+    /**
+     * 推进烘焙
+     * @param maxFrames 本次最多烘焙的帧数
+     * @return 累计已烘焙帧数，失败返回 -1
+     */
+    public native int StepStageBaker(long baker, int maxFrames);
+    
+    /**
+     * 完成烘焙：写入索引并关闭文件，同时释放烘焙器
+     * @return 是否成功
+     */
+    public native boolean FinishStageBaker(long baker);
+    
+    /**
+     * 放弃烘焙：释放烘焙器并删除未完成的文件
+     */
+    public native void DeleteStageBaker(long baker);
+    
+    /**
+     * 加载烘焙舞台文件
+     * @return 烘焙舞台句柄，失败返回 0
+     */
+    public native long LoadBakedStage(String path);
+    
+    /**
+     * 释放烘焙舞台（已挂载的模型继续持有，直到卸载）
+     */
+    public native void DeleteBakedStage(long stage);
+    
+    /**
+     * 获取烘焙舞台总长度（VMD 帧）
+     */
+    public native float GetBakedStageMaxFrame(long stage);
+    
+    /**
+     * 烘焙舞台是否包含相机轨道
+     */
+    public native boolean BakedStageHasCamera(long stage);
+    
+    /**
+     * 获取烘焙相机变换（缓冲区布局与 {@link #GetCameraTransform} 相同）
+     * @param frame 舞台时间轴（VMD 帧）
+     */
+    public native void GetBakedCameraTransform(long stage, float frame, ByteBuffer buffer);
+    
+    /**
+     * 把烘焙舞台挂载到模型，挂载后动作层 0 的帧查询/跳转作用于烘焙时间轴
+     * @param model 模型句柄
+     * @param stage 烘焙舞台句柄（0 表示卸载，恢复动画层驱动）
+     * @param transitionTime 从当前姿态过渡到第一帧的时间（秒）
+     * @return 是否成功（模型骨骼/Morph 结构与烘焙时不一致时返回 false）
+     */
+    public native boolean AttachBakedStage(long model, long stage, float transitionTime);
+    
+    // ========== 模型缩略图 ==========
+    
+    /**
+     * 解析模型并用软件光栅化生成缩略图 PNG（不创建模型句柄、不使用 GL，可在任意线程调用）
+     * @param modelPath PMX 模型文件路径
+     * @param outputPath 输出 PNG 路径
+     * @param size 缩略图边长（像素）
+     * @return 是否成功
+     */
+    public native boolean RenderModelThumbnail(String modelPath, String outputPath, int size);
 }
@@ -55,6 +55,15 @@ public class ConfigData {
     public int physicsSolverIterations = 4;
     public int physicsPgsIterations = 2;
     public float physicsMaxCorrectiveVelocity = 0.1f;
+    public boolean physicsAsyncSimulation = false;
+    public boolean physicsSharedWorld = false;
+    
+    // 休眠与距离 LOD
+    public boolean physicsSleepEnabled = true;
+    public float physicsSleepLinearVelocity = 0.02f;
+    public float physicsSleepAngularVelocity = 0.05f;
+    public float physicsLodNearDistance = 16.0f;
+    public float physicsLodFarDistance = 48.0f;
     
     // 刚体阻尼
     public float physicsLinearDampingScale = 0.3f;
@@ -98,6 +107,17 @@ public class ConfigData {
     // 第一人称模型显示
     public boolean firstPersonModelEnabled = false;
     
+    // 加载性能
+    public int modelFinalizeBudgetMs = 4;
+    public int modelPoolMaxMemoryMb = 1024;
+    
+    // 动画性能
+    public boolean animationPoseCacheEnabled = true;
+    
+    // 界面预览
+    public int inventoryPreviewFps = 20;
+    public boolean thumbnailPregenerate = true;
+    
     /**
      * 从文件加载配置
      */
@@ -196,9 +216,21 @@ public class ConfigData {
         other.physicsBustLinearSpringDampingFactor = this.physicsBustLinearSpringDampingFactor;
         other.physicsBustAngularSpringDampingFactor = this.physicsBustAngularSpringDampingFactor;
         other.physicsBustClampInward = this.physicsBustClampInward;
+        other.physicsAsyncSimulation = this.physicsAsyncSimulation;
+        other.physicsSharedWorld = this.physicsSharedWorld;
+        other.physicsSleepEnabled = this.physicsSleepEnabled;
+        other.physicsSleepLinearVelocity = this.physicsSleepLinearVelocity;
+        other.physicsSleepAngularVelocity = this.physicsSleepAngularVelocity;
+        other.physicsLodNearDistance = this.physicsLodNearDistance;
+        other.physicsLodFarDistance = this.physicsLodFarDistance;
         other.physicsJointsEnabled = this.physicsJointsEnabled;
         other.physicsDebugLog = this.physicsDebugLog;
         // 第一人称
         other.firstPersonModelEnabled = this.firstPersonModelEnabled;
+        other.modelFinalizeBudgetMs = this.modelFinalizeBudgetMs;
+        other.modelPoolMaxMemoryMb = this.modelPoolMaxMemoryMb;
+        other.animationPoseCacheEnabled = this.animationPoseCacheEnabled;
+        other.inventoryPreviewFps = this.inventoryPreviewFps;
+        other.thumbnailPregenerate = this.thumbnailPregenerate;
     }
 }
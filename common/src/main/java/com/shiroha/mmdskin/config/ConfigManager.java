@@ -244,6 +244,34 @@ public class ConfigManager {
         return provider != null ? provider.isPhysicsBustClampInward() : true;
     }
     
+    public static boolean isPhysicsAsyncSimulation() {
+        return provider != null ? provider.isPhysicsAsyncSimulation() : false;
+    }
+    
+    public static boolean isPhysicsSharedWorld() {
+        return provider != null ? provider.isPhysicsSharedWorld() : false;
+    }
+    
+    public static boolean isPhysicsSleepEnabled() {
+        return provider != null ? provider.isPhysicsSleepEnabled() : true;
+    }
+    
+    public static float getPhysicsSleepLinearVelocity() {
+        return provider != null ? provider.getPhysicsSleepLinearVelocity() : 0.02f;
+    }
+    
+    public static float getPhysicsSleepAngularVelocity() {
+        return provider != null ? provider.getPhysicsSleepAngularVelocity() : 0.05f;
+    }
+    
+    public static float getPhysicsLodNearDistance() {
+        return provider != null ? provider.getPhysicsLodNearDistance() : 16.0f;
+    }
+    
+    public static float getPhysicsLodFarDistance() {
+        return provider != null ? provider.getPhysicsLodFarDistance() : 48.0f;
+    }
+    
     public static boolean isPhysicsJointsEnabled() {
         return provider != null ? provider.isPhysicsJointsEnabled() : true;
     }
@@ -261,6 +289,45 @@ public class ConfigManager {
         return provider != null ? provider.isFirstPersonModelEnabled() : false;
     }
     
+    // ==================== 加载性能 ====================
+    
+    /**
+     * 每帧用于模型 GL 资源创建的时间预算（毫秒）
+     */
+    public static int getModelFinalizeBudgetMs() {
+        return provider != null ? provider.getModelFinalizeBudgetMs() : 4;
+    }
+    
+    /**
+     * 模型缓存内存预算（MB，按原生 + 显存 + 纹理估算）
+     */
+    public static int getModelPoolMaxMemoryMb() {
+        return provider != null ? provider.getModelPoolMaxMemoryMb() : 1024;
+    }
+    
+    // ==================== 动画性能 ====================
+    
+    /**
+     * 循环动画是否使用预采样姿态缓存
+     */
+    public static boolean isAnimationPoseCacheEnabled() {
+        return provider != null ? provider.isAnimationPoseCacheEnabled() : true;
+    }
+    
+    /**
+     * 物品栏模型预览刷新率（FPS，0 表示每帧实时渲染）
+     */
+    public static int getInventoryPreviewFps() {
+        return provider != null ? provider.getInventoryPreviewFps() : 20;
+    }
+    
+    /**
+     * 是否在启动时后台批量生成模型缩略图
+     */
+    public static boolean isThumbnailPregenerate() {
+        return provider != null ? provider.isThumbnailPregenerate() : true;
+    }
+    
     /**
      * 配置提供者接口
      * 各平台实现此接口以提供配置值
@@ -391,10 +458,46 @@ public class ConfigManager {
         /** 是否启用关节（默认 true） */
         default boolean isPhysicsJointsEnabled() { return true; }
         
+        /** 物理是否在独立线程中以固定步长模拟（默认 false） */
+        default boolean isPhysicsAsyncSimulation() { return false; }
+        
+        /** 所有模型是否共用一个物理世界（默认 false） */
+        default boolean isPhysicsSharedWorld() { return false; }
+        
+        /** 物理休眠检测是否启用（默认 true） */
+        default boolean isPhysicsSleepEnabled() { return true; }
+        
+        /** 休眠线速度阈值（默认 0.02） */
+        default float getPhysicsSleepLinearVelocity() { return 0.02f; }
+        
+        /** 休眠角速度阈值（默认 0.05） */
+        default float getPhysicsSleepAngularVelocity() { return 0.05f; }
+        
+        /** 物理 LOD 近距离阈值，单位方块（默认 16） */
+        default float getPhysicsLodNearDistance() { return 16.0f; }
+        
+        /** 物理 LOD 远距离阈值，单位方块（默认 48） */
+        default float getPhysicsLodFarDistance() { return 48.0f; }
+        
         /** 是否输出调试日志（默认 false） */
         default boolean isPhysicsDebugLog() { return false; }
         
         /** 第一人称模型显示是否启用（默认 false） */
         default boolean isFirstPersonModelEnabled() { return false; }
+        
+        /** 每帧用于模型 GL 资源创建的时间预算（毫秒）（默认 4） */
+        default int getModelFinalizeBudgetMs() { return 4; }
+        
+        /** 模型缓存内存预算（MB，按原生 + 显存 + 纹理估算）（默认 1024） */
+        default int getModelPoolMaxMemoryMb() { return 1024; }
+        
+        /** 循环动画是否使用预采样姿态缓存（默认 true） */
+        default boolean isAnimationPoseCacheEnabled() { return true; }
+        
+        /** 物品栏模型预览刷新率（FPS，0 表示每帧实时渲染）（默认 20） */
+        default int getInventoryPreviewFps() { return 20; }
+        
+        /** 是否在启动时后台批量生成模型缩略图（默认 true） */
+        default boolean isThumbnailPregenerate() { return true; }
     }
 }
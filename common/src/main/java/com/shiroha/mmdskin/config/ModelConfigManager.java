@@ -5,6 +5,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 模型独立配置管理器
@@ -20,6 +21,9 @@ public class ModelConfigManager {
     /** 内存缓存：模型名 -> 配置数据 */
     private static final ConcurrentHashMap<String, ModelConfigData> cache = new ConcurrentHashMap<>();
     
+    /** 配置版本：保存或清除缓存时递增，已编译的模型渲染配置据此判断是否需要重新编译 */
+    private static final AtomicInteger version = new AtomicInteger(0);
+    
     private ModelConfigManager() {
         // 工具类，禁止实例化
     }
@@ -56,6 +60,7 @@ public class ModelConfigManager {
         
         ModelConfigData safeCopy = config.copy();
         cache.put(modelName, safeCopy);
+        version.incrementAndGet();
         File configFile = getConfigFile(modelName);
         safeCopy.save(configFile);
         logger.info("保存模型配置: {} (眼球角度: {})", modelName, config.eyeMaxAngle);
@@ -66,6 +71,7 @@ public class ModelConfigManager {
      */
     public static void invalidate(String modelName) {
         cache.remove(modelName);
+        version.incrementAndGet();
     }
     
     /**
@@ -73,6 +79,14 @@ public class ModelConfigManager {
      */
     public static void invalidateAll() {
         cache.clear();
+        version.incrementAndGet();
+    }
+    
+    /**
+     * 当前配置版本（任一模型配置变化时递增）
+     */
+    public static int getVersion() {
+        return version.get();
     }
     
     /**
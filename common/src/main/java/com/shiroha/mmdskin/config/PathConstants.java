@@ -59,6 +59,24 @@ public final class PathConstants {
     /** 舞台模式配置文件 */
     public static final String STAGE_CONFIG = "stage_config.json";
     
+    /** 舞台包 VMD 探测索引文件 */
+    public static final String STAGE_INDEX = "stage_index.json";
+    
+    /** 舞台烘焙缓存目录（位于配置目录下） */
+    public static final String STAGE_BAKE_DIR = "stage_bake";
+    
+    /** 舞台烘焙文件扩展名 */
+    public static final String STAGE_BAKE_EXTENSION = ".mmdbake";
+    
+    /** 模型缩略图缓存目录（位于配置目录下） */
+    public static final String THUMBNAIL_DIR = "thumbnails";
+    
+    /** 模型缩略图哈希索引文件 */
+    public static final String THUMBNAIL_INDEX = "thumbnail_index.json";
+    
+    /** 帧耗时统计与内存统计导出目录（位于配置目录下） */
+    public static final String PROFILE_DIR = "profiles";
+    
     // ==================== 文件扩展名 ====================
     /** VMD 动画文件扩展名 */
     public static final String VMD_EXTENSION = ".vmd";
@@ -173,6 +191,34 @@ public final class PathConstants {
         return new File(getSkinRootDir(), SHADER_DIR);
     }
     
+    /**
+     * 获取舞台烘焙文件（按舞台包与模型区分）
+     */
+    public static File getStageBakeFile(String packName, String modelName) {
+        return new File(new File(getConfigFile(STAGE_BAKE_DIR), packName), modelName + STAGE_BAKE_EXTENSION);
+    }
+    
+    /**
+     * 获取模型缩略图缓存文件（按模型文件哈希区分）
+     */
+    public static File getThumbnailFile(String hash) {
+        return new File(getConfigFile(THUMBNAIL_DIR), hash + ".png");
+    }
+    
+    /**
+     * 获取帧耗时统计导出文件
+     */
+    public static File getFrameProfileFile(String timestamp) {
+        return new File(getConfigFile(PROFILE_DIR), "frame_profile_" + timestamp + ".csv");
+    }
+    
+    /**
+     * 获取内存统计导出文件
+     */
+    public static File getMemoryReportFile(String timestamp) {
+        return new File(getConfigFile(PROFILE_DIR), "memory_" + timestamp + ".csv");
+    }
+    
     /**
      * 获取指定模型的目录
      */
@@ -5,9 +5,14 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 舞台包数据类
@@ -71,22 +76,50 @@ public class StagePack {
      * 扫描 StageAnim 目录下所有子文件夹，每个子文件夹生成一个 StagePack
      */
     public static List<StagePack> scan(File stageAnimDir) {
+        return scan(stageAnimDir, null);
+    }
+    
+    /**
+     * 扫描 StageAnim 目录（可在后台线程调用）
+     * VMD 类型通过头部探测获得，结果缓存在持久化索引中，文件未变化时不访问文件内容
+     * 
+     * @param progress 进度回报，可为 null
+     */
+    public static List<StagePack> scan(File stageAnimDir, ScanProgress progress) {
         List<StagePack> packs = new ArrayList<>();
         if (!stageAnimDir.exists() || !stageAnimDir.isDirectory()) return packs;
         
         File[] subDirs = stageAnimDir.listFiles(File::isDirectory);
         if (subDirs == null) return packs;
         
+        // 先列出所有 VMD，确定进度总数
+        List<File[]> vmdLists = new ArrayList<>(subDirs.length);
+        int total = 0;
+        for (File dir : subDirs) {
+            File[] files = dir.listFiles((d, name) -> name.toLowerCase().endsWith(PathConstants.VMD_EXTENSION));
+            if (files == null) files = new File[0];
+            vmdLists.add(files);
+            total += files.length;
+        }
+        if (progress != null) progress.total = total;
+        
         NativeFunc nf = NativeFunc.GetInst();
+        StagePackIndex index = StagePackIndex.load();
+        ByteBuffer probeBuffer = ByteBuffer.allocateDirect(12).order(ByteOrder.nativeOrder());
+        Set<String> seenPaths = new HashSet<>();
         
-        for (File dir : subDirs) {
-            List<VmdFileInfo> files = scanVmdFiles(dir, nf);
+        for (int i = 0; i < subDirs.length; i++) {
+            File dir = subDirs[i];
+            List<VmdFileInfo> files = scanVmdFiles(vmdLists.get(i), nf, index, probeBuffer, seenPaths, progress);
             List<AudioFileInfo> audios = scanAudioFiles(dir);
             if (!files.isEmpty()) {
                 packs.add(new StagePack(dir.getName(), dir.getAbsolutePath(), files, audios));
             }
         }
         
+        index.retainOnly(seenPaths);
+        index.saveIfDirty();
+        
         // 按名称排序
         packs.sort((a, b) -> a.name.compareToIgnoreCase(b.name));
         
@@ -95,27 +128,31 @@ public class StagePack {
     }
     
     /**
-     * 扫描目录中的所有 VMD 文件，通过临时加载检测数据类型
+     * 识别 VMD 文件的数据类型：优先使用索引，未命中时只探测头部段计数
      */
-    private static List<VmdFileInfo> scanVmdFiles(File dir, NativeFunc nf) {
+    private static List<VmdFileInfo> scanVmdFiles(File[] files, NativeFunc nf, StagePackIndex index,
+                                                  ByteBuffer probeBuffer, Set<String> seenPaths,
+                                                  ScanProgress progress) {
         List<VmdFileInfo> results = new ArrayList<>();
         
-        File[] files = dir.listFiles((d, name) -> name.toLowerCase().endsWith(PathConstants.VMD_EXTENSION));
-        if (files == null) return results;
-        
         for (File file : files) {
             String path = file.getAbsolutePath();
+            seenPaths.add(path);
             
-            // 临时加载检测数据类型
-            long tempAnim = nf.LoadAnimation(0, path);
-            if (tempAnim == 0) continue;
-            
-            boolean hasCamera = nf.HasCameraData(tempAnim);
-            boolean hasBones = nf.HasBoneData(tempAnim);
-            boolean hasMorphs = nf.HasMorphData(tempAnim);
-            nf.DeleteAnimation(tempAnim);
+            StagePackIndex.Entry cached = index.lookup(file);
+            if (cached != null) {
+                results.add(new VmdFileInfo(file.getName(), path, cached.hasCamera, cached.hasBones, cached.hasMorphs));
+            } else if (nf.ProbeVmdFile(path, probeBuffer)) {
+                probeBuffer.rewind();
+                boolean hasBones = probeBuffer.getInt() > 0;
+                boolean hasMorphs = probeBuffer.getInt() > 0;
+                boolean hasCamera = probeBuffer.getInt() > 0;
+                probeBuffer.rewind();
+                index.put(file, hasCamera, hasBones, hasMorphs);
+                results.add(new VmdFileInfo(file.getName(), path, hasCamera, hasBones, hasMorphs));
+            }
             
-            results.add(new VmdFileInfo(file.getName(), path, hasCamera, hasBones, hasMorphs));
+            if (progress != null) progress.done.incrementAndGet();
         }
         
         // 按文件名排序
@@ -149,6 +186,14 @@ public class StagePack {
         return results;
     }
     
+    /**
+     * 扫描进度（后台线程写入，UI 线程读取）
+     */
+    public static class ScanProgress {
+        public volatile int total = -1;
+        public final AtomicInteger done = new AtomicInteger();
+    }
+    
     /**
      * 音频文件信息
      */
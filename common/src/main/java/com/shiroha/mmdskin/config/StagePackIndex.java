@@ -0,0 +1,106 @@
+package com.shiroha.mmdskin.config;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 舞台包 VMD 探测结果的持久化索引
+ * 以文件路径为键，文件大小与修改时间任一变化即视为失效，需重新探测
+ */
+public class StagePackIndex {
+    private static final Logger logger = LogManager.getLogger();
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean dirty = false;
+
+    /**
+     * 从文件加载索引（不存在或损坏时返回空索引）
+     */
+    public static StagePackIndex load() {
+        StagePackIndex index = new StagePackIndex();
+        try {
+            File file = PathConstants.getConfigFile(PathConstants.STAGE_INDEX);
+            if (file.exists()) {
+                String json = Files.readString(file.toPath());
+                Map<String, Entry> loaded = GSON.fromJson(json, new TypeToken<HashMap<String, Entry>>() {}.getType());
+                if (loaded != null) {
+                    index.entries.putAll(loaded);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("[StagePackIndex] 加载失败: {}", e.getMessage());
+        }
+        return index;
+    }
+
+    /**
+     * 查找仍然有效的索引项
+     */
+    public Entry lookup(File file) {
+        Entry entry = entries.get(file.getAbsolutePath());
+        if (entry != null && entry.size == file.length() && entry.mtime == file.lastModified()) {
+            return entry;
+        }
+        return null;
+    }
+
+    /**
+     * 记录探测结果
+     */
+    public void put(File file, boolean hasCamera, boolean hasBones, boolean hasMorphs) {
+        Entry entry = new Entry();
+        entry.size = file.length();
+        entry.mtime = file.lastModified();
+        entry.hasCamera = hasCamera;
+        entry.hasBones = hasBones;
+        entry.hasMorphs = hasMorphs;
+        entries.put(file.getAbsolutePath(), entry);
+        dirty = true;
+    }
+
+    /**
+     * 移除本次扫描中不存在的路径
+     */
+    public void retainOnly(Set<String> paths) {
+        if (entries.keySet().retainAll(paths)) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * 有变化时写回文件
+     */
+    public void saveIfDirty() {
+        if (!dirty) return;
+        try {
+            File file = PathConstants.getConfigFile(PathConstants.STAGE_INDEX);
+            file.getParentFile().mkdirs();
+            Files.writeString(file.toPath(), GSON.toJson(new HashMap<>(entries)));
+            dirty = false;
+        } catch (Exception e) {
+            logger.warn("[StagePackIndex] 保存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 索引项
+     */
+    public static class Entry {
+        public long size;
+        public long mtime;
+        public boolean hasCamera;
+        public boolean hasBones;
+        public boolean hasMorphs;
+    }
+}
@@ -0,0 +1,105 @@
+package com.shiroha.mmdskin.config;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 模型文件哈希的持久化索引（缩略图缓存文件名）
+ * 以文件路径为键，文件大小、修改时间或缩略图格式任一变化即视为失效，需重新计算
+ */
+public class ThumbnailHashIndex {
+    private static final Logger logger = LogManager.getLogger();
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean dirty = false;
+
+    /**
+     * 从文件加载索引（不存在或损坏时返回空索引）
+     */
+    public static ThumbnailHashIndex load() {
+        ThumbnailHashIndex index = new ThumbnailHashIndex();
+        try {
+            File file = PathConstants.getConfigFile(PathConstants.THUMBNAIL_INDEX);
+            if (file.exists()) {
+                String json = Files.readString(file.toPath());
+                Map<String, Entry> loaded = GSON.fromJson(json, new TypeToken<HashMap<String, Entry>>() {}.getType());
+                if (loaded != null) {
+                    index.entries.putAll(loaded);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("[ThumbnailHashIndex] 加载失败: {}", e.getMessage());
+        }
+        return index;
+    }
+
+    /**
+     * 查找仍然有效的哈希，失效或不存在时返回 null
+     */
+    public String lookup(File file, String format) {
+        Entry entry = entries.get(file.getAbsolutePath());
+        if (entry != null && entry.size == file.length() && entry.mtime == file.lastModified()
+                && format.equals(entry.format)) {
+            return entry.hash;
+        }
+        return null;
+    }
+
+    /**
+     * 记录哈希结果
+     */
+    public void put(File file, String format, String hash) {
+        Entry entry = new Entry();
+        entry.size = file.length();
+        entry.mtime = file.lastModified();
+        entry.format = format;
+        entry.hash = hash;
+        entries.put(file.getAbsolutePath(), entry);
+        dirty = true;
+    }
+
+    /**
+     * 移除本次扫描中不存在的路径
+     */
+    public void retainOnly(Set<String> paths) {
+        if (entries.keySet().retainAll(paths)) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * 有变化时写回文件
+     */
+    public void saveIfDirty() {
+        if (!dirty) return;
+        try {
+            File file = PathConstants.getConfigFile(PathConstants.THUMBNAIL_INDEX);
+            file.getParentFile().mkdirs();
+            Files.writeString(file.toPath(), GSON.toJson(new HashMap<>(entries)));
+            dirty = false;
+        } catch (Exception e) {
+            logger.warn("[ThumbnailHashIndex] 保存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 索引项
+     */
+    public static class Entry {
+        public long size;
+        public long mtime;
+        public String format;
+        public String hash;
+    }
+}
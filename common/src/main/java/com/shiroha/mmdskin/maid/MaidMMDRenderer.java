@@ -2,6 +2,7 @@ package com.shiroha.mmdskin.maid;
 
 import com.shiroha.mmdskin.renderer.animation.MMDAnimManager;
 import com.shiroha.mmdskin.renderer.core.EntityAnimState;
+import com.shiroha.mmdskin.renderer.core.ModelRenderProfile;
 import com.shiroha.mmdskin.renderer.core.RenderContext;
 import com.shiroha.mmdskin.renderer.model.MMDModelManager;
 import com.mojang.blaze3d.systems.RenderSystem;
@@ -22,6 +23,9 @@ import java.util.UUID;
 public class MaidMMDRenderer {
     private static final Logger logger = LogManager.getLogger();
     
+    /** 渲染线程共用的临时偏移（每帧复用） */
+    private static final Vector3f translation = new Vector3f();
+    
     /**
      * 渲染女仆的 MMD 模型
      * 
@@ -53,15 +57,17 @@ public class MaidMMDRenderer {
             // 更新动画状态
             updateAnimationState(entity, modelData);
             
+            ModelRenderProfile profile = modelData.getProfile();
+            
             // 计算渲染偏移
-            Vector3f entityTrans = getEntityTranslation(modelData);
+            Vector3f entityTrans = translation.set(profile.getEntityTrans());
             
             // 女仆实体不使用 pitch 旋转整个模型（避免移动时倾斜）
             // 只使用 yaw 控制朝向，pitch 保持 0
             float entityPitch = 0.0f;
             
             // 应用模型缩放
-            float modelSize = getModelSize(modelData);
+            float modelSize = profile.getSize();
             poseStack.scale(modelSize, modelSize, modelSize);
             
             // 设置正确的 shader（避免使用 Orihime BedrockModel 留下的 shader 导致 flat shading）
@@ -121,51 +127,6 @@ public class MaidMMDRenderer {
         return entity.getX() - entity.xo != 0.0 || entity.getZ() - entity.zo != 0.0;
     }
     
-    /**
-     * 获取实体渲染偏移
-     */
-    private static Vector3f getEntityTranslation(MMDModelManager.Model modelData) {
-        float x = 0.0f;
-        float y = 0.0f;
-        float z = 0.0f;
-        
-        // 从模型属性读取偏移
-        if (modelData.properties != null) {
-            String transStr = modelData.properties.getProperty("entityTrans");
-            if (transStr != null) {
-                String[] parts = transStr.split(",");
-                if (parts.length == 3) {
-                    try {
-                        x = Float.parseFloat(parts[0].trim());
-                        y = Float.parseFloat(parts[1].trim());
-                        z = Float.parseFloat(parts[2].trim());
-                    } catch (NumberFormatException e) {
-                        // 使用默认值
-                    }
-                }
-            }
-        }
-        
-        return new Vector3f(x, y, z);
-    }
-    
-    /**
-     * 获取模型缩放大小
-     */
-    private static float getModelSize(MMDModelManager.Model modelData) {
-        if (modelData.properties != null) {
-            String value = modelData.properties.getProperty("size");
-            if (value != null) {
-                try {
-                    return Float.parseFloat(value);
-                } catch (NumberFormatException e) {
-                    // 使用默认值
-                }
-            }
-        }
-        return 1.0f;
-    }
-    
     /**
      * 设置实体速度（用于惯性效果）
      */
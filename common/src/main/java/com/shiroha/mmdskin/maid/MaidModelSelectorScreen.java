@@ -1,7 +1,10 @@
 package com.shiroha.mmdskin.maid;
 
 import com.shiroha.mmdskin.config.UIConstants;
+import com.shiroha.mmdskin.renderer.model.ModelCatalog;
 import com.shiroha.mmdskin.renderer.model.ModelInfo;
+import com.shiroha.mmdskin.renderer.model.ModelThumbnailManager;
+import com.shiroha.mmdskin.renderer.render.ModelPreviewRenderer;
 import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.client.gui.components.Button;
 import net.minecraft.client.gui.screens.Screen;
@@ -27,6 +30,7 @@ public class MaidModelSelectorScreen extends Screen {
     private static final int FOOTER_HEIGHT = 20;
     private static final int ITEM_HEIGHT = 14;
     private static final int ITEM_SPACING = 1;
+    private static final int THUMBNAIL_PREVIEW_SIZE = 96;
     
     // 女仆主题配色（粉紫色系）
     private static final int COLOR_PANEL_BG = 0xC0181420;
@@ -48,10 +52,14 @@ public class MaidModelSelectorScreen extends Screen {
     private int maxScroll = 0;
     private String currentModel;
     private int hoveredCardIndex = -1;
+    private int hoveredItemY = 0;
     
     // 面板区域缓存
     private int panelX, panelY, panelH;
     private int listTop, listBottom;
+    
+    /** 列表对应的模型目录索引版本 */
+    private int catalogVersion;
 
     public MaidModelSelectorScreen(UUID maidUUID, int maidEntityId, String maidName) {
         super(Component.translatable("gui.mmdskin.maid_model_selector"));
@@ -72,7 +80,8 @@ public class MaidModelSelectorScreen extends Screen {
         // 添加默认选项（使用原版渲染）
         modelCards.add(new ModelCardEntry(UIConstants.DEFAULT_MODEL_NAME, null));
         
-        // 使用 ModelInfo 扫描所有模型
+        // 模型目录索引（不阻塞；扫描未完成或目录变化时由 tick 刷新）
+        catalogVersion = ModelCatalog.getVersion();
         List<ModelInfo> models = ModelInfo.scanModels();
         for (ModelInfo info : models) {
             modelCards.add(new ModelCardEntry(info.getFolderName(), info));
@@ -111,6 +120,8 @@ public class MaidModelSelectorScreen extends Screen {
     }
 
     private void refreshModels() {
+        // 后台重扫，完成后由 tick 再次刷新
+        ModelInfo.invalidateCache();
         loadAvailableModels();
         scrollOffset = 0;
         this.clearWidgets();
@@ -118,6 +129,17 @@ public class MaidModelSelectorScreen extends Screen {
         logger.info("女仆模型列表已刷新");
     }
 
+    @Override
+    public void tick() {
+        super.tick();
+        // 目录索引已更新（首次扫描完成、重扫或文件变化）：刷新列表，保留滚动位置
+        if (catalogVersion != ModelCatalog.getVersion()) {
+            loadAvailableModels();
+            this.clearWidgets();
+            this.init();
+        }
+    }
+
     private void selectModel(ModelCardEntry card) {
         this.currentModel = card.displayName;
         
@@ -151,6 +173,9 @@ public class MaidModelSelectorScreen extends Screen {
         // 滚动条
         renderScrollbar(guiGraphics);
         
+        // 悬停条目的缩略图
+        renderHoveredThumbnail(guiGraphics);
+        
         super.render(guiGraphics, mouseX, mouseY, partialTick);
     }
 
@@ -165,7 +190,9 @@ public class MaidModelSelectorScreen extends Screen {
         guiGraphics.drawCenteredString(this.font, maidInfo, cx, panelY + 16, COLOR_TEXT_DIM);
         
         // 统计
-        String info = (modelCards.size() - 1) + " 模型 · " + truncate(currentModel, 10);
+        String info = ModelCatalog.isReady()
+            ? (modelCards.size() - 1) + " 模型 · " + truncate(currentModel, 10)
+            : "扫描中... (" + (modelCards.size() - 1) + ")";
         guiGraphics.drawCenteredString(this.font, info, cx, panelY + 28, COLOR_TEXT_DIM);
         
         // 分隔线
@@ -183,6 +210,11 @@ public class MaidModelSelectorScreen extends Screen {
             
             if (itemY + ITEM_HEIGHT < listTop || itemY > listBottom) continue;
             
+            // 可见条目提前请求缩略图，悬停时即可显示
+            if (card.modelInfo != null) {
+                ModelThumbnailManager.getTexture(card.modelInfo);
+            }
+            
             int itemX = panelX + 6;
             int itemW = PANEL_WIDTH - 12;
             boolean isSelected = card.displayName.equals(currentModel);
@@ -191,6 +223,7 @@ public class MaidModelSelectorScreen extends Screen {
             
             if (isHovered) {
                 hoveredCardIndex = i;
+                hoveredItemY = itemY;
             }
             
             renderItem(guiGraphics, card, itemX, itemY, itemW, isSelected, isHovered);
@@ -237,6 +270,29 @@ public class MaidModelSelectorScreen extends Screen {
         guiGraphics.fill(barX, thumbY, barX + 2, thumbY + thumbH, COLOR_ACCENT);
     }
 
+    /**
+     * 在面板左侧显示悬停模型的缩略图（后台生成，无需加载模型）
+     */
+    private void renderHoveredThumbnail(GuiGraphics guiGraphics) {
+        if (hoveredCardIndex < 0 || hoveredCardIndex >= modelCards.size()) return;
+        ModelInfo info = modelCards.get(hoveredCardIndex).modelInfo;
+        if (info == null) return;
+        
+        int size = THUMBNAIL_PREVIEW_SIZE;
+        int x = panelX - size - 6;
+        int y = Math.max(PANEL_MARGIN, Math.min(this.height - size - PANEL_MARGIN,
+            hoveredItemY + ITEM_HEIGHT / 2 - size / 2));
+        guiGraphics.fill(x - 1, y - 1, x + size + 1, y + size + 1, COLOR_PANEL_BORDER);
+        guiGraphics.fill(x, y, x + size, y + size, COLOR_PANEL_BG);
+        
+        int texture = ModelThumbnailManager.getTexture(info);
+        if (texture != 0) {
+            ModelPreviewRenderer.blitTexture(texture, x, y, size, size, false);
+        } else {
+            guiGraphics.drawCenteredString(this.font, "...", x + size / 2, y + size / 2 - 4, COLOR_TEXT_DIM);
+        }
+    }
+
     @Override
     public boolean mouseClicked(double mouseX, double mouseY, int button) {
         if (button == 0 && hoveredCardIndex >= 0 && hoveredCardIndex < modelCards.size()) {
@@ -265,6 +321,12 @@ public class MaidModelSelectorScreen extends Screen {
         return super.keyPressed(keyCode, scanCode, modifiers);
     }
 
+    @Override
+    public void removed() {
+        super.removed();
+        ModelThumbnailManager.releaseTextures();
+    }
+
     @Override
     public boolean isPauseScreen() {
         return false;
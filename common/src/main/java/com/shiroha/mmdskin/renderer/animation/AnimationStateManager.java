@@ -1,6 +1,8 @@
 package com.shiroha.mmdskin.renderer.animation;
 
 import com.shiroha.mmdskin.renderer.core.EntityAnimState;
+import com.shiroha.mmdskin.renderer.core.ItemKeyCache;
+import com.shiroha.mmdskin.renderer.core.ItemKeyCache.HandState;
 import com.shiroha.mmdskin.renderer.model.MMDModelManager.ModelWithEntityData;
 import net.minecraft.client.player.AbstractClientPlayer;
 import net.minecraft.world.InteractionHand;
@@ -114,21 +116,51 @@ public class AnimationStateManager {
     }
     
     private static void updateHandAnimation(AbstractClientPlayer player, ModelWithEntityData model) {
-        if (player.getUsedItemHand() == InteractionHand.MAIN_HAND && player.isUsingItem()) {
-            String itemId = getItemId(player, InteractionHand.MAIN_HAND);
-            applyCustomItemAnimation(model, EntityAnimState.State.ItemRight, itemId, "Right", "using", 1);
-        } else if (player.swingingArm == InteractionHand.MAIN_HAND && player.swinging) {
-            String itemId = getItemId(player, InteractionHand.MAIN_HAND);
-            applyCustomItemAnimation(model, EntityAnimState.State.SwingRight, itemId, "Right", "swinging", 1);
-        } else if (player.getUsedItemHand() == InteractionHand.OFF_HAND && player.isUsingItem()) {
-            String itemId = getItemId(player, InteractionHand.OFF_HAND);
-            applyCustomItemAnimation(model, EntityAnimState.State.ItemLeft, itemId, "Left", "using", 1);
-        } else if (player.swingingArm == InteractionHand.OFF_HAND && player.swinging) {
-            String itemId = getItemId(player, InteractionHand.OFF_HAND);
-            applyCustomItemAnimation(model, EntityAnimState.State.SwingLeft, itemId, "Left", "swinging", 1);
+        EntityAnimState.State state = selectHandState(player.getUsedItemHand(), player.isUsingItem(),
+            player.swingingArm, player.swinging);
+        if (state != null) {
+            ItemKeyCache.Keys keys = ItemKeyCache.get(player, handOf(state));
+            applyCustomItemAnimation(model, state, handAnimKey(keys, state), 1);
         }
     }
     
+    /**
+     * 选择手持物品动画状态（每帧调用，不分配）
+     * 优先级：主手使用 > 主手挥动 > 副手使用 > 副手挥动
+     *
+     * @return ItemRight / SwingRight / ItemLeft / SwingLeft，没有手部动作时返回 null
+     */
+    public static EntityAnimState.State selectHandState(InteractionHand usedHand, boolean usingItem,
+                                                        InteractionHand swingingArm, boolean swinging) {
+        if (usedHand == InteractionHand.MAIN_HAND && usingItem) {
+            return EntityAnimState.State.ItemRight;
+        } else if (swingingArm == InteractionHand.MAIN_HAND && swinging) {
+            return EntityAnimState.State.SwingRight;
+        } else if (usedHand == InteractionHand.OFF_HAND && usingItem) {
+            return EntityAnimState.State.ItemLeft;
+        } else if (swingingArm == InteractionHand.OFF_HAND && swinging) {
+            return EntityAnimState.State.SwingLeft;
+        }
+        return null;
+    }
+    
+    /**
+     * 手部动画状态对应的手
+     */
+    public static InteractionHand handOf(EntityAnimState.State state) {
+        return state == EntityAnimState.State.ItemLeft || state == EntityAnimState.State.SwingLeft
+            ? InteractionHand.OFF_HAND : InteractionHand.MAIN_HAND;
+    }
+    
+    /**
+     * 手部动画状态对应的动画名（itemActive_物品_手_状态，由 {@link ItemKeyCache} 预先拼好）
+     */
+    public static String handAnimKey(ItemKeyCache.Keys keys, EntityAnimState.State state) {
+        HandState handState = state == EntityAnimState.State.ItemRight || state == EntityAnimState.State.ItemLeft
+            ? HandState.USING : HandState.SWINGING;
+        return keys.animKey(handOf(state), handState);
+    }
+    
     private static void updateLayer2Animation(AbstractClientPlayer player, ModelWithEntityData model) {
         if (player.isShiftKeyDown() && !player.isVisuallyCrawling()) {
             changeAnimationOnce(model, EntityAnimState.State.Sneak, 2);
@@ -148,10 +180,12 @@ public class AnimationStateManager {
         }
     }
     
+    /**
+     * @param animKey 动画名（由 {@link ItemKeyCache} 预先拼好）
+     */
     private static void applyCustomItemAnimation(ModelWithEntityData model, EntityAnimState.State targetState, 
-                                                  String itemName, String activeHand, String handState, int layer) {
-        long anim = MMDAnimManager.GetAnimModel(model.model, 
-            String.format("itemActive_%s_%s_%s", itemName, activeHand, handState));
+                                                  String animKey, int layer) {
+        long anim = MMDAnimManager.GetAnimModel(model.model, animKey);
         
         if (anim != 0) {
             if (model.entityData.stateLayers[layer] != targetState) {
@@ -167,9 +201,4 @@ public class AnimationStateManager {
             changeAnimationOnce(model, EntityAnimState.State.SwingLeft, layer);
         }
     }
-    
-    private static String getItemId(AbstractClientPlayer player, InteractionHand hand) {
-        String descriptionId = player.getItemInHand(hand).getItem().getDescriptionId();
-        return descriptionId.substring(descriptionId.indexOf(".") + 1);
-    }
 }
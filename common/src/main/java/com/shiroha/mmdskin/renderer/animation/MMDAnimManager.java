@@ -3,6 +3,7 @@ package com.shiroha.mmdskin.renderer.animation;
 import com.shiroha.mmdskin.NativeFunc;
 import com.shiroha.mmdskin.config.PathConstants;
 import com.shiroha.mmdskin.renderer.core.IMMDModel;
+import com.shiroha.mmdskin.renderer.core.MMDJfrEvents;
 import java.io.File;
 import java.util.Map;
 import java.util.Set;
@@ -27,7 +28,7 @@ public class MMDAnimManager {
     public static final Logger logger = LogManager.getLogger();
     static NativeFunc nf;
     static Map<String, Long> animStatic; // 线程安全
-    static Map<IMMDModel, Map<String, Long>> animModel; // 线程安全
+    static Map<IMMDModel, ModelAnims> animModel; // 线程安全
     
     // 动画文件目录（延迟初始化）
     static String defaultAnimDir;
@@ -70,18 +71,57 @@ public class MMDAnimManager {
         }
     }
 
+    /**
+     * 单个模型的动画缓存：动画名 -> 句柄，以及近期确认不存在的动画
+     *
+     * 每帧按动画名查询（挥手、使用物品等），命中与近期缺失都只查表：动画名由调用方预先拼好，
+     * 查询本身不分配、不访问磁盘。
+     */
+    public static final class ModelAnims {
+        /** 查询结果：需要查找动画文件 */
+        public static final long NOT_CACHED = -1;
+        /** 缺失的动画在该时间后才重新查找文件 */
+        static final long MISSING_RETRY_INTERVAL_MS = 5_000;
+
+        private final Map<String, Long> loaded = new ConcurrentHashMap<>();
+        /** 动画名 -> 允许重新查找的时间 */
+        private final Map<String, Long> missingUntil = new ConcurrentHashMap<>();
+
+        /**
+         * 查询缓存
+         *
+         * @return 已加载的句柄；近期确认缺失返回 0；未缓存返回 {@link #NOT_CACHED}
+         */
+        public long lookup(String animName, long now) {
+            Long cached = loaded.get(animName);
+            if (cached != null) {
+                return cached;
+            }
+            Long retryAt = missingUntil.get(animName);
+            return retryAt != null && now < retryAt ? 0 : NOT_CACHED;
+        }
+
+        public void putLoaded(String animName, long anim) {
+            loaded.put(animName, anim);
+            missingUntil.remove(animName);
+        }
+
+        public void markMissing(String animName, long now) {
+            missingUntil.put(animName, now + MISSING_RETRY_INTERVAL_MS);
+        }
+    }
+
     public static void AddModel(IMMDModel model) {
-        animModel.put(model, new ConcurrentHashMap<>()); // 线程安全
+        animModel.put(model, new ModelAnims()); // 线程安全
     }
 
     public static void DeleteModel(IMMDModel model) {
-        Map<String, Long> sub = animModel.get(model);
-        if (sub != null) {
-            for (Long i : sub.values()) {
+        ModelAnims anims = animModel.remove(model);
+        if (anims != null) {
+            for (Long i : anims.loaded.values()) {
                 nf.DeleteAnimation(i);
             }
         }
-        animModel.remove(model);
     }
 
     /**
@@ -89,12 +129,11 @@ public class MMDAnimManager {
      * 加载优先级：模型目录 > CustomAnim > DefaultAnim
      */
     public static long GetAnimModel(IMMDModel model, String animName) {
-        // 尝试从缓存获取
-        Map<String, Long> sub = animModel.get(model);
-        if (sub == null) return 0;
-        String cacheKey = animName;
-        Long cached = sub.get(cacheKey);
-        if (cached != null) {
+        // 尝试从缓存获取（含近期确认缺失的动画）
+        ModelAnims anims = animModel.get(model);
+        if (anims == null) return 0;
+        long cached = anims.lookup(animName, System.currentTimeMillis());
+        if (cached != ModelAnims.NOT_CACHED) {
             return cached;
         }
         
@@ -105,7 +144,7 @@ public class MMDAnimManager {
         // 1. 优先从模型目录加载
         String modelDirFile = GetAnimationFilename(model.GetModelDir(), animName);
         if (new File(modelDirFile).exists()) {
-            anim = nf.LoadAnimation(model.GetModelLong(), modelDirFile);
+            anim = loadAnimation(model, animName, modelDirFile);
             if (anim != 0) {
                 loadedFrom = "模型目录";
             }
@@ -115,7 +154,7 @@ public class MMDAnimManager {
         if (anim == 0) {
             String customFile = GetAnimationFilename(customAnimDir, animName);
             if (new File(customFile).exists()) {
-                anim = nf.LoadAnimation(model.GetModelLong(), customFile);
+                anim = loadAnimation(model, animName, customFile);
                 if (anim != 0) {
                     loadedFrom = "自定义目录";
                 }
@@ -126,7 +165,7 @@ public class MMDAnimManager {
         if (anim == 0) {
             String defaultFile = GetAnimationFilename(defaultAnimDir, animName);
             if (new File(defaultFile).exists()) {
-                anim = nf.LoadAnimation(model.GetModelLong(), defaultFile);
+                anim = loadAnimation(model, animName, defaultFile);
                 if (anim != 0) {
                     loadedFrom = "默认目录";
                 }
@@ -135,9 +174,10 @@ public class MMDAnimManager {
         
         // 记录加载结果
         if (anim != 0) {
-            sub.put(cacheKey, anim);
+            anims.putLoaded(animName, anim);
             logger.info("加载动画 '{}' 成功，来源: {}", animName, loadedFrom);
         } else {
+            anims.markMissing(animName, System.currentTimeMillis());
             if (warnedAnimations.add(animName)) {
                 logger.warn("未找到动画文件: {}", animName);
             }
@@ -146,6 +186,25 @@ public class MMDAnimManager {
         return anim;
     }
 
+    /**
+     * 加载单个 VMD 文件并记录 JFR 事件
+     */
+    private static long loadAnimation(IMMDModel model, String animName, String filename) {
+        MMDJfrEvents.AnimationLoad event = new MMDJfrEvents.AnimationLoad();
+        event.begin();
+        long anim = nf.LoadAnimation(model.GetModelLong(), filename);
+        event.end();
+        if (event.shouldCommit()) {
+            event.animation = animName;
+            event.file = filename;
+            event.modelName = new File(model.GetModelDir()).getName();
+            event.bytes = new File(filename).length();
+            event.success = anim != 0;
+            event.commit();
+        }
+        return anim;
+    }
+
     /**
      * 构建动画文件路径
      */
@@ -38,6 +38,12 @@ public class MMDCameraController {
     private static final float MMD_TO_MC_SCALE = 0.09f;
     // VMD 30fps
     private static final float VMD_FPS = 30.0f;
+    // 时间轴与音频偏差超过该帧数时直接对齐（约 0.5 秒）
+    private static final float AUDIO_RESYNC_FRAMES = 15.0f;
+    // 每秒向音频位置收敛的误差比例
+    private static final float AUDIO_DRIFT_CORRECTION_RATE = 2.0f;
+    // 模型动作层与时间轴偏差超过该帧数时跳转
+    private static final float MODEL_RESYNC_FRAMES = 2.0f;
     
     // 状态机
     private enum StageState { INACTIVE, INTRO, STANDBY, PLAYING, OUTRO }
@@ -66,6 +72,11 @@ public class MMDCameraController {
     // 模型句柄（用于禁用/恢复自动行为）
     private long modelHandle = 0;
     
+    // 已准备的舞台资源（持有动作/相机句柄，结束时释放）
+    private StagePreparer.PreparedStage preparedStage = null;
+    // 烘焙舞台句柄（0 表示实时求值，结束时释放）
+    private long bakedStage = 0;
+    
     // 音频播放器
     private final StageAudioPlayer audioPlayer = new StageAudioPlayer();
     
@@ -167,33 +178,50 @@ public class MMDCameraController {
     }
     
     /**
-     * 启动 VMD 播放（由 StageSelectScreen.startStage() 调用）
+     * 启动 VMD 播放（由 StageSelectScreen 在舞台准备完成后调用）
      * 从 STANDBY 或 INTRO 状态切换到 PLAYING
+     * 
+     * @param stage 已完成准备的舞台，调用后所有权转移给控制器（失败时也会释放）
+     * @param bakedStage 已挂载到模型的烘焙舞台（0 表示实时求值），所有权同样转移给控制器
      */
-    public void startStage(long motionAnim, long cameraAnim, boolean cinematic, 
-                           long modelHandle, String modelName, String audioPath, float heightOffset) {
-        if (state != StageState.STANDBY && state != StageState.INTRO) return;
-        
+    public void startStage(StagePreparer.PreparedStage stage, long bakedStage, boolean cinematic, 
+                           long modelHandle, String modelName, float heightOffset) {
         NativeFunc nf = NativeFunc.GetInst();
+        if (state != StageState.STANDBY && state != StageState.INTRO) {
+            stage.release();
+            if (bakedStage != 0) nf.DeleteBakedStage(bakedStage);
+            return;
+        }
         
+        long motionAnim = stage.getMotionAnim();
+        long cameraAnim = stage.getCameraAnim();
         this.motionAnimHandle = motionAnim;
+        this.bakedStage = bakedStage;
         
         // 确定相机数据来源
-        if (cameraAnim != 0 && nf.HasCameraData(cameraAnim)) {
+        if (bakedStage != 0 && nf.BakedStageHasCamera(bakedStage)) {
+            this.cameraAnimHandle = cameraAnim != 0 ? cameraAnim : motionAnim;
+        } else if (cameraAnim != 0 && nf.HasCameraData(cameraAnim)) {
             this.cameraAnimHandle = cameraAnim;
         } else if (motionAnim != 0 && nf.HasCameraData(motionAnim)) {
             this.cameraAnimHandle = motionAnim;
         } else {
             logger.warn("[舞台模式] 没有可用的相机数据");
+            this.motionAnimHandle = 0;
+            this.preparedStage = stage;
+            releasePreparedStage();
             return;
         }
+        this.preparedStage = stage;
         
-        this.maxFrame = nf.GetAnimMaxFrame(this.cameraAnimHandle);
+        boolean bakedCamera = bakedStage != 0 && nf.BakedStageHasCamera(bakedStage);
+        this.maxFrame = bakedCamera ? nf.GetBakedStageMaxFrame(bakedStage) : nf.GetAnimMaxFrame(this.cameraAnimHandle);
         this.currentFrame = 0.0f;
         this.cinematicMode = cinematic;
         this.cameraHeightOffset = heightOffset;
         this.modelName = modelName;
         this.cameraData.setAnimHandle(this.cameraAnimHandle);
+        this.cameraData.setBakedStage(bakedCamera ? bakedStage : 0);
         
         // 影院模式：隐藏 HUD
         if (cinematic) {
@@ -209,13 +237,14 @@ public class MMDCameraController {
             nf.SetEyeTrackingEnabled(modelHandle, false);
         }
         
-        // 加载并播放音频（与动作同步）
-        if (audioPath != null && !audioPath.isEmpty()) {
-            if (audioPlayer.load(audioPath)) {
+        // 绑定已在后台预缓冲的音频流并播放（之后作为时间轴主时钟）
+        StageAudioPlayer.AudioStream audio = stage.takeAudio();
+        if (audio != null) {
+            if (audioPlayer.load(audio)) {
                 audioPlayer.play();
-                logger.info("[舞台模式] 音频已加载并开始播放: {}", audioPath);
+                logger.info("[舞台模式] 音频已加载并开始播放: {}", audio.getPath());
             } else {
-                logger.warn("[舞台模式] 音频加载失败: {}", audioPath);
+                logger.warn("[舞台模式] 音频加载失败: {}", audio.getPath());
             }
         }
         
@@ -225,7 +254,7 @@ public class MMDCameraController {
         this.lastEscTimeNs = 0;
         this.mouseReleased = false;
         
-        logger.info("[舞台模式] 开始播放: 相机帧={}, 影院={}, 模型={}, 音频={}, 高度偏移={}", maxFrame, cinematic, modelHandle, audioPath != null, cameraHeightOffset);
+        logger.info("[舞台模式] 开始播放: 相机帧={}, 影院={}, 模型={}, 音频={}, 高度偏移={}, 烘焙={}", maxFrame, cinematic, modelHandle, audio != null, cameraHeightOffset, bakedStage != 0);
     }
     
     /**
@@ -258,13 +287,8 @@ public class MMDCameraController {
             nf.SetEyeTrackingEnabled(this.modelHandle, true);
         }
         
-        // 清理动画句柄
-        if (this.motionAnimHandle != 0) {
-            nf.DeleteAnimation(this.motionAnimHandle);
-        }
-        if (this.cameraAnimHandle != 0 && this.cameraAnimHandle != this.motionAnimHandle) {
-            nf.DeleteAnimation(this.cameraAnimHandle);
-        }
+        // 释放舞台资源（动作句柄可能仍被远程玩家共享，由引用计数决定是否删除）
+        releasePreparedStage();
         
         this.cameraAnimHandle = 0;
         this.motionAnimHandle = 0;
@@ -314,12 +338,7 @@ public class MMDCameraController {
                 nf.SetAutoBlinkEnabled(this.modelHandle, true);
                 nf.SetEyeTrackingEnabled(this.modelHandle, true);
             }
-            if (this.motionAnimHandle != 0) {
-                nf.DeleteAnimation(this.motionAnimHandle);
-            }
-            if (this.cameraAnimHandle != 0 && this.cameraAnimHandle != this.motionAnimHandle) {
-                nf.DeleteAnimation(this.cameraAnimHandle);
-            }
+            releasePreparedStage();
         }
         
         // 恢复鼠标状态
@@ -347,6 +366,19 @@ public class MMDCameraController {
         logger.info("[舞台模式] 退出舞台模式");
     }
     
+    private void releasePreparedStage() {
+        if (this.preparedStage != null) {
+            this.preparedStage.release();
+            this.preparedStage = null;
+        }
+        if (this.bakedStage != 0) {
+            // 模型随后重载，挂载的烘焙数据随旧模型一起释放
+            NativeFunc.GetInst().DeleteBakedStage(this.bakedStage);
+            this.bakedStage = 0;
+            this.cameraData.setBakedStage(0);
+        }
+    }
+    
     // ==================== 过渡计算 ====================
     
     /**
@@ -452,7 +484,8 @@ public class MMDCameraController {
         lastTickTimeNs = now;
         deltaTime = Math.min(deltaTime, 0.1f);
         
-        currentFrame += deltaTime * VMD_FPS * playbackSpeed;
+        advanceFrame(deltaTime);
+        syncModelFrame();
         
         // 播放完毕 → OUTRO
         if (currentFrame >= maxFrame) {
@@ -483,6 +516,45 @@ public class MMDCameraController {
         cameraFov = cameraData.getFov();
     }
     
+    /**
+     * 推进时间轴
+     * 有音频时以音频样本位置为主时钟：每帧按真实时间预测，再按误差比例向音频位置收敛，
+     * 既消除长时间播放的累计漂移，又不会因 AL 偏移量更新粒度产生抖动；偏差过大（卡顿）时直接对齐。
+     * 解码欠载时暂停推进；音频播完或变速播放时退回真实时间。
+     */
+    private void advanceFrame(float deltaTime) {
+        float predicted = currentFrame + deltaTime * VMD_FPS * playbackSpeed;
+        
+        audioPlayer.update();
+        if (!audioPlayer.isLoaded() || audioPlayer.isFinished() || playbackSpeed != 1.0f) {
+            currentFrame = predicted;
+            return;
+        }
+        if (audioPlayer.isStarved()) {
+            return;
+        }
+        
+        float audioFrame = audioPlayer.getPlaybackPosition() * VMD_FPS;
+        float error = audioFrame - predicted;
+        if (Math.abs(error) > AUDIO_RESYNC_FRAMES) {
+            currentFrame = audioFrame;
+        } else {
+            currentFrame = predicted + error * Math.min(1.0f, deltaTime * AUDIO_DRIFT_CORRECTION_RATE);
+        }
+    }
+    
+    /**
+     * 将模型动作层对齐到时间轴（模型按自身 deltaTime 推进，长时间后会与相机/音频错开）
+     */
+    private void syncModelFrame() {
+        if (modelHandle == 0) return;
+        NativeFunc nf = NativeFunc.GetInst();
+        float modelFrame = nf.GetLayerFrame(modelHandle, 0);
+        if (Math.abs(modelFrame - currentFrame) > MODEL_RESYNC_FRAMES) {
+            nf.SeekLayer(modelHandle, 0, currentFrame);
+        }
+    }
+    
     /**
      * OUTRO 阶段：从 VMD 最后一帧平滑过渡回待机展示位置
      */
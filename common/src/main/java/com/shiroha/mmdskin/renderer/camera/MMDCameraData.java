@@ -9,6 +9,7 @@ import java.nio.ByteOrder;
 /**
  * MMD 相机数据
  * 从 Rust 端通过 JNI 获取 CameraFrameTransform，提供位置/旋转/FOV 访问
+ * 设置了烘焙舞台时读取烘焙的相机轨道（与实时求值的结果相同，只是查表）
  */
 public class MMDCameraData {
     
@@ -23,6 +24,8 @@ public class MMDCameraData {
     
     // 动画句柄
     private long animHandle;
+    // 烘焙舞台句柄（非 0 时优先使用）
+    private long bakedStage;
     
     public MMDCameraData() {
         this.buffer = ByteBuffer.allocateDirect(32).order(ByteOrder.nativeOrder());
@@ -35,14 +38,25 @@ public class MMDCameraData {
         this.animHandle = animHandle;
     }
     
+    /**
+     * 设置烘焙舞台句柄（0 表示使用动画句柄实时求值）
+     */
+    public void setBakedStage(long bakedStage) {
+        this.bakedStage = bakedStage;
+    }
+    
     /**
      * 更新相机数据（每帧调用）
      * @param frame 当前浮点帧数
      */
     public void update(float frame) {
-        if (animHandle == 0) return;
-        
-        NativeFunc.GetInst().GetCameraTransform(animHandle, frame, buffer);
+        if (bakedStage != 0) {
+            NativeFunc.GetInst().GetBakedCameraTransform(bakedStage, frame, buffer);
+        } else if (animHandle != 0) {
+            NativeFunc.GetInst().GetCameraTransform(animHandle, frame, buffer);
+        } else {
+            return;
+        }
         
         buffer.rewind();
         float px = buffer.getFloat();
@@ -6,157 +6,229 @@ import org.apache.logging.log4j.Logger;
 import org.lwjgl.openal.AL10;
 import org.lwjgl.openal.AL11;
 import org.lwjgl.stb.STBVorbis;
+import org.lwjgl.stb.STBVorbisInfo;
 import org.lwjgl.system.MemoryStack;
-import org.lwjgl.system.MemoryUtil;
 
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import java.io.*;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
-import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * 舞台模式音频播放器
  * 使用 OpenAL 播放音频，支持 MP3 (JLayer) / OGG (STB Vorbis) / WAV (Java Sound) 三种格式。
- * 
+ *
  * 设计要点：
- * - 全量解码到 PCM 后上传 OpenAL Buffer，保证帧同步可靠性
- * - 与 MMDCameraController 的 PLAYING 状态联动（play/pause/stop）
+ * - 流式解码：后台线程逐块解码为 16-bit PCM，放入有界队列（约 2 秒），不再整首解码到堆内存
+ * - 渲染线程每帧 {@link #update()} 回收已播放的 OpenAL Buffer 并补充新块（Buffer 队列流式播放）
+ * - 播放位置 = 已出队 Buffer 的样本数 + AL_SAMPLE_OFFSET，作为舞台时间轴的主时钟
+ * - 解码（open）可在后台线程与 VMD 加载并行进行，打开后即开始预解码
  * - 通过独立 OpenAL Source 播放，不干扰 MC 自身的音频系统
  */
 public class StageAudioPlayer {
     private static final Logger logger = LogManager.getLogger();
-    
+
+    /** 每块 PCM 时长（秒） */
+    private static final float CHUNK_SECONDS = 0.25f;
+    /** 解码队列中的块数（决定预解码时长） */
+    private static final int DECODE_AHEAD_CHUNKS = 8;
+    /** 同时排队在 Source 上的 OpenAL Buffer 数 */
+    private static final int AL_BUFFER_COUNT = 4;
+
     // OpenAL 资源
-    private int alBuffer = 0;
+    private final int[] alBuffers = new int[AL_BUFFER_COUNT];
+    private final ArrayDeque<Integer> idleBuffers = new ArrayDeque<>();
+    /** 已排队 Buffer 的样本数（按排队顺序） */
+    private final ArrayDeque<Integer> queuedSamples = new ArrayDeque<>();
     private int alSource = 0;
+    private int alFormat = 0;
     private boolean initialized = false;
-    
-    // 音频信息
-    private String audioPath = null;
-    private float durationSeconds = 0.0f;
-    
+
+    // 流状态
+    private AudioStream stream = null;
+    private long playedSamples = 0;
+    private boolean playRequested = false;
+
     // 音量（0.0 ~ 1.0）
     private float volume = 1.0f;
-    
+
     /**
-     * 加载音频文件（全量解码到 PCM → 上传 OpenAL Buffer）
+     * 打开音频文件并开始后台流式解码（同步版本，用于直接播放）
      * 支持 .mp3 / .ogg / .wav
-     * 
+     *
      * @param filePath 音频文件绝对路径
      * @return true 加载成功
      */
     public boolean load(String filePath) {
-        // 先清理上一次
-        cleanup();
-        
-        if (filePath == null || filePath.isEmpty()) return false;
-        
+        return load(open(filePath));
+    }
+
+    /**
+     * 打开音频文件并启动后台解码线程（不涉及 OpenAL，可在任意线程调用）
+     *
+     * @param filePath 音频文件绝对路径
+     * @return 音频流，失败返回 null；未交给 {@link #load(AudioStream)} 时需调用 {@link AudioStream#close()}
+     */
+    public static AudioStream open(String filePath) {
+        if (filePath == null || filePath.isEmpty()) return null;
+
         File file = new File(filePath);
         if (!file.exists()) {
             logger.warn("[StageAudio] 文件不存在: {}", filePath);
-            return false;
+            return null;
         }
-        
+
         String ext = getExtension(filePath).toLowerCase();
-        
-        PcmData pcm;
+
+        PcmSource source;
         try {
             switch (ext) {
                 case "mp3":
-                    pcm = decodeMp3(file);
+                    source = new Mp3Source(file);
                     break;
                 case "ogg":
-                    pcm = decodeOgg(file);
+                    source = new OggSource(file);
                     break;
                 case "wav":
-                    pcm = decodeWav(file);
+                    source = new WavSource(file);
                     break;
                 default:
                     logger.warn("[StageAudio] 不支持的音频格式: {}", ext);
-                    return false;
+                    return null;
             }
         } catch (Exception e) {
-            logger.error("[StageAudio] 解码失败: {} - {}", filePath, e.getMessage());
-            return false;
+            logger.error("[StageAudio] 打开失败: {} - {}", filePath, e.getMessage());
+            return null;
         }
-        
-        if (pcm == null || pcm.data == null || pcm.data.limit() == 0) {
-            logger.warn("[StageAudio] 解码结果为空: {}", filePath);
-            return false;
-        }
-        
-        // 确定 OpenAL 格式
-        int alFormat = getAlFormat(pcm.channels, pcm.bitsPerSample);
-        if (alFormat == 0) {
-            logger.error("[StageAudio] 不支持的 PCM 格式: ch={}, bits={}", pcm.channels, pcm.bitsPerSample);
-            MemoryUtil.memFree(pcm.data);
-            return false;
+
+        if (source.channels() < 1 || source.channels() > 2 || source.sampleRate() <= 0) {
+            logger.error("[StageAudio] 不支持的 PCM 格式: ch={}, rate={}", source.channels(), source.sampleRate());
+            source.close();
+            return null;
         }
-        
-        // 创建 OpenAL Buffer 和 Source
-        alBuffer = AL10.alGenBuffers();
-        AL10.alBufferData(alBuffer, alFormat, pcm.data, pcm.sampleRate);
-        
+
+        AudioStream stream = new AudioStream(filePath, source);
+        stream.start();
+        return stream;
+    }
+
+    /**
+     * 绑定音频流到 OpenAL Source（需在渲染线程调用）
+     * 无论成功与否，stream 的所有权都转移给播放器
+     *
+     * @param stream {@link #open(String)} 的结果
+     * @return true 加载成功
+     */
+    public boolean load(AudioStream stream) {
+        // 先清理上一次
+        cleanup();
+
+        if (stream == null) return false;
+
+        alFormat = stream.channels == 1 ? AL10.AL_FORMAT_MONO16 : AL10.AL_FORMAT_STEREO16;
+
+        AL10.alGenBuffers(alBuffers);
+        alSource = AL10.alGenSources();
         int err = AL10.alGetError();
         if (err != AL10.AL_NO_ERROR) {
-            logger.error("[StageAudio] alBufferData 错误: 0x{}", Integer.toHexString(err));
-            AL10.alDeleteBuffers(alBuffer);
-            alBuffer = 0;
-            MemoryUtil.memFree(pcm.data);
+            logger.error("[StageAudio] 创建 OpenAL 资源失败: 0x{}", Integer.toHexString(err));
+            this.stream = stream;
+            cleanup();
             return false;
         }
-        
-        alSource = AL10.alGenSources();
-        AL10.alSourcei(alSource, AL10.AL_BUFFER, alBuffer);
+
+        for (int buffer : alBuffers) {
+            idleBuffers.add(buffer);
+        }
         AL10.alSourcef(alSource, AL10.AL_GAIN, volume);
         // 非位置音频（2D播放）
         AL10.alSourcei(alSource, AL10.AL_SOURCE_RELATIVE, AL10.AL_TRUE);
         AL10.alSource3f(alSource, AL10.AL_POSITION, 0, 0, 0);
-        
-        // 计算时长
-        int totalSamples = pcm.data.remaining() / (pcm.channels * (pcm.bitsPerSample / 8));
-        durationSeconds = (float) totalSamples / pcm.sampleRate;
-        
-        // 释放 CPU 端缓冲（已上传到 OpenAL）
-        MemoryUtil.memFree(pcm.data);
-        
-        this.audioPath = filePath;
+
+        this.stream = stream;
+        this.playedSamples = 0;
         this.initialized = true;
-        
-        logger.info("[StageAudio] 加载成功: {} ({}s, {}Hz, {}ch)", 
-                    file.getName(), String.format("%.1f", durationSeconds), pcm.sampleRate, pcm.channels);
+
+        // 先排队已预解码的块，play 后可立即出声
+        refill();
+
+        logger.info("[StageAudio] 流式播放就绪: {} ({}Hz, {}ch)",
+                    new File(stream.path).getName(), stream.sampleRate, stream.channels);
         return true;
     }
-    
+
+    /**
+     * 每帧调用（渲染线程）：回收已播放的 Buffer、补充解码块、欠载后恢复播放
+     */
+    public void update() {
+        if (!initialized) return;
+
+        int processed = AL10.alGetSourcei(alSource, AL10.AL_BUFFERS_PROCESSED);
+        while (processed-- > 0) {
+            int buffer = AL10.alSourceUnqueueBuffers(alSource);
+            Integer samples = queuedSamples.poll();
+            if (samples != null) {
+                playedSamples += samples;
+            }
+            idleBuffers.add(buffer);
+        }
+
+        refill();
+
+        // 解码跟不上时 Source 会自动停止，补充数据后继续
+        if (playRequested && !queuedSamples.isEmpty()
+                && AL10.alGetSourcei(alSource, AL10.AL_SOURCE_STATE) == AL10.AL_STOPPED) {
+            AL10.alSourcePlay(alSource);
+        }
+    }
+
+    private void refill() {
+        while (!idleBuffers.isEmpty()) {
+            ByteBuffer chunk = stream.poll();
+            if (chunk == null) break;
+            int buffer = idleBuffers.poll();
+            AL10.alBufferData(buffer, alFormat, chunk, stream.sampleRate);
+            AL10.alSourceQueueBuffers(alSource, buffer);
+            queuedSamples.add(chunk.remaining() / (2 * stream.channels));
+            stream.recycle(chunk);
+        }
+    }
+
     /**
      * 开始播放
      */
     public void play() {
         if (!initialized) return;
-        AL10.alSourceRewind(alSource);
+        playRequested = true;
         AL10.alSourcePlay(alSource);
     }
-    
+
     /**
      * 停止播放
      */
     public void stop() {
         if (!initialized) return;
+        playRequested = false;
         AL10.alSourceStop(alSource);
     }
-    
+
     /**
      * 暂停播放
      */
     public void pause() {
         if (!initialized) return;
+        playRequested = false;
         AL10.alSourcePause(alSource);
     }
-    
+
     /**
      * 恢复播放
      */
@@ -164,10 +236,11 @@ public class StageAudioPlayer {
         if (!initialized) return;
         int state = AL10.alGetSourcei(alSource, AL10.AL_SOURCE_STATE);
         if (state == AL10.AL_PAUSED) {
+            playRequested = true;
             AL10.alSourcePlay(alSource);
         }
     }
-    
+
     /**
      * 是否正在播放
      */
@@ -175,24 +248,34 @@ public class StageAudioPlayer {
         if (!initialized) return false;
         return AL10.alGetSourcei(alSource, AL10.AL_SOURCE_STATE) == AL10.AL_PLAYING;
     }
-    
+
     /**
-     * 获取当前播放位置（秒）
+     * 是否因解码跟不上而暂时无声（时间轴应暂停推进）
      */
-    public float getPlaybackPosition() {
-        if (!initialized) return 0.0f;
-        return AL10.alGetSourcef(alSource, AL11.AL_SEC_OFFSET);
+    public boolean isStarved() {
+        return initialized && playRequested && !isFinished() && !isPlaying();
     }
-    
+
     /**
-     * 设置播放位置（秒）
+     * 音频是否已全部播放完毕
      */
-    public void setPlaybackPosition(float seconds) {
-        if (!initialized) return;
-        seconds = Math.max(0, Math.min(seconds, durationSeconds));
-        AL10.alSourcef(alSource, AL11.AL_SEC_OFFSET, seconds);
+    public boolean isFinished() {
+        return initialized && stream.isDrained() && queuedSamples.isEmpty();
     }
-    
+
+    /**
+     * 获取当前播放位置（秒）
+     * 基于样本计数：已出队 Buffer 的样本 + 当前队列内的样本偏移，不受 Buffer 回收影响
+     */
+    public float getPlaybackPosition() {
+        if (!initialized) return 0.0f;
+        long samples = playedSamples;
+        if (!queuedSamples.isEmpty()) {
+            samples += AL10.alGetSourcei(alSource, AL11.AL_SAMPLE_OFFSET);
+        }
+        return (float) ((double) samples / stream.sampleRate);
+    }
+
     /**
      * 设置音量
      * @param vol 0.0 ~ 1.0
@@ -203,223 +286,341 @@ public class StageAudioPlayer {
             AL10.alSourcef(alSource, AL10.AL_GAIN, this.volume);
         }
     }
-    
+
     public float getVolume() {
         return volume;
     }
-    
-    /**
-     * 获取音频时长（秒）
-     */
-    public float getDuration() {
-        return durationSeconds;
-    }
-    
+
     /**
      * 是否已加载
      */
     public boolean isLoaded() {
         return initialized;
     }
-    
+
     /**
      * 获取已加载的音频路径
      */
     public String getAudioPath() {
-        return audioPath;
+        return initialized ? stream.path : null;
     }
-    
+
     /**
-     * 释放所有 OpenAL 资源
+     * 释放所有 OpenAL 资源并停止解码线程
      */
     public void cleanup() {
         if (alSource != 0) {
             AL10.alSourceStop(alSource);
+            AL10.alSourcei(alSource, AL10.AL_BUFFER, 0);
             AL10.alDeleteSources(alSource);
             alSource = 0;
         }
-        if (alBuffer != 0) {
-            AL10.alDeleteBuffers(alBuffer);
-            alBuffer = 0;
+        if (alBuffers[0] != 0) {
+            AL10.alDeleteBuffers(alBuffers);
+            Arrays.fill(alBuffers, 0);
+        }
+        idleBuffers.clear();
+        queuedSamples.clear();
+        if (stream != null) {
+            stream.close();
+            stream = null;
         }
         initialized = false;
-        audioPath = null;
-        durationSeconds = 0.0f;
+        playRequested = false;
+        playedSamples = 0;
     }
-    
-    // ==================== 格式解码 ====================
-    
+
+    // ==================== 流式解码 ====================
+
     /**
-     * 解码后的 PCM 数据
+     * 后台解码中的音频流
+     * 解码线程把 PCM 块放入有界队列，渲染线程取出上传后归还，块在两者间循环复用
      */
-    private static class PcmData {
-        ByteBuffer data;
-        int sampleRate;
-        int channels;
-        int bitsPerSample;
-        
-        PcmData(ByteBuffer data, int sampleRate, int channels, int bitsPerSample) {
-            this.data = data;
-            this.sampleRate = sampleRate;
-            this.channels = channels;
-            this.bitsPerSample = bitsPerSample;
+    public static final class AudioStream {
+        private final String path;
+        private final PcmSource source;
+        private final int sampleRate;
+        private final int channels;
+        private final BlockingQueue<ByteBuffer> filled = new ArrayBlockingQueue<>(DECODE_AHEAD_CHUNKS);
+        private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(DECODE_AHEAD_CHUNKS);
+        private volatile boolean eof = false;
+        private volatile boolean closed = false;
+        private Thread thread;
+
+        private AudioStream(String path, PcmSource source) {
+            this.path = path;
+            this.source = source;
+            this.sampleRate = source.sampleRate();
+            this.channels = source.channels();
+            int chunkBytes = Math.max(4096, (int) (sampleRate * CHUNK_SECONDS) * channels * 2);
+            for (int i = 0; i < DECODE_AHEAD_CHUNKS; i++) {
+                free.add(ByteBuffer.allocateDirect(chunkBytes).order(ByteOrder.nativeOrder()));
+            }
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        private void start() {
+            thread = new Thread(this::decodeLoop, "MMD-StageAudio");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void decodeLoop() {
+            long start = System.currentTimeMillis();
+            try {
+                while (!closed) {
+                    ByteBuffer chunk = free.take();
+                    chunk.clear();
+                    ShortBuffer samples = chunk.asShortBuffer();
+                    while (samples.hasRemaining()) {
+                        if (source.read(samples) < 0) {
+                            eof = true;
+                            break;
+                        }
+                    }
+                    // 只提交完整的采样帧（截断文件末尾可能不足一帧）
+                    chunk.limit((samples.position() - samples.position() % channels) * 2);
+                    if (chunk.hasRemaining()) {
+                        filled.put(chunk);
+                    }
+                    if (eof) break;
+                }
+                logger.debug("[StageAudio] 解码完成 ({}ms): {}", System.currentTimeMillis() - start, path);
+            } catch (InterruptedException ignored) {
+                // close() 中断
+            } catch (Exception e) {
+                logger.error("[StageAudio] 解码失败: {} - {}", path, e.getMessage());
+            } finally {
+                eof = true;
+                source.close();
+            }
+        }
+
+        /**
+         * 等待首批数据解码完成（预缓冲），避免开始播放时欠载
+         */
+        public void awaitPrefill(long timeoutMs) {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            while (!eof && filled.size() < AL_BUFFER_COUNT && System.currentTimeMillis() < deadline) {
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private ByteBuffer poll() {
+            return filled.poll();
+        }
+
+        private void recycle(ByteBuffer chunk) {
+            free.offer(chunk);
+        }
+
+        private boolean isDrained() {
+            return eof && filled.isEmpty();
+        }
+
+        /**
+         * 停止解码线程（重复调用无副作用）
+         */
+        public void close() {
+            closed = true;
+            Thread t = thread;
+            if (t != null) {
+                t.interrupt();
+            }
         }
     }
-    
+
+    /**
+     * 逐块输出 16-bit 交错 PCM 的解码源（仅在解码线程使用）
+     */
+    private interface PcmSource {
+        int sampleRate();
+
+        int channels();
+
+        /**
+         * 写入尽可能多的样本
+         * @return 写入的 short 数，到达结尾返回 -1
+         */
+        int read(ShortBuffer dst) throws Exception;
+
+        void close();
+    }
+
     /**
      * MP3 解码（JLayer）
-     * 逐帧解码为 16-bit PCM
+     * 逐帧解码，帧内未写完的样本留到下一次
      */
-    private PcmData decodeMp3(File file) throws Exception {
-        ByteArrayOutputStream pcmOut = new ByteArrayOutputStream();
-        
-        int sampleRate = 0;
-        int channels = 0;
-        
-        try (FileInputStream fis = new FileInputStream(file)) {
-            Bitstream bitstream = new Bitstream(fis);
-            Decoder decoder = new Decoder();
-            
-            Header header;
-            while ((header = bitstream.readFrame()) != null) {
-                if (sampleRate == 0) {
-                    sampleRate = header.frequency();
-                    channels = header.mode() == Header.SINGLE_CHANNEL ? 1 : 2;
-                }
-                
-                // 解码一帧 → float[] 样本（-1.0 ~ 1.0 范围的 short 值）
+    private static final class Mp3Source implements PcmSource {
+        private final InputStream in;
+        private final Bitstream bitstream;
+        private final Decoder decoder = new Decoder();
+        private Header pending;
+        private short[] frame;
+        private int frameLen = 0;
+        private int framePos = 0;
+        private final int sampleRate;
+        private final int channels;
+
+        Mp3Source(File file) throws Exception {
+            this.in = new BufferedInputStream(new FileInputStream(file));
+            this.bitstream = new Bitstream(in);
+            this.pending = bitstream.readFrame();
+            if (pending == null) {
+                close();
+                throw new IOException("没有可解码的 MP3 帧");
+            }
+            this.sampleRate = pending.frequency();
+            this.channels = pending.mode() == Header.SINGLE_CHANNEL ? 1 : 2;
+        }
+
+        @Override
+        public int sampleRate() { return sampleRate; }
+
+        @Override
+        public int channels() { return channels; }
+
+        @Override
+        public int read(ShortBuffer dst) throws Exception {
+            if (framePos >= frameLen) {
+                Header header = pending != null ? pending : bitstream.readFrame();
+                pending = null;
+                if (header == null) return -1;
                 SampleBuffer output = (SampleBuffer) decoder.decodeFrame(header, bitstream);
-                short[] samples = output.getBuffer();
-                int len = output.getBufferLength();
-                
-                // short[] → byte[]（little-endian 16-bit PCM）
-                for (int i = 0; i < len; i++) {
-                    pcmOut.write(samples[i] & 0xFF);
-                    pcmOut.write((samples[i] >> 8) & 0xFF);
-                }
-                
+                frame = output.getBuffer();
+                frameLen = output.getBufferLength();
+                framePos = 0;
                 bitstream.closeFrame();
             }
-            
-            bitstream.close();
-        }
-        
-        byte[] pcmBytes = pcmOut.toByteArray();
-        if (pcmBytes.length == 0 || sampleRate == 0) return null;
-        
-        ByteBuffer buffer = MemoryUtil.memAlloc(pcmBytes.length);
-        buffer.put(pcmBytes).flip();
-        
-        return new PcmData(buffer, sampleRate, channels, 16);
+            int n = Math.min(dst.remaining(), frameLen - framePos);
+            dst.put(frame, framePos, n);
+            framePos += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+            try {
+                bitstream.close();
+            } catch (Exception ignored) {
+            }
+        }
     }
-    
+
     /**
      * OGG Vorbis 解码（STB Vorbis — LWJGL 内置）
-     * 一次性解码整个文件
+     * 按需从文件拉取样本，直接写入目标缓冲
      */
-    private PcmData decodeOgg(File file) throws Exception {
-        byte[] fileBytes = Files.readAllBytes(file.toPath());
-        ByteBuffer fileBuffer = MemoryUtil.memAlloc(fileBytes.length);
-        fileBuffer.put(fileBytes).flip();
-        
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            IntBuffer channelsBuffer = stack.mallocInt(1);
-            IntBuffer sampleRateBuffer = stack.mallocInt(1);
-            
-            ShortBuffer decoded = STBVorbis.stb_vorbis_decode_memory(
-                fileBuffer, channelsBuffer, sampleRateBuffer
-            );
-            
-            MemoryUtil.memFree(fileBuffer);
-            
-            if (decoded == null) {
-                logger.error("[StageAudio] STB Vorbis 解码失败");
-                return null;
+    private static final class OggSource implements PcmSource {
+        private long handle;
+        private final int sampleRate;
+        private final int channels;
+
+        OggSource(File file) throws IOException {
+            try (MemoryStack stack = MemoryStack.stackPush()) {
+                IntBuffer error = stack.mallocInt(1);
+                handle = STBVorbis.stb_vorbis_open_filename(file.getAbsolutePath(), error, null);
+                if (handle == 0) {
+                    throw new IOException("STB Vorbis 打开失败: " + error.get(0));
+                }
+                STBVorbisInfo info = STBVorbisInfo.malloc(stack);
+                STBVorbis.stb_vorbis_get_info(handle, info);
+                this.sampleRate = info.sample_rate();
+                this.channels = info.channels();
             }
-            
-            int channels = channelsBuffer.get(0);
-            int sampleRate = sampleRateBuffer.get(0);
-            
-            // ShortBuffer → ByteBuffer（16-bit little-endian）
-            ByteBuffer pcmBuffer = MemoryUtil.memAlloc(decoded.remaining() * 2);
-            while (decoded.hasRemaining()) {
-                short s = decoded.get();
-                pcmBuffer.put((byte) (s & 0xFF));
-                pcmBuffer.put((byte) ((s >> 8) & 0xFF));
+        }
+
+        @Override
+        public int sampleRate() { return sampleRate; }
+
+        @Override
+        public int channels() { return channels; }
+
+        @Override
+        public int read(ShortBuffer dst) {
+            int frames = STBVorbis.stb_vorbis_get_samples_short_interleaved(handle, channels, dst);
+            if (frames <= 0) return -1;
+            int n = frames * channels;
+            dst.position(dst.position() + n);
+            return n;
+        }
+
+        @Override
+        public void close() {
+            if (handle != 0) {
+                STBVorbis.stb_vorbis_close(handle);
+                handle = 0;
             }
-            pcmBuffer.flip();
-            
-            // STB 分配的内存需要用 LWJGL free 释放
-            MemoryUtil.memFree(decoded);
-            
-            return new PcmData(pcmBuffer, sampleRate, channels, 16);
         }
     }
-    
+
     /**
      * WAV 解码（Java Sound API）
-     * 读取 PCM 数据（自动处理各种 WAV 子格式）
+     * 统一转换为 16-bit little-endian PCM 后分块读取
      */
-    private PcmData decodeWav(File file) throws Exception {
-        try (AudioInputStream ais = AudioSystem.getAudioInputStream(file)) {
-            AudioFormat fmt = ais.getFormat();
-            
-            // 如果不是 PCM 编码，转换为 PCM
-            AudioFormat targetFmt = fmt;
-            boolean needConvert = fmt.getEncoding() != AudioFormat.Encoding.PCM_SIGNED;
-            AudioInputStream targetAis = needConvert 
-                ? AudioSystem.getAudioInputStream(
-                    new AudioFormat(
-                        AudioFormat.Encoding.PCM_SIGNED,
-                        fmt.getSampleRate(),
-                        16,
-                        fmt.getChannels(),
-                        fmt.getChannels() * 2,
-                        fmt.getSampleRate(),
-                        false // little-endian
-                    ), ais)
-                : ais;
-            
+    private static final class WavSource implements PcmSource {
+        private final AudioInputStream ais;
+        private final byte[] bytes = new byte[16384];
+        private final int sampleRate;
+        private final int channels;
+        /** 上次读取剩余的半个采样（0 或 1 字节，保存在 bytes[0]） */
+        private int pending;
+
+        WavSource(File file) throws Exception {
+            AudioInputStream raw = AudioSystem.getAudioInputStream(file);
+            AudioFormat fmt = raw.getFormat();
+            AudioFormat target = new AudioFormat(
+                AudioFormat.Encoding.PCM_SIGNED,
+                fmt.getSampleRate(),
+                16,
+                fmt.getChannels(),
+                fmt.getChannels() * 2,
+                fmt.getSampleRate(),
+                false // little-endian
+            );
+            this.ais = fmt.matches(target) ? raw : AudioSystem.getAudioInputStream(target, raw);
+            this.sampleRate = (int) target.getSampleRate();
+            this.channels = target.getChannels();
+        }
+
+        @Override
+        public int sampleRate() { return sampleRate; }
+
+        @Override
+        public int channels() { return channels; }
+
+        @Override
+        public int read(ShortBuffer dst) throws IOException {
+            int want = Math.min(bytes.length, dst.remaining() * 2) & ~1;
+            int avail = pending + ais.readNBytes(bytes, pending, want - pending);
+            int got = avail & ~1;
+            if (got <= 0) return -1;
+            dst.put(ByteBuffer.wrap(bytes, 0, got).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer());
+            // 奇数字节留到下次读取，与后续字节拼成完整采样
+            pending = avail - got;
+            if (pending > 0) bytes[0] = bytes[got];
+            return got / 2;
+        }
+
+        @Override
+        public void close() {
             try {
-                if (needConvert) {
-                    targetFmt = targetAis.getFormat();
-                }
-                
-                byte[] pcmBytes = targetAis.readAllBytes();
-                
-                ByteBuffer buffer = MemoryUtil.memAlloc(pcmBytes.length);
-                buffer.put(pcmBytes).flip();
-                
-                return new PcmData(
-                    buffer,
-                    (int) targetFmt.getSampleRate(),
-                    targetFmt.getChannels(),
-                    targetFmt.getSampleSizeInBits()
-                );
-            } finally {
-                if (needConvert) {
-                    targetAis.close();
-                }
+                ais.close();
+            } catch (IOException ignored) {
             }
         }
     }
-    
+
     // ==================== 工具方法 ====================
-    
-    /**
-     * 根据通道数和位深度返回 OpenAL 格式常量
-     */
-    private static int getAlFormat(int channels, int bitsPerSample) {
-        if (channels == 1) {
-            if (bitsPerSample == 8) return AL10.AL_FORMAT_MONO8;
-            if (bitsPerSample == 16) return AL10.AL_FORMAT_MONO16;
-        } else if (channels == 2) {
-            if (bitsPerSample == 8) return AL10.AL_FORMAT_STEREO8;
-            if (bitsPerSample == 16) return AL10.AL_FORMAT_STEREO16;
-        }
-        return 0;
-    }
-    
+
     /**
      * 获取文件扩展名（不含点号）
      */
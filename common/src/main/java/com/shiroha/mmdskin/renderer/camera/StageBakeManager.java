@@ -0,0 +1,280 @@
+package com.shiroha.mmdskin.renderer.camera;
+
+import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.config.PathConstants;
+import com.shiroha.mmdskin.config.StagePack;
+import com.shiroha.mmdskin.renderer.model.ModelInfo;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 舞台烘焙管理器
+ *
+ * 烘焙把舞台演出（合并动作 + IK + 物理 + 相机）在后台离线跑一遍，逐帧记录姿态与相机写入
+ * {@code config/mmdskin/stage_bake/<舞台包>/<模型>.mmdbake}，旁边的 {@code .key} 文件记录烘焙时的物理配置。
+ * 开始舞台时若存在比舞台包 VMD 与模型文件都新、且物理配置相同的烘焙文件，直接挂载到模型播放，
+ * 不再逐帧求值动作、IK 与物理。
+ *
+ * 烘焙使用独立加载的模型实例，不影响正在渲染的模型；同一时间只运行一个烘焙任务。
+ */
+public final class StageBakeManager {
+    private static final Logger logger = LogManager.getLogger();
+
+    /** 烘焙采样率 */
+    public static final float BAKE_FPS = 60.0f;
+    /** 每批烘焙的帧数（批之间检查取消并更新进度） */
+    private static final int FRAMES_PER_STEP = 30;
+
+    private static final ExecutorService baker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "MMD-StageBake");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    /** 当前（或最近一次）烘焙任务 */
+    private static volatile BakeJob activeJob = null;
+
+    private StageBakeManager() {}
+
+    /**
+     * 当前（或最近一次）烘焙任务，没有时返回 null
+     */
+    public static BakeJob getActiveJob() {
+        return activeJob;
+    }
+
+    /**
+     * 烘焙文件（不保证存在）
+     */
+    public static File getBakeFile(StagePack pack, String modelName) {
+        return PathConstants.getStageBakeFile(pack.getName(), modelName);
+    }
+
+    /**
+     * 烘焙键文件（记录烘焙时的物理配置）
+     */
+    private static File getKeyFile(File bake) {
+        return new File(bake.getPath() + ".key");
+    }
+
+    /**
+     * 影响烘焙结果的物理配置（与 SetPhysicsConfig、SetPhysicsSleepLodConfig 传入的参数一致，
+     * 不含调试日志与只在渲染时生效的距离 LOD、模拟线程模式）
+     */
+    static String physicsConfigKey() {
+        return String.join(";",
+            "gravity=" + ConfigManager.getPhysicsGravityY(),
+            "fps=" + ConfigManager.getPhysicsFps(),
+            "substeps=" + ConfigManager.getPhysicsMaxSubstepCount(),
+            "solver=" + ConfigManager.getPhysicsSolverIterations(),
+            "pgs=" + ConfigManager.getPhysicsPgsIterations(),
+            "corrective=" + ConfigManager.getPhysicsMaxCorrectiveVelocity(),
+            "damping=" + ConfigManager.getPhysicsLinearDampingScale() + "," + ConfigManager.getPhysicsAngularDampingScale(),
+            "mass=" + ConfigManager.getPhysicsMassScale(),
+            "spring=" + ConfigManager.getPhysicsLinearSpringStiffnessScale() + "," + ConfigManager.getPhysicsAngularSpringStiffnessScale()
+                + "," + ConfigManager.getPhysicsLinearSpringDampingFactor() + "," + ConfigManager.getPhysicsAngularSpringDampingFactor(),
+            "inertia=" + ConfigManager.getPhysicsInertiaStrength(),
+            "maxVelocity=" + ConfigManager.getPhysicsMaxLinearVelocity() + "," + ConfigManager.getPhysicsMaxAngularVelocity(),
+            "bust=" + ConfigManager.isPhysicsBustEnabled() + "," + ConfigManager.getPhysicsBustLinearDampingScale()
+                + "," + ConfigManager.getPhysicsBustAngularDampingScale() + "," + ConfigManager.getPhysicsBustMassScale()
+                + "," + ConfigManager.getPhysicsBustLinearSpringStiffnessScale() + "," + ConfigManager.getPhysicsBustAngularSpringStiffnessScale()
+                + "," + ConfigManager.getPhysicsBustLinearSpringDampingFactor() + "," + ConfigManager.getPhysicsBustAngularSpringDampingFactor()
+                + "," + ConfigManager.isPhysicsBustClampInward(),
+            "joints=" + ConfigManager.isPhysicsJointsEnabled(),
+            "sleep=" + ConfigManager.isPhysicsSleepEnabled() + "," + ConfigManager.getPhysicsSleepLinearVelocity()
+                + "," + ConfigManager.getPhysicsSleepAngularVelocity());
+    }
+
+    /**
+     * 烘焙文件是否存在、比舞台包中的 VMD 与模型文件都新，且烘焙时的物理配置与当前一致
+     */
+    public static boolean isUpToDate(StagePack pack, String modelName) {
+        File bake = getBakeFile(pack, modelName);
+        if (!bake.isFile()) return false;
+        long bakedAt = bake.lastModified();
+
+        try {
+            File key = getKeyFile(bake);
+            if (!key.isFile() || !physicsConfigKey().equals(Files.readString(key.toPath(), StandardCharsets.UTF_8))) {
+                return false;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+
+        ModelInfo model = ModelInfo.findByFolderName(modelName);
+        if (model == null || new File(model.getModelFilePath()).lastModified() > bakedAt) {
+            return false;
+        }
+        for (StagePack.VmdFileInfo info : pack.getVmdFiles()) {
+            if (new File(info.path).lastModified() > bakedAt) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 加载最新的烘焙舞台（没有或已过期时返回 0）
+     * 返回的句柄由调用方通过 {@link NativeFunc#DeleteBakedStage} 释放。
+     */
+    public static long loadIfUpToDate(StagePack pack, String modelName) {
+        if (modelName == null || modelName.isEmpty() || !isUpToDate(pack, modelName)) {
+            return 0;
+        }
+        return NativeFunc.GetInst().LoadBakedStage(getBakeFile(pack, modelName).getAbsolutePath());
+    }
+
+    /**
+     * 开始后台烘焙（立即返回）
+     *
+     * @param pack 舞台包
+     * @param motionFiles 动作 VMD（与开始舞台时相同的合并顺序）
+     * @param cameraPath 相机 VMD 路径，null 表示使用动作中的相机数据
+     * @param modelName 模型文件夹名
+     */
+    public static synchronized BakeJob bake(StagePack pack, List<File> motionFiles, String cameraPath, String modelName) {
+        if (activeJob != null && !activeJob.isDone()) {
+            return activeJob;
+        }
+        BakeJob job = new BakeJob(pack, modelName);
+        activeJob = job;
+        StagePreparer.PreparedStage stage = StagePreparer.prepare(pack.getName(), motionFiles, cameraPath, null);
+        stage.whenReady(baker, ready -> {
+            try {
+                job.run(ready);
+            } catch (Exception e) {
+                logger.error("[舞台烘焙] 烘焙异常: {}", pack.getName(), e);
+                job.failed = true;
+            } finally {
+                ready.release();
+                job.done = true;
+            }
+        });
+        return job;
+    }
+
+    /**
+     * 一次烘焙任务
+     */
+    public static final class BakeJob {
+        private final StagePack pack;
+        private final String modelName;
+        private volatile float progress = 0.0f;
+        private volatile boolean done = false;
+        private volatile boolean failed = false;
+        private volatile boolean cancelled = false;
+
+        private BakeJob(StagePack pack, String modelName) {
+            this.pack = pack;
+            this.modelName = modelName;
+        }
+
+        public StagePack getPack() {
+            return pack;
+        }
+
+        public String getModelName() {
+            return modelName;
+        }
+
+        /**
+         * 烘焙进度（0~1）
+         */
+        public float getProgress() {
+            return progress;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        /**
+         * 取消烘焙（在下一批帧结束后生效，未完成的文件会被删除）
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void run(StagePreparer.PreparedStage stage) throws Exception {
+            ModelInfo model = ModelInfo.findByFolderName(modelName);
+            if (cancelled) return;
+            if (stage.isFailed() || model == null || model.isPMD()) {
+                failed = true;
+                logger.warn("[舞台烘焙] 无法烘焙: 包={}, 模型={}", pack.getName(), modelName);
+                return;
+            }
+
+            File output = getBakeFile(pack, modelName);
+            File temp = new File(output.getPath() + ".tmp");
+            PathConstants.ensureDirectoryExists(output.getParentFile());
+
+            NativeFunc nf = NativeFunc.GetInst();
+            long start = System.currentTimeMillis();
+            // 与烘焙器使用同一时刻的物理配置
+            String physicsKey = physicsConfigKey();
+            long handle = nf.CreateStageBaker(model.getModelFilePath(), stage.getMotionAnim(),
+                stage.getCameraAnim(), temp.getAbsolutePath(), BAKE_FPS);
+            if (handle == 0) {
+                failed = true;
+                return;
+            }
+
+            int total;
+            boolean finished;
+            // FinishStageBaker 会释放烘焙器；其余任何退出路径（取消、失败、异常）都要 DeleteStageBaker
+            boolean released = false;
+            try {
+                total = Math.max(1, nf.GetStageBakerFrameCount(handle));
+                int baked = 0;
+                while (baked < total) {
+                    if (cancelled) {
+                        logger.info("[舞台烘焙] 已取消: {}", pack.getName());
+                        return;
+                    }
+                    int previous = baked;
+                    baked = nf.StepStageBaker(handle, FRAMES_PER_STEP);
+                    if (baked <= previous) {
+                        failed = true;
+                        return;
+                    }
+                    progress = (float) baked / total;
+                }
+
+                released = true;
+                finished = nf.FinishStageBaker(handle);
+            } finally {
+                if (!released) {
+                    nf.DeleteStageBaker(handle);
+                }
+            }
+
+            if (!finished) {
+                Files.deleteIfExists(temp.toPath());
+                failed = true;
+                return;
+            }
+            // 先删除旧键，替换文件后写键失败时烘焙视为过期
+            Files.deleteIfExists(getKeyFile(output).toPath());
+            Files.move(temp.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.writeString(getKeyFile(output).toPath(), physicsKey, StandardCharsets.UTF_8);
+            logger.info("[舞台烘焙] 完成: 包={}, 模型={}, {} 帧, {}ms, {} KB",
+                pack.getName(), modelName, total, System.currentTimeMillis() - start, output.length() / 1024);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.shiroha.mmdskin.renderer.camera;
+
+import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.renderer.core.MMDJfrEvents;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 舞台资源异步准备器（SRP - 只负责舞台动作/相机/音频的后台加载与共享）
+ *
+ * - 动作 VMD 在线程池中并行解析，按文件顺序流式合并：前一个合并结果与下一个文件都就绪时立即
+ *   {@link NativeFunc#MergeAnimationMove}，解析与合并重叠进行，关键帧按移动转交不再克隆
+ * - 相机 VMD 加载、音频打开与预缓冲和动作加载并行（音频之后继续流式解码，不等整首解完）
+ * - 合并后的动作按 "包名|文件1|文件2..." 共享并引用计数：本地开始舞台与远程玩家
+ *   {@code StageAnim} 使用同一格式的舞台数据，同一舞台只加载一次
+ *
+ * 所有 {@link PreparedStage} 都必须 {@link PreparedStage#release()}，最后一个引用释放时才删除动作句柄。
+ */
+public final class StagePreparer {
+    private static final Logger logger = LogManager.getLogger();
+
+    /** 音频预缓冲的最长等待时间 */
+    private static final long AUDIO_PREFILL_TIMEOUT_MS = 2000;
+
+    private static final AtomicInteger threadIndex = new AtomicInteger();
+    private static final ExecutorService loader = Executors.newFixedThreadPool(
+        Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)), r -> {
+            Thread t = new Thread(r, "MMD-StageLoad-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+    /** 共享的合并动作（key → 条目），引用计数由该 Map 的锁保护 */
+    private static final Map<String, SharedMotion> motions = new HashMap<>();
+
+    private StagePreparer() {}
+
+    /**
+     * 构建舞台键（与联机同步的舞台数据格式一致）
+     */
+    public static String buildKey(String packName, List<File> motionFiles) {
+        StringBuilder sb = new StringBuilder(packName);
+        for (File file : motionFiles) {
+            sb.append('|').append(file.getName());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 开始准备舞台（立即返回，加载在后台进行）
+     *
+     * @param packName 舞台包名
+     * @param motionFiles 动作 VMD（按合并顺序，后者覆盖前者的同帧关键帧）
+     * @param cameraPath 相机 VMD 路径，null 表示不需要；与第一个动作文件相同时直接使用合并结果中的相机数据
+     * @param audioPath 音频路径，null 表示不需要
+     */
+    public static PreparedStage prepare(String packName, List<File> motionFiles, String cameraPath, String audioPath) {
+        String key = buildKey(packName, motionFiles);
+        SharedMotion motion = acquireMotion(key, motionFiles);
+
+        if (cameraPath != null && !motionFiles.isEmpty()
+                && new File(cameraPath).getAbsolutePath().equals(motionFiles.get(0).getAbsolutePath())) {
+            cameraPath = null; // 合并目标保留了自身的相机轨道
+        }
+
+        PreparedStage stage = new PreparedStage(key, motion);
+        if (cameraPath != null) {
+            String path = cameraPath;
+            stage.extrasTotal++;
+            stage.camera = CompletableFuture.supplyAsync(() -> {
+                long handle = loadVmd(path);
+                if (handle == 0) {
+                    logger.warn("[舞台准备] 相机 VMD 加载失败: {}", path);
+                }
+                stage.extrasDone.incrementAndGet();
+                return handle;
+            }, loader);
+        }
+        if (audioPath != null && !audioPath.isEmpty()) {
+            stage.extrasTotal++;
+            stage.audio = CompletableFuture.supplyAsync(() -> {
+                // 打开后后台线程即开始流式解码，这里只等首批数据就绪
+                StageAudioPlayer.AudioStream stream = StageAudioPlayer.open(audioPath);
+                if (stream != null) {
+                    stream.awaitPrefill(AUDIO_PREFILL_TIMEOUT_MS);
+                }
+                stage.extrasDone.incrementAndGet();
+                return stream;
+            }, loader);
+        }
+
+        stage.all = CompletableFuture.allOf(motion.handle, stage.camera, stage.audio)
+            .whenComplete((v, e) -> stage.onSettled());
+        return stage;
+    }
+
+    /**
+     * 加载单个 VMD 文件（不绑定模型）并记录 JFR 事件
+     */
+    private static long loadVmd(String path) {
+        MMDJfrEvents.AnimationLoad event = new MMDJfrEvents.AnimationLoad();
+        event.begin();
+        long handle = NativeFunc.GetInst().LoadAnimation(0, path);
+        event.end();
+        if (event.shouldCommit()) {
+            event.animation = new File(path).getName();
+            event.file = path;
+            event.bytes = new File(path).length();
+            event.success = handle != 0;
+            event.commit();
+        }
+        return handle;
+    }
+
+    private static SharedMotion acquireMotion(String key, List<File> files) {
+        synchronized (motions) {
+            SharedMotion existing = motions.get(key);
+            if (existing != null) {
+                existing.refCount++;
+                logger.debug("[舞台准备] 复用已准备的动作: {} (引用 {})", key, existing.refCount);
+                return existing;
+            }
+            SharedMotion motion = new SharedMotion(key, files);
+            motions.put(key, motion);
+            return motion;
+        }
+    }
+
+    private static void releaseMotion(SharedMotion motion) {
+        synchronized (motions) {
+            if (--motion.refCount > 0) {
+                return;
+            }
+            motions.remove(motion.key, motion);
+        }
+        // 加载尚未完成时等完成后再删除
+        motion.handle.thenAccept(handle -> {
+            if (handle != 0) {
+                NativeFunc.GetInst().DeleteAnimation(handle);
+            }
+        });
+    }
+
+    /**
+     * 并行加载 + 按顺序流式合并的动作
+     */
+    private static final class SharedMotion {
+        final String key;
+        final int total;
+        final AtomicInteger loaded = new AtomicInteger();
+        final CompletableFuture<Long> handle;
+        int refCount = 1;
+
+        SharedMotion(String key, List<File> files) {
+            this.key = key;
+            this.total = files.size();
+            long start = System.currentTimeMillis();
+            NativeFunc nf = NativeFunc.GetInst();
+            MMDJfrEvents.StagePrepare event = new MMDJfrEvents.StagePrepare();
+            event.begin();
+
+            List<CompletableFuture<Long>> parts = new ArrayList<>(files.size());
+            for (File file : files) {
+                String path = file.getAbsolutePath();
+                parts.add(CompletableFuture.supplyAsync(() -> {
+                    long anim = loadVmd(path);
+                    if (anim == 0) {
+                        logger.warn("[舞台准备] 动作 VMD 加载失败: {}", path);
+                    }
+                    loaded.incrementAndGet();
+                    return anim;
+                }, loader));
+            }
+
+            CompletableFuture<Long> merged = CompletableFuture.completedFuture(0L);
+            for (int i = 0; i < parts.size(); i++) {
+                File file = files.get(i);
+                merged = merged.thenCombine(parts.get(i), (target, source) -> {
+                    if (target == 0) return source;
+                    if (source != 0) {
+                        MMDJfrEvents.AnimationMerge mergeEvent = new MMDJfrEvents.AnimationMerge();
+                        mergeEvent.begin();
+                        nf.MergeAnimationMove(target, source);
+                        mergeEvent.end();
+                        if (mergeEvent.shouldCommit()) {
+                            mergeEvent.stageKey = key;
+                            mergeEvent.file = file.getName();
+                            mergeEvent.bytes = file.length();
+                            mergeEvent.commit();
+                        }
+                    }
+                    return target;
+                });
+            }
+            this.handle = merged.whenComplete((h, e) -> {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.stageKey = key;
+                    event.motionCount = total;
+                    for (File file : files) {
+                        event.bytes += file.length();
+                    }
+                    event.success = e == null && h != null && h != 0;
+                    event.commit();
+                }
+                if (e != null) {
+                    logger.error("[舞台准备] 动作合并异常: {}", key, e);
+                } else {
+                    logger.info("[舞台准备] 动作已就绪: {} ({} 个VMD, {}ms)", key, total, System.currentTimeMillis() - start);
+                }
+            });
+        }
+    }
+
+    /**
+     * 一次舞台准备请求的结果句柄
+     */
+    public static final class PreparedStage {
+        private final String key;
+        private final SharedMotion motion;
+        private CompletableFuture<Long> camera = CompletableFuture.completedFuture(0L);
+        private CompletableFuture<StageAudioPlayer.AudioStream> audio = CompletableFuture.completedFuture(null);
+        private CompletableFuture<Void> all;
+        private int extrasTotal = 0;
+        private final AtomicInteger extrasDone = new AtomicInteger();
+
+        private boolean released = false;
+        private boolean audioTaken = false;
+
+        private PreparedStage(String key, SharedMotion motion) {
+            this.key = key;
+            this.motion = motion;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * 准备进度（0~1）
+         */
+        public float getProgress() {
+            int total = motion.total + extrasTotal;
+            if (total == 0) return 1.0f;
+            int done = Math.min(motion.loaded.get(), motion.total) + extrasDone.get();
+            return Math.min(1.0f, (float) done / total);
+        }
+
+        public boolean isDone() {
+            return all.isDone();
+        }
+
+        /**
+         * 准备完成但没有可用的动作数据
+         */
+        public boolean isFailed() {
+            return isDone() && getMotionAnim() == 0;
+        }
+
+        /**
+         * 准备完成后在指定执行器（通常为主线程）上回调
+         */
+        public void whenReady(Executor executor, Consumer<PreparedStage> action) {
+            all.whenCompleteAsync((v, e) -> action.accept(this), executor);
+        }
+
+        /**
+         * 合并后的动作句柄（共享，只读使用，不要删除）
+         */
+        public long getMotionAnim() {
+            return motion.handle.isDone() && !motion.handle.isCompletedExceptionally() ? motion.handle.join() : 0;
+        }
+
+        /**
+         * 相机动画句柄（0 表示使用动作句柄中的相机数据）
+         */
+        public long getCameraAnim() {
+            return camera.isDone() && !camera.isCompletedExceptionally() ? camera.join() : 0;
+        }
+
+        /**
+         * 取走已打开的音频流（所有权转移给调用方，只能取一次）
+         */
+        public synchronized StageAudioPlayer.AudioStream takeAudio() {
+            if (audioTaken || released || !audio.isDone() || audio.isCompletedExceptionally()) return null;
+            audioTaken = true;
+            return audio.join();
+        }
+
+        /**
+         * 释放本次准备持有的资源（重复调用无副作用；加载中调用会在完成后清理）
+         */
+        public void release() {
+            synchronized (this) {
+                if (released) return;
+                released = true;
+            }
+            releaseMotion(motion);
+            camera.thenAccept(handle -> {
+                if (handle != 0) {
+                    NativeFunc.GetInst().DeleteAnimation(handle);
+                }
+            });
+            onSettled();
+        }
+
+        /**
+         * 加载全部结束或释放时调用：已释放且音频未被取走时关闭音频流
+         */
+        private void onSettled() {
+            StageAudioPlayer.AudioStream stream;
+            synchronized (this) {
+                if (!released || audioTaken || !audio.isDone() || audio.isCompletedExceptionally()) return;
+                audioTaken = true;
+                stream = audio.join();
+            }
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package com.shiroha.mmdskin.renderer.core;
 
 import com.shiroha.mmdskin.NativeFunc;
-import com.shiroha.mmdskin.config.ModelConfigData;
-import com.shiroha.mmdskin.config.ModelConfigManager;
 import net.minecraft.client.Minecraft;
 import net.minecraft.util.Mth;
 import net.minecraft.world.entity.LivingEntity;
@@ -28,40 +26,35 @@ public final class EyeTrackingHelper {
     /**
      * 更新眼球追踪，使模型眼睛看向摄像头（使用模型独立配置）
      * 
-     * @param nf NativeFunc 实例
-     * @param modelHandle 模型句柄
+     * @param frame 模型帧命令缓冲（随本帧更新一并提交）
      * @param entity 实体
      * @param entityYaw 实体偏航角
      * @param tickDelta 插值因子
-     * @param modelName 模型名称（用于读取模型独立配置）
+     * @param profile 模型渲染配置（眼球追踪开关与最大角度）
      */
-    public static void updateEyeTracking(NativeFunc nf, long modelHandle, 
-            LivingEntity entity, float entityYaw, float tickDelta, String modelName) {
+    public static void updateEyeTracking(ModelFrameBuffer frame,
+            LivingEntity entity, float entityYaw, float tickDelta, ModelRenderProfile profile) {
         
-        // 读取模型独立配置
-        ModelConfigData modelConfig = ModelConfigManager.getConfig(modelName);
-        
-        if (!modelConfig.eyeTrackingEnabled) {
-            nf.SetEyeTrackingEnabled(modelHandle, false);
+        if (!profile.isEyeTrackingEnabled()) {
+            frame.disableEyeTracking();
             return;
         }
         
-        float maxAngle = modelConfig.eyeMaxAngle;
-        updateEyeTrackingInternal(nf, modelHandle, entity, entityYaw, tickDelta, maxAngle);
+        updateEyeTrackingInternal(frame, entity, entityYaw, tickDelta, profile.getEyeMaxAngle());
     }
     
     /**
      * 更新眼球追踪（使用默认最大角度，向后兼容）
      */
-    public static void updateEyeTracking(NativeFunc nf, long modelHandle, 
+    public static void updateEyeTracking(ModelFrameBuffer frame,
             LivingEntity entity, float entityYaw, float tickDelta) {
-        updateEyeTrackingInternal(nf, modelHandle, entity, entityYaw, tickDelta, MAX_EYE_ANGLE);
+        updateEyeTrackingInternal(frame, entity, entityYaw, tickDelta, MAX_EYE_ANGLE);
     }
     
     /**
      * 眼球追踪内部实现
      */
-    private static void updateEyeTrackingInternal(NativeFunc nf, long modelHandle, 
+    private static void updateEyeTrackingInternal(ModelFrameBuffer frame,
             LivingEntity entity, float entityYaw, float tickDelta, float maxAngle) {
         
         Minecraft mc = Minecraft.getInstance();
@@ -112,9 +105,7 @@ public final class EyeTrackingHelper {
         eyeAngleY = Mth.clamp(eyeAngleY, -maxAngle, maxAngle);
         
         // 启用眼球追踪并设置角度
-        nf.SetEyeTrackingEnabled(modelHandle, true);
-        nf.SetEyeMaxAngle(modelHandle, maxAngle);
-        nf.SetEyeAngle(modelHandle, eyeAngleX, eyeAngleY);
+        frame.setEyeTracking(eyeAngleX, eyeAngleY, maxAngle);
     }
     
     /**
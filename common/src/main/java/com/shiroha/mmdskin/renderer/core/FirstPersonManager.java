@@ -89,12 +89,18 @@ public final class FirstPersonManager {
     
     /**
      * 阶段二：渲染后调用，获取当前帧骨骼动画更新后的眼睛位置
+     * 优先读取帧命令缓冲中本帧写回的结果，无需额外 JNI 调用
      * 
      * @param nf NativeFunc 实例
      * @param modelHandle 模型句柄
+     * @param frame 模型帧命令缓冲（可为 null）
      */
-    public static void postRender(NativeFunc nf, long modelHandle) {
-        nf.GetEyeBonePosition(modelHandle, eyeBonePos);
+    public static void postRender(NativeFunc nf, long modelHandle, ModelFrameBuffer frame) {
+        if (frame != null && frame.hasBoneOutputs()) {
+            frame.getEyeBonePosition(eyeBonePos);
+        } else {
+            nf.GetEyeBonePosition(modelHandle, eyeBonePos);
+        }
         eyeBoneValid = (eyeBonePos[0] != 0.0f || eyeBonePos[1] != 0.0f || eyeBonePos[2] != 0.0f);
     }
     
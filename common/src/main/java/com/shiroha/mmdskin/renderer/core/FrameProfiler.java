@@ -0,0 +1,207 @@
+package com.shiroha.mmdskin.renderer.core;
+
+import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.config.PathConstants;
+import com.shiroha.mmdskin.renderer.model.MMDModelManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 分阶段帧耗时统计
+ *
+ * 原生侧为每个模型记录最近 240 帧各阶段的耗时（动画求值、Morph、骨骼、IK、物理、CPU 蒙皮），
+ * Java 侧渲染阶段（拷贝、上传、派发、绘制）由 {@link FrameStageTimer} 计时后随帧命令缓冲回传，
+ * 晚一帧计入同一个窗口。这里按固定间隔用一次 JNI 调用读取全部已加载模型的汇总，
+ * 供调试覆盖层显示与 CSV 导出。
+ *
+ * 默认关闭；开启时清空原生侧旧数据。读取与导出只在渲染线程调用。
+ *
+ * 汇总记录布局（小端序，每条 {@value #RECORD_SIZE} 字节，与 Rust 侧 jni_bridge/frame_profiles.rs 一致）：
+ * 0: i64 模型句柄（输入）| 8: i32 状态 | 12: i32 窗口帧数 | 16: 每阶段 f32×4（均值、P50、P95、最大值，微秒）
+ */
+public final class FrameProfiler {
+    private static final Logger logger = LogManager.getLogger();
+
+    /** 阶段名称（顺序与原生侧 Stage 一致，Java 侧阶段在最后） */
+    public static final String[] STAGE_NAMES = {
+        "tick", "animation", "morph", "bones", "ik", "physics", "skinning",
+        "copy", "upload", "dispatch", "draw"
+    };
+    public static final int STAGE_COUNT = STAGE_NAMES.length;
+
+    private static final int RECORD_SIZE = 192;
+    private static final int OFFSET_STATUS = 8;
+    private static final int OFFSET_SAMPLES = 12;
+    private static final int OFFSET_STAGES = 16;
+
+    /** 两次读取汇总的间隔（毫秒） */
+    private static final long FETCH_INTERVAL_MS = 250;
+
+    private static volatile boolean enabled = false;
+    private static ByteBuffer buffer;
+    private static List<ModelProfile> profiles = Collections.emptyList();
+    private static long lastFetchTime = 0;
+
+    private FrameProfiler() {}
+
+    /**
+     * 单个模型的汇总
+     */
+    public static final class ModelProfile {
+        /** 缓存键（模型名_实例键） */
+        public final String name;
+        /** 窗口内的帧数 */
+        public final int samples;
+        /** [阶段 × 4]：均值、P50、P95、最大值（微秒） */
+        private final float[] stats;
+
+        ModelProfile(String name, int samples, float[] stats) {
+            this.name = name;
+            this.samples = samples;
+            this.stats = stats;
+        }
+
+        public float mean(int stage) {
+            return stats[stage * 4];
+        }
+
+        public float p50(int stage) {
+            return stats[stage * 4 + 1];
+        }
+
+        public float p95(int stage) {
+            return stats[stage * 4 + 2];
+        }
+
+        public float max(int stage) {
+            return stats[stage * 4 + 3];
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开启或关闭统计（开启时清空原生侧旧数据）
+     */
+    public static void setEnabled(boolean value) {
+        if (enabled == value) return;
+        NativeFunc.GetInst().SetFrameProfilerEnabled(value);
+        enabled = value;
+        profiles = Collections.emptyList();
+        lastFetchTime = 0;
+        if (!value) {
+            buffer = null;
+        }
+    }
+
+    /**
+     * 最近一次读取的汇总（距上次读取超过间隔时重新读取）
+     */
+    public static List<ModelProfile> getProfiles() {
+        if (!enabled) {
+            return Collections.emptyList();
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastFetchTime >= FETCH_INTERVAL_MS) {
+            lastFetchTime = now;
+            profiles = fetch();
+        }
+        return profiles;
+    }
+
+    private static List<ModelProfile> fetch() {
+        List<String> names = new ArrayList<>();
+        List<Long> handles = new ArrayList<>();
+        MMDModelManager.forEachLoadedModel((key, model) -> {
+            if (model.model != null) {
+                names.add(key);
+                handles.add(model.model.GetModelLong());
+            }
+        });
+        if (handles.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int required = handles.size() * RECORD_SIZE;
+        if (buffer == null || buffer.capacity() < required) {
+            buffer = ByteBuffer.allocateDirect(Math.max(required, 8 * RECORD_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        for (int i = 0; i < handles.size(); i++) {
+            buffer.putLong(i * RECORD_SIZE, handles.get(i));
+        }
+        NativeFunc.GetInst().FetchFrameProfiles(buffer, handles.size());
+
+        List<ModelProfile> result = new ArrayList<>(handles.size());
+        for (int i = 0; i < handles.size(); i++) {
+            int base = i * RECORD_SIZE;
+            int samples = buffer.getInt(base + OFFSET_SAMPLES);
+            if (buffer.getInt(base + OFFSET_STATUS) == 0 || samples == 0) {
+                continue;
+            }
+            float[] stats = new float[STAGE_COUNT * 4];
+            for (int j = 0; j < stats.length; j++) {
+                stats[j] = buffer.getFloat(base + OFFSET_STAGES + j * 4);
+            }
+            result.add(new ModelProfile(names.get(i), samples, stats));
+        }
+        result.sort((a, b) -> Float.compare(b.mean(0), a.mean(0)));
+        return result;
+    }
+
+    /**
+     * 导出当前汇总为 CSV（config/mmdskin/profiles/）
+     *
+     * @return 导出的文件，统计未启用、没有数据或写入失败时返回 null
+     */
+    public static File dumpCsv() {
+        if (!enabled) {
+            return null;
+        }
+        lastFetchTime = System.currentTimeMillis();
+        profiles = fetch();
+        if (profiles.isEmpty()) {
+            return null;
+        }
+
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.ROOT).format(new Date());
+        File file = PathConstants.getFrameProfileFile(timestamp);
+        PathConstants.ensureDirectoryExists(file.getParentFile());
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            out.println("model,stage,samples,mean_us,p50_us,p95_us,max_us");
+            for (ModelProfile profile : profiles) {
+                for (int stage = 0; stage < STAGE_COUNT; stage++) {
+                    out.printf(Locale.ROOT, "%s,%s,%d,%.2f,%.2f,%.2f,%.2f%n",
+                        csvField(profile.name), STAGE_NAMES[stage], profile.samples,
+                        profile.mean(stage), profile.p50(stage), profile.p95(stage), profile.max(stage));
+                }
+            }
+        } catch (IOException e) {
+            logger.error("[帧耗时统计] 导出失败: {}", file, e);
+            return null;
+        }
+        logger.info("[帧耗时统计] 已导出 {} 个模型: {}", profiles.size(), file);
+        return file;
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
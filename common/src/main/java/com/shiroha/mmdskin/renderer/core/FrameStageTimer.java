@@ -0,0 +1,71 @@
+package com.shiroha.mmdskin.renderer.core;
+
+import java.util.Arrays;
+
+/**
+ * 渲染阶段计时器（帧耗时统计的 Java 侧）
+ *
+ * 每个模型实例一个，按顺序打点：{@link #begin()} 后每次 {@link #lap(int)} 把距上一次打点的耗时
+ * 计入指定阶段，{@link #skip()} 丢弃不属于任何阶段的耗时（着色器与属性设置等）。
+ * {@link #flush(ModelFrameBuffer)} 把本帧结果写入帧命令缓冲，随下一次提交交给原生侧统计。
+ *
+ * 计时的是渲染线程提交 GL 命令的 CPU 耗时，不是 GPU 执行时间。
+ * 统计未启用时各方法只做一次布尔判断。仅在渲染线程调用。
+ */
+public final class FrameStageTimer {
+    /**
+     * 原生数据拷贝到直接缓冲区
+     * （NativeRender 路径下包含 BuildMCVertexBuffer 的顶点重排与矩阵变换；蒙皮本身计入原生侧 skinning 阶段）
+     */
+    public static final int COPY = 0;
+    /** GL 缓冲区上传 */
+    public static final int UPLOAD = 1;
+    /** 计算着色器派发 */
+    public static final int DISPATCH = 2;
+    /** 绘制调用提交 */
+    public static final int DRAW = 3;
+
+    public static final int STAGE_COUNT = 4;
+
+    private final long[] nanos = new long[STAGE_COUNT];
+    private long last;
+    private boolean running;
+
+    /**
+     * 开始本帧计时（统计未启用时不计时）
+     */
+    public void begin() {
+        running = FrameProfiler.isEnabled();
+        if (running) {
+            Arrays.fill(nanos, 0L);
+            last = System.nanoTime();
+        }
+    }
+
+    /**
+     * 把距上一次打点的耗时计入指定阶段
+     */
+    public void lap(int stage) {
+        if (!running) return;
+        long now = System.nanoTime();
+        nanos[stage] += now - last;
+        last = now;
+    }
+
+    /**
+     * 丢弃距上一次打点的耗时
+     */
+    public void skip() {
+        if (!running) return;
+        last = System.nanoTime();
+    }
+
+    /**
+     * 结束本帧计时并写入帧命令缓冲
+     */
+    public void flush(ModelFrameBuffer frameBuffer) {
+        if (!running) return;
+        running = false;
+        frameBuffer.setRenderTimes(nanos);
+    }
+}
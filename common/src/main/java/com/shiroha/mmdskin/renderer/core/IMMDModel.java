@@ -74,6 +74,47 @@ public interface IMMDModel {
         return lastSlash >= 0 ? dir.substring(lastSlash + 1) : dir;
     }
     
+    /**
+     * 设置渲染配置（模型缩放、眼球追踪等，由模型包装器在配置编译或重载后下发）
+     */
+    default void setRenderProfile(ModelRenderProfile profile) {
+    }
+    
+    /**
+     * 获取每帧命令缓冲（输入应用、更新与输出写回合并为一次 JNI 调用）
+     * 返回 null 表示实现类不使用命令缓冲
+     */
+    default ModelFrameBuffer getFrameBuffer() {
+        return null;
+    }
+    
+    /**
+     * 模型被视锥剔除时调用（每帧一次）
+     * 实现类按低频率（{@link #OFFSCREEN_UPDATE_INTERVAL_MS}）只推进动画，不蒙皮、不上传，
+     * 使模型重新进入视野时姿态正确且不会出现过大的追帧时间
+     */
+    default void updateOffscreen() {
+    }
+    
+    /** 屏幕外模型的更新间隔（毫秒，5 Hz） */
+    long OFFSCREEN_UPDATE_INTERVAL_MS = 200;
+    
+    /**
+     * 获取模型内存占用（原生 + 直接缓冲区 + 显存 + 引用的纹理，最近一次测量的结果）
+     * 供模型缓存按字节预算淘汰与内存统计使用
+     */
+    default ModelMemoryUsage getMemoryUsage() {
+        return ModelMemoryUsage.EMPTY;
+    }
+    
+    /**
+     * 刷新内存占用中会变化的部分（原生内存与共享纹理大小），GL 缓冲区与纹理路径沿用创建时的测量
+     * 由模型缓存定期调用，不查询 GL、不等待物理步
+     */
+    default ModelMemoryUsage refreshMemoryUsage() {
+        return getMemoryUsage();
+    }
+    
     /**
      * 释放模型资源（OpenGL 缓冲区、本地内存等）
      * 实现类应在此方法中清理所有资源
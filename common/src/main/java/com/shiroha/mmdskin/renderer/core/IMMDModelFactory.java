@@ -1,6 +1,7 @@
 package com.shiroha.mmdskin.renderer.core;
 
 import com.shiroha.mmdskin.renderer.model.ModelInfo;
+import com.shiroha.mmdskin.renderer.resource.GlUploadQueue;
 
 /**
  * MMD 模型工厂接口 (DIP - 依赖倒置原则)
@@ -57,6 +58,20 @@ public interface IMMDModelFactory {
      */
     IMMDModel createModelFromHandle(long modelHandle, String modelDir);
     
+    /**
+     * 从已加载的模型句柄创建渲染实例，大块静态数据交给上传队列分帧提交
+     * 
+     * 返回的模型在 uploads 清空之前不可渲染。默认实现不支持分片，直接同步上传。
+     * 
+     * @param modelHandle 后台线程加载的模型句柄
+     * @param modelDir 模型目录
+     * @param uploads 分片上传队列
+     * @return 创建的模型实例，失败返回 null
+     */
+    default IMMDModel createModelFromHandle(long modelHandle, String modelDir, GlUploadQueue uploads) {
+        return createModelFromHandle(modelHandle, modelDir);
+    }
+    
     /**
      * 根据 ModelInfo 创建模型（便捷方法）
      */
@@ -69,6 +69,7 @@ public class IrisCompat {
      * @return true 表示当前正在阴影 pass 中
      */
     public static boolean isRenderingShadows() {
+        if (RenderContext.isShadowPass()) return true;
         if (!shadowStateDetected) {
             detectShadowState();
         }
@@ -0,0 +1,136 @@
+package com.shiroha.mmdskin.renderer.core;
+
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.Item;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 手持物品键缓存
+ *
+ * 手持物品动画（itemActive_物品_手_状态）与物品旋转属性（物品_手_状态_轴）的键由物品 ID、手、
+ * 手部状态拼接而成。挥手、使用物品时每帧都要查询，这里按物品预先拼好全部组合，
+ * 渲染路径只查表，不再 String.format / substring。
+ *
+ * 缓存以物品描述 ID 为键：键名只由描述 ID 决定，且 {@link Item#getDescriptionId()} 返回物品内缓存的同一字符串，
+ * 查表无需重新计算哈希。
+ */
+public final class ItemKeyCache {
+
+    /** 手部状态（与动画文件名、属性键中的写法一致） */
+    public enum HandState {
+        IDLE("idle"),
+        USING("using"),
+        SWINGING("swinging");
+
+        final String name;
+
+        HandState(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final String[] AXES = {"x", "y", "z"};
+    /** 默认旋转属性键 default_x / default_y / default_z */
+    private static final String[] DEFAULT_ROTATION_KEYS = {"default_x", "default_y", "default_z"};
+
+    private static final Map<String, Keys> cache = new ConcurrentHashMap<>();
+
+    private ItemKeyCache() {}
+
+    /**
+     * 单个物品的全部键
+     */
+    public static final class Keys {
+        /** 物品 ID（描述 ID 去掉 "item." 前缀，如 minecraft.bow） */
+        public final String itemId;
+        /** [手][状态] → itemActive_物品_手_状态 */
+        private final String[][] animKeys;
+        /** [手][状态][轴] → 物品_手_状态_轴 */
+        private final String[][][] rotationKeys;
+
+        private Keys(String descriptionId) {
+            this.itemId = descriptionId.substring(descriptionId.indexOf('.') + 1);
+
+            InteractionHand[] hands = InteractionHand.values();
+            HandState[] states = HandState.values();
+            this.animKeys = new String[hands.length][states.length];
+            this.rotationKeys = new String[hands.length][states.length][AXES.length];
+            for (InteractionHand hand : hands) {
+                String handName = handName(hand);
+                for (HandState state : states) {
+                    animKeys[hand.ordinal()][state.ordinal()] = "itemActive_" + itemId + "_" + handName + "_" + state.name;
+                    for (int axis = 0; axis < AXES.length; axis++) {
+                        rotationKeys[hand.ordinal()][state.ordinal()][axis] =
+                            itemId + "_" + handName + "_" + state.name + "_" + AXES[axis];
+                    }
+                }
+            }
+        }
+
+        /**
+         * 手持物品动画名
+         */
+        public String animKey(InteractionHand hand, HandState state) {
+            return animKeys[hand.ordinal()][state.ordinal()];
+        }
+
+        /**
+         * 物品旋转属性键
+         *
+         * @param axis 0=x, 1=y, 2=z
+         */
+        public String rotationKey(InteractionHand hand, HandState state, int axis) {
+            return rotationKeys[hand.ordinal()][state.ordinal()][axis];
+        }
+    }
+
+    /**
+     * 获取玩家某只手中物品的键
+     */
+    public static Keys get(Player player, InteractionHand hand) {
+        return get(player.getItemInHand(hand).getItem());
+    }
+
+    public static Keys get(Item item) {
+        return get(item.getDescriptionId());
+    }
+
+    /**
+     * 按物品描述 ID（如 item.minecraft.bow）获取键
+     */
+    public static Keys get(String descriptionId) {
+        Keys keys = cache.get(descriptionId);
+        if (keys == null) {
+            keys = cache.computeIfAbsent(descriptionId, Keys::new);
+        }
+        return keys;
+    }
+
+    /**
+     * 默认旋转属性键
+     *
+     * @param axis 0=x, 1=y, 2=z
+     */
+    public static String defaultRotationKey(int axis) {
+        return DEFAULT_ROTATION_KEYS[axis];
+    }
+
+    /**
+     * 玩家某只手的当前状态
+     */
+    public static HandState getHandState(Player player, InteractionHand hand) {
+        if (hand == player.getUsedItemHand() && player.isUsingItem()) {
+            return HandState.USING;
+        } else if (hand == player.swingingArm && player.swinging) {
+            return HandState.SWINGING;
+        }
+        return HandState.IDLE;
+    }
+
+    private static String handName(InteractionHand hand) {
+        return hand == InteractionHand.MAIN_HAND ? "Right" : "Left";
+    }
+}
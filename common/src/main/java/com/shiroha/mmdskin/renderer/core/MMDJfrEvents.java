@@ -0,0 +1,182 @@
+package com.shiroha.mmdskin.renderer.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder 自定义事件
+ *
+ * 覆盖模型与动画加载的各个阶段（PMX 解析、纹理预解码、GL 分帧完成、动画加载与合并、舞台准备、缓存淘汰），
+ * 录制时可与 GC 暂停、线程状态和帧耗时尖峰放在同一时间轴上对照，使用 JDK 自带的 JFR 工具即可查看：
+ * {@code -XX:StartFlightRecording} 或 {@code jcmd <pid> JFR.start}，在 JMC 的 "MMD Skin" 分类下。
+ *
+ * 未录制时 {@link Event#begin()}/{@link Event#commit()} 近乎无开销，调用方在需要额外计算字段
+ * （如读取顶点数）前先用 {@link Event#shouldCommit()} 判断。
+ * 事件可以在一个线程 begin、在另一个线程 commit（跨帧或跨线程池的阶段）。
+ */
+public final class MMDJfrEvents {
+    private static final String CATEGORY = "MMD Skin";
+
+    private MMDJfrEvents() {}
+
+    @Name("mmdskin.ModelParse")
+    @Label("Model Parse")
+    @Description("后台线程解析 PMX/PMD 模型文件（Rust）")
+    @Category({CATEGORY, "Model"})
+    @StackTrace(false)
+    public static final class ModelParse extends Event {
+        @Label("Model Name")
+        public String modelName;
+
+        @Label("File")
+        public String file;
+
+        @Label("Vertex Count")
+        public long vertexCount;
+
+        @Label("File Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Success")
+        public boolean success;
+    }
+
+    @Name("mmdskin.TexturePredecode")
+    @Label("Texture Predecode")
+    @Description("后台线程预解码模型的全部材质纹理")
+    @Category({CATEGORY, "Model"})
+    @StackTrace(false)
+    public static final class TexturePredecode extends Event {
+        @Label("Model Name")
+        public String modelName;
+
+        @Label("Texture Count")
+        public int textureCount;
+
+        @Label("Decoded Count")
+        @Description("本次实际解码的纹理数（已缓存或已预解码的不计入）")
+        public int decodedCount;
+
+        @Label("Decoded Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("mmdskin.ModelFinalize")
+    @Label("Model GL Finalize")
+    @Description("渲染线程分帧创建纹理与缓冲区并上传数据，从提交到完成（含排队等待）")
+    @Category({CATEGORY, "Model"})
+    @StackTrace(false)
+    public static final class ModelFinalize extends Event {
+        @Label("Model Name")
+        public String modelName;
+
+        @Label("Cache Key")
+        public String cacheKey;
+
+        @Label("Vertex Count")
+        public long vertexCount;
+
+        @Label("Uploaded Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Frames")
+        @Description("完成所用的帧数")
+        public int frames;
+
+        @Label("Success")
+        public boolean success;
+    }
+
+    @Name("mmdskin.AnimationLoad")
+    @Label("Animation Load")
+    @Description("解析 VMD 动画文件")
+    @Category({CATEGORY, "Animation"})
+    @StackTrace(false)
+    public static final class AnimationLoad extends Event {
+        @Label("Animation")
+        public String animation;
+
+        @Label("File")
+        public String file;
+
+        @Label("Model Name")
+        @Description("绑定的模型目录名，舞台与相机动画为空")
+        public String modelName;
+
+        @Label("File Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Success")
+        public boolean success;
+    }
+
+    @Name("mmdskin.AnimationMerge")
+    @Label("Animation Merge")
+    @Description("把一个 VMD 的关键帧移动合并到目标动画")
+    @Category({CATEGORY, "Animation"})
+    @StackTrace(false)
+    public static final class AnimationMerge extends Event {
+        @Label("Stage Key")
+        public String stageKey;
+
+        @Label("Source File")
+        public String file;
+
+        @Label("Source File Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("mmdskin.StagePrepare")
+    @Label("Stage Prepare")
+    @Description("舞台动作并行加载并合并完成（不含相机与音频）")
+    @Category({CATEGORY, "Animation"})
+    @StackTrace(false)
+    public static final class StagePrepare extends Event {
+        @Label("Stage Key")
+        public String stageKey;
+
+        @Label("Motion Count")
+        public int motionCount;
+
+        @Label("Total File Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Success")
+        public boolean success;
+    }
+
+    @Name("mmdskin.CacheEviction")
+    @Label("Cache Eviction")
+    @Description("模型缓存淘汰一个条目（含释放资源的耗时）")
+    @Category({CATEGORY, "Cache"})
+    @StackTrace(false)
+    public static final class CacheEviction extends Event {
+        @Label("Cache")
+        public String cache;
+
+        @Label("Key")
+        public String key;
+
+        @Label("Reason")
+        public String reason;
+
+        @Label("Entry Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Cache Size After")
+        @DataAmount
+        public long totalBytesAfter;
+    }
+}
@@ -1,32 +1,77 @@
 package com.shiroha.mmdskin.renderer.core;
 
 import com.shiroha.mmdskin.config.ConfigManager;
+import com.sun.management.HotSpotDiagnosticMXBean;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 
 /**
  * 模型缓存管理器
- * 负责模型的缓存、LRU清理和生命周期管理
+ * 负责模型的缓存、按内存预算淘汰和生命周期管理
  * 
- * 线程安全：使用 ConcurrentHashMap 保证多线程访问安全
+ * 淘汰策略：
+ * - 每个条目由 weigher 给出可回收的内存占用（原生 + 直接缓冲区 + 独占显存），按总字节数对比预算；
+ *   每 5 秒开始一轮重新计重，每次 tick 只计重一个条目，避免缓存较大时集中卡顿渲染线程
+ * - CLOCK（二次机会）近似 LRU：访问只置位引用标记，淘汰时从环头扫描，O(1) 摊还
+ * - 最近仍在渲染的条目（ACTIVE_WINDOW_MS 内访问过）不会被淘汰，避免刚释放又重新加载
+ * - 内存压力（JVM 直接内存池接近 MaxDirectMemorySize、GL_OUT_OF_MEMORY）时淘汰到预算的一半；
+ *   MemoryUtil（malloc）分配不受该上限约束，只随条目占用计入字节预算
+ * 
+ * 线程安全：使用 ConcurrentHashMap 保证多线程访问安全，淘汰与环操作在 synchronized 内完成
  */
 public class ModelCache<T> {
     private static final Logger logger = LogManager.getLogger();
     
     private final Map<String, CacheEntry<T>> cache;
     private final String cacheName;
+    private final ToLongFunction<T> weigher;
+    
+    /** CLOCK 环：条目按加入顺序排列，已移除的条目在扫描时惰性丢弃 */
+    private final ArrayDeque<CacheEntry<T>> clock = new ArrayDeque<>();
+    private final AtomicLong totalBytes = new AtomicLong();
     
     private long lastSwitchTime = 0;
     private boolean pendingCleanup = false;
     private static final long CLEANUP_DELAY = 60000; // 1 分钟
     
+    /** 该时间窗口内访问过的条目视为正在使用，不参与淘汰 */
+    private static final long ACTIVE_WINDOW_MS = 5000;
+    
+    // ===== 内存压力 =====
+    private static final long PRESSURE_CHECK_INTERVAL_MS = 1000;
+    private static final double DIRECT_MEMORY_PRESSURE_RATIO = 0.9;
+    private static final BufferPoolMXBean directPool = findDirectPool();
+    private static final long directMemoryLimit = findDirectMemoryLimit();
+    private long lastPressureCheck = 0;
+    
+    /** 两轮重新计重的起始间隔 */
+    private static final long REWEIGH_INTERVAL_MS = 5000;
+    private long lastReweigh = 0;
+    /** 当前一轮重新计重的游标（null 表示本轮已结束） */
+    private Iterator<CacheEntry<T>> reweighCursor = null;
+    private volatile String pendingPressure = null;
+    
     public ModelCache(String name) {
+        this(name, value -> 0L);
+    }
+    
+    /**
+     * @param weigher 计算条目内存占用（字节），在加入缓存时与重新计重时调用（渲染线程，应只读取低成本的部分）
+     */
+    public ModelCache(String name, ToLongFunction<T> weigher) {
         this.cacheName = name;
+        this.weigher = weigher;
         this.cache = new ConcurrentHashMap<>();
     }
     
@@ -44,17 +89,63 @@ public class ModelCache<T> {
     /**
      * 添加缓存项
      */
-    public void put(String key, T value) {
-        CacheEntry<T> entry = new CacheEntry<>(value);
-        cache.put(key, entry);
-        logger.debug("[{}] 添加缓存: {} (当前: {})", cacheName, key, cache.size());
+    public synchronized void put(String key, T value) {
+        long weight = weigh(key, value, 0);
+        CacheEntry<T> entry = new CacheEntry<>(key, value, weight);
+        CacheEntry<T> old = cache.put(key, entry);
+        if (old != null) {
+            totalBytes.addAndGet(-old.weightBytes);
+        }
+        totalBytes.addAndGet(weight);
+        clock.addLast(entry);
+        compactClock();
+        logger.debug("[{}] 添加缓存: {} ({} KB, 当前: {}, 共 {} MB)",
+            cacheName, key, weight / 1024, cache.size(), totalBytes.get() / (1024 * 1024));
+    }
+    
+    private long weigh(String key, T value, long fallback) {
+        try {
+            return Math.max(0, weigher.applyAsLong(value));
+        } catch (Exception e) {
+            logger.warn("[{}] 计算缓存大小失败: {}", cacheName, key, e);
+            return fallback;
+        }
+    }
+    
+    /**
+     * 重新计算下一个条目的内存占用（条目占用会在加入后变化，如延迟分配的 GPU 缓冲区、原生运行时缓冲）
+     * 每轮间隔 REWEIGH_INTERVAL_MS 开始，每次调用最多计重一个条目
+     */
+    private synchronized void reweighNext(long currentTime) {
+        if (reweighCursor == null) {
+            if (currentTime - lastReweigh < REWEIGH_INTERVAL_MS) {
+                return;
+            }
+            lastReweigh = currentTime;
+            reweighCursor = cache.values().iterator();
+        }
+        if (!reweighCursor.hasNext()) {
+            reweighCursor = null;
+            return;
+        }
+        CacheEntry<T> entry = reweighCursor.next();
+        if (cache.get(entry.key) != entry) {
+            return; // 已被移除或替换
+        }
+        long weight = weigh(entry.key, entry.value, entry.weightBytes);
+        totalBytes.addAndGet(weight - entry.weightBytes);
+        entry.weightBytes = weight;
     }
     
     /**
      * 移除缓存项
      */
-    public CacheEntry<T> remove(String key) {
-        return cache.remove(key);
+    public synchronized CacheEntry<T> remove(String key) {
+        CacheEntry<T> entry = cache.remove(key);
+        if (entry != null) {
+            totalBytes.addAndGet(-entry.weightBytes);
+        }
+        return entry;
     }
     
     /**
@@ -71,6 +162,20 @@ public class ModelCache<T> {
         return cache.size();
     }
     
+    /**
+     * 获取缓存条目的内存占用总和（字节）
+     */
+    public long getTotalBytes() {
+        return totalBytes.get();
+    }
+    
+    /**
+     * Java 直接内存池已用字节数（不含 MemoryUtil 分配的原生内存，无法读取时返回 -1）
+     */
+    public static long getDirectMemoryUsed() {
+        return directPool != null ? directPool.getMemoryUsed() : -1;
+    }
+    
     /**
      * 记录切换事件，触发延迟清理
      */
@@ -79,15 +184,42 @@ public class ModelCache<T> {
         pendingCleanup = true;
     }
     
+    /**
+     * 报告内存压力（可在任意线程调用），下一次 tick 时淘汰到预算的一半
+     * 
+     * @param reason 压力来源（用于日志）
+     */
+    public void onMemoryPressure(String reason) {
+        pendingPressure = reason;
+    }
+    
     /**
      * 定期检查，在渲染循环中调用
      * 
      * @param disposer 清理回调，用于释放资源
      */
     public void tick(Consumer<T> disposer) {
+        long currentTime = System.currentTimeMillis();
+        
+        if (currentTime - lastPressureCheck >= PRESSURE_CHECK_INTERVAL_MS) {
+            lastPressureCheck = currentTime;
+            checkDirectMemory();
+        }
+        reweighNext(currentTime);
+        
+        String pressure = pendingPressure;
+        if (pressure != null) {
+            pendingPressure = null;
+            long budget = getBudgetBytes();
+            logger.warn("[{}] 内存压力（{}），淘汰至预算一半 (当前: {} MB)",
+                cacheName, pressure, totalBytes.get() / (1024 * 1024));
+            evict(budget / 2, Integer.MAX_VALUE, disposer, "pressure");
+        } else if (totalBytes.get() > getBudgetBytes()) {
+            evict(getBudgetBytes(), Integer.MAX_VALUE, disposer, "budget");
+        }
+        
         if (!pendingCleanup) return;
         
-        long currentTime = System.currentTimeMillis();
         if (currentTime - lastSwitchTime >= CLEANUP_DELAY) {
             logger.info("[{}] 切换后 1 分钟无操作，清理缓存", cacheName);
             cleanupStale(disposer);
@@ -96,42 +228,138 @@ public class ModelCache<T> {
     }
     
     /**
-     * 检查并清理缓存（当达到最大容量时）
+     * 检查并清理缓存（加载新模型前调用，超出内存预算或数量上限时淘汰）
      * 
      * @param disposer 清理回调
      */
     public void checkAndClean(Consumer<T> disposer) {
         int maxSize = ConfigManager.getModelPoolMaxCount();
-        if (cache.size() >= maxSize) {
-            cleanupLRU(maxSize, disposer);
+        if (cache.size() >= maxSize || totalBytes.get() > getBudgetBytes()) {
+            evict(getBudgetBytes(), maxSize - 1, disposer, "capacity");
         }
     }
     
+    private static long getBudgetBytes() {
+        return Math.max(1, ConfigManager.getModelPoolMaxMemoryMb()) * 1024L * 1024L;
+    }
+    
     /**
-     * LRU 清理，保留最近访问的 70%
+     * CLOCK 淘汰，直到总字节数与条目数都不超过目标
+     * 
+     * 每个条目最多被扫描两次（第一次清除引用标记），正在使用的条目跳过。
+     * 
+     * @param reason 淘汰原因（记录到 JFR 事件）
      */
-    private synchronized void cleanupLRU(int maxSize, Consumer<T> disposer) {
-        if (cache.size() <= maxSize * 0.8) {
-            return;
-        }
+    private synchronized void evict(long targetBytes, int maxCount, Consumer<T> disposer, String reason) {
+        long before = totalBytes.get();
+        int evicted = 0;
+        long now = System.currentTimeMillis();
+        int budget = clock.size() * 2;
         
-        logger.info("[{}] 清理缓存 (当前: {}, 最大: {})", cacheName, cache.size(), maxSize);
-        
-        cache.entrySet().stream()
-            .sorted((e1, e2) -> Long.compare(e1.getValue().lastAccessTime, e2.getValue().lastAccessTime))
-            .limit(cache.size() - (int)(maxSize * 0.7))
-            .forEach(entry -> {
-                try {
-                    if (disposer != null) {
-                        disposer.accept(entry.getValue().value);
-                    }
-                    cache.remove(entry.getKey());
-                } catch (Exception e) {
-                    logger.error("[{}] 清理失败: {}", cacheName, entry.getKey(), e);
+        while ((totalBytes.get() > targetBytes || cache.size() > maxCount) && budget-- > 0) {
+            CacheEntry<T> entry = clock.pollFirst();
+            if (entry == null) {
+                break;
+            }
+            if (cache.get(entry.key) != entry) {
+                continue; // 已被移除或替换
+            }
+            if (entry.referenced) {
+                entry.referenced = false;
+                clock.addLast(entry);
+                continue;
+            }
+            if (now - entry.lastAccessTime < ACTIVE_WINDOW_MS) {
+                clock.addLast(entry);
+                continue;
+            }
+            
+            MMDJfrEvents.CacheEviction event = new MMDJfrEvents.CacheEviction();
+            event.begin();
+            cache.remove(entry.key);
+            totalBytes.addAndGet(-entry.weightBytes);
+            evicted++;
+            try {
+                if (disposer != null) {
+                    disposer.accept(entry.value);
                 }
-            });
+            } catch (Exception e) {
+                logger.error("[{}] 清理失败: {}", cacheName, entry.key, e);
+            }
+            commitEviction(event, entry, reason);
+        }
         
-        logger.info("[{}] 清理完成 (剩余: {})", cacheName, cache.size());
+        if (evicted > 0) {
+            logger.info("[{}] 淘汰 {} 个缓存 ({} MB -> {} MB, 剩余: {})", cacheName, evicted,
+                before / (1024 * 1024), totalBytes.get() / (1024 * 1024), cache.size());
+        } else if (totalBytes.get() > targetBytes) {
+            logger.debug("[{}] 超出预算但所有缓存均在使用中 ({} MB)", cacheName, totalBytes.get() / (1024 * 1024));
+        }
+    }
+    
+    private void commitEviction(MMDJfrEvents.CacheEviction event, CacheEntry<T> entry, String reason) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.cache = cacheName;
+            event.key = entry.key;
+            event.reason = reason;
+            event.bytes = entry.weightBytes;
+            event.totalBytesAfter = totalBytes.get();
+            event.commit();
+        }
+    }
+    
+    /**
+     * 丢弃环中已失效的条目（环长度超过缓存两倍时执行）
+     */
+    private void compactClock() {
+        if (clock.size() <= cache.size() * 2 + 16) {
+            return;
+        }
+        clock.removeIf(entry -> cache.get(entry.key) != entry);
+    }
+    
+    /**
+     * 采样 JVM 直接内存池，接近 MaxDirectMemorySize 时报告内存压力
+     */
+    private void checkDirectMemory() {
+        if (directPool == null) return;
+        long used = directPool.getMemoryUsed();
+        long max = directMemoryLimit;
+        if (max > 0 && max != Long.MAX_VALUE && used > max * DIRECT_MEMORY_PRESSURE_RATIO) {
+            onMemoryPressure("直接内存 " + used / (1024 * 1024) + "/" + max / (1024 * 1024) + " MB");
+        }
+    }
+    
+    /**
+     * 读取 -XX:MaxDirectMemorySize；未指定（0）或无法读取时与 JDK 一致取堆上限
+     */
+    private static long findDirectMemoryLimit() {
+        try {
+            HotSpotDiagnosticMXBean hotspot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            if (hotspot != null) {
+                long limit = Long.parseLong(hotspot.getVMOption("MaxDirectMemorySize").getValue());
+                if (limit > 0) {
+                    return limit;
+                }
+            }
+        } catch (Exception e) {
+            logger.debug("无法读取 MaxDirectMemorySize", e);
+        }
+        return Runtime.getRuntime().maxMemory();
+    }
+    
+    private static BufferPoolMXBean findDirectPool() {
+        try {
+            for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+                if ("direct".equals(pool.getName())) {
+                    return pool;
+                }
+            }
+        } catch (Exception e) {
+            logger.debug("无法获取直接内存池信息", e);
+        }
+        return null;
     }
     
     /**
@@ -147,12 +375,16 @@ public class ModelCache<T> {
         while (iterator.hasNext()) {
             var entry = iterator.next();
             if (currentTime - entry.getValue().lastAccessTime > CLEANUP_DELAY) {
+                MMDJfrEvents.CacheEviction event = new MMDJfrEvents.CacheEviction();
+                event.begin();
                 try {
                     if (disposer != null) {
                         disposer.accept(entry.getValue().value);
                     }
                     iterator.remove();
+                    totalBytes.addAndGet(-entry.getValue().weightBytes);
                     cleanedCount++;
+                    commitEviction(event, entry.getValue(), "stale");
                 } catch (Exception e) {
                     logger.error("[{}] 清理失败: {}", cacheName, entry.getKey(), e);
                 }
@@ -160,6 +392,7 @@ public class ModelCache<T> {
         }
         
         if (cleanedCount > 0) {
+            compactClock();
             logger.info("[{}] 已清理 {} 个过期缓存", cacheName, cleanedCount);
         }
     }
@@ -180,6 +413,8 @@ public class ModelCache<T> {
             }
         }
         cache.clear();
+        clock.clear();
+        totalBytes.set(0);
         logger.info("[{}] 缓存已清空", cacheName);
     }
     
@@ -194,16 +429,24 @@ public class ModelCache<T> {
      * 缓存条目
      */
     public static class CacheEntry<T> {
+        public final String key;
         public final T value;
-        public long lastAccessTime;
+        /** 内存占用（字节），加入缓存时计算，之后逐个轮流重新计算 */
+        public volatile long weightBytes;
+        public volatile long lastAccessTime;
+        /** CLOCK 引用标记：访问时置位，淘汰扫描时清除 */
+        volatile boolean referenced = true;
         
-        public CacheEntry(T value) {
+        public CacheEntry(String key, T value, long weightBytes) {
+            this.key = key;
             this.value = value;
+            this.weightBytes = weightBytes;
             this.lastAccessTime = System.currentTimeMillis();
         }
         
         public void updateAccessTime() {
             this.lastAccessTime = System.currentTimeMillis();
+            this.referenced = true;
         }
     }
 }
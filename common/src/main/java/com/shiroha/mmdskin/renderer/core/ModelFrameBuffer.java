@@ -0,0 +1,238 @@
+package com.shiroha.mmdskin.renderer.core;
+
+import com.shiroha.mmdskin.NativeFunc;
+import org.joml.Matrix4f;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 每帧模型命令缓冲
+ *
+ * 渲染前把本帧的模型输入（头部角度、眼球追踪、位置朝向、物理 LOD 距离）写入直接缓冲区，
+ * {@link #submit} 一次 JNI 调用完成输入应用、模型更新，并写回输出（手部矩阵、眼睛骨骼位置、
+ * 头部高度、包围盒、材质 Morph 结果），替代每帧十余次独立的 JNI 调用。
+ *
+ * 记录布局与 Rust 侧 jni_bridge/frame_commands.rs 的 ModelFrameRecord 一致（小端序，共 264 字节）。
+ * 输入标志只对下一次 submit 生效，提交后清空；模型句柄与材质 Morph 输出缓冲区持续有效。
+ */
+public final class ModelFrameBuffer {
+
+    /** 每条记录字节数 */
+    public static final int RECORD_SIZE = 264;
+
+    // 标志位（与 Rust 侧 FLAG_* 一致）
+    private static final int FLAG_HEAD_ANGLE = 1;
+    private static final int FLAG_EYE_TRACKING = 1 << 1;
+    private static final int FLAG_EYE_TRACKING_ENABLED = 1 << 2;
+    private static final int FLAG_POSITION = 1 << 3;
+    private static final int FLAG_LOD_DISTANCE = 1 << 4;
+    private static final int FLAG_UPDATE = 1 << 5;
+    private static final int FLAG_ANIMATION_ONLY = 1 << 6;
+    private static final int FLAG_HAND_MATRICES = 1 << 7;
+    private static final int FLAG_EYE_BONE = 1 << 8;
+    private static final int FLAG_BOUNDS = 1 << 9;
+    private static final int FLAG_RENDER_TIMES = 1 << 10;
+
+    // 输入偏移
+    private static final int OFFSET_MODEL = 0;
+    private static final int OFFSET_FLAGS = 8;
+    private static final int OFFSET_DELTA_TIME = 12;
+    private static final int OFFSET_HEAD_ANGLE = 16;
+    private static final int OFFSET_EYE_ANGLE = 28;
+    private static final int OFFSET_EYE_MAX_ANGLE = 36;
+    private static final int OFFSET_POSITION = 40;
+    private static final int OFFSET_YAW = 52;
+    private static final int OFFSET_LOD_DISTANCE = 56;
+    private static final int OFFSET_MORPH_CAPACITY = 60;
+    private static final int OFFSET_MORPH_ADDRESS = 64;
+    // 输出偏移
+    private static final int OFFSET_MORPH_COUNT = 72;
+    private static final int OFFSET_STATUS = 76;
+    private static final int OFFSET_RIGHT_HAND = 80;
+    private static final int OFFSET_LEFT_HAND = 144;
+    private static final int OFFSET_EYE_BONE = 208;
+    private static final int OFFSET_HEAD_BONE_Y = 220;
+    private static final int OFFSET_BOUNDS_MIN = 224;
+    private static final int OFFSET_BOUNDS_MAX = 236;
+    // 统计输入偏移
+    private static final int OFFSET_RENDER_TIMES = 248;
+
+    private final ByteBuffer buffer;
+    private int flags;
+    private boolean hasBounds;
+
+    public ModelFrameBuffer(long modelHandle) {
+        this.buffer = ByteBuffer.allocateDirect(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.buffer.putLong(OFFSET_MODEL, modelHandle);
+    }
+
+    /**
+     * 设置材质 Morph 结果输出缓冲区（每次 submit 时写入，null 表示不输出）
+     *
+     * @param output 直接缓冲区，容量需不小于 材质数 × 56 × 4 字节
+     */
+    public void setMaterialMorphOutput(ByteBuffer output) {
+        buffer.putLong(OFFSET_MORPH_ADDRESS, output != null ? MemoryUtil.memAddress(output, 0) : 0L);
+        buffer.putInt(OFFSET_MORPH_CAPACITY, output != null ? output.capacity() : 0);
+    }
+
+    /**
+     * 设置头部角度（弧度）
+     */
+    public void setHeadAngle(float pitch, float yaw, float roll) {
+        buffer.putFloat(OFFSET_HEAD_ANGLE, pitch);
+        buffer.putFloat(OFFSET_HEAD_ANGLE + 4, yaw);
+        buffer.putFloat(OFFSET_HEAD_ANGLE + 8, roll);
+        flags |= FLAG_HEAD_ANGLE;
+    }
+
+    /**
+     * 启用眼球追踪并设置角度（弧度）
+     */
+    public void setEyeTracking(float eyeAngleX, float eyeAngleY, float maxAngle) {
+        buffer.putFloat(OFFSET_EYE_ANGLE, eyeAngleX);
+        buffer.putFloat(OFFSET_EYE_ANGLE + 4, eyeAngleY);
+        buffer.putFloat(OFFSET_EYE_MAX_ANGLE, maxAngle);
+        flags |= FLAG_EYE_TRACKING | FLAG_EYE_TRACKING_ENABLED;
+    }
+
+    /**
+     * 禁用眼球追踪
+     */
+    public void disableEyeTracking() {
+        flags = (flags | FLAG_EYE_TRACKING) & ~FLAG_EYE_TRACKING_ENABLED;
+    }
+
+    /**
+     * 设置模型位置与身体朝向（用于物理惯性）
+     */
+    public void setPositionAndYaw(float posX, float posY, float posZ, float yaw) {
+        buffer.putFloat(OFFSET_POSITION, posX);
+        buffer.putFloat(OFFSET_POSITION + 4, posY);
+        buffer.putFloat(OFFSET_POSITION + 8, posZ);
+        buffer.putFloat(OFFSET_YAW, yaw);
+        flags |= FLAG_POSITION;
+    }
+
+    /**
+     * 设置与相机的距离（方块，用于物理 LOD）
+     */
+    public void setLodDistance(float distance) {
+        buffer.putFloat(OFFSET_LOD_DISTANCE, distance);
+        flags |= FLAG_LOD_DISTANCE;
+    }
+
+    /**
+     * 本帧输出左右手矩阵与眼睛骨骼位置（手持物品与第一人称相机使用）
+     */
+    public void requestBoneOutputs() {
+        flags |= FLAG_HAND_MATRICES | FLAG_EYE_BONE;
+    }
+
+    /**
+     * 设置上一帧 Java 侧渲染阶段耗时（帧耗时统计，随下一次提交计入）
+     *
+     * @param nanos 各阶段纳秒数，顺序见 {@link FrameStageTimer}
+     */
+    public void setRenderTimes(long[] nanos) {
+        for (int i = 0; i < FrameStageTimer.STAGE_COUNT; i++) {
+            buffer.putInt(OFFSET_RENDER_TIMES + i * 4, (int) Math.min(nanos[i], 0xFFFFFFFFL));
+        }
+        flags |= FLAG_RENDER_TIMES;
+    }
+
+    /**
+     * 提交本帧命令
+     *
+     * 每次更新后都会写回当前姿态的包围盒，供下一帧视锥剔除使用。
+     *
+     * @param nf NativeFunc 实例
+     * @param deltaTime 帧时间（秒），小于 0 表示本帧只应用输入、不更新模型
+     * @param animationOnly 只更新动画（GPU 蒙皮模式）
+     * @return 模型句柄是否有效
+     */
+    public boolean submit(NativeFunc nf, float deltaTime, boolean animationOnly) {
+        int submitFlags = flags;
+        if (deltaTime >= 0.0f) {
+            submitFlags |= FLAG_UPDATE | FLAG_BOUNDS;
+            if (animationOnly) {
+                submitFlags |= FLAG_ANIMATION_ONLY;
+            }
+            buffer.putFloat(OFFSET_DELTA_TIME, deltaTime);
+        }
+        buffer.putInt(OFFSET_FLAGS, submitFlags);
+        flags = 0;
+        boolean valid = nf.UpdateModelFrames(buffer, 1) > 0;
+        if (valid && (submitFlags & FLAG_BOUNDS) != 0) {
+            hasBounds = true;
+        }
+        return valid;
+    }
+
+    /**
+     * 上次提交写入的材质 Morph 结果数量（未设置输出缓冲区时为 0）
+     */
+    public int getMaterialMorphCount() {
+        return buffer.getInt(OFFSET_MORPH_COUNT);
+    }
+
+    /**
+     * 上次提交是否输出了骨骼数据
+     */
+    public boolean hasBoneOutputs() {
+        return buffer.getInt(OFFSET_STATUS) != 0 && (buffer.getInt(OFFSET_FLAGS) & FLAG_HAND_MATRICES) != 0;
+    }
+
+    /**
+     * 右手矩阵（模型局部空间）
+     */
+    public Matrix4f getRightHandMatrix(Matrix4f dest) {
+        return dest.set(OFFSET_RIGHT_HAND, buffer);
+    }
+
+    /**
+     * 左手矩阵（模型局部空间）
+     */
+    public Matrix4f getLeftHandMatrix(Matrix4f dest) {
+        return dest.set(OFFSET_LEFT_HAND, buffer);
+    }
+
+    /**
+     * 眼睛骨骼当前动画位置（模型局部空间）
+     *
+     * @param out 输出数组 [x, y, z]，长度至少为 3
+     */
+    public void getEyeBonePosition(float[] out) {
+        out[0] = buffer.getFloat(OFFSET_EYE_BONE);
+        out[1] = buffer.getFloat(OFFSET_EYE_BONE + 4);
+        out[2] = buffer.getFloat(OFFSET_EYE_BONE + 8);
+    }
+
+    /**
+     * 是否已输出过包围盒（模型首次更新之前为 false）
+     */
+    public boolean hasBounds() {
+        return hasBounds;
+    }
+
+    /**
+     * 最近一次更新后的保守包围盒（模型局部空间）
+     *
+     * @param out 输出数组 [minX, minY, minZ, maxX, maxY, maxZ]，长度至少为 6
+     */
+    public void getBounds(float[] out) {
+        for (int i = 0; i < 3; i++) {
+            out[i] = buffer.getFloat(OFFSET_BOUNDS_MIN + i * 4);
+            out[i + 3] = buffer.getFloat(OFFSET_BOUNDS_MAX + i * 4);
+        }
+    }
+
+    /**
+     * 头部骨骼初始 Y 坐标（模型局部空间）
+     */
+    public float getHeadBonePositionY() {
+        return buffer.getFloat(OFFSET_HEAD_BONE_Y);
+    }
+}
@@ -0,0 +1,193 @@
+package com.shiroha.mmdskin.renderer.core;
+
+import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.config.PathConstants;
+import com.shiroha.mmdskin.renderer.model.MMDModelManager;
+import com.shiroha.mmdskin.renderer.resource.MMDTextureManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 内存统计快照
+ *
+ * 汇总已加载模型的 {@link ModelMemoryUsage}（最近一次测量的结果，原生部分由模型缓存逐个轮流重读）与共享资源：
+ * 纹理由多个模型共享，按引用数平摊到各模型（textureShareBytes），同时单独列出每个纹理的大小与引用数；
+ * 原生侧的动画关键帧、姿态缓存与烘焙舞台同样是共享资源，只汇总总量。
+ * 供内存统计覆盖层显示与 CSV 导出，只在渲染线程调用。
+ */
+public final class ModelMemoryReport {
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * 单个模型实例
+     */
+    public static final class ModelEntry {
+        /** 缓存键（模型名_实例键） */
+        public final String name;
+        public final ModelMemoryUsage usage;
+        /** 按引用数平摊的共享纹理字节数 */
+        public final long textureShareBytes;
+
+        ModelEntry(String name, ModelMemoryUsage usage, long textureShareBytes) {
+            this.name = name;
+            this.usage = usage;
+            this.textureShareBytes = textureShareBytes;
+        }
+    }
+
+    /**
+     * 单个共享纹理
+     */
+    public static final class TextureEntry {
+        public final String path;
+        public final long bytes;
+        /** 引用该纹理的已加载模型数（0 表示已无模型使用但仍在缓存中） */
+        public final int refs;
+
+        TextureEntry(String path, long bytes, int refs) {
+            this.path = path;
+            this.bytes = bytes;
+            this.refs = refs;
+        }
+    }
+
+    /** 按可回收字节数从高到低排列 */
+    public final List<ModelEntry> models;
+    /** 按字节数从高到低排列 */
+    public final List<TextureEntry> textures;
+    public final long textureBytes;
+    /** 已预解码尚未上传的纹理像素（直接内存） */
+    public final long predecodedBytes;
+    /** 模型缓存计重总和与预算 */
+    public final long cacheBytes;
+    public final long cacheBudgetBytes;
+    /** Java 直接内存池已用字节数（-1 表示不可用） */
+    public final long directPoolBytes;
+    /** 原生共享资源：动画关键帧、姿态缓存、烘焙舞台 */
+    public final long animationBytes;
+    public final long poseCacheBytes;
+    public final long bakedStageBytes;
+
+    private ModelMemoryReport(List<ModelEntry> models, List<TextureEntry> textures, long textureBytes,
+                              long predecodedBytes, long cacheBytes, long cacheBudgetBytes, long directPoolBytes,
+                              long[] shared) {
+        this.models = models;
+        this.textures = textures;
+        this.textureBytes = textureBytes;
+        this.predecodedBytes = predecodedBytes;
+        this.cacheBytes = cacheBytes;
+        this.cacheBudgetBytes = cacheBudgetBytes;
+        this.directPoolBytes = directPoolBytes;
+        this.animationBytes = shared[0];
+        this.poseCacheBytes = shared[1];
+        this.bakedStageBytes = shared[2];
+    }
+
+    /**
+     * 采集当前快照
+     */
+    public static ModelMemoryReport collect() {
+        List<String> names = new ArrayList<>();
+        List<ModelMemoryUsage> usages = new ArrayList<>();
+        Map<String, Integer> refs = new HashMap<>();
+        MMDModelManager.forEachLoadedModel((key, model) -> {
+            if (model.model == null) return;
+            ModelMemoryUsage usage = model.model.getMemoryUsage();
+            names.add(key);
+            usages.add(usage);
+            for (String path : usage.getTexturePaths()) {
+                refs.merge(path, 1, Integer::sum);
+            }
+        });
+
+        Map<String, Long> textureSizes = new HashMap<>();
+        MMDTextureManager.forEachTexture(textureSizes::put);
+        List<TextureEntry> textures = new ArrayList<>(textureSizes.size());
+        long textureBytes = 0;
+        for (Map.Entry<String, Long> entry : textureSizes.entrySet()) {
+            textures.add(new TextureEntry(entry.getKey(), entry.getValue(), refs.getOrDefault(entry.getKey(), 0)));
+            textureBytes += entry.getValue();
+        }
+        textures.sort((a, b) -> Long.compare(b.bytes, a.bytes));
+
+        List<ModelEntry> models = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            ModelMemoryUsage usage = usages.get(i);
+            long share = 0;
+            for (String path : usage.getTexturePaths()) {
+                Long bytes = textureSizes.get(path);
+                if (bytes != null) {
+                    share += bytes / refs.get(path);
+                }
+            }
+            models.add(new ModelEntry(names.get(i), usage, share));
+        }
+        models.sort((a, b) -> Long.compare(b.usage.exclusiveBytes(), a.usage.exclusiveBytes()));
+
+        long[] shared = new long[3];
+        NativeFunc.GetInst().GetSharedMemoryUsage(shared);
+
+        return new ModelMemoryReport(Collections.unmodifiableList(models), Collections.unmodifiableList(textures),
+            textureBytes, MMDTextureManager.getPredecodedBytes(), MMDModelManager.getCacheTotalBytes(),
+            Math.max(1, ConfigManager.getModelPoolMaxMemoryMb()) * 1024L * 1024L, ModelCache.getDirectMemoryUsed(),
+            shared);
+    }
+
+    /**
+     * 导出为 CSV（config/mmdskin/profiles/），每个模型、每个共享纹理与每类原生共享资源各一行
+     *
+     * @return 导出的文件，没有数据或写入失败时返回 null
+     */
+    public File dumpCsv() {
+        if (models.isEmpty() && textures.isEmpty() && animationBytes + poseCacheBytes + bakedStageBytes == 0) {
+            return null;
+        }
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.ROOT).format(new Date());
+        File file = PathConstants.getMemoryReportFile(timestamp);
+        PathConstants.ensureDirectoryExists(file.getParentFile());
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            out.println("kind,name,native_mesh,native_runtime,native_morph,native_skeleton,native_physics,"
+                + "direct,gpu,texture,texture_share,shared,refs");
+            for (ModelEntry model : models) {
+                ModelMemoryUsage usage = model.usage;
+                out.printf(Locale.ROOT, "model,%s,%d,%d,%d,%d,%d,%d,%d,%d,%d,,%n", csvField(model.name),
+                    usage.nativeCategory(0), usage.nativeCategory(1), usage.nativeCategory(2), usage.nativeCategory(3),
+                    usage.nativeCategory(4), usage.directBytes, usage.gpuBufferBytes, usage.textureBytes,
+                    model.textureShareBytes);
+            }
+            for (TextureEntry texture : textures) {
+                out.printf(Locale.ROOT, "texture,%s,0,0,0,0,0,0,0,%d,,,%d%n",
+                    csvField(texture.path), texture.bytes, texture.refs);
+            }
+            out.printf(Locale.ROOT, "shared,animation,0,0,0,0,0,0,0,0,,%d,%n", animationBytes);
+            out.printf(Locale.ROOT, "shared,pose_cache,0,0,0,0,0,0,0,0,,%d,%n", poseCacheBytes);
+            out.printf(Locale.ROOT, "shared,baked_stage,0,0,0,0,0,0,0,0,,%d,%n", bakedStageBytes);
+        } catch (IOException e) {
+            logger.error("[内存统计] 导出失败: {}", file, e);
+            return null;
+        }
+        logger.info("[内存统计] 已导出 {} 个模型、{} 个纹理: {}", models.size(), textures.size(), file);
+        return file;
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
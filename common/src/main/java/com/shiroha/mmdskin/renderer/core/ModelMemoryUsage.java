@@ -0,0 +1,241 @@
+package com.shiroha.mmdskin.renderer.core;
+
+import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.renderer.resource.MMDTextureManager;
+import org.lwjgl.opengl.GL46C;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 模型内存占用（字节）
+ *
+ * 由模型实现类在创建 GL 资源后用 {@link Meter} 实测一次（GL 缓冲区大小、引用的纹理路径），
+ * 延迟分配的 SSBO 在分配时用 {@link #withGpuBufferBytes} 更新；{@link IMMDModel#refreshMemoryUsage()}
+ * 只重读会变化的原生内存与共享纹理大小，供 {@link ModelCache} 按字节预算淘汰与内存统计覆盖层显示。
+ * - nativeBytes：Rust 侧模型持有的堆内存（按容量统计，分类见 {@link #NATIVE_CATEGORIES}，物理为估算）
+ * - directBytes：Java 侧直接缓冲区（allocateDirect 与 MemoryUtil 分配；MemoryUtil 为 malloc，
+ *   不受 MaxDirectMemorySize 约束，只计入缓存的字节预算）
+ * - gpuBufferBytes：模型独占的 VBO/SSBO 与自建纹理显存（查询 GL_BUFFER_SIZE）
+ * - textureBytes：模型引用的材质纹理（由 MMDTextureManager 共享，模型释放时不会删除）
+ *
+ * 淘汰模型只能释放前三项，因此缓存按 {@link #exclusiveBytes()} 计重；共享纹理单独统计。
+ */
+public final class ModelMemoryUsage {
+    /** 原生内存分类名称（顺序与 NativeFunc.GetModelMemoryUsage 输出一致） */
+    public static final String[] NATIVE_CATEGORIES = {"mesh", "runtime", "morph", "skeleton", "physics"};
+
+    public static final ModelMemoryUsage EMPTY = new ModelMemoryUsage(new long[NATIVE_CATEGORIES.length], 0, 0, 0,
+        Collections.emptySet());
+
+    public final long nativeBytes;
+    public final long directBytes;
+    public final long gpuBufferBytes;
+    public final long textureBytes;
+    /** 原生内存各分类字节数 */
+    private final long[] nativeDetail;
+    /** 引用的纹理路径（用于统计共享纹理的引用数） */
+    private final Set<String> texturePaths;
+
+    private ModelMemoryUsage(long[] nativeDetail, long directBytes, long gpuBufferBytes, long textureBytes,
+                             Set<String> texturePaths) {
+        long nativeTotal = 0;
+        for (long bytes : nativeDetail) {
+            nativeTotal += bytes;
+        }
+        this.nativeBytes = nativeTotal;
+        this.nativeDetail = nativeDetail;
+        this.directBytes = directBytes;
+        this.gpuBufferBytes = gpuBufferBytes;
+        this.textureBytes = textureBytes;
+        this.texturePaths = texturePaths;
+    }
+
+    /**
+     * 释放该模型即可回收的内存（原生 + 直接缓冲区 + 独占显存）
+     */
+    public long exclusiveBytes() {
+        return nativeBytes + directBytes + gpuBufferBytes;
+    }
+
+    /**
+     * 含共享纹理的总占用
+     */
+    public long total() {
+        return exclusiveBytes() + textureBytes;
+    }
+
+    /**
+     * 原生内存指定分类的字节数
+     *
+     * @param category {@link #NATIVE_CATEGORIES} 中的下标
+     */
+    public long nativeCategory(int category) {
+        return nativeDetail[category];
+    }
+
+    public Set<String> getTexturePaths() {
+        return texturePaths;
+    }
+
+    /**
+     * 重读原生内存与引用纹理的大小，其余部分沿用本次测量
+     * 不查询 GL；物理世界正在步进时沿用上次的物理内存统计，不会等待
+     *
+     * @param modelHandle 原生模型句柄
+     */
+    public ModelMemoryUsage withNativeUsage(long modelHandle) {
+        long[] detail = new long[NATIVE_CATEGORIES.length];
+        NativeFunc.GetInst().GetModelMemoryUsage(modelHandle, detail);
+        return new ModelMemoryUsage(detail, directBytes, gpuBufferBytes, texturePathBytes(texturePaths),
+            texturePaths);
+    }
+
+    /**
+     * 替换独占显存（延迟分配的 GL 缓冲区分配后调用）
+     */
+    public ModelMemoryUsage withGpuBufferBytes(long gpuBufferBytes) {
+        return new ModelMemoryUsage(nativeDetail, directBytes, gpuBufferBytes, textureBytes, texturePaths);
+    }
+
+    /**
+     * 查询 GL 缓冲区对象实际分配的大小之和（渲染线程调用，0 与未分配的对象跳过）
+     */
+    public static long glBufferBytes(int... buffers) {
+        long bytes = 0;
+        for (int buffer : buffers) {
+            if (buffer > 0) {
+                GL46C.glBindBuffer(GL46C.GL_COPY_READ_BUFFER, buffer);
+                bytes += Math.max(0, GL46C.glGetBufferParameteri(GL46C.GL_COPY_READ_BUFFER, GL46C.GL_BUFFER_SIZE));
+            }
+        }
+        GL46C.glBindBuffer(GL46C.GL_COPY_READ_BUFFER, 0);
+        return bytes;
+    }
+
+    private static long texturePathBytes(Set<String> paths) {
+        long bytes = 0;
+        for (String path : paths) {
+            bytes += MMDTextureManager.getTextureBytes(path);
+        }
+        return bytes;
+    }
+
+    /**
+     * 开始测量（渲染线程调用，需在模型的 GL 缓冲区分配之后）
+     *
+     * @param modelHandle 原生模型句柄
+     * @param modelDir 模型目录（用于 lightMap）
+     */
+    public static Meter meter(long modelHandle, String modelDir) {
+        return new Meter(modelHandle, modelDir);
+    }
+
+    /**
+     * 内存测量器：登记模型持有的直接缓冲区与 GL 对象，{@link #build()} 时读取原生侧与纹理占用
+     */
+    public static final class Meter {
+        private final long modelHandle;
+        private final String modelDir;
+        private long directBytes;
+        private long gpuBytes;
+
+        private Meter(long modelHandle, String modelDir) {
+            this.modelHandle = modelHandle;
+            this.modelDir = modelDir;
+        }
+
+        /**
+         * 登记 allocateDirect 分配的直接缓冲区（按容量计，null 跳过）
+         */
+        public Meter direct(Buffer... buffers) {
+            directBytes += capacityBytes(buffers);
+            return this;
+        }
+
+        /**
+         * 登记 MemoryUtil 分配的缓冲区（按容量计，null 跳过；不占用 JVM 直接内存池）
+         */
+        public Meter memAlloc(Buffer... buffers) {
+            directBytes += capacityBytes(buffers);
+            return this;
+        }
+
+        /**
+         * 登记无法直接访问的直接内存（如帧命令缓冲）
+         */
+        public Meter directBytes(long bytes) {
+            directBytes += bytes;
+            return this;
+        }
+
+        /**
+         * 登记 GL 缓冲区对象（查询实际分配的大小，0 与未分配的对象跳过）
+         */
+        public Meter glBuffers(int... buffers) {
+            gpuBytes += glBufferBytes(buffers);
+            return this;
+        }
+
+        /**
+         * 登记其他独占显存（如模型自建的纹理）
+         */
+        public Meter gpuBytes(long bytes) {
+            gpuBytes += bytes;
+            return this;
+        }
+
+        public ModelMemoryUsage build() {
+            NativeFunc nf = NativeFunc.GetInst();
+            long[] nativeDetail = new long[NATIVE_CATEGORIES.length];
+            nf.GetModelMemoryUsage(modelHandle, nativeDetail);
+
+            Set<String> texPaths = new HashSet<>();
+            int matCount = (int) nf.GetMaterialCount(modelHandle);
+            for (int i = 0; i < matCount; i++) {
+                String texPath = nf.GetMaterialTex(modelHandle, i);
+                if (texPath != null && !texPath.isEmpty()) {
+                    texPaths.add(texPath);
+                }
+            }
+            texPaths.add(modelDir + "/lightMap.png");
+
+            return new ModelMemoryUsage(nativeDetail, directBytes, gpuBytes, texturePathBytes(texPaths),
+                Collections.unmodifiableSet(texPaths));
+        }
+
+        private static long capacityBytes(Buffer... buffers) {
+            long bytes = 0;
+            for (Buffer buffer : buffers) {
+                if (buffer != null && buffer.isDirect()) {
+                    bytes += (long) buffer.capacity() * elementBytes(buffer);
+                }
+            }
+            return bytes;
+        }
+
+        private static int elementBytes(Buffer buffer) {
+            if (buffer instanceof ByteBuffer) return 1;
+            if (buffer instanceof ShortBuffer || buffer instanceof CharBuffer) return 2;
+            if (buffer instanceof LongBuffer || buffer instanceof DoubleBuffer) return 8;
+            return 4; // FloatBuffer / IntBuffer
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f MB (native %.1f, direct %.1f, gpu %.1f, tex %.1f)",
+            toMb(total()), toMb(nativeBytes), toMb(directBytes), toMb(gpuBufferBytes), toMb(textureBytes));
+    }
+
+    public static double toMb(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
@@ -0,0 +1,137 @@
+package com.shiroha.mmdskin.renderer.core;
+
+import com.shiroha.mmdskin.config.ModelConfigData;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 模型渲染配置（不可变）
+ *
+ * 由 model.properties 与模型独立配置（{@link ModelConfigData}）在加载或重载时编译一次，
+ * 渲染路径只读取已解析的字段，不再逐帧查询 Properties、解析字符串或查找配置缓存。
+ * 重载时整体替换引用，渲染线程读到的要么是旧配置，要么是完整的新配置。
+ */
+public final class ModelRenderProfile {
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final Vector3fc ZERO = new Vector3f();
+
+    /** 默认配置（属性与模型配置均未加载时使用） */
+    public static final ModelRenderProfile DEFAULT =
+        new ModelRenderProfile(Collections.emptyMap(), Collections.emptyMap(), new ModelConfigData(), -1);
+
+    private final Map<String, Float> floats;
+    private final Map<String, Vector3fc> vectors;
+    /** 编译时的模型配置版本（{@link com.shiroha.mmdskin.config.ModelConfigManager#getVersion()}） */
+    private final int configVersion;
+
+    // ==================== model.properties ====================
+    private final float size;
+    private final float sizeInInventory;
+    private final Vector3fc entityTrans;
+
+    // ==================== 模型独立配置 ====================
+    private final float modelScale;
+    private final boolean eyeTrackingEnabled;
+    private final float eyeMaxAngle;
+
+    private ModelRenderProfile(Map<String, Float> floats, Map<String, Vector3fc> vectors,
+                               ModelConfigData config, int configVersion) {
+        this.floats = floats;
+        this.vectors = vectors;
+        this.configVersion = configVersion;
+        this.size = getFloat("size", 1.0f);
+        this.sizeInInventory = getFloat("size_in_inventory", 1.0f);
+        this.entityTrans = getVector("entityTrans");
+        this.modelScale = config.modelScale;
+        this.eyeTrackingEnabled = config.eyeTrackingEnabled;
+        this.eyeMaxAngle = config.eyeMaxAngle;
+    }
+
+    /**
+     * 编译渲染配置
+     * 数值属性解析为 float，"x,y,z" 形式解析为向量，无法解析的属性忽略
+     *
+     * @param properties model.properties（不会被保留引用）
+     * @param config 模型独立配置（只读取，不保留引用）
+     * @param configVersion 模型配置版本
+     */
+    public static ModelRenderProfile compile(Properties properties, ModelConfigData config, int configVersion) {
+        Map<String, Float> floats = new HashMap<>();
+        Map<String, Vector3fc> vectors = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            try {
+                if (value.indexOf(',') >= 0) {
+                    String[] parts = value.split(",");
+                    if (parts.length == 3) {
+                        vectors.put(key, new Vector3f(Float.parseFloat(parts[0].trim()),
+                            Float.parseFloat(parts[1].trim()), Float.parseFloat(parts[2].trim())));
+                    }
+                } else {
+                    floats.put(key, Float.parseFloat(value));
+                }
+            } catch (NumberFormatException e) {
+                logger.debug("模型属性无法解析为数值: {}={}", key, value);
+            }
+        }
+        return new ModelRenderProfile(Collections.unmodifiableMap(floats), Collections.unmodifiableMap(vectors),
+            config, configVersion);
+    }
+
+    /**
+     * 数值属性（未设置或无法解析时返回默认值）
+     */
+    public float getFloat(String key, float defaultValue) {
+        Float value = floats.get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * 向量属性 "x,y,z"（未设置或无法解析时返回零向量）
+     */
+    public Vector3fc getVector(String key) {
+        Vector3fc value = vectors.get(key);
+        return value != null ? value : ZERO;
+    }
+
+    public int getConfigVersion() {
+        return configVersion;
+    }
+
+    /** 世界中的模型缩放（属性 size） */
+    public float getSize() {
+        return size;
+    }
+
+    /** 物品栏中的模型缩放（属性 size_in_inventory） */
+    public float getSizeInInventory() {
+        return sizeInInventory;
+    }
+
+    /** 实体渲染偏移（属性 entityTrans） */
+    public Vector3fc getEntityTrans() {
+        return entityTrans;
+    }
+
+    /** 模型整体缩放（模型独立配置） */
+    public float getModelScale() {
+        return modelScale;
+    }
+
+    public boolean isEyeTrackingEnabled() {
+        return eyeTrackingEnabled;
+    }
+
+    /** 眼球最大转动角度（弧度） */
+    public float getEyeMaxAngle() {
+        return eyeMaxAngle;
+    }
+}
@@ -0,0 +1,30 @@
+package com.shiroha.mmdskin.renderer.core;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.world.entity.Entity;
+
+/**
+ * 物理 LOD 工具类
+ * 
+ * 计算模型与相机的距离并写入帧命令缓冲，供三种渲染实现共用。
+ */
+public final class PhysicsLodHelper {
+    
+    private PhysicsLodHelper() {
+        // 工具类，禁止实例化
+    }
+    
+    /**
+     * 写入本帧与相机的距离（物品栏等非世界场景按最近处理）
+     * 
+     * @param frameBuffer 帧命令缓冲
+     * @param entity 实体
+     * @param context 渲染上下文
+     */
+    public static void updateLodDistance(ModelFrameBuffer frameBuffer, Entity entity, RenderContext context) {
+        float cameraDistance = context.isWorldScene()
+            ? (float) Minecraft.getInstance().gameRenderer.getMainCamera().getPosition().distanceTo(entity.position())
+            : 0.0f;
+        frameBuffer.setLodDistance(cameraDistance);
+    }
+}
@@ -0,0 +1,120 @@
+package com.shiroha.mmdskin.renderer.core;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * 渲染路径分配探针
+ *
+ * 统计玩家渲染路径每次调用在渲染线程上分配的堆内存（基于 HotSpot 的线程分配计数），
+ * 用于发现每帧分配的回归。默认关闭，以 {@code -Dmmdskin.allocationProbe=true} 启动时启用：
+ *
+ * - 每 {@value #WINDOW} 次采样输出一次平均分配字节数
+ * - 平均值超过预算（{@code -Dmmdskin.allocationProbe.budget=<字节>}，默认 0）时输出警告
+ *
+ * 手持物品由原版物品渲染器绘制，其分配也计入统计；首次遇到新物品、新动作等一次性缓存填充
+ * 只会形成个别尖峰，不影响窗口平均值的判断。仅在渲染线程调用。
+ */
+public final class RenderAllocationProbe {
+    private static final Logger logger = LogManager.getLogger();
+
+    /** 每个统计窗口的采样数 */
+    private static final int WINDOW = 600;
+
+    private static final com.sun.management.ThreadMXBean threadBean = initBean();
+    private static final boolean enabled = threadBean != null;
+    private static final long budget = Long.getLong("mmdskin.allocationProbe.budget", 0L);
+    /** 探针自身读取计数器的开销（启动时校准） */
+    private static final long overhead = enabled ? calibrate() : 0L;
+
+    private static long startBytes = -1;
+    private static int samples = 0;
+    private static int allocatingSamples = 0;
+    private static long totalBytes = 0;
+    private static long maxBytes = 0;
+
+    private RenderAllocationProbe() {}
+
+    private static com.sun.management.ThreadMXBean initBean() {
+        if (!Boolean.getBoolean("mmdskin.allocationProbe")) {
+            return null;
+        }
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                    && bean.isThreadAllocatedMemorySupported()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+                logger.info("[分配探针] 已启用，预算 {} B/次", Long.getLong("mmdskin.allocationProbe.budget", 0L));
+                return bean;
+            }
+        } catch (Throwable t) {
+            logger.warn("[分配探针] 初始化失败", t);
+            return null;
+        }
+        logger.warn("[分配探针] 当前 JVM 不支持线程分配计数，探针未启用");
+        return null;
+    }
+
+    private static long calibrate() {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < 16; i++) {
+            long start = threadBean.getCurrentThreadAllocatedBytes();
+            min = Math.min(min, threadBean.getCurrentThreadAllocatedBytes() - start);
+        }
+        return min;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开始一次采样
+     */
+    public static void begin() {
+        if (!enabled) return;
+        startBytes = threadBean.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * 放弃当前采样（例如回退到原版渲染）
+     */
+    public static void discard() {
+        startBytes = -1;
+    }
+
+    /**
+     * 结束一次采样
+     */
+    public static void end() {
+        if (!enabled || startBytes < 0) return;
+        long allocated = Math.max(0L, threadBean.getCurrentThreadAllocatedBytes() - startBytes - overhead);
+        startBytes = -1;
+
+        samples++;
+        totalBytes += allocated;
+        maxBytes = Math.max(maxBytes, allocated);
+        if (allocated > 0) {
+            allocatingSamples++;
+        }
+        if (samples >= WINDOW) {
+            report();
+        }
+    }
+
+    private static void report() {
+        double average = (double) totalBytes / samples;
+        if (average > budget) {
+            logger.warn("[分配探针] 玩家渲染路径平均分配 {} B/次，超出预算 {} B（{} / {} 次有分配，最大 {} B）",
+                String.format("%.1f", average), budget, allocatingSamples, samples, maxBytes);
+        } else {
+            logger.info("[分配探针] 玩家渲染路径平均分配 {} B/次（{} / {} 次有分配，最大 {} B）",
+                String.format("%.1f", average), allocatingSamples, samples, maxBytes);
+        }
+        samples = 0;
+        allocatingSamples = 0;
+        totalBytes = 0;
+        maxBytes = 0;
+    }
+}
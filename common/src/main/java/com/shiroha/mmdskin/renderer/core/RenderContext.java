@@ -5,6 +5,9 @@ package com.shiroha.mmdskin.renderer.core;
  * 
  * 封装渲染时的上下文信息，替代使用调用栈检测的方式。
  * 提供显式的、类型安全的上下文传递机制。
+ *
+ * 当前渲染阶段由各加载器的 Mixin 在进入/离开世界渲染、物品栏实体预览与 Iris 阴影 pass 时设置，
+ * 渲染器只需读取静态字段，无需分析调用栈。所有读写都在渲染线程上进行。
  */
 public class RenderContext {
     
@@ -20,6 +23,8 @@ public class RenderContext {
         ITEM,
         /** GUI 界面 */
         GUI,
+        /** 光影阴影 pass */
+        SHADOW,
         /** 其他 */
         OTHER
     }
@@ -84,6 +89,63 @@ public class RenderContext {
             .sceneType(SceneType.ITEM)
             .build();
     
+    // ==================== 当前渲染阶段 ====================
+    
+    /** 渲染阶段最大嵌套深度（世界 → 阴影，GUI → 物品栏预览） */
+    private static final int MAX_SCENE_DEPTH = 8;
+    private static final SceneType[] sceneStack = new SceneType[MAX_SCENE_DEPTH];
+    private static int sceneDepth = 0;
+    
+    /**
+     * 进入渲染阶段（与 {@link #popScene()} 成对调用）
+     */
+    public static void pushScene(SceneType scene) {
+        if (sceneDepth < MAX_SCENE_DEPTH) {
+            sceneStack[sceneDepth] = scene;
+        }
+        sceneDepth++;
+    }
+    
+    /**
+     * 离开当前渲染阶段
+     */
+    public static void popScene() {
+        if (sceneDepth > 0) {
+            sceneDepth--;
+        }
+    }
+    
+    /**
+     * 清空渲染阶段（每帧世界渲染开始时调用，防止异常中断导致栈不平衡）
+     */
+    public static void resetScene() {
+        sceneDepth = 0;
+    }
+    
+    /**
+     * 当前渲染阶段，未处于任何已知阶段时返回 {@link SceneType#OTHER}
+     */
+    public static SceneType currentScene() {
+        if (sceneDepth == 0) {
+            return SceneType.OTHER;
+        }
+        return sceneStack[Math.min(sceneDepth, MAX_SCENE_DEPTH) - 1];
+    }
+    
+    /**
+     * 当前是否在物品栏实体预览中渲染
+     */
+    public static boolean isInventoryPass() {
+        return currentScene() == SceneType.INVENTORY;
+    }
+    
+    /**
+     * 当前是否在光影阴影 pass 中渲染
+     */
+    public static boolean isShadowPass() {
+        return currentScene() == SceneType.SHADOW;
+    }
+    
     // ==================== Builder ====================
     
     public static class Builder {
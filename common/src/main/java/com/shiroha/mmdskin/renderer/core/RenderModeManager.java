@@ -2,6 +2,7 @@ package com.shiroha.mmdskin.renderer.core;
 
 import com.shiroha.mmdskin.config.ConfigManager;
 import com.shiroha.mmdskin.renderer.model.ModelInfo;
+import com.shiroha.mmdskin.renderer.resource.GlUploadQueue;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -244,6 +245,15 @@ public class RenderModeManager {
      * @return 创建的模型实例，失败返回 null
      */
     public static IMMDModel createModelFromHandle(long modelHandle, String modelDir, boolean isPMD) {
+        return createModelFromHandle(modelHandle, modelDir, isPMD, null);
+    }
+    
+    /**
+     * 从已加载的模型句柄创建渲染实例，静态数据通过上传队列分帧提交
+     * 
+     * @param uploads 分片上传队列，为 null 时同步上传
+     */
+    public static IMMDModel createModelFromHandle(long modelHandle, String modelDir, boolean isPMD, GlUploadQueue uploads) {
         syncFactoryStates();
         
         List<IMMDModelFactory> sorted = new ArrayList<>(factories);
@@ -260,7 +270,7 @@ public class RenderModeManager {
             logger.info("尝试使用 {} 从句柄创建模型", factory.getModeName());
             
             try {
-                IMMDModel model = factory.createModelFromHandle(modelHandle, modelDir);
+                IMMDModel model = factory.createModelFromHandle(modelHandle, modelDir, uploads);
                 if (model != null) {
                     return model;
                 }
@@ -274,7 +284,7 @@ public class RenderModeManager {
         for (IMMDModelFactory factory : sorted) {
             if (factory.isAvailable()) {
                 try {
-                    IMMDModel model = factory.createModelFromHandle(modelHandle, modelDir);
+                    IMMDModel model = factory.createModelFromHandle(modelHandle, modelDir, uploads);
                     if (model != null) return model;
                 } catch (Exception e) {
                     logger.error("回退工厂 {} 从句柄创建异常", factory.getModeName(), e);
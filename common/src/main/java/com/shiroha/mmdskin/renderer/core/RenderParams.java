@@ -1,5 +1,7 @@
 package com.shiroha.mmdskin.renderer.core;
 
+import net.minecraft.client.player.AbstractClientPlayer;
+import net.minecraft.util.Mth;
 import org.joml.Vector3f;
 
 /**
@@ -7,13 +9,94 @@ import org.joml.Vector3f;
  * 用于传递玩家渲染所需的参数
  */
 public class RenderParams {
+    /** 渲染线程共用实例（每帧每实体 reset 后复用，调用方不得长期持有） */
+    private static final RenderParams SHARED = new RenderParams();
+    
     public float bodyYaw;
     public float bodyPitch;
-    public Vector3f translation;
+    public final Vector3f translation;
     
     public RenderParams() {
         this.bodyYaw = 0.0f;
         this.bodyPitch = 0.0f;
         this.translation = new Vector3f(0.0f);
     }
+    
+    /**
+     * 重置为默认值
+     */
+    public RenderParams reset() {
+        bodyYaw = 0.0f;
+        bodyPitch = 0.0f;
+        translation.zero();
+        return this;
+    }
+    
+    /**
+     * 获取已重置的共用实例（仅渲染线程）
+     */
+    public static RenderParams shared() {
+        return SHARED.reset();
+    }
+    
+    /**
+     * 玩家姿态：决定使用的俯仰/偏移属性（键名预先给定，不在渲染路径拼接）
+     */
+    public enum Posture {
+        DEFAULT(null, null, false),
+        FLYING("flyingPitch", "flyingTrans", true),
+        SLEEPING("sleepingPitch", "sleepingTrans", false),
+        SWIMMING("swimmingPitch", "swimmingTrans", true),
+        CRAWLING("crawlingPitch", "crawlingTrans", false);
+        
+        final String pitchKey;
+        final String transKey;
+        /** 俯仰是否叠加玩家视角俯仰 */
+        final boolean followsViewPitch;
+        
+        Posture(String pitchKey, String transKey, boolean followsViewPitch) {
+            this.pitchKey = pitchKey;
+            this.transKey = transKey;
+            this.followsViewPitch = followsViewPitch;
+        }
+    }
+    
+    /**
+     * 计算玩家渲染参数（写入渲染线程共用实例）
+     */
+    public static RenderParams forPlayer(AbstractClientPlayer player, ModelRenderProfile profile, float tickDelta) {
+        Posture posture;
+        if (player.isFallFlying()) {
+            posture = Posture.FLYING;
+        } else if (player.isSleeping()) {
+            posture = Posture.SLEEPING;
+        } else if (player.isSwimming()) {
+            posture = Posture.SWIMMING;
+        } else if (player.isVisuallyCrawling()) {
+            posture = Posture.CRAWLING;
+        } else {
+            posture = Posture.DEFAULT;
+        }
+        float bedYaw = posture == Posture.SLEEPING ? player.getBedOrientation().toYRot() : 0.0f;
+        return calculate(profile, posture, Mth.rotLerp(tickDelta, player.yBodyRotO, player.yBodyRot),
+            player.getXRot(), bedYaw);
+    }
+    
+    /**
+     * 按姿态计算渲染参数（写入渲染线程共用实例，每帧调用，不分配）
+     *
+     * @param bodyYaw 插值后的身体朝向（度）
+     * @param viewPitch 玩家视角俯仰（度）
+     * @param bedYaw 床的朝向（度，仅睡觉时使用）
+     */
+    public static RenderParams calculate(ModelRenderProfile profile, Posture posture, float bodyYaw,
+                                         float viewPitch, float bedYaw) {
+        RenderParams params = shared();
+        params.bodyYaw = posture == Posture.SLEEPING ? bedYaw + 180.0f : bodyYaw;
+        if (posture != Posture.DEFAULT) {
+            params.bodyPitch = (posture.followsViewPitch ? viewPitch : 0.0f) + profile.getFloat(posture.pitchKey, 0.0f);
+            params.translation.set(profile.getVector(posture.transKey));
+        }
+        return params;
+    }
 }
@@ -4,9 +4,15 @@ import com.shiroha.mmdskin.NativeFunc;
 import com.shiroha.mmdskin.config.ConfigManager;
 import com.shiroha.mmdskin.renderer.camera.MMDCameraController;
 import com.shiroha.mmdskin.renderer.core.EyeTrackingHelper;
+import com.shiroha.mmdskin.renderer.core.FrameStageTimer;
 import com.shiroha.mmdskin.renderer.core.IMMDModel;
 import com.shiroha.mmdskin.renderer.core.IrisCompat;
+import com.shiroha.mmdskin.renderer.core.ModelFrameBuffer;
+import com.shiroha.mmdskin.renderer.core.ModelMemoryUsage;
+import com.shiroha.mmdskin.renderer.core.ModelRenderProfile;
+import com.shiroha.mmdskin.renderer.core.PhysicsLodHelper;
 import com.shiroha.mmdskin.renderer.core.RenderContext;
+import com.shiroha.mmdskin.renderer.resource.GlUploadQueue;
 import com.shiroha.mmdskin.renderer.resource.MMDTextureManager;
 import com.shiroha.mmdskin.renderer.shader.SkinningComputeShader;
 import com.shiroha.mmdskin.renderer.shader.ToonShaderCpu;
@@ -35,7 +41,6 @@ import org.lwjgl.system.MemoryUtil;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
 
 /**
  * GPU 蒙皮 MMD 模型渲染器
@@ -156,9 +161,16 @@ public class MMDModelGpuSkinning implements IMMDModel {
     
     // 时间追踪
     private long lastUpdateTime = -1;
+    /** 每帧命令缓冲（输入、更新与输出合并为一次 JNI 调用） */
+    private ModelFrameBuffer frameBuffer;
+    /** 渲染阶段计时（帧耗时统计） */
+    private final FrameStageTimer stageTimer = new FrameStageTimer();
+    /** 渲染配置（由模型包装器在编译或重载后下发） */
+    private volatile ModelRenderProfile renderProfile = ModelRenderProfile.DEFAULT;
     private static final float MAX_DELTA_TIME = 0.25f; // 最大 250ms（4FPS），防止暂停后跳跃
     
     private boolean initialized = false;
+    private ModelMemoryUsage memoryUsage = ModelMemoryUsage.EMPTY;
     
     private MMDModelGpuSkinning() {}
     
@@ -203,6 +215,16 @@ public class MMDModelGpuSkinning implements IMMDModel {
      * Phase 1（nf.LoadModelPMX/PMD）已在后台线程完成
      */
     public static MMDModelGpuSkinning createFromHandle(long model, String modelDir) {
+        return createFromHandle(model, modelDir, null);
+    }
+    
+    /**
+     * 从已加载的模型句柄创建渲染实例，静态顶点/索引/Morph 数据交给上传队列分帧提交
+     * 
+     * @param uploads 分片上传队列，为 null 时同步上传（Morph 偏移在首帧渲染时上传）；
+     *                非 null 时返回的模型需等队列清空后才能渲染
+     */
+    public static MMDModelGpuSkinning createFromHandle(long model, String modelDir, GlUploadQueue uploads) {
         if (nf == null) nf = NativeFunc.GetInst();
         
         // 初始化 Compute Shader（懒加载，全局共享）
@@ -272,7 +294,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
             nf.CopyDataToByteBuffer(indexBuffer, indexData, indexSize);
             indexBuffer.position(0);
             GL46C.glBindBuffer(GL46C.GL_ELEMENT_ARRAY_BUFFER, indexVbo);
-            GL46C.glBufferData(GL46C.GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL46C.GL_STATIC_DRAW);
+            GlUploadQueue.bufferData(uploads, GL46C.GL_ELEMENT_ARRAY_BUFFER, indexVbo, indexBuffer, GL46C.GL_STATIC_DRAW);
             
             int indexType = switch (indexElementSize) {
                 case 1 -> GL46C.GL_UNSIGNED_BYTE;
@@ -289,7 +311,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
                 logger.warn("原始顶点位置数据复制失败");
             }
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, posVbo);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, posBuffer, GL46C.GL_STATIC_DRAW);
+            GlUploadQueue.bufferData(uploads, GL46C.GL_ARRAY_BUFFER, posVbo, posBuffer, GL46C.GL_STATIC_DRAW);
             
             // 原始法线（静态）
             ByteBuffer norBuffer = ByteBuffer.allocateDirect(vertexCount * 12);
@@ -299,7 +321,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
                 logger.warn("原始法线数据复制失败");
             }
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, norVbo);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, norBuffer, GL46C.GL_STATIC_DRAW);
+            GlUploadQueue.bufferData(uploads, GL46C.GL_ARRAY_BUFFER, norVbo, norBuffer, GL46C.GL_STATIC_DRAW);
             
             // UV（静态）
             ByteBuffer uv0Buffer = ByteBuffer.allocateDirect(vertexCount * 8);
@@ -307,7 +329,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
             long uvData = nf.GetUVs(model);
             nf.CopyDataToByteBuffer(uv0Buffer, uvData, vertexCount * 8);
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv0Vbo);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, uv0Buffer, GL46C.GL_STATIC_DRAW);
+            GlUploadQueue.bufferData(uploads, GL46C.GL_ARRAY_BUFFER, uv0Vbo, uv0Buffer, GL46C.GL_STATIC_DRAW);
             
             // 骨骼索引（静态，ivec4）
             ByteBuffer boneIndicesByteBuffer = ByteBuffer.allocateDirect(vertexCount * 16);
@@ -316,9 +338,8 @@ public class MMDModelGpuSkinning implements IMMDModel {
             if (copiedIdx == 0) {
                 logger.warn("骨骼索引数据复制失败");
             }
-            IntBuffer boneIndicesBuffer = boneIndicesByteBuffer.asIntBuffer();
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, boneIdxVbo);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, boneIndicesBuffer, GL46C.GL_STATIC_DRAW);
+            GlUploadQueue.bufferData(uploads, GL46C.GL_ARRAY_BUFFER, boneIdxVbo, boneIndicesByteBuffer, GL46C.GL_STATIC_DRAW);
             
             // 骨骼权重（静态，vec4）
             ByteBuffer boneWeightsByteBuffer = ByteBuffer.allocateDirect(vertexCount * 16);
@@ -327,9 +348,8 @@ public class MMDModelGpuSkinning implements IMMDModel {
             if (copiedWgt == 0) {
                 logger.warn("骨骼权重数据复制失败");
             }
-            FloatBuffer boneWeightsFloatBuffer = boneWeightsByteBuffer.asFloatBuffer();
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, boneWgtVbo);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, boneWeightsFloatBuffer, GL46C.GL_STATIC_DRAW);
+            GlUploadQueue.bufferData(uploads, GL46C.GL_ARRAY_BUFFER, boneWgtVbo, boneWeightsByteBuffer, GL46C.GL_STATIC_DRAW);
             
             // 顶点颜色缓冲区（Minecraft 标准属性：白色 + 全不透明）
             ByteBuffer colorBuffer = ByteBuffer.allocateDirect(vertexCount * 16);
@@ -351,7 +371,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
             }
             uv1Buffer.flip();
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv1Vbo);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, uv1Buffer, GL46C.GL_STATIC_DRAW);
+            GlUploadQueue.bufferData(uploads, GL46C.GL_ARRAY_BUFFER, uv1Vbo, uv1Buffer, GL46C.GL_STATIC_DRAW);
             
             // UV2 缓冲区（lightmap）
             ByteBuffer uv2Buffer = ByteBuffer.allocateDirect(vertexCount * 8);
@@ -361,7 +381,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
             // 安卓 GL 翻译层（gl4es/ANGLE）对 glVertexAttrib4f 常量属性支持不完整，
             // 导致 Color.a=0 → entity_cutout 着色器 discard → 模型全透明
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, colorVbo);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, colorBuffer, GL46C.GL_STATIC_DRAW);
+            GlUploadQueue.bufferData(uploads, GL46C.GL_ARRAY_BUFFER, colorVbo, colorBuffer, GL46C.GL_STATIC_DRAW);
             // 预分配 UV2 VBO（每帧更新光照数据）
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv2Vbo);
             GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, vertexCount * 8, GL46C.GL_DYNAMIC_DRAW);
@@ -507,6 +527,21 @@ public class MMDModelGpuSkinning implements IMMDModel {
             result.materialMorphResultCount = matMorphCount;
             result.materialMorphResultsBuffer = matMorphResultsBuf;
             result.materialMorphResultsByteBuffer = matMorphResultsByteBuf;
+            result.frameBuffer = new ModelFrameBuffer(model);
+            result.frameBuffer.setMaterialMorphOutput(matMorphResultsByteBuf);
+            // 分帧模式：Morph 偏移（密集格式，可能很大）直接从原生内存分片上传，避免首帧渲染时整体上传
+            if (uploads != null) {
+                if (morphCount > 0) {
+                    queueMorphOffsetsUpload(uploads, result, result.morphOffsetsSSBO,
+                        nf.GetGpuMorphOffsets(model), nf.GetGpuMorphOffsetsSize(model),
+                        () -> result.morphDataUploaded = true);
+                }
+                if (uvMorphCnt > 0) {
+                    queueMorphOffsetsUpload(uploads, result, result.uvMorphOffsetsSSBO,
+                        nf.GetGpuUvMorphOffsets(model), nf.GetGpuUvMorphOffsetsSize(model),
+                        () -> result.uvMorphDataUploaded = true);
+                }
+            }
             result.subMeshCount = (int) nf.GetSubMeshCount(model);
             subMeshDataBufLocal = MemoryUtil.memAlloc(result.subMeshCount * 20);
             subMeshDataBufLocal.order(ByteOrder.LITTLE_ENDIAN);
@@ -516,6 +551,8 @@ public class MMDModelGpuSkinning implements IMMDModel {
             // 启用自动眨眼
             nf.SetAutoBlinkEnabled(model, true);
             
+            result.memoryUsage = result.measureMemory();
+            
             GL46C.glBindVertexArray(0);
             logger.info("GPU 蒙皮模型创建成功（Compute Shader）: {} 顶点, {} 骨骼", vertexCount, boneCount);
             return result;
@@ -570,6 +607,23 @@ public class MMDModelGpuSkinning implements IMMDModel {
         }
     }
     
+    /**
+     * 排队 Morph 偏移 SSBO 的分片上传
+     * 数据指针指向原生模型内部（初始化后不再变化），上传期间模型句柄由调用方保持存活。
+     */
+    private static void queueMorphOffsetsUpload(GlUploadQueue uploads, MMDModelGpuSkinning result, int ssbo,
+                                                long dataPtr, long size, Runnable onComplete) {
+        if (ssbo == 0 || dataPtr == 0 || size <= 0) return;
+        if (size > Integer.MAX_VALUE) {
+            // 超过单缓冲区上限，保持原有的首帧上传路径（由其报告错误）
+            return;
+        }
+        GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, ssbo);
+        GL46C.glBufferData(GL46C.GL_COPY_WRITE_BUFFER, size, GL46C.GL_STATIC_DRAW);
+        GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, 0);
+        uploads.enqueueBuffer(ssbo, MemoryUtil.memByteBuffer(dataPtr, (int) size), onComplete);
+    }
+    
     @Override
     public void render(Entity entityIn, float entityYaw, float entityPitch, Vector3f entityTrans, float tickDelta, PoseStack mat, int packedLight, RenderContext context) {
         if (!initialized) return;
@@ -586,7 +640,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
         // 头部角度处理（舞台播放时归零，由 VMD 动画控制）
         boolean stagePlaying = MMDCameraController.getInstance().isStagePlayingModel(model);
         if (stagePlaying) {
-            nf.SetHeadAngle(model, 0.0f, 0.0f, 0.0f, context.isWorldScene());
+            frameBuffer.setHeadAngle(0.0f, 0.0f, 0.0f);
         } else {
             float headAngleX = Mth.clamp(entityIn.getXRot(), -50.0f, 50.0f);
             float headAngleY = (entityYaw - Mth.lerp(tickDelta, entityIn.yHeadRotO, entityIn.yHeadRot)) % 360.0f;
@@ -596,12 +650,12 @@ public class MMDModelGpuSkinning implements IMMDModel {
             
             float pitchRad = headAngleX * ((float) Math.PI / 180F);
             float yawRad = context.isInventoryScene() ? -headAngleY * ((float) Math.PI / 180F) : headAngleY * ((float) Math.PI / 180F);
-            nf.SetHeadAngle(model, pitchRad, yawRad, 0.0f, context.isWorldScene());
+            frameBuffer.setHeadAngle(pitchRad, yawRad, 0.0f);
         }
         
         // 使用公共工具类更新眼球追踪（传递模型名称，使用每模型独立配置）
         if (!stagePlaying) {
-            EyeTrackingHelper.updateEyeTracking(nf, model, entityIn, entityYaw, tickDelta, getModelName());
+            EyeTrackingHelper.updateEyeTracking(frameBuffer, entityIn, entityYaw, tickDelta, renderProfile);
         }
         
         // 传递实体位置和朝向给物理系统（用于人物移动时的惯性效果）
@@ -613,16 +667,35 @@ public class MMDModelGpuSkinning implements IMMDModel {
         float posZ = (float)(Mth.lerp(tickDelta, entityIn.zo, entityIn.getZ()) * MODEL_SCALE);
         // 使用实体的身体朝向（不是头部朝向）
         float bodyYaw = Mth.lerp(tickDelta, entityIn.yBodyRotO, entityIn.yBodyRot) * ((float) Math.PI / 180F);
-        nf.SetModelPositionAndYaw(model, posX, posY, posZ, bodyYaw);
+        frameBuffer.setPositionAndYaw(posX, posY, posZ, bodyYaw);
+        // 与相机的距离用于物理 LOD
+        PhysicsLodHelper.updateLodDistance(frameBuffer, entityIn, context);
+        // 手持物品与第一人称相机读取本帧的手部矩阵与眼睛骨骼位置
+        frameBuffer.requestBoneOutputs();
         
         Update();
         RenderModel(entityIn, entityYaw, entityPitch, entityTrans, mat);
     }
     
+    @Override
+    public void updateOffscreen() {
+        long currentTime = System.currentTimeMillis();
+        if (lastUpdateTime < 0 || currentTime - lastUpdateTime < OFFSCREEN_UPDATE_INTERVAL_MS) {
+            return;
+        }
+        float deltaTime = Math.min((currentTime - lastUpdateTime) / 1000.0f, MAX_DELTA_TIME);
+        lastUpdateTime = currentTime;
+        
+        // 屏幕外：物理按最远 LOD 步进，只更新动画（不蒙皮、不上传）
+        frameBuffer.setLodDistance(Float.MAX_VALUE);
+        frameBuffer.submit(nf, deltaTime, true);
+    }
+    
     private void Update() {
         long currentTime = System.currentTimeMillis();
         if (lastUpdateTime < 0) {
             lastUpdateTime = currentTime;
+            frameBuffer.submit(nf, -1.0f, true);
             return;
         }
         
@@ -631,6 +704,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
         
         // 跳过零或负增量帧，避免高帧率下动画加速
         if (deltaTime <= 0.0f) {
+            frameBuffer.submit(nf, -1.0f, true);
             return;
         }
         // 限制 deltaTime 上限，防止暂停后物理爆炸
@@ -638,7 +712,8 @@ public class MMDModelGpuSkinning implements IMMDModel {
             deltaTime = MAX_DELTA_TIME;
         }
         
-        nf.UpdateAnimationOnly(model, deltaTime);
+        // 输入应用、动画更新与输出写回合并为一次 JNI 调用
+        frameBuffer.submit(nf, deltaTime, true);
     }
     
     private void RenderModel(Entity entityIn, float entityYaw, float entityPitch, Vector3f entityTrans, PoseStack deliverStack) {
@@ -669,9 +744,10 @@ public class MMDModelGpuSkinning implements IMMDModel {
         deliverStack.mulPose(tempQuat.identity().rotateY(-yawRad));
         deliverStack.mulPose(tempQuat.identity().rotateX(entityPitch * ((float) Math.PI / 180F)));
         deliverStack.translate(entityTrans.x, entityTrans.y, entityTrans.z);
-        float baseScale = 0.09f * com.shiroha.mmdskin.config.ModelConfigManager.getConfig(getModelName()).modelScale;
+        float baseScale = 0.09f * renderProfile.getModelScale();
         deliverStack.scale(baseScale, baseScale, baseScale);
         
+        stageTimer.begin();
         uploadBoneMatrices();
         if (vertexMorphCount > 0) {
             uploadMorphData();
@@ -681,6 +757,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
         }
         if (materialMorphResultCount > 0) {
             fetchMaterialMorphResults();
+            stageTimer.lap(FrameStageTimer.COPY);
         }
         
         // Compute Shader 蒙皮（含 UV Morph）
@@ -695,10 +772,12 @@ public class MMDModelGpuSkinning implements IMMDModel {
             uvMorphOffsetsSSBO, uvMorphWeightsSSBO,
             skinnedUvBuffer, uvMorphCount
         );
+        stageTimer.lap(FrameStageTimer.DISPATCH);
         
         // G3 优化：批量获取所有子网格元数据（1 次 JNI 替代 ~180 次/帧）
         subMeshDataBuf.clear();
         nf.BatchGetSubMeshData(model, subMeshDataBuf);
+        stageTimer.lap(FrameStageTimer.COPY);
         
         boolean useToon = ConfigManager.isToonRenderingEnabled();
         if (useToon) {
@@ -731,6 +810,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
         } else {
             renderNormal(MCinstance, lightIntensity, blockLight, skyLight, skyDarken);
         }
+        stageTimer.flush(frameBuffer);
         
         // === 清理 ===
         cleanupVertexAttributes();
@@ -923,6 +1003,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
             RenderSystem.enableCull();
             
             // 绘制描边（G3 优化：从 subMeshDataBuf 读取）
+            stageTimer.skip();
             for (int i = 0; i < subMeshCount; ++i) {
                 int base = i * 20;
                 int materialID = subMeshDataBuf.getInt(base);
@@ -937,6 +1018,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
                 long startPos = (long) beginIndex * indexElementSize;
                 GL46C.glDrawElements(GL46C.GL_TRIANGLES, count, indexType, startPos);
             }
+            stageTimer.lap(FrameStageTimer.DRAW);
             
             // 恢复背面剔除
             GL46C.glCullFace(GL46C.GL_BACK);
@@ -996,6 +1078,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
      * 绘制所有子网格
      */
     private void drawAllSubMeshes(Minecraft MCinstance) {
+        stageTimer.skip();
         RenderSystem.activeTexture(GL46C.GL_TEXTURE0);
         
         // G3 优化：从预填充的 subMeshDataBuf 读取元数据（0 次 JNI 调用）
@@ -1029,6 +1112,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
             long startPos = (long) beginIndex * indexElementSize;
             GL46C.glDrawElements(GL46C.GL_TRIANGLES, vertCount, indexType, startPos);
         }
+        stageTimer.lap(FrameStageTimer.DRAW);
     }
     
     /**
@@ -1047,8 +1131,10 @@ public class MMDModelGpuSkinning implements IMMDModel {
         floatView.limit(copiedBones * 16);
         boneMatricesBuffer.put(floatView);
         boneMatricesBuffer.flip();
+        stageTimer.lap(FrameStageTimer.COPY);
         
         computeShader.uploadBoneMatrices(boneMatrixSSBO, boneMatricesBuffer, copiedBones);
+        stageTimer.lap(FrameStageTimer.UPLOAD);
     }
     
     /**
@@ -1073,6 +1159,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
                         nf.CopyGpuMorphOffsetsToBuffer(model, offsetsBuffer);
                         computeShader.uploadMorphOffsets(morphOffsetsSSBO, offsetsBuffer);
                         morphDataUploaded = true;
+                        onLateBufferAllocated();
                     } finally {
                         MemoryUtil.memFree(offsetsBuffer);
                     }
@@ -1088,7 +1175,9 @@ public class MMDModelGpuSkinning implements IMMDModel {
             morphWeightsByteBuffer.position(0);
             morphWeightsBuffer.put(morphWeightsByteBuffer.asFloatBuffer());
             morphWeightsBuffer.flip();
+            stageTimer.lap(FrameStageTimer.COPY);
             computeShader.updateMorphWeights(morphWeightsSSBO, morphWeightsBuffer);
+            stageTimer.lap(FrameStageTimer.UPLOAD);
         }
     }
     
@@ -1108,6 +1197,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
                     nf.CopyGpuUvMorphOffsetsToBuffer(model, offsetsBuffer);
                     computeShader.uploadUvMorphOffsets(uvMorphOffsetsSSBO, offsetsBuffer);
                     uvMorphDataUploaded = true;
+                    onLateBufferAllocated();
                 } finally {
                     MemoryUtil.memFree(offsetsBuffer);
                 }
@@ -1122,7 +1212,9 @@ public class MMDModelGpuSkinning implements IMMDModel {
             uvMorphWeightsByteBuffer.position(0);
             uvMorphWeightsBuffer.put(uvMorphWeightsByteBuffer.asFloatBuffer());
             uvMorphWeightsBuffer.flip();
+            stageTimer.lap(FrameStageTimer.COPY);
             computeShader.updateUvMorphWeights(uvMorphWeightsSSBO, uvMorphWeightsBuffer);
+            stageTimer.lap(FrameStageTimer.UPLOAD);
         }
     }
     
@@ -1132,8 +1224,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
     private void fetchMaterialMorphResults() {
         if (materialMorphResultCount <= 0 || materialMorphResultsBuffer == null) return;
         
-        materialMorphResultsByteBuffer.clear();
-        nf.CopyMaterialMorphResultsToBuffer(model, materialMorphResultsByteBuffer);
+        // 结果已由帧命令缓冲在更新时写入 materialMorphResultsByteBuffer
         materialMorphResultsBuffer.clear();
         materialMorphResultsByteBuffer.position(0);
         materialMorphResultsBuffer.put(materialMorphResultsByteBuffer.asFloatBuffer());
@@ -1267,6 +1358,57 @@ public class MMDModelGpuSkinning implements IMMDModel {
         return cachedModelName;
     }
     
+    @Override
+    public void setRenderProfile(ModelRenderProfile profile) {
+        this.renderProfile = profile;
+    }
+    
+    @Override
+    public ModelFrameBuffer getFrameBuffer() {
+        return frameBuffer;
+    }
+    
+    @Override
+    public ModelMemoryUsage getMemoryUsage() {
+        return memoryUsage;
+    }
+    
+    @Override
+    public ModelMemoryUsage refreshMemoryUsage() {
+        memoryUsage = memoryUsage.withNativeUsage(model);
+        return memoryUsage;
+    }
+    
+    private ModelMemoryUsage measureMemory() {
+        return ModelMemoryUsage.meter(model, modelDir)
+            .direct(posBuffer, norBuffer, uv0Buffer, colorBuffer, uv1Buffer, uv2Buffer,
+                morphWeightsByteBuffer, uvMorphWeightsByteBuffer)
+            .memAlloc(boneMatricesBuffer, boneMatricesByteBuffer, modelViewMatBuff, projMatBuff,
+                morphWeightsBuffer, uvMorphWeightsBuffer,
+                materialMorphResultsBuffer, materialMorphResultsByteBuffer, subMeshDataBuf)
+            .directBytes(ModelFrameBuffer.RECORD_SIZE)
+            .gpuBytes(measureGpuBytes())
+            .build();
+    }
+    
+    /**
+     * 独占显存：GL 缓冲区（查询实际大小）与自建的 lightMap 纹理
+     */
+    private long measureGpuBytes() {
+        return ModelMemoryUsage.glBufferBytes(indexBufferObject, positionBufferObject, normalBufferObject,
+                uv0BufferObject, boneIndicesBufferObject, boneWeightsBufferObject, colorBufferObject,
+                uv1BufferObject, uv2BufferObject, skinnedPositionsBuffer, skinnedNormalsBuffer, boneMatrixSSBO,
+                morphOffsetsSSBO, morphWeightsSSBO, uvMorphOffsetsSSBO, uvMorphWeightsSSBO, skinnedUvBuffer)
+            + (lightMapMaterial != null && lightMapMaterial.ownsTexture ? 16 * 16 * 4 : 0);
+    }
+    
+    /**
+     * 首帧才分配存储的 Morph 偏移 SSBO 上传后，重新查询独占显存
+     */
+    private void onLateBufferAllocated() {
+        memoryUsage = memoryUsage.withGpuBufferBytes(measureGpuBytes());
+    }
+    
     @Override
     public void dispose() {
         // 防护：避免 double-free 和 use-after-free
@@ -1334,6 +1476,7 @@ public class MMDModelGpuSkinning implements IMMDModel {
             materialMorphResultsBuffer = null;
         }
         if (materialMorphResultsByteBuffer != null) {
+            if (frameBuffer != null) frameBuffer.setMaterialMorphOutput(null);
             MemoryUtil.memFree(materialMorphResultsByteBuffer);
             materialMorphResultsByteBuffer = null;
         }
@@ -2,16 +2,21 @@ package com.shiroha.mmdskin.renderer.model;
 
 import com.shiroha.mmdskin.MmdSkinClient;
 import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.config.ModelConfigManager;
 import com.shiroha.mmdskin.renderer.animation.MMDAnimManager;
 import com.shiroha.mmdskin.renderer.core.EntityAnimState;
 import com.shiroha.mmdskin.renderer.core.IMMDModel;
 import com.shiroha.mmdskin.renderer.core.IrisCompat;
+import com.shiroha.mmdskin.renderer.core.MMDJfrEvents;
 import com.shiroha.mmdskin.renderer.core.ModelCache;
+import com.shiroha.mmdskin.renderer.core.ModelRenderProfile;
 import com.shiroha.mmdskin.renderer.core.RenderModeManager;
 import com.shiroha.mmdskin.renderer.model.factory.ModelFactoryRegistry;
 import com.shiroha.mmdskin.renderer.resource.MMDTextureManager;
 import com.shiroha.mmdskin.maid.MaidMMDModelManager;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -21,6 +26,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -72,26 +78,66 @@ public class MMDModelManager {
     
     /** 加载代次：每次 cancel 时递增，后台任务完成后检查代次是否匹配，不匹配则自行清理句柄 */
     private static final AtomicLong loadGeneration = new AtomicLong(0);
+    
+    /** 拼接好的完整缓存键：modelName -> cacheKey -> "modelName_cacheKey"（每帧查询不再拼接字符串） */
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<String, String>> fullCacheKeys = new ConcurrentHashMap<>();
 
     public static void Init() {
         // 先注册工厂，再初始化 RenderModeManager
         ModelFactoryRegistry.registerAll();
         
-        modelCache = new ModelCache<>("MMDModel");
+        modelCache = new ModelCache<>("MMDModel", m -> m.model.refreshMemoryUsage().exclusiveBytes());
+        ModelCatalog.start();
         RenderModeManager.init();
+        // 物理运行时参数需在首个模型初始化物理前同步到引擎
+        applyPhysicsRuntimeConfig();
+        applyAnimationRuntimeConfig();
         logger.info("MMDModelManager 初始化完成（异步加载模式）");
     }
 
+    /**
+     * 同步物理运行时参数（模拟线程模式、休眠与距离 LOD）到引擎
+     * 初始化时与配置保存后调用
+     */
+    public static void applyPhysicsRuntimeConfig() {
+        try {
+            NativeFunc nf = NativeFunc.GetInst();
+            nf.SetPhysicsAsyncSimulation(ConfigManager.isPhysicsAsyncSimulation());
+            nf.SetPhysicsSharedWorld(ConfigManager.isPhysicsSharedWorld());
+            nf.SetPhysicsSleepLodConfig(
+                ConfigManager.isPhysicsSleepEnabled(),
+                ConfigManager.getPhysicsSleepLinearVelocity(),
+                ConfigManager.getPhysicsSleepAngularVelocity(),
+                ConfigManager.getPhysicsLodNearDistance(),
+                ConfigManager.getPhysicsLodFarDistance());
+        } catch (UnsatisfiedLinkError e) {
+            logger.warn("物理运行时配置 JNI 方法未找到，请重新编译 Rust 库");
+        }
+    }
+
+    /**
+     * 同步动画运行时参数（循环动画姿态缓存）到引擎
+     * 初始化时与配置保存后调用
+     */
+    public static void applyAnimationRuntimeConfig() {
+        try {
+            NativeFunc.GetInst().SetPoseCacheEnabled(ConfigManager.isAnimationPoseCacheEnabled());
+        } catch (UnsatisfiedLinkError e) {
+            logger.warn("动画运行时配置 JNI 方法未找到，请重新编译 Rust 库");
+        }
+    }
+
     /**
      * 获取模型（带缓存、异步加载和自动清理）
      * 
      * 两阶段异步加载流程：
      * 1. 缓存命中 → 直接返回
      * 2. 缓存未命中 → 提交 Phase 1 到后台线程（nf.LoadModelPMX，最重的 Rust 计算）→ 返回 null
-     * 3. 后台完成 → 下一帧检测到 Future 完成 → 执行 Phase 2（GL 资源创建，在渲染线程）→ 放入缓存
+     * 3. 后台完成 → 下一帧检测到 Future 完成 → 提交到 {@link ModelFinalizer}
+     * 4. Phase 2 按每帧时间预算分片创建 GL 资源（渲染线程）→ 全部完成后放入缓存
      */
     public static Model GetModel(String modelName, String cacheKey) {
-        String fullCacheKey = modelName + "_" + cacheKey;
+        String fullCacheKey = fullCacheKey(modelName, cacheKey);
         
         // 1. 缓存命中
         ModelCache.CacheEntry<Model> entry = modelCache.get(fullCacheKey);
@@ -104,14 +150,19 @@ public class MMDModelManager {
             return null;
         }
         
-        // 2. 检查是否有后台加载已完成
+        // 2. Phase 2 分帧进行中
+        if (ModelFinalizer.isFinalizing(fullCacheKey)) {
+            return null;
+        }
+        
+        // 3. 检查是否有后台加载已完成
         Future<AsyncLoadResult> future = pendingLoads.get(fullCacheKey);
         if (future != null) {
             if (!future.isDone()) {
                 return null; // 仍在加载中
             }
             
-            // 后台加载完成，执行 Phase 2（渲染线程上的 GL 资源创建）
+            // 后台加载完成，提交 Phase 2（渲染线程上分帧创建 GL 资源）
             pendingLoads.remove(fullCacheKey);
             try {
                 AsyncLoadResult result = future.get();
@@ -121,7 +172,8 @@ public class MMDModelManager {
                     return null;
                 }
                 
-                return finalizeModelOnRenderThread(fullCacheKey, result);
+                ModelFinalizer.submit(fullCacheKey, result);
+                return null;
             } catch (Exception e) {
                 logger.error("获取后台加载结果失败: {}", fullCacheKey, e);
                 markFailed(fullCacheKey);
@@ -129,18 +181,21 @@ public class MMDModelManager {
             }
         }
         
-        // 3. 检查是否在失败冷却期内
+        // 4. 检查是否在失败冷却期内
         Long failedTime = failedLoads.get(fullCacheKey);
         if (failedTime != null && (System.currentTimeMillis() - failedTime) < FAILED_RETRY_INTERVAL_MS) {
             return null;
         }
         failedLoads.remove(fullCacheKey);
         
-        // 4. 缓存未命中且无后台任务 → 启动 Phase 1 后台加载
+        // 5. 缓存未命中且无后台任务 → 启动 Phase 1 后台加载
         modelCache.checkAndClean(MMDModelManager::disposeModel);
         
         ModelInfo modelInfo = ModelInfo.findByFolderName(modelName);
         if (modelInfo == null) {
+            if (!ModelCatalog.isReady()) {
+                return null; // 模型目录仍在首次扫描中
+            }
             logger.warn("模型未找到: {}", modelName);
             return null;
         }
@@ -167,11 +222,22 @@ public class MMDModelManager {
             long handle = 0;
             try {
                 NativeFunc nf = NativeFunc.GetInst();
+                MMDJfrEvents.ModelParse parseEvent = new MMDJfrEvents.ModelParse();
+                parseEvent.begin();
                 if (modelInfo.isPMD()) {
                     handle = nf.LoadModelPMD(modelInfo.getModelFilePath(), modelInfo.getFolderPath(), 3);
                 } else {
                     handle = nf.LoadModelPMX(modelInfo.getModelFilePath(), modelInfo.getFolderPath(), 3);
                 }
+                parseEvent.end();
+                if (parseEvent.shouldCommit()) {
+                    parseEvent.modelName = modelName;
+                    parseEvent.file = modelInfo.getModelFileName();
+                    parseEvent.bytes = new File(modelInfo.getModelFilePath()).length();
+                    parseEvent.vertexCount = handle != 0 ? nf.GetVertexCount(handle) : 0;
+                    parseEvent.success = handle != 0;
+                    parseEvent.commit();
+                }
                 
                 long elapsed = System.currentTimeMillis() - startTime;
                 if (handle == 0) {
@@ -189,7 +255,7 @@ public class MMDModelManager {
                 logger.info("[异步加载] 模型解析完成 ({}ms)，开始预解码纹理: {}", elapsed, modelName);
                 
                 // Phase 1.5：预解码所有材质纹理（Rust 解码图片，不涉及 GL）
-                preloadModelTextures(nf, handle, modelInfo.getFolderPath());
+                preloadModelTextures(nf, handle, modelInfo.getFolderPath(), modelName);
                 
                 // 再次检查取消状态（纹理预解码可能耗时较长）
                 if (loadGeneration.get() != myGeneration) {
@@ -220,22 +286,34 @@ public class MMDModelManager {
      * 遍历模型的所有材质，通过 Rust 解码图片文件，将像素数据拷贝到 Java ByteBuffer 缓存。
      * Phase 2 的 GetTexture() 会检测到预解码数据，只做 GL 上传（极快）。
      */
-    private static void preloadModelTextures(NativeFunc nf, long modelHandle, String modelDir) {
+    private static void preloadModelTextures(NativeFunc nf, long modelHandle, String modelDir, String modelName) {
+        MMDJfrEvents.TexturePredecode event = new MMDJfrEvents.TexturePredecode();
+        event.begin();
+        int preloaded = 0;
+        int decoded = 0;
+        long decodedBytes = 0;
         try {
             int matCount = (int) nf.GetMaterialCount(modelHandle);
-            int preloaded = 0;
             
             for (int i = 0; i < matCount; i++) {
                 String texPath = nf.GetMaterialTex(modelHandle, i);
                 if (texPath == null || texPath.isEmpty()) continue;
                 
                 // Rust loader 已将路径组合为绝对路径，所有模型类都直接使用该路径
-                MMDTextureManager.preloadTexture(texPath);
+                long bytes = MMDTextureManager.preloadTexture(texPath);
+                if (bytes > 0) {
+                    decoded++;
+                    decodedBytes += bytes;
+                }
                 preloaded++;
             }
             
             // lightMap 也预解码
-            MMDTextureManager.preloadTexture(modelDir + "/lightMap.png");
+            long bytes = MMDTextureManager.preloadTexture(modelDir + "/lightMap.png");
+            if (bytes > 0) {
+                decoded++;
+                decodedBytes += bytes;
+            }
             
             if (preloaded > 0) {
                 logger.info("[异步加载] 预解码 {} 个材质纹理", preloaded);
@@ -243,43 +321,39 @@ public class MMDModelManager {
         } catch (Exception e) {
             logger.warn("[异步加载] 纹理预解码部分失败（不影响后续加载）", e);
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.modelName = modelName;
+            event.textureCount = preloaded + 1;
+            event.decodedCount = decoded;
+            event.bytes = decodedBytes;
+            event.commit();
+        }
     }
     
     /**
-     * Phase 2：在渲染线程完成 GL 资源创建
+     * Phase 2 完成回调（由 {@link ModelFinalizer} 在渲染线程调用）
      */
-    private static Model finalizeModelOnRenderThread(String fullCacheKey, AsyncLoadResult result) {
-        long startTime = System.currentTimeMillis();
-        
-        try {
-            IMMDModel m = RenderModeManager.createModelFromHandle(
-                result.modelHandle, result.modelInfo.getFolderPath(), result.modelInfo.isPMD());
-            
-            if (m == null) {
-                logger.error("[异步加载] GL 资源创建失败，释放模型句柄: {}", result.modelName);
-                NativeFunc.GetInst().DeleteModel(result.modelHandle);
-                markFailed(fullCacheKey);
-                return null;
-            }
-            
-            MMDAnimManager.AddModel(m);
-            Model model = createModelWrapper(fullCacheKey, m, result.modelName);
-            modelCache.put(fullCacheKey, model);
-            
-            long elapsed = System.currentTimeMillis() - startTime;
-            logger.info("[异步加载] GL 资源创建完成 ({}ms): {} (缓存: {})", elapsed, fullCacheKey, modelCache.size());
-            return model;
-        } catch (Exception e) {
-            logger.error("[异步加载] GL 资源创建异常: {}", fullCacheKey, e);
-            // 异常时尝试释放后台加载的句柄，避免内存泄漏
-            try {
-                NativeFunc.GetInst().DeleteModel(result.modelHandle);
-            } catch (Exception ex) {
-                logger.error("释放模型句柄失败", ex);
-            }
-            markFailed(fullCacheKey);
-            return null;
-        }
+    static void onFinalized(String fullCacheKey, IMMDModel m, String modelName) {
+        MMDAnimManager.AddModel(m);
+        Model model = createModelWrapper(fullCacheKey, m, modelName);
+        modelCache.put(fullCacheKey, model);
+        logger.info("[异步加载] 模型就绪: {} [{}] (缓存: {}, 共 {} MB)", fullCacheKey, m.getMemoryUsage(),
+            modelCache.size(), modelCache.getTotalBytes() / (1024 * 1024));
+    }
+    
+    /**
+     * Phase 2 失败回调（句柄已由 {@link ModelFinalizer} 释放）
+     */
+    static void onFinalizeFailed(String fullCacheKey) {
+        markFailed(fullCacheKey);
+    }
+    
+    /**
+     * GL 报告 GL_OUT_OF_MEMORY 时调用，让缓存尽快释放闲置模型
+     */
+    static void onGlOutOfMemory() {
+        modelCache.onMemoryPressure("GL_OUT_OF_MEMORY");
     }
     
     /**
@@ -293,6 +367,31 @@ public class MMDModelManager {
         return GetModel(modelName, "default");
     }
     
+    /**
+     * 获取已加载完成的模型（不触发加载，未加载时返回 null），供视锥剔除等每帧查询使用
+     */
+    public static Model getLoadedModel(String modelName, String cacheKey) {
+        ModelCache.CacheEntry<Model> entry = modelCache.get(fullCacheKey(modelName, cacheKey));
+        return entry != null ? entry.value : null;
+    }
+    
+    private static String fullCacheKey(String modelName, String cacheKey) {
+        ConcurrentHashMap<String, String> keys = fullCacheKeys.computeIfAbsent(modelName, k -> new ConcurrentHashMap<>());
+        String key = keys.get(cacheKey);
+        if (key == null) {
+            key = modelName + "_" + cacheKey;
+            keys.putIfAbsent(cacheKey, key);
+        }
+        return key;
+    }
+    
+    /**
+     * 遍历已加载的模型（键为缓存键：模型名_实例键）
+     */
+    public static void forEachLoadedModel(BiConsumer<String, Model> action) {
+        modelCache.forEach((key, entry) -> action.accept(key, entry.value));
+    }
+    
     /**
      * 记录模型切换事件，触发延迟清理
      */
@@ -320,6 +419,7 @@ public class MMDModelManager {
             return false;
         });
         failedLoads.entrySet().removeIf(entry -> entry.getKey().startsWith(prefix));
+        ModelFinalizer.cancel(key -> key.startsWith(prefix));
         MMDTextureManager.clearPreloaded();
         
         // 收集所有与该模型相关的缓存键
@@ -358,6 +458,7 @@ public class MMDModelManager {
             return false;
         });
         failedLoads.entrySet().removeIf(entry -> entry.getKey().endsWith(suffix));
+        ModelFinalizer.cancel(key -> key.endsWith(suffix));
         
         // 收集该玩家的缓存键
         java.util.List<String> keysToRemove = new java.util.ArrayList<>();
@@ -394,6 +495,10 @@ public class MMDModelManager {
      * 取消所有正在进行的后台加载任务
      */
     private static void cancelAllPendingLoads() {
+        int finalizing = ModelFinalizer.cancelAll();
+        if (finalizing > 0) {
+            logger.info("已取消 {} 个分帧创建任务", finalizing);
+        }
         if (!pendingLoads.isEmpty()) {
             int count = pendingLoads.size();
             // 递增代次，让正在运行的后台任务完成后自行清理句柄
@@ -425,6 +530,13 @@ public class MMDModelManager {
         }
     }
     
+    /**
+     * 每帧开始时调用（GameRenderer.render 头部），推进分帧 GL 资源创建
+     */
+    public static void onRenderFrame() {
+        ModelFinalizer.tick();
+    }
+    
     /**
      * 定期检查，在渲染循环中调用
      */
@@ -459,14 +571,21 @@ public class MMDModelManager {
      * 查询是否有正在加载的模型
      */
     public static boolean isAnyModelLoading() {
-        return !pendingLoads.isEmpty();
+        return !pendingLoads.isEmpty() || !ModelFinalizer.isEmpty();
+    }
+    
+    /**
+     * 模型缓存计重的内存总和（字节，可回收部分，不含共享纹理）
+     */
+    public static long getCacheTotalBytes() {
+        return modelCache.getTotalBytes();
     }
     
     /**
      * 获取当前正在加载的模型数量
      */
     public static int getPendingLoadCount() {
-        return pendingLoads.size();
+        return pendingLoads.size() + ModelFinalizer.size();
     }
 
     /**
@@ -491,8 +610,24 @@ public class MMDModelManager {
         public IMMDModel model;
         String entityName;
         String modelName;
-        public Properties properties = new Properties();
+        /** 原始属性（只读；重载时整体替换，渲染路径请使用 {@link #getProfile()}） */
+        public volatile Properties properties = new Properties();
         boolean isPropertiesLoaded = false;
+        
+        /** 编译后的渲染配置（重载时整体替换引用） */
+        private volatile ModelRenderProfile profile = ModelRenderProfile.DEFAULT;
+        
+        /**
+         * 获取渲染配置
+         * 模型独立配置被保存或清除缓存后，在此重新编译（只发生在配置变化后的第一次调用）
+         */
+        public ModelRenderProfile getProfile() {
+            ModelRenderProfile current = profile;
+            if (current.getConfigVersion() != ModelConfigManager.getVersion()) {
+                current = compileProfile(properties);
+            }
+            return current;
+        }
 
         public void loadModelProperties(boolean forceReload) {
             if (isPropertiesLoaded && !forceReload) {
@@ -502,20 +637,38 @@ public class MMDModelManager {
             ModelInfo info = ModelInfo.findByFolderName(modelName);
             if (info == null) {
                 logger.warn("模型属性加载失败，模型未找到: {}", modelName);
+                compileProfile(properties);
                 isPropertiesLoaded = true;
                 return;
             }
             
+            // 读入新对象后整体替换，渲染线程不会看到加载到一半的属性
+            Properties loaded = new Properties();
             String path2Properties = info.getFolderPath() + "/model.properties";
             try (InputStream istream = new FileInputStream(path2Properties)) {
-                properties.load(istream);
+                loaded.load(istream);
                 logger.debug("模型属性加载成功: {}", modelName);
             } catch (IOException e) {
                 logger.debug("模型属性文件未找到: {}", modelName);
             }
+            properties = loaded;
+            compileProfile(loaded);
             isPropertiesLoaded = true;
             MmdSkinClient.reloadProperties = false;
-        } 
+        }
+        
+        /**
+         * 编译渲染配置并替换当前引用，同时下发给模型实现
+         */
+        private ModelRenderProfile compileProfile(Properties source) {
+            int version = ModelConfigManager.getVersion();
+            ModelRenderProfile compiled = ModelRenderProfile.compile(source, ModelConfigManager.getConfig(modelName), version);
+            profile = compiled;
+            if (model != null) {
+                model.setRenderProfile(compiled);
+            }
+            return compiled;
+        }
     }
 
     public static class ModelWithEntityData extends Model {
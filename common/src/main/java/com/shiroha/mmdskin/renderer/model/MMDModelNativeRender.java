@@ -3,6 +3,11 @@ package com.shiroha.mmdskin.renderer.model;
 import com.shiroha.mmdskin.NativeFunc;
 import com.shiroha.mmdskin.renderer.core.IMMDModel;
 import com.shiroha.mmdskin.renderer.core.EyeTrackingHelper;
+import com.shiroha.mmdskin.renderer.core.FrameStageTimer;
+import com.shiroha.mmdskin.renderer.core.ModelFrameBuffer;
+import com.shiroha.mmdskin.renderer.core.ModelMemoryUsage;
+import com.shiroha.mmdskin.renderer.core.ModelRenderProfile;
+import com.shiroha.mmdskin.renderer.core.PhysicsLodHelper;
 import com.shiroha.mmdskin.renderer.camera.MMDCameraController;
 import com.shiroha.mmdskin.renderer.core.RenderContext;
 import com.shiroha.mmdskin.renderer.resource.MMDTextureManager;
@@ -75,14 +80,20 @@ public class MMDModelNativeRender implements IMMDModel {
     
     // 时间追踪
     private long lastUpdateTime = -1;
+    /** 每帧命令缓冲（输入、更新与输出合并为一次 JNI 调用） */
+    private ModelFrameBuffer frameBuffer;
+    /** 渲染阶段计时（帧耗时统计） */
+    private final FrameStageTimer stageTimer = new FrameStageTimer();
+    /** 渲染配置（由模型包装器在编译或重载后下发） */
+    private volatile ModelRenderProfile renderProfile = ModelRenderProfile.DEFAULT;
+    private ModelMemoryUsage memoryUsage = ModelMemoryUsage.EMPTY;
     private static final float MAX_DELTA_TIME = 0.25f; // 最大 250ms（4FPS），防止暂停后跳跃
     
     MMDModelNativeRender() {}
     
     private void fetchMaterialMorphResults() {
         if (materialMorphResultCount <= 0 || materialMorphResultsBuffer == null) return;
-        materialMorphResultsByteBuffer.clear();
-        nf.CopyMaterialMorphResultsToBuffer(model, materialMorphResultsByteBuffer);
+        // 结果已由帧命令缓冲在更新时写入 materialMorphResultsByteBuffer
         materialMorphResultsBuffer.clear();
         materialMorphResultsByteBuffer.position(0);
         materialMorphResultsBuffer.put(materialMorphResultsByteBuffer.asFloatBuffer());
@@ -209,10 +220,14 @@ public class MMDModelNativeRender implements IMMDModel {
                 result.materialMorphResultsBuffer = matMorphResultsBuf;
                 result.materialMorphResultsByteBuffer = matMorphResultsByteBuf;
             }
+            result.frameBuffer = new ModelFrameBuffer(model);
+            result.frameBuffer.setMaterialMorphOutput(result.materialMorphResultsByteBuffer);
             
             // 启用自动眨眼
             nf.SetAutoBlinkEnabled(model, true);
             
+            result.memoryUsage = result.measureMemory();
+            
             logger.info("原生渲染模型加载成功 (P2-9): 顶点={}, 子网格={}, 最大子网格顶点={}", vertexCount, subMeshCount, maxVertCount);
             return result;
             
@@ -236,6 +251,36 @@ public class MMDModelNativeRender implements IMMDModel {
         }
     }
     
+    @Override
+    public void setRenderProfile(ModelRenderProfile profile) {
+        this.renderProfile = profile;
+    }
+    
+    @Override
+    public ModelFrameBuffer getFrameBuffer() {
+        return frameBuffer;
+    }
+    
+    @Override
+    public ModelMemoryUsage getMemoryUsage() {
+        return memoryUsage;
+    }
+    
+    @Override
+    public ModelMemoryUsage refreshMemoryUsage() {
+        memoryUsage = memoryUsage.withNativeUsage(model);
+        return memoryUsage;
+    }
+    
+    private ModelMemoryUsage measureMemory() {
+        return ModelMemoryUsage.meter(model, modelDir)
+            .memAlloc(mcVertexBuf, poseMatBuf, normalMatBuf, subMeshDataBuf,
+                materialMorphResultsBuffer, materialMorphResultsByteBuffer)
+            .directBytes(ModelFrameBuffer.RECORD_SIZE)
+            .glBuffers(subMeshVBOs != null ? subMeshVBOs : new int[0])
+            .build();
+    }
+    
     @Override
     public void dispose() {
         if (mcVertexBuf != null) { MemoryUtil.memFree(mcVertexBuf); mcVertexBuf = null; }
@@ -247,6 +292,7 @@ public class MMDModelNativeRender implements IMMDModel {
             materialMorphResultsBuffer = null;
         }
         if (materialMorphResultsByteBuffer != null) {
+            if (frameBuffer != null) frameBuffer.setMaterialMorphOutput(null);
             MemoryUtil.memFree(materialMorphResultsByteBuffer);
             materialMorphResultsByteBuffer = null;
         }
@@ -277,7 +323,7 @@ public class MMDModelNativeRender implements IMMDModel {
         // 头部角度处理（舞台播放时归零，由 VMD 动画控制）
         boolean stagePlaying = MMDCameraController.getInstance().isStagePlayingModel(model);
         if (stagePlaying) {
-            nf.SetHeadAngle(model, 0.0f, 0.0f, 0.0f, context.isWorldScene());
+            frameBuffer.setHeadAngle(0.0f, 0.0f, 0.0f);
         } else {
             float headAngleX = Mth.clamp(entityIn.getXRot(), -50.0f, 50.0f);
             float headAngleY = (entityYaw - Mth.lerp(tickDelta, entityIn.yHeadRotO, entityIn.yHeadRot)) % 360.0f;
@@ -287,7 +333,7 @@ public class MMDModelNativeRender implements IMMDModel {
             
             float pitchRad = headAngleX * ((float) Math.PI / 180F);
             float yawRad = context.isInventoryScene() ? -headAngleY * ((float) Math.PI / 180F) : headAngleY * ((float) Math.PI / 180F);
-            nf.SetHeadAngle(model, pitchRad, yawRad, 0.0f, context.isWorldScene());
+            frameBuffer.setHeadAngle(pitchRad, yawRad, 0.0f);
         }
         
         // 传递实体位置和朝向给物理系统（用于人物移动时的惯性效果）
@@ -296,20 +342,39 @@ public class MMDModelNativeRender implements IMMDModel {
         float posY = (float)(Mth.lerp(tickDelta, entityIn.yo, entityIn.getY()) * MODEL_SCALE);
         float posZ = (float)(Mth.lerp(tickDelta, entityIn.zo, entityIn.getZ()) * MODEL_SCALE);
         float bodyYaw = Mth.lerp(tickDelta, entityIn.yBodyRotO, entityIn.yBodyRot) * ((float) Math.PI / 180F);
-        nf.SetModelPositionAndYaw(model, posX, posY, posZ, bodyYaw);
+        frameBuffer.setPositionAndYaw(posX, posY, posZ, bodyYaw);
+        // 与相机的距离用于物理 LOD
+        PhysicsLodHelper.updateLodDistance(frameBuffer, entityIn, context);
+        // 手持物品与第一人称相机读取本帧的手部矩阵与眼睛骨骼位置
+        frameBuffer.requestBoneOutputs();
         
         if (!stagePlaying) {
-            EyeTrackingHelper.updateEyeTracking(nf, model, entityIn, entityYaw, tickDelta, getModelName());
+            EyeTrackingHelper.updateEyeTracking(frameBuffer, entityIn, entityYaw, tickDelta, renderProfile);
         }
         
         Update();
         RenderModel(entityIn, entityYaw, entityPitch, entityTrans, poseStack, packedLight);
     }
     
+    @Override
+    public void updateOffscreen() {
+        long currentTime = System.currentTimeMillis();
+        if (lastUpdateTime < 0 || currentTime - lastUpdateTime < OFFSCREEN_UPDATE_INTERVAL_MS) {
+            return;
+        }
+        float deltaTime = Math.min((currentTime - lastUpdateTime) / 1000.0f, MAX_DELTA_TIME);
+        lastUpdateTime = currentTime;
+        
+        // 屏幕外：物理按最远 LOD 步进，只更新动画（不蒙皮、不上传）
+        frameBuffer.setLodDistance(Float.MAX_VALUE);
+        frameBuffer.submit(nf, deltaTime, true);
+    }
+    
     private void Update() {
         long currentTime = System.currentTimeMillis();
         if (lastUpdateTime < 0) {
             lastUpdateTime = currentTime;
+            frameBuffer.submit(nf, -1.0f, false);
             return;
         }
         
@@ -322,8 +387,8 @@ public class MMDModelNativeRender implements IMMDModel {
             deltaTime = MAX_DELTA_TIME;
         }
         
-        // Rust 引擎更新动画和蒙皮
-        nf.UpdateModel(model, deltaTime);
+        // 输入应用、模型更新与输出写回合并为一次 JNI 调用
+        frameBuffer.submit(nf, deltaTime, false);
     }
     
     private void RenderModel(Entity entityIn, float entityYaw, float entityPitch, Vector3f entityTrans, PoseStack poseStack, int packedLight) {
@@ -334,11 +399,13 @@ public class MMDModelNativeRender implements IMMDModel {
         poseStack.mulPose(tempQuat.identity().rotateY(-entityYaw * ((float) Math.PI / 180F)));
         poseStack.mulPose(tempQuat.identity().rotateX(entityPitch * ((float) Math.PI / 180F)));
         poseStack.translate(entityTrans.x, entityTrans.y, entityTrans.z);
-        float baseScale = 0.09f * com.shiroha.mmdskin.config.ModelConfigManager.getConfig(getModelName()).modelScale;
+        float baseScale = 0.09f * renderProfile.getModelScale();
         poseStack.scale(baseScale, baseScale, baseScale);
         
         // 获取材质 Morph 结果
+        stageTimer.begin();
         fetchMaterialMorphResults();
+        stageTimer.lap(FrameStageTimer.COPY);
         
         // P2-9: 将 pose/normal 矩阵写入 ByteBuffer，供 Rust 侧矩阵变换使用
         poseMatBuf.clear();
@@ -385,8 +452,10 @@ public class MMDModelNativeRender implements IMMDModel {
         RenderSystem.activeTexture(GL46C.GL_TEXTURE0);
         
         // G3 优化：批量获取所有子网格元数据（1 次 JNI 替代 ~4×N 次/帧）
+        stageTimer.skip();
         subMeshDataBuf.clear();
         nf.BatchGetSubMeshData(model, subMeshDataBuf);
+        stageTimer.lap(FrameStageTimer.COPY);
         
         // 按子网格渲染
         for (int i = 0; i < subMeshCount; i++) {
@@ -401,6 +470,7 @@ public class MMDModelNativeRender implements IMMDModel {
             
             renderSubMesh(packedLight, materialID, bothFace, i, mc);
         }
+        stageTimer.flush(frameBuffer);
         
         // === 清理（一次，与 MMDModelOpenGL/GpuSkinning 保持一致）===
         DefaultVertexFormat.NEW_ENTITY.clearBufferState();
@@ -441,6 +511,8 @@ public class MMDModelNativeRender implements IMMDModel {
         
         // P2-9 核心：Rust 直接构建 MC NEW_ENTITY 格式的交错顶点数据
         int overlayPacked = 0 | (10 << 16); // OverlayTexture.pack(0, 10)
+        // 纹理与剔除状态设置不计入任何阶段；顶点构建（已蒙皮顶点的重排与矩阵变换）计入拷贝
+        stageTimer.skip();
         mcVertexBuf.clear();
         int written = nf.BuildMCVertexBuffer(
             model, subMeshIndex, mcVertexBuf,
@@ -449,14 +521,17 @@ public class MMDModelNativeRender implements IMMDModel {
         );
         if (written <= 0) return;
         mcVertexBuf.position(0).limit(written * 36);
+        stageTimer.lap(FrameStageTimer.COPY);
         
         // 上传到 VBO 并设置顶点属性指针（stride = 36 bytes）
         GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, subMeshVBOs[subMeshIndex]);
         GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, mcVertexBuf);
+        stageTimer.lap(FrameStageTimer.UPLOAD);
         DefaultVertexFormat.NEW_ENTITY.setupBufferState();
         
         // 绘制（不使用索引，顶点已由 Rust 展开）
         GL46C.glDrawArrays(GL46C.GL_TRIANGLES, 0, written);
+        stageTimer.lap(FrameStageTimer.DRAW);
     }
     
     @Override
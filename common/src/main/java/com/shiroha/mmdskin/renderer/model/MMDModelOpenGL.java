@@ -4,9 +4,15 @@ import com.shiroha.mmdskin.MmdSkinClient;
 import com.shiroha.mmdskin.config.ConfigManager;
 import com.shiroha.mmdskin.renderer.camera.MMDCameraController;
 import com.shiroha.mmdskin.renderer.core.EyeTrackingHelper;
+import com.shiroha.mmdskin.renderer.core.FrameStageTimer;
 import com.shiroha.mmdskin.renderer.core.IMMDModel;
 import com.shiroha.mmdskin.renderer.core.IrisCompat;
+import com.shiroha.mmdskin.renderer.core.ModelFrameBuffer;
+import com.shiroha.mmdskin.renderer.core.ModelMemoryUsage;
+import com.shiroha.mmdskin.renderer.core.ModelRenderProfile;
+import com.shiroha.mmdskin.renderer.core.PhysicsLodHelper;
 import com.shiroha.mmdskin.renderer.core.RenderContext;
+import com.shiroha.mmdskin.renderer.resource.GlUploadQueue;
 import com.shiroha.mmdskin.renderer.resource.MMDTextureManager;
 import com.shiroha.mmdskin.renderer.shader.ShaderProvider;
 import com.shiroha.mmdskin.renderer.shader.ToonShaderCpu;
@@ -95,6 +101,12 @@ public class MMDModelOpenGL implements IMMDModel {
     
     // 时间追踪（用于计算 deltaTime）
     private long lastUpdateTime = -1; // -1 表示未初始化
+    /** 每帧命令缓冲（输入、更新与输出合并为一次 JNI 调用） */
+    private ModelFrameBuffer frameBuffer;
+    /** 渲染阶段计时（帧耗时统计） */
+    private final FrameStageTimer stageTimer = new FrameStageTimer();
+    /** 渲染配置（由模型包装器在编译或重载后下发） */
+    private volatile ModelRenderProfile renderProfile = ModelRenderProfile.DEFAULT;
     private static final float MAX_DELTA_TIME = 0.25f; // 最大 250ms（4FPS），防止暂停后跳跃
     
     private FloatBuffer modelViewMatBuff;          // 预分配的矩阵缓冲区
@@ -113,6 +125,7 @@ public class MMDModelOpenGL implements IMMDModel {
     private boolean hasUvMorph = false;
     // 性能优化：标记 VBO 是否已预分配，用于 glBufferSubData
     private boolean vboPreallocated = false;
+    private ModelMemoryUsage memoryUsage = ModelMemoryUsage.EMPTY;
 
     MMDModelOpenGL() {
         // 不在这里初始化时间，等第一次 Update 时初始化
@@ -156,6 +169,15 @@ public class MMDModelOpenGL implements IMMDModel {
      * Phase 1（nf.LoadModelPMX/PMD）已在后台线程完成
      */
     public static MMDModelOpenGL createFromHandle(long model, String modelDir) {
+        return createFromHandle(model, modelDir, null);
+    }
+    
+    /**
+     * 从已加载的模型句柄创建渲染实例，静态顶点/索引数据交给上传队列分帧提交
+     * 
+     * @param uploads 分片上传队列，为 null 时同步上传；非 null 时返回的模型需等队列清空后才能渲染
+     */
+    public static MMDModelOpenGL createFromHandle(long model, String modelDir, GlUploadQueue uploads) {
         if (!isShaderInited && isMMDShaderEnabled)
             InitShader();
         if (nf == null) nf = NativeFunc.GetInst();
@@ -191,7 +213,7 @@ public class MMDModelOpenGL implements IMMDModel {
         nf.CopyDataToByteBuffer(indexBuffer, indexData, indexSize);
         indexBuffer.position(0);
         GL46C.glBindBuffer(GL46C.GL_ELEMENT_ARRAY_BUFFER, indexBufferObject);
-        GL46C.glBufferData(GL46C.GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL46C.GL_STATIC_DRAW);
+        GlUploadQueue.bufferData(uploads, GL46C.GL_ELEMENT_ARRAY_BUFFER, indexBufferObject, indexBuffer, GL46C.GL_STATIC_DRAW);
 
         int indexType = switch (indexElementSize) {
             case 1 -> GL46C.GL_UNSIGNED_BYTE;
@@ -267,19 +289,20 @@ public class MMDModelOpenGL implements IMMDModel {
         long uv0Data = nf.GetUVs(model);
         nf.CopyDataToByteBuffer(uv0Buffer, uv0Data, uv0Size);
         GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv0BufferObject);
-        GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, uv0Buffer, GL46C.GL_DYNAMIC_DRAW);
+        GlUploadQueue.bufferData(uploads, GL46C.GL_ARRAY_BUFFER, uv0BufferObject, uv0Buffer, GL46C.GL_DYNAMIC_DRAW);
         
         // 性能优化：uv1 是静态数据（永远是 {15, 15}），只在创建时上传一次
         GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv1BufferObject);
-        GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, uv1Buffer, GL46C.GL_STATIC_DRAW);
+        GlUploadQueue.bufferData(uploads, GL46C.GL_ARRAY_BUFFER, uv1BufferObject, uv1Buffer, GL46C.GL_STATIC_DRAW);
         // 安卓兼容：上传白色 Color VBO + 预分配 UV2 VBO
         // 安卓 GL 翻译层（gl4es/ANGLE）对 glVertexAttrib4f 常量属性支持不完整，
         // 导致 Color.a=0 → entity_cutout 着色器 discard → 模型全透明。改用 VBO 确保跨平台兼容。
         GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, colorBufferObject);
-        GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, colorBuffer, GL46C.GL_STATIC_DRAW);
+        GlUploadQueue.bufferData(uploads, GL46C.GL_ARRAY_BUFFER, colorBufferObject, colorBuffer, GL46C.GL_STATIC_DRAW);
         GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv2BufferObject);
         GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, vertexCount * 8, GL46C.GL_DYNAMIC_DRAW);
         GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, 0);
+        GL46C.glBindVertexArray(0);
 
         MMDModelOpenGL result = new MMDModelOpenGL();
         result.model = model;
@@ -321,13 +344,50 @@ public class MMDModelOpenGL implements IMMDModel {
             result.materialMorphResultsByteBuffer = MemoryUtil.memAlloc(floatCount * 4);
             result.materialMorphResultsByteBuffer.order(ByteOrder.LITTLE_ENDIAN);
         }
+        result.frameBuffer = new ModelFrameBuffer(model);
+        result.frameBuffer.setMaterialMorphOutput(result.materialMorphResultsByteBuffer);
         
         // 启用自动眨眼
         nf.SetAutoBlinkEnabled(model, true);
         
+        result.memoryUsage = result.measureMemory();
+        
         return result;
     }
 
+    @Override
+    public void setRenderProfile(ModelRenderProfile profile) {
+        this.renderProfile = profile;
+    }
+    
+    @Override
+    public ModelFrameBuffer getFrameBuffer() {
+        return frameBuffer;
+    }
+    
+    @Override
+    public ModelMemoryUsage getMemoryUsage() {
+        return memoryUsage;
+    }
+    
+    @Override
+    public ModelMemoryUsage refreshMemoryUsage() {
+        memoryUsage = memoryUsage.withNativeUsage(model);
+        return memoryUsage;
+    }
+    
+    private ModelMemoryUsage measureMemory() {
+        return ModelMemoryUsage.meter(model, modelDir)
+            .direct(posBuffer, colorBuffer, norBuffer, uv0Buffer, uv1Buffer, uv2Buffer)
+            .memAlloc(modelViewMatBuff, projMatBuff, light0Buff, light1Buff,
+                materialMorphResultsBuffer, materialMorphResultsByteBuffer)
+            .directBytes(ModelFrameBuffer.RECORD_SIZE)
+            .glBuffers(indexBufferObject, vertexBufferObject, colorBufferObject, normalBufferObject,
+                texcoordBufferObject, uv1BufferObject, uv2BufferObject)
+            .gpuBytes(lightMapMaterial != null && lightMapMaterial.ownsTexture ? 16 * 16 * 4 : 0)
+            .build();
+    }
+    
     @Override
     public void dispose() {
         nf.DeleteModel(model);
@@ -354,6 +414,7 @@ public class MMDModelOpenGL implements IMMDModel {
             materialMorphResultsBuffer = null;
         }
         if (materialMorphResultsByteBuffer != null) {
+            if (frameBuffer != null) frameBuffer.setMaterialMorphOutput(null);
             MemoryUtil.memFree(materialMorphResultsByteBuffer);
             materialMorphResultsByteBuffer = null;
         }
@@ -388,7 +449,7 @@ public class MMDModelOpenGL implements IMMDModel {
         // 头部角度处理（舞台播放时归零，由 VMD 动画控制）
         boolean stagePlaying = MMDCameraController.getInstance().isStagePlayingModel(model);
         if (stagePlaying) {
-            nf.SetHeadAngle(model, 0.0f, 0.0f, 0.0f, context.isWorldScene());
+            frameBuffer.setHeadAngle(0.0f, 0.0f, 0.0f);
         } else {
             float headAngleX = Mth.clamp(entityIn.getXRot(), -50.0f, 50.0f);
             float headAngleY = (entityYaw - Mth.lerp(tickDelta, entityIn.yHeadRotO, entityIn.yHeadRot)) % 360.0f;
@@ -398,12 +459,12 @@ public class MMDModelOpenGL implements IMMDModel {
             
             float pitchRad = headAngleX * ((float)Math.PI / 180F);
             float yawRad = context.isInventoryScene() ? -headAngleY * ((float)Math.PI / 180F) : headAngleY * ((float)Math.PI / 180F);
-            nf.SetHeadAngle(model, pitchRad, yawRad, 0.0f, context.isWorldScene());
+            frameBuffer.setHeadAngle(pitchRad, yawRad, 0.0f);
         }
         
         // 使用公共工具类更新眼球追踪（传递模型名称，使用每模型独立配置）
         if (!stagePlaying) {
-            EyeTrackingHelper.updateEyeTracking(nf, model, entityIn, entityYaw, tickDelta, getModelName());
+            EyeTrackingHelper.updateEyeTracking(frameBuffer, entityIn, entityYaw, tickDelta, renderProfile);
         }
         
         // 传递实体位置和朝向给物理系统（用于人物移动时的惯性效果）
@@ -412,7 +473,11 @@ public class MMDModelOpenGL implements IMMDModel {
         float posY = (float)(Mth.lerp(tickDelta, entityIn.yo, entityIn.getY()) * MODEL_SCALE);
         float posZ = (float)(Mth.lerp(tickDelta, entityIn.zo, entityIn.getZ()) * MODEL_SCALE);
         float bodyYaw = Mth.lerp(tickDelta, entityIn.yBodyRotO, entityIn.yBodyRot) * ((float) Math.PI / 180F);
-        nf.SetModelPositionAndYaw(model, posX, posY, posZ, bodyYaw);
+        frameBuffer.setPositionAndYaw(posX, posY, posZ, bodyYaw);
+        // 与相机的距离用于物理 LOD
+        PhysicsLodHelper.updateLodDistance(frameBuffer, entityIn, context);
+        // 手持物品与第一人称相机读取本帧的手部矩阵与眼睛骨骼位置
+        frameBuffer.requestBoneOutputs();
         
         Update();
         RenderModel(entityIn, entityYaw, entityPitch, entityTrans, mat);
@@ -457,8 +522,7 @@ public class MMDModelOpenGL implements IMMDModel {
     private void fetchMaterialMorphResults() {
         if (materialMorphResultCount <= 0 || materialMorphResultsBuffer == null) return;
         
-        materialMorphResultsByteBuffer.clear();
-        nf.CopyMaterialMorphResultsToBuffer(model, materialMorphResultsByteBuffer);
+        // 结果已由帧命令缓冲在更新时写入 materialMorphResultsByteBuffer
         materialMorphResultsBuffer.clear();
         materialMorphResultsByteBuffer.position(0);
         materialMorphResultsBuffer.put(materialMorphResultsByteBuffer.asFloatBuffer());
@@ -479,6 +543,20 @@ public class MMDModelOpenGL implements IMMDModel {
         return baseAlpha * mulAlpha + addAlpha;
     }
     
+    @Override
+    public void updateOffscreen() {
+        long currentTime = System.currentTimeMillis();
+        if (lastUpdateTime < 0 || currentTime - lastUpdateTime < OFFSCREEN_UPDATE_INTERVAL_MS) {
+            return;
+        }
+        float deltaTime = Math.min((currentTime - lastUpdateTime) / 1000.0f, MAX_DELTA_TIME);
+        lastUpdateTime = currentTime;
+        
+        // 屏幕外：物理按最远 LOD 步进，只更新动画（不蒙皮、不上传）
+        frameBuffer.setLodDistance(Float.MAX_VALUE);
+        frameBuffer.submit(nf, deltaTime, true);
+    }
+    
     void Update() {
         // 计算真实的 deltaTime（秒）
         long currentTime = System.currentTimeMillis();
@@ -486,6 +564,7 @@ public class MMDModelOpenGL implements IMMDModel {
         // 第一次调用，初始化时间
         if (lastUpdateTime < 0) {
             lastUpdateTime = currentTime;
+            frameBuffer.submit(nf, -1.0f, false);
             return; // 第一帧不更新物理，避免异常大的 deltaTime
         }
         
@@ -498,7 +577,8 @@ public class MMDModelOpenGL implements IMMDModel {
             deltaTime = MAX_DELTA_TIME;
         }
         
-        nf.UpdateModel(model, deltaTime);
+        // 输入应用、模型更新与输出写回合并为一次 JNI 调用
+        frameBuffer.submit(nf, deltaTime, false);
     }
 
     void RenderModel(Entity entityIn, float entityYaw, float entityPitch, Vector3f entityTrans, PoseStack deliverStack) {
@@ -531,7 +611,7 @@ public class MMDModelOpenGL implements IMMDModel {
         deliverStack.mulPose(tempQuat.identity().rotateY(-yawRad));
         deliverStack.mulPose(tempQuat.identity().rotateX(entityPitch*((float)Math.PI / 180F)));
         deliverStack.translate(entityTrans.x, entityTrans.y, entityTrans.z);
-        float baseScale = 0.09f * com.shiroha.mmdskin.config.ModelConfigManager.getConfig(getModelName()).modelScale;
+        float baseScale = 0.09f * renderProfile.getModelScale();
         deliverStack.scale(baseScale, baseScale, baseScale);
         
         // 获取材质 Morph 结果
@@ -590,24 +670,31 @@ public class MMDModelOpenGL implements IMMDModel {
         RenderSystem.blendFunc(GlStateManager.SourceFactor.SRC_ALPHA, GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA);
 
         // === 上传顶点数据到 VBO（使用 glBufferSubData 仅更新数据，避免每帧重分配 GPU 内存）===
+        stageTimer.begin();
         int posAndNorSize = vertexCount * 12; // float * 3
         long posData = nf.GetPoss(model);
         nf.CopyDataToByteBuffer(posBuffer, posData, posAndNorSize);
+        stageTimer.lap(FrameStageTimer.COPY);
         GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, vertexBufferObject);
         GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, posBuffer);
+        stageTimer.lap(FrameStageTimer.UPLOAD);
 
         long normalData = nf.GetNormals(model);
         nf.CopyDataToByteBuffer(norBuffer, normalData, posAndNorSize);
+        stageTimer.lap(FrameStageTimer.COPY);
         GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, normalBufferObject);
         GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, norBuffer);
+        stageTimer.lap(FrameStageTimer.UPLOAD);
 
         // 性能优化：无 UV Morph 时跳过 UV0 重传（已在创建时上传）
         if (hasUvMorph) {
             int uv0Size = vertexCount * 8; // float * 2
             long uv0Data = nf.GetUVs(model);
             nf.CopyDataToByteBuffer(uv0Buffer, uv0Data, uv0Size);
+            stageTimer.lap(FrameStageTimer.COPY);
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, texcoordBufferObject);
             GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, uv0Buffer);
+            stageTimer.lap(FrameStageTimer.UPLOAD);
         }
 
         // 性能优化：uv1 已在创建时上传，无需每帧重传
@@ -622,8 +709,10 @@ public class MMDModelOpenGL implements IMMDModel {
             uv2Buffer.putInt(skyBrightness);
         }
         uv2Buffer.flip();
+        stageTimer.lap(FrameStageTimer.COPY);
         GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv2BufferObject);
         GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, uv2Buffer);
+        stageTimer.lap(FrameStageTimer.UPLOAD);
         if (uv2Location != -1) {
             GL46C.glEnableVertexAttribArray(uv2Location);
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv2BufferObject);
@@ -774,6 +863,7 @@ public class MMDModelOpenGL implements IMMDModel {
         }
 
         //Draw
+        stageTimer.skip();
         RenderSystem.activeTexture(GL46C.GL_TEXTURE0);
         long subMeshCount = nf.GetSubMeshCount(model);
         for (long i = 0; i < subMeshCount; ++i) {
@@ -804,6 +894,8 @@ public class MMDModelOpenGL implements IMMDModel {
 
             GL46C.glDrawElements(GL46C.GL_TRIANGLES, count, indexType, startPos);
         }
+        stageTimer.lap(FrameStageTimer.DRAW);
+        stageTimer.flush(frameBuffer);
 
         if(KAIMyLocationV != -1)
             GL46C.glUniform1i(KAIMyLocationV, 0);
@@ -874,11 +966,13 @@ public class MMDModelOpenGL implements IMMDModel {
         }
         
         // 获取蒙皮后的顶点数据（由 Rust 引擎计算）并一次性上传到 VBO（两遍共用）
+        stageTimer.begin();
         int posAndNorSize = vertexCount * 12;
         long posData = nf.GetPoss(model);
         nf.CopyDataToByteBuffer(posBuffer, posData, posAndNorSize);
         long normalData = nf.GetNormals(model);
         nf.CopyDataToByteBuffer(norBuffer, normalData, posAndNorSize);
+        stageTimer.lap(FrameStageTimer.COPY);
         
         // 上传顶点数据到 VBO（glBufferSubData，描边和主体两遍共用，避免重复上传）
         GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, vertexBufferObject);
@@ -892,6 +986,7 @@ public class MMDModelOpenGL implements IMMDModel {
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, texcoordBufferObject);
             GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, uv0Buffer);
         }
+        stageTimer.lap(FrameStageTimer.UPLOAD);
         
         // 设置矩阵
         modelViewMatBuff.clear();
@@ -934,6 +1029,7 @@ public class MMDModelOpenGL implements IMMDModel {
             RenderSystem.enableCull();
             
             // 绘制所有子网格
+            stageTimer.skip();
             long subMeshCount = nf.GetSubMeshCount(model);
             for (long i = 0; i < subMeshCount; ++i) {
                 int materialID = nf.GetSubMeshMaterialID(model, i);
@@ -945,6 +1041,7 @@ public class MMDModelOpenGL implements IMMDModel {
                 int count = nf.GetSubMeshVertexCount(model, i);
                 GL46C.glDrawElements(GL46C.GL_TRIANGLES, count, indexType, startPos);
             }
+            stageTimer.lap(FrameStageTimer.DRAW);
             
             // 恢复背面剔除
             GL46C.glCullFace(GL46C.GL_BACK);
@@ -992,6 +1089,7 @@ public class MMDModelOpenGL implements IMMDModel {
         toonShaderCpu.setSpecular(toonConfig.getSpecularPower(), toonConfig.getSpecularIntensity());
         
         // 绘制所有子网格
+        stageTimer.skip();
         RenderSystem.activeTexture(GL46C.GL_TEXTURE0);
         long subMeshCount = nf.GetSubMeshCount(model);
         for (long i = 0; i < subMeshCount; ++i) {
@@ -1021,6 +1119,8 @@ public class MMDModelOpenGL implements IMMDModel {
             
             GL46C.glDrawElements(GL46C.GL_TRIANGLES, count, indexType, startPos);
         }
+        stageTimer.lap(FrameStageTimer.DRAW);
+        stageTimer.flush(frameBuffer);
         
         // 清理顶点属性
         if (posLoc != -1) GL46C.glDisableVertexAttribArray(posLoc);
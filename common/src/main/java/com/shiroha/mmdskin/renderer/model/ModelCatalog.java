@@ -0,0 +1,280 @@
+package com.shiroha.mmdskin.renderer.model;
+
+import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.config.PathConstants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 模型目录索引（SRP - 只负责维护 EntityPlayer 下的模型列表）
+ *
+ * - 后台线程完成首次全量扫描，之后由 WatchService 增量更新
+ * - 文件夹名 → ModelInfo 哈希索引，查找 O(1)，渲染线程不再触发磁盘 I/O
+ * - 监听根目录（文件夹增删改名）与每个模型文件夹（PMX/PMD 增删改）
+ * - 事件溢出时全量重扫；WatchService 不可用（如部分网络驱动器）时退化为后台定时重扫
+ * - 首次扫描完成后按配置提交缩略图批量生成（{@link ModelThumbnailManager}）
+ * - 查询从不阻塞调用线程：扫描未完成时返回当前快照，界面根据 {@link #isReady()} 显示扫描中，
+ *   并在 {@link #getVersion()} 变化时刷新列表
+ */
+public final class ModelCatalog {
+    private static final Logger logger = LogManager.getLogger();
+
+    /** WatchService 不可用时的后台重扫间隔 */
+    private static final long POLL_INTERVAL_MS = 30_000;
+
+    private static final Map<String, ModelInfo> index = new ConcurrentHashMap<>();
+    private static volatile List<ModelInfo> sortedSnapshot = Collections.emptyList();
+    private static volatile boolean snapshotDirty = true;
+    /** 索引版本：每次扫描或增量更新后递增 */
+    private static final AtomicInteger version = new AtomicInteger();
+
+    private static final CountDownLatch initialScanDone = new CountDownLatch(1);
+    private static volatile boolean rescanRequested = false;
+    private static Thread watcherThread;
+
+    private ModelCatalog() {}
+
+    /**
+     * 启动后台扫描与监听线程（重复调用无副作用）
+     */
+    public static synchronized void start() {
+        if (watcherThread != null) {
+            return;
+        }
+        watcherThread = new Thread(ModelCatalog::run, "MMD-ModelCatalog");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+    }
+
+    /**
+     * 首次扫描是否已完成
+     */
+    public static boolean isReady() {
+        return initialScanDone.getCount() == 0;
+    }
+
+    /**
+     * 索引版本（首次扫描完成、重扫或目录变化后递增，界面据此判断是否需要刷新列表）
+     */
+    public static int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * 按文件夹名查找（O(1)，不访问磁盘）
+     */
+    public static ModelInfo find(String folderName) {
+        return index.get(folderName);
+    }
+
+    /**
+     * 获取按文件夹名排序的模型列表（不等待扫描，首次扫描未完成时可能为空或不完整）
+     */
+    public static List<ModelInfo> getModels() {
+        if (snapshotDirty) {
+            snapshotDirty = false;
+            List<ModelInfo> models = new ArrayList<>(index.values());
+            models.sort((a, b) -> a.getFolderName().compareToIgnoreCase(b.getFolderName()));
+            sortedSnapshot = Collections.unmodifiableList(models);
+        }
+        return sortedSnapshot;
+    }
+
+    /**
+     * 请求后台全量重扫（不阻塞调用线程）
+     */
+    public static void requestRescan() {
+        rescanRequested = true;
+        Thread t = watcherThread;
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+
+    // ==================== 后台线程 ====================
+
+    private static void run() {
+        File rootDir = PathConstants.getEntityPlayerDir();
+        PathConstants.ensureDirectoryExists(rootDir);
+
+        fullScan(rootDir);
+        initialScanDone.countDown();
+        version.incrementAndGet();
+        if (ConfigManager.isThumbnailPregenerate()) {
+            ModelThumbnailManager.pregenerate(getModels());
+        }
+
+        WatchService watcher;
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("WatchService 不可用，改为每 {} 秒后台重扫模型目录", POLL_INTERVAL_MS / 1000, e);
+            pollLoop(rootDir);
+            return;
+        }
+
+        Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+        Path root = rootDir.toPath();
+        if (!register(watcher, keys, root)) {
+            pollLoop(rootDir);
+            return;
+        }
+        for (ModelInfo info : index.values()) {
+            register(watcher, keys, new File(info.getFolderPath()).toPath());
+        }
+        logger.info("模型目录监听已启动: {} ({} 个文件夹)", root, keys.size() - 1);
+
+        while (true) {
+            WatchKey key;
+            try {
+                key = watcher.take();
+            } catch (InterruptedException e) {
+                if (rescanRequested) {
+                    rescanRequested = false;
+                    fullScan(rootDir);
+                    registerAll(watcher, keys);
+                }
+                continue;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path dir = keys.get(key);
+            boolean overflow = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    overflow = true;
+                    continue;
+                }
+                if (dir == null) continue;
+                Path name = (Path) event.context();
+                if (dir.equals(root)) {
+                    // 根目录事件：模型文件夹新增/删除/改名
+                    Path folder = root.resolve(name);
+                    updateFolder(folder.toFile());
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && folder.toFile().isDirectory()) {
+                        register(watcher, keys, folder);
+                    }
+                } else if (isModelFile(name.toString())) {
+                    // 模型文件夹内事件：PMX/PMD 增删改
+                    updateFolder(dir.toFile());
+                }
+            }
+
+            if (!key.reset()) {
+                keys.remove(key);
+                if (dir != null && dir.equals(root)) {
+                    logger.warn("模型根目录监听失效，改为后台定时重扫");
+                    pollLoop(rootDir);
+                    return;
+                }
+            }
+
+            if (overflow || rescanRequested) {
+                rescanRequested = false;
+                fullScan(rootDir);
+                registerAll(watcher, keys);
+            }
+        }
+    }
+
+    private static void pollLoop(File rootDir) {
+        while (true) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException ignored) {
+                // requestRescan 唤醒
+            }
+            rescanRequested = false;
+            fullScan(rootDir);
+        }
+    }
+
+    private static boolean register(WatchService watcher, Map<WatchKey, Path> keys, Path dir) {
+        try {
+            WatchKey key = dir.register(watcher,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+            keys.put(key, dir);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("无法监听目录: {}", dir, e);
+            return false;
+        }
+    }
+
+    private static void registerAll(WatchService watcher, Map<WatchKey, Path> keys) {
+        for (ModelInfo info : index.values()) {
+            Path dir = new File(info.getFolderPath()).toPath();
+            if (!keys.containsValue(dir)) {
+                register(watcher, keys, dir);
+            }
+        }
+    }
+
+    /**
+     * 全量扫描，结果与索引做差量合并
+     */
+    private static void fullScan(File rootDir) {
+        long start = System.currentTimeMillis();
+        File[] modelDirs = rootDir.isDirectory() ? rootDir.listFiles(File::isDirectory) : null;
+        if (modelDirs == null) {
+            logger.warn("EntityPlayer 目录不存在: " + rootDir.getAbsolutePath());
+            modelDirs = new File[0];
+        }
+
+        Map<String, ModelInfo> scanned = new ConcurrentHashMap<>();
+        for (File modelDir : modelDirs) {
+            ModelInfo info = ModelInfo.scanModelFolder(modelDir);
+            if (info != null) {
+                scanned.put(info.getFolderName(), info);
+                logger.debug("发现模型: {} -> {}", info.getFolderName(), info.getModelFileName());
+            }
+        }
+
+        index.keySet().retainAll(scanned.keySet());
+        index.putAll(scanned);
+        snapshotDirty = true;
+        version.incrementAndGet();
+        logger.info("共扫描到 {} 个模型 ({}ms)", index.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 重新扫描单个模型文件夹并更新索引
+     */
+    private static void updateFolder(File folder) {
+        String name = folder.getName();
+        ModelInfo info = folder.isDirectory() ? ModelInfo.scanModelFolder(folder) : null;
+        if (info != null) {
+            index.put(name, info);
+            logger.debug("模型目录更新: {} -> {}", name, info.getModelFileName());
+        } else if (index.remove(name) != null) {
+            logger.debug("模型目录移除: {}", name);
+        }
+        snapshotDirty = true;
+        version.incrementAndGet();
+    }
+
+    private static boolean isModelFile(String fileName) {
+        String lower = fileName.toLowerCase();
+        return lower.endsWith(".pmx") || lower.endsWith(".pmd");
+    }
+}
@@ -0,0 +1,256 @@
+package com.shiroha.mmdskin.renderer.model;
+
+import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.renderer.core.IMMDModel;
+import com.shiroha.mmdskin.renderer.core.MMDJfrEvents;
+import com.shiroha.mmdskin.renderer.core.RenderModeManager;
+import com.shiroha.mmdskin.renderer.resource.GlUploadQueue;
+import com.shiroha.mmdskin.renderer.resource.MMDTextureManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.GL46C;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 模型 Phase 2 分帧完成器（SRP - 只负责渲染线程上的 GL 资源创建调度）
+ *
+ * 后台加载完成的模型在这里排队，每帧在时间预算内推进：
+ * 1. TEXTURES：逐个创建材质纹理，像素数据按行带分片上传
+ * 2. CREATE：创建 VAO/VBO 并分配缓冲区存储（每帧最多一个模型）
+ * 3. BUFFERS：顶点/索引/Morph 数据按分片写入
+ *
+ * 全部完成后才交给 {@link MMDModelManager} 放入缓存，渲染侧不会看到半成品模型。
+ * 多个模型同时完成后台加载时，GL 工作会被摊到多帧，不再集中造成单帧卡顿。
+ */
+class ModelFinalizer {
+    private static final Logger logger = LogManager.getLogger();
+
+    private enum Stage { TEXTURES, CREATE, BUFFERS }
+
+    private static class Task {
+        final String fullCacheKey;
+        final MMDModelManager.AsyncLoadResult result;
+        final GlUploadQueue uploads = new GlUploadQueue();
+        final List<String> texturePaths = new ArrayList<>();
+        final long startTime = System.currentTimeMillis();
+        final long startTick = tickCount;
+        final MMDJfrEvents.ModelFinalize event = new MMDJfrEvents.ModelFinalize();
+        int nextTexture = 0;
+        Stage stage = Stage.TEXTURES;
+        IMMDModel model;
+
+        Task(String fullCacheKey, MMDModelManager.AsyncLoadResult result) {
+            this.fullCacheKey = fullCacheKey;
+            this.result = result;
+            event.begin();
+        }
+    }
+
+    private static final ArrayDeque<Task> tasks = new ArrayDeque<>();
+    private static final Map<String, Task> tasksByKey = new HashMap<>();
+    /** 有任务时的 tick 计数（用于统计单个模型完成所用的帧数） */
+    private static long tickCount = 0;
+
+    /**
+     * 提交一个已完成后台加载的模型（渲染线程调用）
+     */
+    static void submit(String fullCacheKey, MMDModelManager.AsyncLoadResult result) {
+        Task task = new Task(fullCacheKey, result);
+
+        NativeFunc nf = NativeFunc.GetInst();
+        int matCount = (int) nf.GetMaterialCount(result.modelHandle);
+        for (int i = 0; i < matCount; i++) {
+            String texPath = nf.GetMaterialTex(result.modelHandle, i);
+            if (texPath != null && !texPath.isEmpty()) {
+                task.texturePaths.add(texPath);
+            }
+        }
+        task.texturePaths.add(result.modelInfo.getFolderPath() + "/lightMap.png");
+
+        tasks.add(task);
+        tasksByKey.put(fullCacheKey, task);
+    }
+
+    /**
+     * 查询指定 key 是否正在分帧完成中
+     */
+    static boolean isFinalizing(String fullCacheKey) {
+        return tasksByKey.containsKey(fullCacheKey);
+    }
+
+    static boolean isEmpty() {
+        return tasks.isEmpty();
+    }
+
+    static int size() {
+        return tasks.size();
+    }
+
+    /**
+     * 每帧推进（渲染线程调用）
+     */
+    static void tick() {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        tickCount++;
+
+        long budgetNanos = Math.max(1, ConfigManager.getModelFinalizeBudgetMs()) * 1_000_000L;
+        long deadline = System.nanoTime() + budgetNanos;
+        boolean createdThisFrame = false;
+
+        while (!tasks.isEmpty() && System.nanoTime() < deadline) {
+            Task task = tasks.peek();
+            try {
+                if (task.stage == Stage.TEXTURES) {
+                    if (!advanceTextures(task, deadline)) {
+                        return;
+                    }
+                    task.stage = Stage.CREATE;
+                }
+
+                if (task.stage == Stage.CREATE) {
+                    // 每帧最多创建一个模型的 GL 对象，避免多个模型的缓冲区分配挤在同一帧
+                    if (createdThisFrame) {
+                        return;
+                    }
+                    createdThisFrame = true;
+                    task.model = RenderModeManager.createModelFromHandle(
+                        task.result.modelHandle, task.result.modelInfo.getFolderPath(),
+                        task.result.modelInfo.isPMD(), task.uploads);
+                    if (GL46C.glGetError() == GL46C.GL_OUT_OF_MEMORY) {
+                        logger.warn("[异步加载] 分配 GL 资源时显存不足: {}", task.fullCacheKey);
+                        MMDModelManager.onGlOutOfMemory();
+                    }
+                    if (task.model == null) {
+                        logger.error("[异步加载] GL 资源创建失败，释放模型句柄: {}", task.result.modelName);
+                        finish(task);
+                        commitEvent(task, false);
+                        task.uploads.cancel();
+                        NativeFunc.GetInst().DeleteModel(task.result.modelHandle);
+                        MMDModelManager.onFinalizeFailed(task.fullCacheKey);
+                        continue;
+                    }
+                    task.stage = Stage.BUFFERS;
+                }
+
+                if (task.stage == Stage.BUFFERS) {
+                    if (!task.uploads.drain(deadline)) {
+                        return;
+                    }
+                    finish(task);
+                    commitEvent(task, true);
+                    long elapsed = System.currentTimeMillis() - task.startTime;
+                    logger.info("[异步加载] GL 资源分帧上传完成 ({}ms, {} KB): {}",
+                        elapsed, task.uploads.getUploadedBytes() / 1024, task.fullCacheKey);
+                    MMDModelManager.onFinalized(task.fullCacheKey, task.model, task.result.modelName);
+                }
+            } catch (Exception e) {
+                logger.error("[异步加载] GL 资源创建异常: {}", task.fullCacheKey, e);
+                finish(task);
+                commitEvent(task, false);
+                release(task);
+                MMDModelManager.onFinalizeFailed(task.fullCacheKey);
+            }
+        }
+    }
+
+    /**
+     * 推进纹理阶段
+     *
+     * @return 纹理是否全部就绪
+     */
+    private static boolean advanceTextures(Task task, long deadline) {
+        while (System.nanoTime() < deadline) {
+            if (!task.uploads.isEmpty()) {
+                if (!task.uploads.drain(deadline)) {
+                    return false;
+                }
+                continue;
+            }
+            if (task.nextTexture < task.texturePaths.size()) {
+                MMDTextureManager.beginUpload(task.texturePaths.get(task.nextTexture++), task.uploads);
+                continue;
+            }
+            // 共享纹理可能仍由其他任务上传中
+            for (String path : task.texturePaths) {
+                if (MMDTextureManager.isUploading(path)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 取消匹配 key 的任务并释放资源
+     *
+     * @return 取消的任务数
+     */
+    static int cancel(Predicate<String> keyFilter) {
+        int count = 0;
+        Iterator<Task> it = tasks.iterator();
+        while (it.hasNext()) {
+            Task task = it.next();
+            if (keyFilter.test(task.fullCacheKey)) {
+                it.remove();
+                tasksByKey.remove(task.fullCacheKey);
+                release(task);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static int cancelAll() {
+        return cancel(key -> true);
+    }
+
+    private static void finish(Task task) {
+        tasks.remove(task);
+        tasksByKey.remove(task.fullCacheKey);
+    }
+
+    /**
+     * 提交 JFR 事件（需在释放原生句柄前调用）
+     */
+    private static void commitEvent(Task task, boolean success) {
+        MMDJfrEvents.ModelFinalize event = task.event;
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.modelName = task.result.modelName;
+        event.cacheKey = task.fullCacheKey;
+        event.vertexCount = NativeFunc.GetInst().GetVertexCount(task.result.modelHandle);
+        event.bytes = task.uploads.getUploadedBytes();
+        event.frames = (int) (tickCount - task.startTick);
+        event.success = success;
+        event.commit();
+    }
+
+    /**
+     * 释放任务持有的资源：先丢弃未完成的上传，再释放模型（含原生句柄）
+     */
+    private static void release(Task task) {
+        task.uploads.cancel();
+        try {
+            if (task.model != null) {
+                task.model.dispose();
+            } else {
+                NativeFunc.GetInst().DeleteModel(task.result.modelHandle);
+            }
+        } catch (Exception e) {
+            logger.error("释放模型句柄失败", e);
+        }
+    }
+}
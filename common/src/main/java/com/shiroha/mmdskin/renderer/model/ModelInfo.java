@@ -1,28 +1,16 @@
 package com.shiroha.mmdskin.renderer.model;
 
-import com.shiroha.mmdskin.config.PathConstants;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
 import java.io.File;
 import java.io.FileFilter;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 模型信息类
- * 用于扫描和存储模型文件信息
+ * 用于扫描和存储模型文件信息，目录索引由 {@link ModelCatalog} 维护
  * 
  * 支持任意名称的 PMX/PMD 文件，按文件夹分类
  */
 public class ModelInfo {
-    private static final Logger logger = LogManager.getLogger();
-    
-    // 扫描结果缓存
-    private static volatile List<ModelInfo> cachedModels = null;
-    private static volatile long cacheTimestamp = 0;
-    private static final long CACHE_TTL = 5000; // 5 秒缓存有效期
-    
     private final String folderName;      // 文件夹名称（用于显示）
     private final String folderPath;      // 文件夹完整路径
     private final String modelFilePath;   // 模型文件完整路径
@@ -67,56 +55,20 @@ public class ModelInfo {
     }
     
     /**
-     * 扫描 EntityPlayer 目录下的所有模型
+     * 获取 EntityPlayer 目录下的所有模型（按文件夹名排序）
      * 支持任意名称的 .pmx 和 .pmd 文件
+     * 
+     * 结果来自 {@link ModelCatalog} 的内存索引，不访问磁盘、不等待扫描（首次扫描未完成时可能不完整）
      */
     public static List<ModelInfo> scanModels() {
-        // 检查缓存是否有效
-        long now = System.currentTimeMillis();
-        List<ModelInfo> cached = cachedModels;
-        if (cached != null && (now - cacheTimestamp) < CACHE_TTL) {
-            return cached;
-        }
-        
-        List<ModelInfo> models = new ArrayList<>();
-        File entityPlayerDir = PathConstants.getEntityPlayerDir();
-        
-        if (!entityPlayerDir.exists() || !entityPlayerDir.isDirectory()) {
-            logger.warn("EntityPlayer 目录不存在: " + entityPlayerDir.getAbsolutePath());
-            return models;
-        }
-        
-        File[] modelDirs = entityPlayerDir.listFiles(File::isDirectory);
-        if (modelDirs == null) {
-            return models;
-        }
-        
-        for (File modelDir : modelDirs) {
-            ModelInfo info = scanModelFolder(modelDir);
-            if (info != null) {
-                models.add(info);
-                logger.debug("发现模型: {} -> {}", info.getFolderName(), info.getModelFileName());
-            }
-        }
-        
-        // 按文件夹名称排序
-        models.sort((a, b) -> a.getFolderName().compareToIgnoreCase(b.getFolderName()));
-        
-        logger.info("共扫描到 {} 个模型", models.size());
-        
-        // 更新缓存
-        cachedModels = models;
-        cacheTimestamp = System.currentTimeMillis();
-        
-        return models;
+        return ModelCatalog.getModels();
     }
     
     /**
-     * 使缓存失效（下次调用 scanModels 会重新扫描磁盘）
+     * 请求后台重新扫描模型目录（用于手动刷新）
      */
     public static void invalidateCache() {
-        cachedModels = null;
-        cacheTimestamp = 0;
+        ModelCatalog.requestRescan();
     }
     
     /**
@@ -124,7 +76,7 @@ public class ModelInfo {
      * 优先查找 PMX，其次 PMD
      * 支持任意文件名
      */
-    private static ModelInfo scanModelFolder(File modelDir) {
+    static ModelInfo scanModelFolder(File modelDir) {
         // 定义文件过滤器
         FileFilter pmxFilter = file -> file.isFile() && file.getName().toLowerCase().endsWith(".pmx");
         FileFilter pmdFilter = file -> file.isFile() && file.getName().toLowerCase().endsWith(".pmd");
@@ -184,15 +136,9 @@ public class ModelInfo {
     }
     
     /**
-     * 根据文件夹名查找模型信息
+     * 根据文件夹名查找模型信息（哈希索引，O(1)）
      */
     public static ModelInfo findByFolderName(String folderName) {
-        List<ModelInfo> models = scanModels();
-        for (ModelInfo info : models) {
-            if (info.getFolderName().equals(folderName)) {
-                return info;
-            }
-        }
-        return null;
+        return ModelCatalog.find(folderName);
     }
 }
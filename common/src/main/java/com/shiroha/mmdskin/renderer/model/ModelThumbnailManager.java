@@ -0,0 +1,310 @@
+package com.shiroha.mmdskin.renderer.model;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.config.PathConstants;
+import com.shiroha.mmdskin.config.ThumbnailHashIndex;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.GL46C;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 模型缩略图管理器
+ *
+ * 选择界面只需要一张小图就能区分模型，不必完整加载模型（PMX 解析 + GL 上传）。
+ * 缩略图由 Rust 引擎解析模型后软件光栅化生成（{@link NativeFunc#RenderModelThumbnail}），
+ * 不创建模型句柄、不触碰 GL，因此可以在后台线程批量生成。
+ *
+ * - 磁盘缓存：{@code config/mmdskin/thumbnails/<哈希>.png}，哈希由模型文件内容计算，
+ *   模型文件被替换后自动生成新缩略图，改名或移动文件夹不需要重新生成
+ * - 哈希结果按路径、大小与修改时间持久化（{@link ThumbnailHashIndex}），启动时不必重新读取未变化的模型文件
+ * - 生成、解码都在单个低优先级后台线程完成；渲染线程只负责上传已解码的像素
+ * - GL 纹理在选择界面关闭时释放，磁盘缓存与哈希结果保留
+ */
+public final class ModelThumbnailManager {
+    private static final Logger logger = LogManager.getLogger();
+
+    /** 缩略图边长（像素） */
+    public static final int THUMBNAIL_SIZE = 256;
+    /** 缩略图格式版本（生成方式变化时递增，使旧缓存失效） */
+    private static final int FORMAT_VERSION = 1;
+    /** 哈希中附带的格式标识 */
+    private static final String FORMAT_KEY = FORMAT_VERSION + ":" + THUMBNAIL_SIZE;
+
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "MMD-Thumbnail");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    /** 模型文件路径 → 缩略图状态 */
+    private static final Map<String, Thumbnail> thumbnails = new ConcurrentHashMap<>();
+    /** 哈希索引（仅后台线程访问，首次使用时加载） */
+    private static ThumbnailHashIndex hashIndex;
+
+    private ModelThumbnailManager() {}
+
+    /**
+     * 单个模型的缩略图状态
+     */
+    private static final class Thumbnail {
+        final long fileSize;
+        final long lastModified;
+        /** 磁盘缓存文件（生成完成后设置） */
+        volatile File image;
+        volatile boolean failed;
+        /** 已解码、等待渲染线程上传的像素 */
+        volatile DecodedImage decoded;
+        /** 以下字段仅渲染线程访问 */
+        boolean decodeRequested;
+        int textureId;
+
+        Thumbnail(File modelFile) {
+            this.fileSize = modelFile.length();
+            this.lastModified = modelFile.lastModified();
+        }
+
+        boolean matches(File modelFile) {
+            return fileSize == modelFile.length() && lastModified == modelFile.lastModified();
+        }
+    }
+
+    private static final class DecodedImage {
+        ByteBuffer pixels;
+        int width;
+        int height;
+        boolean hasAlpha;
+    }
+
+    /**
+     * 后台批量生成缩略图（只写磁盘缓存，不解码、不占用显存；可在任意线程调用）
+     */
+    public static void pregenerate(Collection<ModelInfo> models) {
+        int queued = 0;
+        Set<String> paths = new HashSet<>();
+        for (ModelInfo info : models) {
+            paths.add(new File(info.getModelFilePath()).getAbsolutePath());
+            // 已有状态的模型（包括文件已变化的）交给渲染线程在取用时处理
+            Thumbnail thumbnail = new Thumbnail(new File(info.getModelFilePath()));
+            if (thumbnails.putIfAbsent(info.getModelFilePath(), thumbnail) == null) {
+                worker.execute(() -> generate(info, thumbnail));
+                queued++;
+            }
+        }
+        // 生成任务之后执行：清理已不存在的模型并写回新计算的哈希
+        worker.execute(() -> {
+            ThumbnailHashIndex index = hashIndex();
+            index.retainOnly(paths);
+            index.saveIfDirty();
+        });
+        if (queued > 0) {
+            logger.info("[缩略图] 已排队 {} 个模型的缩略图生成", queued);
+        }
+    }
+
+    /**
+     * 获取缩略图纹理（渲染线程调用）
+     * 尚未生成或解码时提交后台任务并返回 0，之后的帧再取即可
+     *
+     * @return GL 纹理 ID（纹理按 GL 约定第一行为底部），不可用时返回 0
+     */
+    public static int getTexture(ModelInfo info) {
+        RenderSystem.assertOnRenderThread();
+        File modelFile = new File(info.getModelFilePath());
+        Thumbnail thumbnail = thumbnails.get(info.getModelFilePath());
+        if (thumbnail == null || !thumbnail.matches(modelFile)) {
+            if (thumbnail != null) {
+                deleteTexture(thumbnail);
+            }
+            thumbnail = new Thumbnail(modelFile);
+            thumbnails.put(info.getModelFilePath(), thumbnail);
+        }
+        if (thumbnail.textureId != 0) {
+            return thumbnail.textureId;
+        }
+        if (thumbnail.failed) {
+            return 0;
+        }
+
+        DecodedImage decoded = thumbnail.decoded;
+        if (decoded != null) {
+            thumbnail.decoded = null;
+            thumbnail.textureId = upload(decoded);
+            return thumbnail.textureId;
+        }
+        if (!thumbnail.decodeRequested) {
+            thumbnail.decodeRequested = true;
+            Thumbnail target = thumbnail;
+            worker.execute(() -> {
+                generate(info, target);
+                decode(target);
+                hashIndex().saveIfDirty();
+            });
+        }
+        return 0;
+    }
+
+    /**
+     * 释放所有缩略图纹理（渲染线程调用，选择界面关闭时）
+     * 磁盘缓存与生成状态保留，下次打开界面时只需重新解码
+     */
+    public static void releaseTextures() {
+        RenderSystem.assertOnRenderThread();
+        for (Thumbnail thumbnail : thumbnails.values()) {
+            deleteTexture(thumbnail);
+            thumbnail.decoded = null;
+            thumbnail.decodeRequested = false;
+        }
+    }
+
+    // ==================== 后台线程 ====================
+
+    /**
+     * 生成磁盘缓存（已存在时直接复用）
+     */
+    private static void generate(ModelInfo info, Thumbnail thumbnail) {
+        if (thumbnail.image != null || thumbnail.failed) {
+            return;
+        }
+        if (info.isPMD()) {
+            // 原生引擎暂不支持 PMD
+            thumbnail.failed = true;
+            return;
+        }
+        try {
+            File modelFile = new File(info.getModelFilePath());
+            File image = PathConstants.getThumbnailFile(cachedHash(modelFile));
+            if (!image.isFile()) {
+                long start = System.currentTimeMillis();
+                PathConstants.ensureDirectoryExists(image.getParentFile());
+                File temp = new File(image.getPath() + ".tmp");
+                if (!NativeFunc.GetInst().RenderModelThumbnail(modelFile.getAbsolutePath(),
+                        temp.getAbsolutePath(), THUMBNAIL_SIZE)) {
+                    Files.deleteIfExists(temp.toPath());
+                    thumbnail.failed = true;
+                    logger.warn("[缩略图] 生成失败: {}", info.getFolderName());
+                    return;
+                }
+                Files.move(temp.toPath(), image.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                logger.debug("[缩略图] 已生成: {} ({}ms)", info.getFolderName(), System.currentTimeMillis() - start);
+            }
+            thumbnail.image = image;
+        } catch (Exception e) {
+            thumbnail.failed = true;
+            logger.error("[缩略图] 生成异常: {}", info.getFolderName(), e);
+        }
+    }
+
+    /**
+     * 解码磁盘缓存为像素（复用纹理解码路径，数据已按 GL 约定翻转）
+     */
+    private static void decode(Thumbnail thumbnail) {
+        File image = thumbnail.image;
+        if (image == null || thumbnail.failed) {
+            return;
+        }
+        NativeFunc nf = NativeFunc.GetInst();
+        long tex = nf.LoadTexture(image.getAbsolutePath());
+        if (tex == 0) {
+            thumbnail.failed = true;
+            return;
+        }
+        try {
+            DecodedImage decoded = new DecodedImage();
+            decoded.width = nf.GetTextureX(tex);
+            decoded.height = nf.GetTextureY(tex);
+            decoded.hasAlpha = nf.TextureHasAlpha(tex);
+            int size = decoded.width * decoded.height * (decoded.hasAlpha ? 4 : 3);
+            decoded.pixels = ByteBuffer.allocateDirect(size);
+            nf.CopyDataToByteBuffer(decoded.pixels, nf.GetTextureData(tex), size);
+            decoded.pixels.rewind();
+            thumbnail.decoded = decoded;
+        } finally {
+            nf.DeleteTexture(tex);
+        }
+    }
+
+    private static ThumbnailHashIndex hashIndex() {
+        if (hashIndex == null) {
+            hashIndex = ThumbnailHashIndex.load();
+        }
+        return hashIndex;
+    }
+
+    /**
+     * 模型文件哈希（文件大小与修改时间未变时复用索引中的结果）
+     */
+    private static String cachedHash(File modelFile) throws IOException, NoSuchAlgorithmException {
+        ThumbnailHashIndex index = hashIndex();
+        String hash = index.lookup(modelFile, FORMAT_KEY);
+        if (hash == null) {
+            hash = hashModelFile(modelFile);
+            index.put(modelFile, FORMAT_KEY, hash);
+        }
+        return hash;
+    }
+
+    /**
+     * 模型文件内容哈希（SHA-1，附带格式版本与尺寸）
+     */
+    private static String hashModelFile(File modelFile) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(modelFile)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        digest.update(FORMAT_KEY.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder(40);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    // ==================== 渲染线程 ====================
+
+    private static int upload(DecodedImage decoded) {
+        int format = decoded.hasAlpha ? GL46C.GL_RGBA : GL46C.GL_RGB;
+        // 经 GlStateManager 绑定，保持其纹理绑定缓存与实际状态一致
+        int tex = GlStateManager._genTexture();
+        GlStateManager._bindTexture(tex);
+        GlStateManager._pixelStore(GL46C.GL_UNPACK_ALIGNMENT, decoded.hasAlpha ? 4 : 1);
+        GL46C.glTexImage2D(GL46C.GL_TEXTURE_2D, 0, format, decoded.width, decoded.height, 0,
+            format, GL46C.GL_UNSIGNED_BYTE, decoded.pixels);
+        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MAX_LEVEL, 0);
+        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MIN_FILTER, GL46C.GL_LINEAR);
+        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MAG_FILTER, GL46C.GL_LINEAR);
+        GlStateManager._bindTexture(0);
+        return tex;
+    }
+
+    private static void deleteTexture(Thumbnail thumbnail) {
+        if (thumbnail.textureId != 0) {
+            GlStateManager._deleteTexture(thumbnail.textureId);
+            thumbnail.textureId = 0;
+        }
+    }
+}
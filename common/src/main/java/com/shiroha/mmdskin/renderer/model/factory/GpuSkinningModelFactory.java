@@ -3,6 +3,7 @@ package com.shiroha.mmdskin.renderer.model.factory;
 import com.shiroha.mmdskin.renderer.core.IMMDModel;
 import com.shiroha.mmdskin.renderer.core.IMMDModelFactory;
 import com.shiroha.mmdskin.renderer.model.MMDModelGpuSkinning;
+import com.shiroha.mmdskin.renderer.resource.GlUploadQueue;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -73,4 +74,14 @@ public class GpuSkinningModelFactory implements IMMDModelFactory {
             return null;
         }
     }
+    
+    @Override
+    public IMMDModel createModelFromHandle(long modelHandle, String modelDir, GlUploadQueue uploads) {
+        try {
+            return MMDModelGpuSkinning.createFromHandle(modelHandle, modelDir, uploads);
+        } catch (Exception e) {
+            logger.error("GPU 蒙皮模型（从句柄）创建失败", e);
+            return null;
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.shiroha.mmdskin.renderer.model.factory;
 import com.shiroha.mmdskin.renderer.core.IMMDModel;
 import com.shiroha.mmdskin.renderer.core.IMMDModelFactory;
 import com.shiroha.mmdskin.renderer.model.MMDModelOpenGL;
+import com.shiroha.mmdskin.renderer.resource.GlUploadQueue;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -66,4 +67,14 @@ public class OpenGLModelFactory implements IMMDModelFactory {
             return null;
         }
     }
+    
+    @Override
+    public IMMDModel createModelFromHandle(long modelHandle, String modelDir, GlUploadQueue uploads) {
+        try {
+            return MMDModelOpenGL.createFromHandle(modelHandle, modelDir, uploads);
+        } catch (Throwable e) {
+            logger.error("CPU 蒙皮模型（从句柄）创建失败", e);
+            return null;
+        }
+    }
 }
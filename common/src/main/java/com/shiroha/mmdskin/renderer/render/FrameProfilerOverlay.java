@@ -0,0 +1,113 @@
+package com.shiroha.mmdskin.renderer.render;
+
+import com.shiroha.mmdskin.renderer.core.FrameProfiler;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.Font;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.network.chat.Component;
+
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 帧耗时统计覆盖层（F3 风格）
+ *
+ * 在屏幕右上角按整帧耗时从高到低列出已加载模型各阶段的均值、P50、P95 与最大值（微秒）。
+ * 按键切换显示（同时开启/关闭统计），按住 Shift 按键导出 CSV。
+ * 由各加载器的 HUD 渲染事件调用，仅在渲染线程使用。
+ */
+public final class FrameProfilerOverlay {
+
+    /** 最多显示的模型数量 */
+    private static final int MAX_MODELS = 3;
+    private static final int LINE_HEIGHT = 9;
+    private static final int MARGIN = 2;
+    /** 阶段名列宽与数值列宽（像素） */
+    private static final int LABEL_WIDTH = 56;
+    private static final int COLUMN_WIDTH = 44;
+    private static final int WIDTH = LABEL_WIDTH + COLUMN_WIDTH * 4;
+
+    private static final int BACKGROUND_COLOR = 0x90505050;
+    private static final int TEXT_COLOR = 0xE0E0E0;
+    private static final int HEADER_COLOR = 0xFFFF55;
+
+    private static final String[] COLUMNS = {"mean", "p50", "p95", "max"};
+
+    private FrameProfilerOverlay() {}
+
+    /**
+     * 处理覆盖层按键：切换统计，按住 Shift 时导出 CSV
+     */
+    public static void onKeyPressed() {
+        Minecraft mc = Minecraft.getInstance();
+        if (Screen.hasShiftDown()) {
+            File file = FrameProfiler.dumpCsv();
+            mc.gui.getChat().addMessage(file != null
+                ? Component.translatable("gui.mmdskin.frame_profiler.exported", file.getName())
+                : Component.translatable("gui.mmdskin.frame_profiler.no_data"));
+            return;
+        }
+        FrameProfiler.setEnabled(!FrameProfiler.isEnabled());
+    }
+
+    /**
+     * 绘制覆盖层（统计未开启或 GUI 隐藏时不绘制）
+     */
+    public static void render(GuiGraphics graphics) {
+        if (!FrameProfiler.isEnabled()) return;
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.options.hideGui) return;
+
+        Font font = mc.font;
+        int left = graphics.guiWidth() - WIDTH - MARGIN;
+        int y = MARGIN;
+        y = drawRow(graphics, font, left, y, "MMD frame (us)", COLUMNS, HEADER_COLOR);
+
+        List<FrameProfiler.ModelProfile> profiles = FrameProfiler.getProfiles();
+        if (profiles.isEmpty()) {
+            drawRow(graphics, font, left, y, "no data", null, TEXT_COLOR);
+            return;
+        }
+        String[] values = new String[4];
+        int shown = Math.min(MAX_MODELS, profiles.size());
+        for (int i = 0; i < shown; i++) {
+            FrameProfiler.ModelProfile profile = profiles.get(i);
+            y = drawRow(graphics, font, left, y, profile.name + " [" + profile.samples + "]", null, HEADER_COLOR);
+            for (int stage = 0; stage < FrameProfiler.STAGE_COUNT; stage++) {
+                values[0] = format(profile.mean(stage));
+                values[1] = format(profile.p50(stage));
+                values[2] = format(profile.p95(stage));
+                values[3] = format(profile.max(stage));
+                y = drawRow(graphics, font, left, y, FrameProfiler.STAGE_NAMES[stage], values, TEXT_COLOR);
+            }
+        }
+        if (profiles.size() > shown) {
+            drawRow(graphics, font, left, y, "+" + (profiles.size() - shown) + " models", null, TEXT_COLOR);
+        }
+    }
+
+    /**
+     * 绘制一行：左侧标签，右侧数值列右对齐
+     *
+     * @return 下一行的 y 坐标
+     */
+    private static int drawRow(GuiGraphics graphics, Font font, int left, int y, String label,
+                               String[] columns, int color) {
+        graphics.fill(left - 1, y - 1, left + WIDTH + 1, y + LINE_HEIGHT - 1, BACKGROUND_COLOR);
+        graphics.drawString(font, font.plainSubstrByWidth(label, columns != null ? LABEL_WIDTH : WIDTH),
+            left, y, color, false);
+        if (columns != null) {
+            for (int i = 0; i < columns.length; i++) {
+                int right = left + LABEL_WIDTH + COLUMN_WIDTH * (i + 1);
+                graphics.drawString(font, columns[i], right - font.width(columns[i]), y, color, false);
+            }
+        }
+        return y + LINE_HEIGHT;
+    }
+
+    private static String format(float micros) {
+        return String.format(Locale.ROOT, micros >= 1000.0f ? "%.0f" : "%.1f", micros);
+    }
+}
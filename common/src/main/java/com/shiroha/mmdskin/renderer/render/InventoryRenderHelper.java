@@ -3,6 +3,8 @@ package com.shiroha.mmdskin.renderer.render;
 import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.shiroha.mmdskin.renderer.core.IMMDModel;
+import com.shiroha.mmdskin.renderer.core.ModelFrameBuffer;
+import com.shiroha.mmdskin.renderer.core.ModelRenderProfile;
 import com.shiroha.mmdskin.renderer.core.RenderContext;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.screens.inventory.InventoryScreen;
@@ -18,68 +20,147 @@ import org.joml.Vector3f;
  */
 public class InventoryRenderHelper {
     
+    /** 预览区域外扩（GUI 坐标） */
+    private static final float PREVIEW_MARGIN = 4.0f;
+    
+    private static final float[] bounds = new float[6];
+    
+    /** 渲染线程共用的临时对象（每帧复用，不再分配） */
+    private static final Vector3f ZERO_TRANSLATION = new Vector3f();
+    private static final Quaternionf bodyRotation = new Quaternionf();
+    private static final Quaternionf viewRotation = new Quaternionf();
+    
+    /**
+     * 本次预览的绘制参数
+     * 预览回调是无捕获的静态方法引用，参数经这里传递，避免每帧创建 lambda 闭包
+     */
+    private static AbstractClientPlayer drawPlayer;
+    private static IMMDModel drawModel;
+    private static float drawEntityYaw, drawTickDelta, drawAnchorX, drawAnchorY, drawViewScale, drawInventorySize;
+    private static int drawPackedLight;
+    private static final Runnable DRAW_MODEL = InventoryRenderHelper::renderModel;
+    
     /**
-     * 检查当前是否在库存屏幕
-     * 直接检测 Minecraft.screen 类型，无需栈帧分析
+     * 检查当前是否在库存屏幕的实体预览中渲染
+     * 读取 InventoryScreen Mixin 设置的渲染阶段，打开物品栏时背景世界中的玩家不受影响
      */
     public static boolean isInventoryScreen() {
-        Minecraft mc = Minecraft.getInstance();
-        if (mc.screen == null) return false;
-        String className = mc.screen.getClass().getName();
-        return className.contains("InventoryScreen") || className.contains("class_490");
+        return RenderContext.isInventoryPass();
     }
     
     /**
      * 在库存屏幕中渲染模型
+     * 模型先渲染到离屏预览缓存，按刷新率或视角变化时才重新更新与绘制（见 {@link ModelPreviewRenderer}）
      */
     public static void renderInInventory(AbstractClientPlayer player, IMMDModel model, float entityYaw, 
-                                        float tickDelta, PoseStack matrixStack, int packedLight, float[] size) {
+                                        float tickDelta, PoseStack matrixStack, int packedLight, ModelRenderProfile profile) {
         Minecraft mc = Minecraft.getInstance();
         
-        RenderSystem.setShader(GameRenderer::getPositionTexShader);
-        PoseStack modelViewStack = RenderSystem.getModelViewStack();
-        modelViewStack.pushPose();
-        
-        int posX, posY;
+        float anchorX, anchorY, viewScale;
         if (mc.gameMode.getPlayerMode() != GameType.CREATIVE && mc.screen instanceof InventoryScreen) {
             InventoryScreen invScreen = (InventoryScreen) mc.screen;
-            posX = invScreen.getRecipeBookComponent().updateScreenPosition(mc.screen.width, 176);
-            posY = (mc.screen.height - 166) / 2;
-            modelViewStack.translate(posX + 51, posY + 75, 50);
-            modelViewStack.scale(1.5f, 1.5f, 1.5f);
+            int posX = invScreen.getRecipeBookComponent().updateScreenPosition(mc.screen.width, 176);
+            int posY = (mc.screen.height - 166) / 2;
+            anchorX = posX + 51;
+            anchorY = posY + 75;
+            viewScale = 1.5f;
         } else {
-            posX = (mc.screen.width - 121) / 2;
-            posY = (mc.screen.height - 195) / 2;
-            modelViewStack.translate(posX + 51, posY + 75, 50.0);
+            int posX = (mc.screen.width - 121) / 2;
+            int posY = (mc.screen.height - 195) / 2;
+            anchorX = posX + 51;
+            anchorY = posY + 75;
+            viewScale = 1.0f;
+        }
+        float inventorySize = profile.getSizeInInventory();
+        
+        drawPlayer = player;
+        drawModel = model;
+        drawEntityYaw = entityYaw;
+        drawTickDelta = tickDelta;
+        drawPackedLight = packedLight;
+        drawAnchorX = anchorX;
+        drawAnchorY = anchorY;
+        drawViewScale = viewScale;
+        drawInventorySize = inventorySize;
+        try {
+            float halfExtent = getPreviewHalfExtent(model, inventorySize * viewScale * profile.getModelScale());
+            boolean cached = halfExtent > 0.0f && ModelPreviewRenderer.draw(
+                    player.getStringUUID(),
+                    anchorX - halfExtent, anchorY - halfExtent, halfExtent * 2.0f, halfExtent * 2.0f,
+                    getViewHash(player, entityYaw), DRAW_MODEL);
+            if (!cached) {
+                renderModel();
+            }
+        } finally {
+            drawPlayer = null;
+            drawModel = null;
         }
         
-        float inventorySize = size[1];
-        modelViewStack.scale(inventorySize, inventorySize, inventorySize);
+        matrixStack.mulPose(bodyRotation.rotationY(-player.yBodyRot * ((float)Math.PI / 180F)));
+        matrixStack.scale(inventorySize, inventorySize, inventorySize);
+        matrixStack.scale(0.09f, 0.09f, 0.09f);
+    }
+    
+    /**
+     * 以锚点为中心绘制模型（直接绘制或在预览帧缓冲中绘制），参数取自 draw* 字段
+     */
+    private static void renderModel() {
+        RenderSystem.setShader(GameRenderer::getPositionTexShader);
+        PoseStack modelViewStack = RenderSystem.getModelViewStack();
+        modelViewStack.pushPose();
+        
+        modelViewStack.translate(drawAnchorX, drawAnchorY, 50.0);
+        modelViewStack.scale(drawViewScale, drawViewScale, drawViewScale);
+        modelViewStack.scale(drawInventorySize, drawInventorySize, drawInventorySize);
         modelViewStack.scale(20.0f, 20.0f, -20.0f);
         
-        Quaternionf rotation = calculateRotation(player);
-        modelViewStack.mulPose(rotation);
+        modelViewStack.mulPose(previewRotation(drawPlayer.getXRot(), drawPlayer.yBodyRot, viewRotation));
         
         RenderSystem.setShader(GameRenderer::getRendertypeEntityTranslucentShader);
-        model.render(player, entityYaw, 0.0f, new Vector3f(0.0f), tickDelta, modelViewStack, packedLight, RenderContext.INVENTORY);
+        drawModel.render(drawPlayer, drawEntityYaw, 0.0f, ZERO_TRANSLATION, drawTickDelta, modelViewStack,
+                drawPackedLight, RenderContext.INVENTORY);
         
         modelViewStack.popPose();
-        
-        Quaternionf bodyRotation = new Quaternionf().rotateY(-player.yBodyRot * ((float)Math.PI / 180F));
-        matrixStack.mulPose(bodyRotation);
-        matrixStack.scale(inventorySize, inventorySize, inventorySize);
-        matrixStack.scale(0.09f, 0.09f, 0.09f);
     }
     
-    private static Quaternionf calculateRotation(AbstractClientPlayer player) {
-        Quaternionf quaternion = new Quaternionf().rotateZ((float)Math.PI);
-        Quaternionf pitch = new Quaternionf().rotateX(-player.getXRot() * ((float)Math.PI / 180F));
-        Quaternionf yaw = new Quaternionf().rotateY(-player.yBodyRot * ((float)Math.PI / 180F));
-        
-        quaternion.mul(pitch);
-        quaternion.mul(yaw);
-        
-        return quaternion;
+    /**
+     * 预览区域半边长（GUI 坐标），由模型最近一次更新的包围盒得出；模型尚未更新过时返回 0
+     * 模型绕锚点任意旋转都不会超出以包围盒最远点为半径的正方形
+     */
+    private static float getPreviewHalfExtent(IMMDModel model, float scale) {
+        ModelFrameBuffer frameBuffer = model.getFrameBuffer();
+        if (frameBuffer == null || !frameBuffer.hasBounds()) {
+            return 0.0f;
+        }
+        frameBuffer.getBounds(bounds);
+        float radius = 0.0f;
+        for (float v : bounds) {
+            radius = Math.max(radius, Math.abs(v));
+        }
+        return radius * 0.09f * 20.0f * scale + PREVIEW_MARGIN;
+    }
+    
+    /**
+     * 影响预览画面的视角参数（鼠标跟随时立即刷新）
+     */
+    private static int getViewHash(AbstractClientPlayer player, float entityYaw) {
+        int hash = Float.floatToIntBits(player.getXRot());
+        hash = 31 * hash + Float.floatToIntBits(player.yBodyRot);
+        hash = 31 * hash + Float.floatToIntBits(player.yHeadRot);
+        hash = 31 * hash + Float.floatToIntBits(entityYaw);
+        return hash;
+    }
+    
+    /**
+     * 预览视角旋转：翻转 Z，再依次应用俯仰与身体朝向，写入 dest（每帧调用，不分配）
+     *
+     * @param xRot 玩家俯仰角（度）
+     * @param bodyYaw 身体朝向（度）
+     */
+    public static Quaternionf previewRotation(float xRot, float bodyYaw, Quaternionf dest) {
+        return dest.rotationZ((float)Math.PI)
+                .rotateX(-xRot * ((float)Math.PI / 180F))
+                .rotateY(-bodyYaw * ((float)Math.PI / 180F));
     }
     
 }
@@ -2,6 +2,9 @@ package com.shiroha.mmdskin.renderer.render;
 
 import com.shiroha.mmdskin.NativeFunc;
 import com.mojang.blaze3d.vertex.PoseStack;
+import com.shiroha.mmdskin.renderer.core.ItemKeyCache;
+import com.shiroha.mmdskin.renderer.core.ModelFrameBuffer;
+import com.shiroha.mmdskin.renderer.core.ModelRenderProfile;
 import com.shiroha.mmdskin.renderer.model.MMDModelManager.ModelWithEntityData;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.player.AbstractClientPlayer;
@@ -21,6 +24,12 @@ import java.nio.ByteOrder;
  */
 public class ItemRenderHelper {
     
+    private static final float DEG_TO_RAD = (float) Math.PI / 180F;
+    
+    /** 渲染线程共用的临时对象（每帧每实体复用，不再分配） */
+    private static final Matrix4f handMatrix = new Matrix4f();
+    private static final Quaternionf rotation = new Quaternionf();
+    
     /**
      * 渲染玩家手持物品
      */
@@ -32,26 +41,9 @@ public class ItemRenderHelper {
     
     private static void renderMainHandItem(AbstractClientPlayer player, ModelWithEntityData model,
                                            PoseStack matrixStack, MultiBufferSource vertexConsumers, int packedLight) {
-        NativeFunc nf = NativeFunc.GetInst();
-        nf.GetRightHandMat(model.model.GetModelLong(), model.entityData.rightHandMat);
-        
         matrixStack.pushPose();
-        matrixStack.last().pose().mul(convertToMatrix4f(nf, model.entityData.rightHandMat, model.entityData.matBuffer));
-        
-        // 基础旋转：剑朝前（原始状态朝上，绕X轴旋转90度使其朝前）
-        matrixStack.mulPose(new Quaternionf().rotateX(90.0f * ((float)Math.PI / 180F)));
-        // 翻转物品（修正弓等物品反向问题）
-        matrixStack.mulPose(new Quaternionf().rotateY(180.0f * ((float)Math.PI / 180F)));
-        
-        // 可配置的额外旋转
-        float rotationX = getItemRotation(player, model, InteractionHand.MAIN_HAND, "x");
-        matrixStack.mulPose(new Quaternionf().rotateX(rotationX * ((float)Math.PI / 180F)));
-        
-        float rotationY = getItemRotation(player, model, InteractionHand.MAIN_HAND, "y");
-        matrixStack.mulPose(new Quaternionf().rotateY(rotationY * ((float)Math.PI / 180F)));
-        
-        float rotationZ = getItemRotation(player, model, InteractionHand.MAIN_HAND, "z");
-        matrixStack.mulPose(new Quaternionf().rotateZ(rotationZ * ((float)Math.PI / 180F)));
+        matrixStack.last().pose().mul(getHandMatrix(model, InteractionHand.MAIN_HAND));
+        matrixStack.mulPose(getItemRotation(player, model, InteractionHand.MAIN_HAND));
         
         matrixStack.scale(10.0f, 10.0f, 10.0f);
         
@@ -65,26 +57,9 @@ public class ItemRenderHelper {
     
     private static void renderOffHandItem(AbstractClientPlayer player, ModelWithEntityData model,
                                           PoseStack matrixStack, MultiBufferSource vertexConsumers, int packedLight) {
-        NativeFunc nf = NativeFunc.GetInst();
-        nf.GetLeftHandMat(model.model.GetModelLong(), model.entityData.leftHandMat);
-        
         matrixStack.pushPose();
-        matrixStack.last().pose().mul(convertToMatrix4f(nf, model.entityData.leftHandMat, model.entityData.matBuffer));
-        
-        // 基础旋转：剑朝前（原始状态朝上，绕X轴旋转90度使其朝前）
-        matrixStack.mulPose(new Quaternionf().rotateX(90.0f * ((float)Math.PI / 180F)));
-        // 翻转物品（修正弓等物品反向问题）
-        matrixStack.mulPose(new Quaternionf().rotateY(180.0f * ((float)Math.PI / 180F)));
-        
-        // 可配置的额外旋转
-        float rotationX = getItemRotation(player, model, InteractionHand.OFF_HAND, "x");
-        matrixStack.mulPose(new Quaternionf().rotateX(rotationX * ((float)Math.PI / 180F)));
-        
-        float rotationY = getItemRotation(player, model, InteractionHand.OFF_HAND, "y");
-        matrixStack.mulPose(new Quaternionf().rotateY(rotationY * ((float)Math.PI / 180F)));
-        
-        float rotationZ = getItemRotation(player, model, InteractionHand.OFF_HAND, "z");
-        matrixStack.mulPose(new Quaternionf().rotateZ(rotationZ * ((float)Math.PI / 180F)));
+        matrixStack.last().pose().mul(getHandMatrix(model, InteractionHand.OFF_HAND));
+        matrixStack.mulPose(getItemRotation(player, model, InteractionHand.OFF_HAND));
         
         matrixStack.scale(10.0f, 10.0f, 10.0f);
         
@@ -96,47 +71,64 @@ public class ItemRenderHelper {
         matrixStack.popPose();
     }
     
-    private static float getItemRotation(AbstractClientPlayer player, ModelWithEntityData model, 
-                                        InteractionHand hand, String axis) {
-        String itemId = getItemId(player, hand);
-        String handStr = (hand == InteractionHand.MAIN_HAND) ? "Right" : "Left";
-        String handState = getHandState(player, hand);
-        
-        String specificKey = itemId + "_" + handStr + "_" + handState + "_" + axis;
-        if (model.properties.getProperty(specificKey) != null) {
-            return Float.parseFloat(model.properties.getProperty(specificKey));
-        }
-        
-        String defaultKey = "default_" + axis;
-        if (model.properties.getProperty(defaultKey) != null) {
-            return Float.parseFloat(model.properties.getProperty(defaultKey));
-        }
-        
-        return 0.0f;
+    /**
+     * 物品旋转（写入共享的临时四元数，调用方立即使用）
+     */
+    private static Quaternionf getItemRotation(AbstractClientPlayer player, ModelWithEntityData model,
+                                               InteractionHand hand) {
+        return itemRotation(model.getProfile(), ItemKeyCache.get(player, hand), hand,
+            ItemKeyCache.getHandState(player, hand), rotation);
     }
     
-    private static String getHandState(AbstractClientPlayer player, InteractionHand hand) {
-        if (hand == player.getUsedItemHand() && player.isUsingItem()) {
-            return "using";
-        } else if (hand == player.swingingArm && player.swinging) {
-            return "swinging";
-        }
-        return "idle";
+    /**
+     * 计算物品旋转并写入 dest（每帧调用，不分配）
+     * 
+     * 依次为：基础旋转（剑朝前，原始状态朝上，绕X轴旋转90度）、翻转物品（修正弓等物品反向问题）、
+     * 模型属性中可配置的额外旋转 X → Y → Z（物品_手_状态_轴，未设置时取 default_轴）
+     */
+    public static Quaternionf itemRotation(ModelRenderProfile profile, ItemKeyCache.Keys keys, InteractionHand hand,
+                                           ItemKeyCache.HandState state, Quaternionf dest) {
+        return dest.rotationX(90.0f * DEG_TO_RAD)
+            .rotateY(180.0f * DEG_TO_RAD)
+            .rotateX(getItemRotation(profile, keys, hand, state, 0) * DEG_TO_RAD)
+            .rotateY(getItemRotation(profile, keys, hand, state, 1) * DEG_TO_RAD)
+            .rotateZ(getItemRotation(profile, keys, hand, state, 2) * DEG_TO_RAD);
     }
     
-    private static String getItemId(AbstractClientPlayer player, InteractionHand hand) {
-        String descriptionId = player.getItemInHand(hand).getItem().getDescriptionId();
-        return descriptionId.substring(descriptionId.indexOf(".") + 1);
+    private static float getItemRotation(ModelRenderProfile profile, ItemKeyCache.Keys keys, InteractionHand hand,
+                                         ItemKeyCache.HandState state, int axis) {
+        float defaultValue = profile.getFloat(ItemKeyCache.defaultRotationKey(axis), 0.0f);
+        return profile.getFloat(keys.rotationKey(hand, state, axis), defaultValue);
+    }
+    
+    /**
+     * 获取手部矩阵（写入共享的临时矩阵，调用方立即使用）：优先读取帧命令缓冲中本帧写回的结果，否则逐项 JNI 查询
+     */
+    private static Matrix4f getHandMatrix(ModelWithEntityData model, InteractionHand hand) {
+        boolean mainHand = hand == InteractionHand.MAIN_HAND;
+        ModelFrameBuffer frame = model.model.getFrameBuffer();
+        if (frame != null && frame.hasBoneOutputs()) {
+            return mainHand ? frame.getRightHandMatrix(handMatrix) : frame.getLeftHandMatrix(handMatrix);
+        }
+        
+        NativeFunc nf = NativeFunc.GetInst();
+        long matId = mainHand ? model.entityData.rightHandMat : model.entityData.leftHandMat;
+        if (mainHand) {
+            nf.GetRightHandMat(model.model.GetModelLong(), matId);
+        } else {
+            nf.GetLeftHandMat(model.model.GetModelLong(), matId);
+        }
+        return convertToMatrix4f(nf, matId, model.entityData.matBuffer);
     }
     
     private static Matrix4f convertToMatrix4f(NativeFunc nf, long matId, ByteBuffer buf) {
         buf.clear();
         buf.order(ByteOrder.LITTLE_ENDIAN);
         if (!nf.CopyMatToBuffer(matId, buf)) {
-            return new Matrix4f();
+            return handMatrix.identity();
         }
         buf.position(0);
-        Matrix4f result = new Matrix4f(
+        Matrix4f result = handMatrix.set(
             buf.getFloat(0),  buf.getFloat(16), buf.getFloat(32), buf.getFloat(48),
             buf.getFloat(4),  buf.getFloat(20), buf.getFloat(36), buf.getFloat(52),
             buf.getFloat(8),  buf.getFloat(24), buf.getFloat(40), buf.getFloat(56),
@@ -1,8 +1,8 @@
 package com.shiroha.mmdskin.renderer.render;
 
-import com.shiroha.mmdskin.MmdSkinClient;
 import com.shiroha.mmdskin.renderer.animation.MMDAnimManager;
 import com.shiroha.mmdskin.renderer.core.EntityAnimState;
+import com.shiroha.mmdskin.renderer.core.ModelRenderProfile;
 import com.shiroha.mmdskin.renderer.core.RenderContext;
 import com.shiroha.mmdskin.renderer.model.MMDModelManager;
 import com.mojang.blaze3d.systems.RenderSystem;
@@ -19,8 +19,14 @@ import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
+import org.joml.Vector3fc;
 
 public class MmdSkinRenderer<T extends Entity> extends EntityRenderer<T> {
+    private static final Vector3fc ZERO_TRANSLATION = new Vector3f();
+    /** 渲染线程共用的临时对象 */
+    private static final Vector3f translation = new Vector3f();
+    private static final Quaternionf inventoryRotation = new Quaternionf();
+    
     protected String modelName;
     protected EntityRendererProvider.Context context;
 
@@ -32,7 +38,13 @@ public class MmdSkinRenderer<T extends Entity> extends EntityRenderer<T> {
 
     @Override
     public boolean shouldRender(T livingEntityIn, Frustum camera, double camX, double camY, double camZ) {
-        return super.shouldRender(livingEntityIn, camera, camX, camY, camZ);
+        boolean vanillaVisible = super.shouldRender(livingEntityIn, camera, camX, camY, camZ);
+        MMDModelManager.Model model = MMDModelManager.getLoadedModel(modelName, livingEntityIn.getStringUUID());
+        if (model == null) {
+            return vanillaVisible;
+        }
+        // 按模型姿态包围盒剔除，剔除后低频更新
+        return ModelCullingHelper.shouldRender(vanillaVisible, livingEntityIn, model, camera, camX, camY, camZ);
     }
 
     @Override
@@ -48,14 +60,14 @@ public class MmdSkinRenderer<T extends Entity> extends EntityRenderer<T> {
             bodyYaw = Mth.rotLerp(tickDelta, ((LivingEntity)entityIn).yBodyRotO, ((LivingEntity)entityIn).yBodyRot);
         }
         float bodyPitch = 0.0f;
-        Vector3f entityTrans = new Vector3f(0.0f);
+        Vector3fc entityTrans = ZERO_TRANSLATION;
         MMDModelManager.Model model = MMDModelManager.GetModel(modelName, entityIn.getStringUUID());
         if(model == null){
             return;
         }
         MMDModelManager.ModelWithEntityData mwed = (MMDModelManager.ModelWithEntityData)model;
         model.loadModelProperties(false);
-        float[] size = sizeOfModel(model);
+        ModelRenderProfile profile = model.getProfile();
         
         matrixStackIn.pushPose();
         if(entityIn instanceof LivingEntity){
@@ -65,8 +77,8 @@ public class MmdSkinRenderer<T extends Entity> extends EntityRenderer<T> {
             }else if(((LivingEntity) entityIn).isSleeping()){
                 animName = "sleep";
                 bodyYaw = ((LivingEntity) entityIn).getBedOrientation().toYRot() + 180.0f;
-                bodyPitch = model.properties.getProperty("sleepingPitch") == null ? 0.0f : Float.valueOf(model.properties.getProperty("sleepingPitch"));
-                entityTrans = model.properties.getProperty("sleepingTrans") == null ? new Vector3f(0.0f) : MmdSkinClient.str2Vec3f(model.properties.getProperty("sleepingTrans"));
+                bodyPitch = profile.getFloat("sleepingPitch", 0.0f);
+                entityTrans = profile.getVector("sleepingTrans");
                 AnimStateChangeOnce(mwed, EntityAnimState.State.Sleep, 0);
             }
             if(((LivingEntity) entityIn).isBaby()){
@@ -92,7 +104,7 @@ public class MmdSkinRenderer<T extends Entity> extends EntityRenderer<T> {
             }
         }
         // 使用显式的 RenderContext 而不是调用栈检测
-        if(MmdSkinClient.calledFrom(6).contains("Inventory") || MmdSkinClient.calledFrom(6).contains("class_490")){ // net.minecraft.class_490 == net.minecraft.client.gui.screen.ingame.InventoryScreen
+        if(RenderContext.isInventoryPass()){
             RenderSystem.setShader(GameRenderer::getPositionTexShader);
             PoseStack PTS_modelViewStack = RenderSystem.getModelViewStack();
             int PosX_in_inventory;
@@ -102,31 +114,22 @@ public class MmdSkinRenderer<T extends Entity> extends EntityRenderer<T> {
             PTS_modelViewStack.translate(PosX_in_inventory+51, PosY_in_inventory+60, 50.0);
             PTS_modelViewStack.pushPose();
             PTS_modelViewStack.scale(20.0f,20.0f, -20.0f);
-            PTS_modelViewStack.scale(size[1], size[1], size[1]);
-            Quaternionf quaternionf = (new Quaternionf()).rotateZ((float)Math.PI);
-            Quaternionf quaternionf1 = (new Quaternionf()).rotateX(-entityIn.getXRot() * ((float)Math.PI / 180F));
-            Quaternionf quaternionf2 = (new Quaternionf()).rotateY(-entityIn.getYRot() * ((float)Math.PI / 180F));
-            quaternionf.mul(quaternionf1);
-            quaternionf.mul(quaternionf2);
-            PTS_modelViewStack.mulPose(quaternionf);
+            float inventorySize = profile.getSizeInInventory();
+            PTS_modelViewStack.scale(inventorySize, inventorySize, inventorySize);
+            PTS_modelViewStack.mulPose(inventoryRotation.rotationZ((float)Math.PI)
+                .rotateX(-entityIn.getXRot() * ((float)Math.PI / 180F))
+                .rotateY(-entityIn.getYRot() * ((float)Math.PI / 180F)));
             RenderSystem.setShader(GameRenderer::getRendertypeEntityCutoutNoCullShader);
-            model.model.render(entityIn, entityYaw, 0.0f, new Vector3f(0.0f), tickDelta, PTS_modelViewStack, packedLightIn, RenderContext.INVENTORY);
+            model.model.render(entityIn, entityYaw, 0.0f, translation.zero(), tickDelta, PTS_modelViewStack, packedLightIn, RenderContext.INVENTORY);
             PTS_modelViewStack.popPose();
         }else{
-            matrixStackIn.scale(size[0], size[0], size[0]);
+            matrixStackIn.scale(profile.getSize(), profile.getSize(), profile.getSize());
             RenderSystem.setShader(GameRenderer::getRendertypeEntityCutoutNoCullShader);
-            model.model.render(entityIn, bodyYaw, bodyPitch, entityTrans, tickDelta, matrixStackIn, packedLightIn, RenderContext.WORLD);
+            model.model.render(entityIn, bodyYaw, bodyPitch, translation.set(entityTrans), tickDelta, matrixStackIn, packedLightIn, RenderContext.WORLD);
         }
         matrixStackIn.popPose();
     }
 
-    float[] sizeOfModel(MMDModelManager.Model model){
-        float[] size = new float[2];
-        size[0] = (model.properties.getProperty("size") == null) ? 1.0f : Float.valueOf(model.properties.getProperty("size"));
-        size[1] = (model.properties.getProperty("size_in_inventory") == null) ? 1.0f : Float.valueOf(model.properties.getProperty("size_in_inventory"));
-        return size;
-    }
-
     void AnimStateChangeOnce(MMDModelManager.ModelWithEntityData model, EntityAnimState.State targetState, Integer layer) {
         String property = EntityAnimState.getPropertyName(targetState);
         if (model.entityData.stateLayers[layer] != targetState) {
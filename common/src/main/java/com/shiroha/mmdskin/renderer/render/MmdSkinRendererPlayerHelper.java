@@ -5,6 +5,7 @@ import com.shiroha.mmdskin.config.PathConstants;
 import com.shiroha.mmdskin.config.UIConstants;
 import com.shiroha.mmdskin.renderer.core.IMMDModel;
 import com.shiroha.mmdskin.renderer.animation.MMDAnimManager;
+import com.shiroha.mmdskin.renderer.camera.StagePreparer;
 import com.shiroha.mmdskin.renderer.model.MMDModelManager;
 import com.shiroha.mmdskin.ui.network.PlayerModelSyncManager;
 import net.minecraft.client.Minecraft;
@@ -22,8 +23,8 @@ import java.util.concurrent.ConcurrentHashMap;
 public class MmdSkinRendererPlayerHelper {
     private static final Logger logger = LogManager.getLogger();
     
-    // 远程玩家舞台动画句柄追踪（用于清理）
-    private static final Map<UUID, List<Long>> remoteStageAnims = new ConcurrentHashMap<>();
+    // 远程玩家舞台动画追踪（用于清理；动作句柄与本地/其他玩家的同一舞台共享）
+    private static final Map<UUID, StagePreparer.PreparedStage> remoteStageAnims = new ConcurrentHashMap<>();
 
     MmdSkinRendererPlayerHelper() {
     }
@@ -77,7 +78,8 @@ public class MmdSkinRendererPlayerHelper {
     
     /**
      * 远程玩家舞台动画开始
-     * 从本地 StageAnim 目录加载相同的 VMD 文件，合并后应用到远程玩家模型
+     * 通过 StagePreparer 在后台加载本地 StageAnim 目录中相同的 VMD 文件（已准备过的同一舞台直接复用），
+     * 就绪后在主线程应用到远程玩家模型
      * 
      * @param player 远程玩家
      * @param stageData 格式: "packName|file1.vmd|file2.vmd|..."
@@ -116,14 +118,14 @@ public class MmdSkinRendererPlayerHelper {
             return;
         }
         
-        MMDModelManager.Model m = MMDModelManager.GetModel(selectedModel, playerName);
-        if (m == null) {
+        if (MMDModelManager.GetModel(selectedModel, playerName) == null) {
             logger.warn("[舞台同步] 远程玩家 {} 模型未找到: {}", playerName, selectedModel);
             return;
         }
         
         // 先清理该玩家之前的舞台动画（如果有）
-        cleanupRemoteStageAnim(player.getUUID());
+        UUID uuid = player.getUUID();
+        cleanupRemoteStageAnim(uuid);
         
         // 从本地 StageAnim 目录查找对应的文件
         File stageDir = new File(PathConstants.getStageAnimDir(), packName);
@@ -132,49 +134,48 @@ public class MmdSkinRendererPlayerHelper {
             return;
         }
         
-        NativeFunc nf = NativeFunc.GetInst();
-        List<Long> loadedAnims = new ArrayList<>();
+        List<File> motionFiles = new ArrayList<>();
+        for (int i = 1; i < parts.length; i++) {
+            motionFiles.add(new File(stageDir, parts[i]));
+        }
         
-        // 加载第一个动作 VMD
-        String firstFile = new File(stageDir, parts[1]).getAbsolutePath();
-        long mergedAnim = nf.LoadAnimation(0, firstFile);
+        StagePreparer.PreparedStage stage = StagePreparer.prepare(packName, motionFiles, null, null);
+        remoteStageAnims.put(uuid, stage);
+        stage.whenReady(mc, ready -> applyRemoteStageAnim(uuid, playerName, selectedModel, ready));
+    }
+    
+    /**
+     * 舞台动作准备完成后应用到远程玩家模型（主线程）
+     */
+    private static void applyRemoteStageAnim(UUID uuid, String playerName, String selectedModel,
+                                             StagePreparer.PreparedStage stage) {
+        // 准备期间已结束或被新的舞台替换
+        if (remoteStageAnims.get(uuid) != stage) return;
+        
+        long mergedAnim = stage.getMotionAnim();
         if (mergedAnim == 0) {
-            logger.warn("[舞台同步] VMD 加载失败: {}", firstFile);
+            logger.warn("[舞台同步] VMD 加载失败: {}", stage.getKey());
+            cleanupRemoteStageAnim(uuid);
             return;
         }
-        loadedAnims.add(mergedAnim);
         
-        // 合并其余动作 VMD
-        for (int i = 2; i < parts.length; i++) {
-            String filePath = new File(stageDir, parts[i]).getAbsolutePath();
-            long tempAnim = nf.LoadAnimation(0, filePath);
-            if (tempAnim != 0) {
-                nf.MergeAnimation(mergedAnim, tempAnim);
-                loadedAnims.add(tempAnim);
-            }
-        }
-        
-        // 释放临时句柄（保留 mergedAnim）
-        for (int i = 1; i < loadedAnims.size(); i++) {
-            nf.DeleteAnimation(loadedAnims.get(i));
+        MMDModelManager.Model m = MMDModelManager.GetModel(selectedModel, playerName);
+        if (m == null) {
+            logger.warn("[舞台同步] 远程玩家 {} 模型未找到: {}", playerName, selectedModel);
+            cleanupRemoteStageAnim(uuid);
+            return;
         }
         
         // 应用到远程玩家模型
         MMDModelManager.ModelWithEntityData mwed = (MMDModelManager.ModelWithEntityData) m;
         long modelHandle = m.model.GetModelLong();
-        nf.TransitionLayerTo(modelHandle, 0, mergedAnim, 0.3f);
+        NativeFunc.GetInst().TransitionLayerTo(modelHandle, 0, mergedAnim, 0.3f);
         m.model.ChangeAnim(0, 1);
         m.model.ChangeAnim(0, 2);
         mwed.entityData.playCustomAnim = true;
         mwed.entityData.playStageAnim = true;
         
-        // 记录句柄用于后续清理
-        List<Long> tracked = new ArrayList<>();
-        tracked.add(mergedAnim);
-        remoteStageAnims.put(player.getUUID(), tracked);
-        
-        logger.info("[舞台同步] 远程玩家 {} 舞台动画已应用: {} ({} 个VMD)", 
-                    playerName, packName, parts.length - 1);
+        logger.info("[舞台同步] 远程玩家 {} 舞台动画已应用: {}", playerName, stage.getKey());
     }
     
     /**
@@ -214,18 +215,12 @@ public class MmdSkinRendererPlayerHelper {
      */
     public static void onDisconnect() {
         if (remoteStageAnims.isEmpty()) return;
-        NativeFunc nf = NativeFunc.GetInst();
-        int count = 0;
-        for (Map.Entry<UUID, List<Long>> entry : remoteStageAnims.entrySet()) {
-            for (long handle : entry.getValue()) {
-                if (handle != 0) {
-                    nf.DeleteAnimation(handle);
-                    count++;
-                }
-            }
+        int count = remoteStageAnims.size();
+        for (StagePreparer.PreparedStage stage : remoteStageAnims.values()) {
+            stage.release();
         }
         remoteStageAnims.clear();
-        logger.info("[舞台同步] 断线清理: 释放 {} 个远程舞台动画句柄", count);
+        logger.info("[舞台同步] 断线清理: 释放 {} 个远程舞台动画", count);
     }
     
     /**
@@ -251,17 +246,12 @@ public class MmdSkinRendererPlayerHelper {
     }
     
     /**
-     * 清理远程玩家的舞台动画句柄
+     * 释放远程玩家的舞台动画（共享动作句柄按引用计数删除）
      */
     private static void cleanupRemoteStageAnim(UUID playerUUID) {
-        List<Long> anims = remoteStageAnims.remove(playerUUID);
-        if (anims != null) {
-            NativeFunc nf = NativeFunc.GetInst();
-            for (long handle : anims) {
-                if (handle != 0) {
-                    nf.DeleteAnimation(handle);
-                }
-            }
+        StagePreparer.PreparedStage stage = remoteStageAnims.remove(playerUUID);
+        if (stage != null) {
+            stage.release();
         }
     }
     
@@ -0,0 +1,113 @@
+package com.shiroha.mmdskin.renderer.render;
+
+import com.shiroha.mmdskin.renderer.core.IMMDModel;
+import com.shiroha.mmdskin.renderer.core.ModelFrameBuffer;
+import com.shiroha.mmdskin.renderer.core.ModelRenderProfile;
+import com.shiroha.mmdskin.renderer.model.MMDModelManager;
+import com.shiroha.mmdskin.ui.network.PlayerModelSyncManager;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.player.AbstractClientPlayer;
+import net.minecraft.client.renderer.culling.Frustum;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.Pose;
+import net.minecraft.world.phys.AABB;
+
+/**
+ * 模型视锥剔除辅助类
+ * 
+ * 原版按实体碰撞箱剔除，对裙摆、翅膀、长发等超出碰撞箱的 MMD 模型会过早剔除。
+ * 这里使用模型每次更新后写回的保守包围盒（骨骼位置 + 包络半径）再判定一次；
+ * 判定为不可见的模型按低频率只推进动画，重新进入视野时姿态正确。
+ */
+public final class ModelCullingHelper {
+    
+    /** 模型局部空间到方块的缩放（与渲染时一致） */
+    private static final float MODEL_SCALE = 0.09f;
+    /** 包围盒外扩（方块），与原版剔除一致 */
+    private static final double CULLING_MARGIN = 0.5;
+    
+    private static final float[] bounds = new float[6];
+    
+    private ModelCullingHelper() {}
+    
+    /**
+     * 玩家视锥剔除判定（在原版判定结果之后调用）
+     * 
+     * @param vanillaVisible 原版判定结果
+     * @return 最终是否渲染
+     */
+    public static boolean shouldRenderPlayer(boolean vanillaVisible, AbstractClientPlayer player, Frustum frustum,
+                                             double camX, double camY, double camZ) {
+        String playerName = player.getName().getString();
+        Minecraft mc = Minecraft.getInstance();
+        boolean isLocalPlayer = mc.player != null && mc.player.getUUID().equals(player.getUUID());
+        String selectedModel = PlayerModelSyncManager.getPlayerModel(player.getUUID(), playerName, isLocalPlayer);
+        if (selectedModel == null || selectedModel.isEmpty() || selectedModel.equals("默认 (原版渲染)")) {
+            return vanillaVisible;
+        }
+        
+        MMDModelManager.Model modelData = MMDModelManager.getLoadedModel(selectedModel, playerName);
+        if (modelData == null) {
+            return vanillaVisible;
+        }
+        return shouldRender(vanillaVisible, player, modelData, frustum, camX, camY, camZ);
+    }
+    
+    /**
+     * 模型视锥剔除判定（在原版判定结果之后调用）
+     * 
+     * 原版判定可见时直接渲染；否则在渲染距离内用模型包围盒再判定一次，
+     * 仍不可见时低频更新模型并跳过渲染。
+     * 
+     * @param vanillaVisible 原版判定结果
+     * @return 最终是否渲染
+     */
+    public static boolean shouldRender(boolean vanillaVisible, Entity entity, MMDModelManager.Model modelData,
+                                       Frustum frustum, double camX, double camY, double camZ) {
+        if (vanillaVisible) {
+            return true;
+        }
+        IMMDModel model = modelData.model;
+        if (entity.shouldRender(camX, camY, camZ)) {
+            AABB box = getCullingBox(entity, modelData);
+            if (box != null && frustum.isVisible(box)) {
+                return true;
+            }
+        }
+        model.updateOffscreen();
+        return false;
+    }
+    
+    /**
+     * 模型当前姿态的世界空间剔除包围盒（模型尚未更新过时返回 null）
+     * 
+     * 包围盒在模型局部空间，渲染时还会绕 Y 轴按身体朝向旋转，因此水平方向取最大半径；
+     * 睡觉、游泳、鞘翅飞行等姿态会整体俯仰，此时按包围球处理。
+     */
+    public static AABB getCullingBox(Entity entity, MMDModelManager.Model modelData) {
+        ModelFrameBuffer frameBuffer = modelData.model.getFrameBuffer();
+        if (frameBuffer == null || !frameBuffer.hasBounds()) {
+            return null;
+        }
+        frameBuffer.getBounds(bounds);
+        
+        ModelRenderProfile profile = modelData.getProfile();
+        float scale = MODEL_SCALE * profile.getSize() * profile.getModelScale();
+        
+        float radius = Math.max(Math.max(Math.abs(bounds[0]), Math.abs(bounds[3])),
+                                Math.max(Math.abs(bounds[2]), Math.abs(bounds[5]))) * scale;
+        float minY = bounds[1] * scale;
+        float maxY = bounds[4] * scale;
+        Pose pose = entity.getPose();
+        if (pose != Pose.STANDING && pose != Pose.CROUCHING) {
+            radius = Math.max(radius, Math.max(Math.abs(minY), Math.abs(maxY)));
+            minY = -radius;
+            maxY = radius;
+        }
+        
+        double x = entity.getX();
+        double y = entity.getY();
+        double z = entity.getZ();
+        return new AABB(x - radius, y + minY, z - radius, x + radius, y + maxY, z + radius).inflate(CULLING_MARGIN);
+    }
+}
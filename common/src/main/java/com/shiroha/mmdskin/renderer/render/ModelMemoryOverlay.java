@@ -0,0 +1,136 @@
+package com.shiroha.mmdskin.renderer.render;
+
+import com.shiroha.mmdskin.renderer.core.ModelMemoryReport;
+import com.shiroha.mmdskin.renderer.core.ModelMemoryUsage;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.Font;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.network.chat.Component;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * 内存统计覆盖层（F3 风格）
+ *
+ * 在屏幕左上角按可回收内存从高到低列出已加载模型的原生内存、直接缓冲区、独占显存与平摊的共享纹理（MB），
+ * 下方汇总共享纹理、原生共享资源（动画、姿态缓存、烘焙舞台）、模型缓存预算与 Java 直接内存池。
+ * 按键切换显示，按住 Shift 按键导出 CSV（含每个纹理的大小与引用数）。
+ * 由各加载器的 HUD 渲染事件调用，仅在渲染线程使用。
+ */
+public final class ModelMemoryOverlay {
+
+    /** 最多显示的模型数量 */
+    private static final int MAX_MODELS = 8;
+    private static final int LINE_HEIGHT = 9;
+    private static final int MARGIN = 2;
+    /** 名称列宽与数值列宽（像素） */
+    private static final int LABEL_WIDTH = 88;
+    private static final int COLUMN_WIDTH = 36;
+    private static final int WIDTH = LABEL_WIDTH + COLUMN_WIDTH * 4;
+
+    private static final int BACKGROUND_COLOR = 0x90505050;
+    private static final int TEXT_COLOR = 0xE0E0E0;
+    private static final int HEADER_COLOR = 0xFFFF55;
+
+    private static final String[] COLUMNS = {"native", "direct", "gpu", "tex"};
+
+    /** 两次采集的间隔（毫秒） */
+    private static final long COLLECT_INTERVAL_MS = 500;
+
+    private static boolean visible = false;
+    private static ModelMemoryReport report;
+    private static long lastCollectTime = 0;
+
+    private ModelMemoryOverlay() {}
+
+    /**
+     * 处理覆盖层按键：切换显示，按住 Shift 时导出 CSV
+     */
+    public static void onKeyPressed() {
+        Minecraft mc = Minecraft.getInstance();
+        if (Screen.hasShiftDown()) {
+            File file = ModelMemoryReport.collect().dumpCsv();
+            mc.gui.getChat().addMessage(file != null
+                ? Component.translatable("gui.mmdskin.memory_stats.exported", file.getName())
+                : Component.translatable("gui.mmdskin.memory_stats.no_data"));
+            return;
+        }
+        visible = !visible;
+        report = null;
+        lastCollectTime = 0;
+    }
+
+    /**
+     * 绘制覆盖层（未开启或 GUI 隐藏时不绘制）
+     */
+    public static void render(GuiGraphics graphics) {
+        if (!visible) return;
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.options.hideGui) return;
+
+        long now = System.currentTimeMillis();
+        if (report == null || now - lastCollectTime >= COLLECT_INTERVAL_MS) {
+            lastCollectTime = now;
+            report = ModelMemoryReport.collect();
+        }
+
+        Font font = mc.font;
+        int left = MARGIN;
+        int y = MARGIN;
+        y = drawRow(graphics, font, left, y, "MMD memory (MB)", COLUMNS, HEADER_COLOR);
+
+        String[] values = new String[4];
+        int shown = Math.min(MAX_MODELS, report.models.size());
+        for (int i = 0; i < shown; i++) {
+            ModelMemoryReport.ModelEntry model = report.models.get(i);
+            values[0] = format(model.usage.nativeBytes);
+            values[1] = format(model.usage.directBytes);
+            values[2] = format(model.usage.gpuBufferBytes);
+            values[3] = format(model.textureShareBytes);
+            y = drawRow(graphics, font, left, y, model.name, values, TEXT_COLOR);
+        }
+        if (report.models.size() > shown) {
+            y = drawRow(graphics, font, left, y, "+" + (report.models.size() - shown) + " models", null, TEXT_COLOR);
+        } else if (report.models.isEmpty()) {
+            y = drawRow(graphics, font, left, y, "no models", null, TEXT_COLOR);
+        }
+
+        y = drawRow(graphics, font, left, y, String.format(Locale.ROOT, "textures: %d, %s MB (pending %s MB)",
+            report.textures.size(), format(report.textureBytes), format(report.predecodedBytes)), null, HEADER_COLOR);
+        y = drawRow(graphics, font, left, y, String.format(Locale.ROOT, "vmd: %s, pose cache: %s, baked: %s MB",
+            format(report.animationBytes), format(report.poseCacheBytes), format(report.bakedStageBytes)),
+            null, HEADER_COLOR);
+        y = drawRow(graphics, font, left, y, String.format(Locale.ROOT, "cache: %s / %s MB",
+            format(report.cacheBytes), format(report.cacheBudgetBytes)), null, HEADER_COLOR);
+        if (report.directPoolBytes >= 0) {
+            drawRow(graphics, font, left, y, String.format(Locale.ROOT, "java direct pool: %s MB",
+                format(report.directPoolBytes)), null, HEADER_COLOR);
+        }
+    }
+
+    /**
+     * 绘制一行：左侧标签，右侧数值列右对齐
+     *
+     * @return 下一行的 y 坐标
+     */
+    private static int drawRow(GuiGraphics graphics, Font font, int left, int y, String label,
+                               String[] columns, int color) {
+        graphics.fill(left - 1, y - 1, left + WIDTH + 1, y + LINE_HEIGHT - 1, BACKGROUND_COLOR);
+        graphics.drawString(font, font.plainSubstrByWidth(label, columns != null ? LABEL_WIDTH : WIDTH),
+            left, y, color, false);
+        if (columns != null) {
+            for (int i = 0; i < columns.length; i++) {
+                int right = left + LABEL_WIDTH + COLUMN_WIDTH * (i + 1);
+                graphics.drawString(font, columns[i], right - font.width(columns[i]), y, color, false);
+            }
+        }
+        return y + LINE_HEIGHT;
+    }
+
+    private static String format(long bytes) {
+        double mb = ModelMemoryUsage.toMb(bytes);
+        return String.format(Locale.ROOT, mb >= 100.0 ? "%.0f" : "%.1f", mb);
+    }
+}
@@ -0,0 +1,226 @@
+package com.shiroha.mmdskin.renderer.render;
+
+import com.mojang.blaze3d.pipeline.RenderTarget;
+import com.mojang.blaze3d.pipeline.TextureTarget;
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.platform.Window;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.BufferUploader;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import com.mojang.blaze3d.vertex.VertexSorting;
+import com.shiroha.mmdskin.config.ConfigManager;
+import net.minecraft.Util;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.GameRenderer;
+import org.joml.Matrix4f;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 模型离屏预览渲染器
+ *
+ * 物品栏等界面中的模型预览不需要每帧重新更新、蒙皮与绘制。
+ * 预览区域先渲染到离屏帧缓冲（FBO），之后按配置的刷新率（{@link ConfigManager#getInventoryPreviewFps()}）
+ * 或视角参数变化时才重新渲染，其余帧直接贴上缓存的图像。
+ *
+ * 离屏渲染沿用调用方原有的 GUI 矩阵，只把投影矩阵裁剪到预览区域，因此渲染回调无需任何改动。
+ * 所有方法只能在渲染线程调用。
+ */
+public final class ModelPreviewRenderer {
+
+    /** 预览超过该时间未使用则释放帧缓冲（毫秒） */
+    private static final long RELEASE_AFTER_MS = 5000;
+    /** 两次清理检查的间隔（毫秒） */
+    private static final long CLEANUP_INTERVAL_MS = 1000;
+
+    private static final Map<String, Preview> previews = new HashMap<>();
+    private static long lastCleanupTime = 0;
+
+    private ModelPreviewRenderer() {}
+
+    /**
+     * 单个预览的缓存状态
+     */
+    private static final class Preview {
+        RenderTarget target;
+        long renderedAt;
+        long lastUsedAt;
+        int viewHash;
+        float left, top, width, height;
+    }
+
+    /**
+     * 绘制预览
+     *
+     * 缓存过期、预览区域或视角参数变化时调用 renderer 重新离屏渲染，否则直接贴上一次的图像。
+     *
+     * @param key 缓存键（每个预览位置一个）
+     * @param left 预览区域左边（GUI 坐标）
+     * @param top 预览区域上边（GUI 坐标）
+     * @param width 预览区域宽度（GUI 坐标）
+     * @param height 预览区域高度（GUI 坐标）
+     * @param viewHash 视角参数哈希（变化时立即刷新）
+     * @param renderer 渲染回调（按原有 GUI 坐标绘制模型）
+     * @return false 表示缓存已关闭，调用方应直接渲染
+     */
+    public static boolean draw(String key, float left, float top, float width, float height,
+                               int viewHash, Runnable renderer) {
+        int fps = ConfigManager.getInventoryPreviewFps();
+        if (fps <= 0) {
+            if (!previews.isEmpty()) {
+                releaseAll();
+            }
+            return false;
+        }
+        if (width <= 0 || height <= 0) {
+            return false;
+        }
+
+        Window window = Minecraft.getInstance().getWindow();
+        double guiScale = window.getGuiScale();
+        int pixelWidth = Math.max(1, (int) Math.ceil(width * guiScale));
+        int pixelHeight = Math.max(1, (int) Math.ceil(height * guiScale));
+        long now = Util.getMillis();
+
+        Preview preview = previews.computeIfAbsent(key, k -> new Preview());
+        preview.lastUsedAt = now;
+        boolean stale = preview.target == null
+                || preview.target.width != pixelWidth || preview.target.height != pixelHeight
+                || preview.viewHash != viewHash
+                || preview.left != left || preview.top != top
+                || preview.width != width || preview.height != height
+                || now - preview.renderedAt >= 1000L / fps;
+        if (stale) {
+            renderToTarget(preview, pixelWidth, pixelHeight, left, top, width, height, renderer);
+            preview.renderedAt = now;
+            preview.viewHash = viewHash;
+            preview.left = left;
+            preview.top = top;
+            preview.width = width;
+            preview.height = height;
+        }
+
+        blit(preview.target, left, top, width, height);
+        releaseUnused(now);
+        return true;
+    }
+
+    /**
+     * 离屏渲染：绑定预览帧缓冲，投影裁剪到预览区域后执行渲染回调
+     */
+    private static void renderToTarget(Preview preview, int pixelWidth, int pixelHeight,
+                                       float left, float top, float width, float height, Runnable renderer) {
+        Minecraft mc = Minecraft.getInstance();
+        if (preview.target == null) {
+            preview.target = new TextureTarget(pixelWidth, pixelHeight, true, Minecraft.ON_OSX);
+        } else if (preview.target.width != pixelWidth || preview.target.height != pixelHeight) {
+            preview.target.resize(pixelWidth, pixelHeight, Minecraft.ON_OSX);
+        }
+        preview.target.setClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+        preview.target.clear(Minecraft.ON_OSX);
+        preview.target.bindWrite(true);
+
+        Window window = mc.getWindow();
+        Matrix4f savedProjection = new Matrix4f(RenderSystem.getProjectionMatrix());
+        VertexSorting savedSorting = RenderSystem.getVertexSorting();
+        RenderSystem.setProjectionMatrix(regionProjection(savedProjection, left, top, width, height,
+                window.getGuiScaledWidth(), window.getGuiScaledHeight()), savedSorting);
+        try {
+            renderer.run();
+        } finally {
+            RenderSystem.setProjectionMatrix(savedProjection, savedSorting);
+            mc.getMainRenderTarget().bindWrite(true);
+        }
+    }
+
+    /**
+     * 把 GUI 投影矩阵裁剪到预览区域：区域在 NDC 中的范围被拉伸到 [-1, 1]，深度不变
+     */
+    private static Matrix4f regionProjection(Matrix4f guiProjection, float left, float top, float width, float height,
+                                             int guiWidth, int guiHeight) {
+        float x0 = 2.0f * left / guiWidth - 1.0f;
+        float x1 = 2.0f * (left + width) / guiWidth - 1.0f;
+        float y0 = 1.0f - 2.0f * top / guiHeight;
+        float y1 = 1.0f - 2.0f * (top + height) / guiHeight;
+        return new Matrix4f()
+                .scaling(2.0f / (x1 - x0), 2.0f / (y0 - y1), 1.0f)
+                .translate(-(x0 + x1) * 0.5f, -(y0 + y1) * 0.5f, 0.0f)
+                .mul(guiProjection);
+    }
+
+    /**
+     * 把缓存图像贴到预览区域（离屏图像为预乘 alpha）
+     */
+    private static void blit(RenderTarget target, float left, float top, float width, float height) {
+        blitTexture(target.getColorTextureId(), left, top, width, height, true);
+    }
+
+    /**
+     * 把整张纹理贴到 GUI 区域（纹理按 GL 约定第一行为底部）
+     *
+     * @param premultiplied 纹理颜色是否为预乘 alpha
+     */
+    public static void blitTexture(int textureId, float left, float top, float width, float height,
+                                   boolean premultiplied) {
+        float right = left + width;
+        float bottom = top + height;
+        float z = 50.0f;
+
+        RenderSystem.setShader(GameRenderer::getPositionTexShader);
+        RenderSystem.setShaderTexture(0, textureId);
+        RenderSystem.enableBlend();
+        if (premultiplied) {
+            RenderSystem.blendFunc(GlStateManager.SourceFactor.ONE, GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA);
+        } else {
+            RenderSystem.defaultBlendFunc();
+        }
+
+        BufferBuilder builder = Tesselator.getInstance().getBuilder();
+        builder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_TEX);
+        builder.vertex(left, bottom, z).uv(0.0f, 0.0f).endVertex();
+        builder.vertex(right, bottom, z).uv(1.0f, 0.0f).endVertex();
+        builder.vertex(right, top, z).uv(1.0f, 1.0f).endVertex();
+        builder.vertex(left, top, z).uv(0.0f, 1.0f).endVertex();
+        BufferUploader.drawWithShader(builder.end());
+
+        RenderSystem.defaultBlendFunc();
+    }
+
+    /**
+     * 释放长时间未使用的预览
+     */
+    private static void releaseUnused(long now) {
+        if (now - lastCleanupTime < CLEANUP_INTERVAL_MS) {
+            return;
+        }
+        lastCleanupTime = now;
+        Iterator<Preview> it = previews.values().iterator();
+        while (it.hasNext()) {
+            Preview preview = it.next();
+            if (now - preview.lastUsedAt > RELEASE_AFTER_MS) {
+                if (preview.target != null) {
+                    preview.target.destroyBuffers();
+                }
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * 释放全部预览（配置变更或资源重载时调用）
+     */
+    public static void releaseAll() {
+        RenderSystem.assertOnRenderThread();
+        for (Preview preview : previews.values()) {
+            if (preview.target != null) {
+                preview.target.destroyBuffers();
+            }
+        }
+        previews.clear();
+    }
+}
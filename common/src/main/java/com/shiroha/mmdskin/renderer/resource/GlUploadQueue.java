@@ -0,0 +1,276 @@
+package com.shiroha.mmdskin.renderer.resource;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.GL46C;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * 分片 GL 上传队列（必须在渲染线程使用）
+ *
+ * 将大块的缓冲区/纹理上传拆分为固定大小的分片，在每帧的时间预算内逐片提交，
+ * 避免大模型 GL 资源创建集中在一帧内造成卡顿。
+ *
+ * - 缓冲区：先按总大小分配存储，再用 glBufferSubData 分片写入
+ * - 纹理：先分配纹理存储，再通过 PBO（GL_PIXEL_UNPACK_BUFFER）按行带分片 glTexSubImage2D
+ *
+ * 所有分片均通过 GL_COPY_WRITE_BUFFER 绑定点写入，不影响当前 VAO 的 ELEMENT_ARRAY_BUFFER 绑定；
+ * 每片结束后立即解绑 PBO，避免干扰 Minecraft 自身的纹理上传。
+ */
+public class GlUploadQueue {
+    private static final Logger logger = LogManager.getLogger();
+
+    /** 每个分片的字节数（256KB） */
+    public static final int SLICE_BYTES = 256 * 1024;
+
+    private final ArrayDeque<Upload> uploads = new ArrayDeque<>();
+    private int pixelUnpackBuffer = 0;
+    private long totalBytes = 0;
+    private long uploadedBytes = 0;
+
+    /**
+     * 分配缓冲区存储并上传数据
+     *
+     * 调用方需已将 buffer 绑定到 target（保持原有的 VAO 绑定语义）。
+     * queue 为 null 时立即整体上传（同步路径）；否则只分配存储，数据按分片排队。
+     */
+    public static void bufferData(GlUploadQueue queue, int target, int buffer, ByteBuffer data, int usage) {
+        if (queue == null) {
+            GL46C.glBufferData(target, data, usage);
+            return;
+        }
+        GL46C.glBufferData(target, data.remaining(), usage);
+        queue.enqueueBuffer(buffer, data, null);
+    }
+
+    /**
+     * 排队一个缓冲区分片上传（存储需已分配）
+     *
+     * @param onComplete 全部分片写入后在渲染线程回调，可为 null
+     */
+    public void enqueueBuffer(int buffer, ByteBuffer data, Runnable onComplete) {
+        BufferUpload upload = new BufferUpload();
+        upload.buffer = buffer;
+        upload.data = data.slice();
+        upload.onComplete = onComplete;
+        uploads.add(upload);
+        totalBytes += upload.data.remaining();
+    }
+
+    /**
+     * 排队一个纹理分片上传（纹理存储需已分配）
+     *
+     * @param onComplete 全部行带写入后在渲染线程回调，可为 null
+     * @param onCancel 取消时回调（用于删除未完成的纹理），可为 null
+     */
+    public void enqueueTexture(int texture, int width, int height, int format, ByteBuffer pixels,
+                               Runnable onComplete, Runnable onCancel) {
+        TextureUpload upload = new TextureUpload();
+        upload.texture = texture;
+        upload.width = width;
+        upload.height = height;
+        upload.format = format;
+        upload.bytesPerPixel = format == GL46C.GL_RGBA ? 4 : 3;
+        upload.data = pixels.slice();
+        upload.onComplete = onComplete;
+        upload.onCancel = onCancel;
+        uploads.add(upload);
+        totalBytes += upload.data.remaining();
+    }
+
+    /**
+     * 在截止时间前尽可能多地提交分片
+     *
+     * 每次调用至少提交一个分片，保证在预算极小时仍能推进。
+     *
+     * @param deadlineNanos System.nanoTime() 截止时间
+     * @return 队列是否已清空
+     */
+    public boolean drain(long deadlineNanos) {
+        boolean first = true;
+        while (!uploads.isEmpty()) {
+            if (!first && System.nanoTime() >= deadlineNanos) {
+                return false;
+            }
+            first = false;
+
+            Upload upload = uploads.peek();
+            int written = upload.uploadSlice(this);
+            uploadedBytes += written;
+            if (upload.isDone()) {
+                uploads.poll();
+                if (upload.onComplete != null) {
+                    upload.onComplete.run();
+                }
+            }
+        }
+        releasePixelUnpackBuffer();
+        return true;
+    }
+
+    /**
+     * 立即写完指定纹理的剩余分片并执行完成回调（其他模型需要同步使用该纹理时调用）
+     *
+     * @return 队列中是否有该纹理的上传
+     */
+    public boolean flushTexture(int texture) {
+        TextureUpload upload = removeTexture(texture);
+        if (upload == null) {
+            return false;
+        }
+        while (!upload.isDone()) {
+            uploadedBytes += upload.uploadSlice(this);
+        }
+        releasePixelUnpackBuffer();
+        if (upload.onComplete != null) {
+            upload.onComplete.run();
+        }
+        return true;
+    }
+
+    /**
+     * 丢弃指定纹理的上传（执行其取消回调）
+     *
+     * @return 队列中是否有该纹理的上传
+     */
+    public boolean cancelTexture(int texture) {
+        TextureUpload upload = removeTexture(texture);
+        if (upload == null) {
+            return false;
+        }
+        if (upload.onCancel != null) {
+            upload.onCancel.run();
+        }
+        return true;
+    }
+
+    private TextureUpload removeTexture(int texture) {
+        Iterator<Upload> it = uploads.iterator();
+        while (it.hasNext()) {
+            Upload upload = it.next();
+            if (upload instanceof TextureUpload && ((TextureUpload) upload).texture == texture) {
+                it.remove();
+                return (TextureUpload) upload;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 丢弃所有未完成的上传（执行取消回调并释放 PBO）
+     */
+    public void cancel() {
+        for (Upload upload : uploads) {
+            if (upload.onCancel != null) {
+                try {
+                    upload.onCancel.run();
+                } catch (Exception e) {
+                    logger.error("取消分片上传回调失败", e);
+                }
+            }
+        }
+        uploads.clear();
+        releasePixelUnpackBuffer();
+    }
+
+    public boolean isEmpty() {
+        return uploads.isEmpty();
+    }
+
+    /** 已排队的总字节数 */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /** 已提交的字节数 */
+    public long getUploadedBytes() {
+        return uploadedBytes;
+    }
+
+    private int acquirePixelUnpackBuffer() {
+        if (pixelUnpackBuffer == 0) {
+            pixelUnpackBuffer = GL46C.glGenBuffers();
+        }
+        return pixelUnpackBuffer;
+    }
+
+    private void releasePixelUnpackBuffer() {
+        if (pixelUnpackBuffer != 0) {
+            GL46C.glDeleteBuffers(pixelUnpackBuffer);
+            pixelUnpackBuffer = 0;
+        }
+    }
+
+    private abstract static class Upload {
+        ByteBuffer data;
+        Runnable onComplete;
+        Runnable onCancel;
+
+        /** 提交一个分片，返回写入字节数 */
+        abstract int uploadSlice(GlUploadQueue queue);
+
+        boolean isDone() {
+            return !data.hasRemaining();
+        }
+    }
+
+    private static class BufferUpload extends Upload {
+        int buffer;
+
+        @Override
+        int uploadSlice(GlUploadQueue queue) {
+            int offset = data.position();
+            int size = Math.min(SLICE_BYTES, data.remaining());
+            ByteBuffer slice = data.duplicate();
+            slice.limit(offset + size);
+
+            GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, buffer);
+            GL46C.glBufferSubData(GL46C.GL_COPY_WRITE_BUFFER, offset, slice);
+            GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, 0);
+
+            data.position(offset + size);
+            return size;
+        }
+    }
+
+    private static class TextureUpload extends Upload {
+        int texture;
+        int width;
+        int height;
+        int format;
+        int bytesPerPixel;
+        int nextRow = 0;
+
+        @Override
+        int uploadSlice(GlUploadQueue queue) {
+            int rowBytes = width * bytesPerPixel;
+            int rows = Math.max(1, Math.min(height - nextRow, SLICE_BYTES / Math.max(1, rowBytes)));
+            int size = rows * rowBytes;
+            ByteBuffer slice = data.duplicate();
+            slice.limit(data.position() + size);
+
+            // 行带先写入 PBO，再由驱动从 PBO 异步拷贝到纹理
+            int pbo = queue.acquirePixelUnpackBuffer();
+            GL46C.glBindBuffer(GL46C.GL_PIXEL_UNPACK_BUFFER, pbo);
+            GL46C.glBufferData(GL46C.GL_PIXEL_UNPACK_BUFFER, slice, GL46C.GL_STREAM_DRAW);
+            GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, texture);
+            GL46C.glPixelStorei(GL46C.GL_UNPACK_ALIGNMENT, bytesPerPixel == 4 ? 4 : 1);
+            GL46C.glTexSubImage2D(GL46C.GL_TEXTURE_2D, 0, 0, nextRow, width, rows,
+                format, GL46C.GL_UNSIGNED_BYTE, 0L);
+            GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, 0);
+            GL46C.glBindBuffer(GL46C.GL_PIXEL_UNPACK_BUFFER, 0);
+
+            nextRow += rows;
+            data.position(data.position() + size);
+            return size;
+        }
+
+        @Override
+        boolean isDone() {
+            return nextRow >= height;
+        }
+    }
+}
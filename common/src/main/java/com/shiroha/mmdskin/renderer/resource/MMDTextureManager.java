@@ -4,6 +4,7 @@ import com.shiroha.mmdskin.NativeFunc;
 import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -22,6 +23,9 @@ public class MMDTextureManager {
     
     /** 后台线程预解码的纹理数据（尚未上传到 GL） */
     private static final Map<String, PredecodedTexture> predecodedTextures = new ConcurrentHashMap<>();
+    
+    /** 正在分片上传的纹理（GL 对象已创建，像素数据尚未全部写入，不对外提供） */
+    private static final Map<String, UploadingTexture> uploadingTextures = new ConcurrentHashMap<>();
 
     public static void Init() {
         nf = NativeFunc.GetInst();
@@ -34,17 +38,18 @@ public class MMDTextureManager {
      * 将图片文件通过 Rust 解码为像素数据，存入 Java ByteBuffer 待后续 GL 上传。
      * 
      * @param filename 纹理文件完整路径
+     * @return 本次解码的像素字节数（已缓存、已预解码或解码失败时为 0）
      */
-    public static void preloadTexture(String filename) {
+    public static long preloadTexture(String filename) {
         // 已有 GL 纹理或已预解码，跳过
         if (textures.containsKey(filename) || predecodedTextures.containsKey(filename)) {
-            return;
+            return 0;
         }
         
         NativeFunc localNf = NativeFunc.GetInst();
         long nfTex = localNf.LoadTexture(filename);
         if (nfTex == 0) {
-            return;
+            return 0;
         }
         
         try {
@@ -65,6 +70,7 @@ public class MMDTextureManager {
             predecoded.hasAlpha = hasAlpha;
             
             predecodedTextures.put(filename, predecoded);
+            return texSize;
         } finally {
             localNf.DeleteTexture(nfTex);
         }
@@ -77,9 +83,74 @@ public class MMDTextureManager {
         predecodedTextures.clear();
     }
 
+    /**
+     * 开始分片上传预解码纹理（渲染线程调用）
+     * 立即创建 GL 纹理并分配存储，像素数据交给 {@link GlUploadQueue} 按帧预算分片写入，
+     * 全部写入后才登记到纹理缓存；期间其他模型同步获取该纹理时由 {@link #GetTexture} 当场写完。
+     * 
+     * @return 是否排队了新的上传（无预解码数据、已缓存或已在上传时返回 false）
+     */
+    public static boolean beginUpload(String filename, GlUploadQueue queue) {
+        if (textures.containsKey(filename) || uploadingTextures.containsKey(filename)) {
+            return false;
+        }
+        PredecodedTexture predecoded = predecodedTextures.remove(filename);
+        if (predecoded == null) {
+            return false;
+        }
+        
+        int format = predecoded.hasAlpha ? GL46C.GL_RGBA : GL46C.GL_RGB;
+        int tex = GL46C.glGenTextures();
+        GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, tex);
+        GL46C.glTexImage2D(GL46C.GL_TEXTURE_2D, 0, format,
+            predecoded.width, predecoded.height, 0,
+            format, GL46C.GL_UNSIGNED_BYTE, (ByteBuffer) null);
+        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MAX_LEVEL, 0);
+        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MIN_FILTER, GL46C.GL_LINEAR);
+        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MAG_FILTER, GL46C.GL_LINEAR);
+        GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, 0);
+        
+        Texture result = new Texture();
+        result.tex = tex;
+        result.hasAlpha = predecoded.hasAlpha;
+        result.bytes = predecoded.pixelData.remaining();
+        UploadingTexture uploading = new UploadingTexture(result, queue);
+        uploadingTextures.put(filename, uploading);
+        
+        // 只有仍登记为上传中时才转正或删除，Cleanup 之后的回调不会把纹理放回缓存
+        queue.enqueueTexture(tex, predecoded.width, predecoded.height, format, predecoded.pixelData,
+            () -> {
+                if (uploadingTextures.remove(filename, uploading)) {
+                    textures.put(filename, result);
+                }
+            },
+            () -> {
+                if (uploadingTextures.remove(filename, uploading)) {
+                    GL46C.glDeleteTextures(tex);
+                }
+            });
+        return true;
+    }
+    
+    /**
+     * 纹理是否正在分片上传中
+     */
+    public static boolean isUploading(String filename) {
+        return uploadingTextures.containsKey(filename);
+    }
+
     public static Texture GetTexture(String filename) {
         Texture result = textures.get(filename);
         if (result == null) {
+            // 其他模型正在分片上传同一纹理：当场写完剩余分片后再复用，不返回未写完的纹理
+            UploadingTexture uploading = uploadingTextures.get(filename);
+            if (uploading != null && uploading.queue.flushTexture(uploading.texture.tex)) {
+                result = textures.get(filename);
+                if (result != null) {
+                    return result;
+                }
+            }
+            
             // 检查是否有后台预解码的数据
             PredecodedTexture predecoded = predecodedTextures.remove(filename);
             if (predecoded != null) {
@@ -123,6 +194,7 @@ public class MMDTextureManager {
             result = new Texture();
             result.tex = tex;
             result.hasAlpha = hasAlpha;
+            result.bytes = texSize;
             textures.put(filename, result);
         }
         return result;
@@ -155,13 +227,22 @@ public class MMDTextureManager {
         Texture result = new Texture();
         result.tex = tex;
         result.hasAlpha = predecoded.hasAlpha;
+        result.bytes = predecoded.pixelData.capacity();
         return result;
     }
 
     /**
-     * 清理所有缓存的纹理
+     * 清理所有缓存的纹理（含分片上传中的纹理：从所属队列取消并删除）
      */
     public static void Cleanup() {
+        for (UploadingTexture uploading : uploadingTextures.values()) {
+            uploading.queue.cancelTexture(uploading.texture.tex);
+        }
+        for (UploadingTexture uploading : uploadingTextures.values()) {
+            // 所属队列中已找不到上传的残留项
+            GL46C.glDeleteTextures(uploading.texture.tex);
+        }
+        uploadingTextures.clear();
         if (textures != null) {
             int count = textures.size();
             for (Texture tex : textures.values()) {
@@ -186,9 +267,55 @@ public class MMDTextureManager {
         }
     }
     
+    /**
+     * 查询已创建纹理的显存占用（字节，未创建时返回 0）
+     */
+    public static long getTextureBytes(String filename) {
+        Texture tex = textures != null ? textures.get(filename) : null;
+        if (tex == null) {
+            UploadingTexture uploading = uploadingTextures.get(filename);
+            tex = uploading != null ? uploading.texture : null;
+        }
+        return tex != null ? tex.bytes : 0;
+    }
+    
+    /**
+     * 遍历已创建（含分片上传中）的纹理：路径 -> 显存字节数
+     */
+    public static void forEachTexture(BiConsumer<String, Long> action) {
+        if (textures != null) {
+            textures.forEach((path, tex) -> action.accept(path, tex.bytes));
+        }
+        uploadingTextures.forEach((path, uploading) -> action.accept(path, uploading.texture.bytes));
+    }
+    
+    /**
+     * 已预解码但尚未上传的像素数据总字节数（直接内存）
+     */
+    public static long getPredecodedBytes() {
+        long total = 0;
+        for (PredecodedTexture predecoded : predecodedTextures.values()) {
+            total += predecoded.pixelData.capacity();
+        }
+        return total;
+    }
+    
     public static class Texture {
         public int tex;
         public boolean hasAlpha;
+        /** 像素数据字节数（宽 × 高 × 通道数） */
+        public long bytes;
+    }
+    
+    /** 分片上传中的纹理及其所属队列 */
+    private static final class UploadingTexture {
+        final Texture texture;
+        final GlUploadQueue queue;
+
+        UploadingTexture(Texture texture, GlUploadQueue queue) {
+            this.texture = texture;
+            this.queue = queue;
+        }
     }
     
     /** 后台线程预解码的纹理数据（像素数据 + 尺寸，尚未上传到 GL） */
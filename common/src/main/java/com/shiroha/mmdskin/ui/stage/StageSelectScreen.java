@@ -5,6 +5,8 @@ import com.shiroha.mmdskin.config.PathConstants;
 import com.shiroha.mmdskin.config.StagePack;
 import com.shiroha.mmdskin.config.StageConfig;
 import com.shiroha.mmdskin.renderer.camera.MMDCameraController;
+import com.shiroha.mmdskin.renderer.camera.StageBakeManager;
+import com.shiroha.mmdskin.renderer.camera.StagePreparer;
 import com.shiroha.mmdskin.renderer.model.MMDModelManager;
 import com.shiroha.mmdskin.ui.config.ModelSelectorConfig;
 import com.shiroha.mmdskin.ui.network.StageNetworkHandler;
@@ -15,14 +17,16 @@ import net.minecraft.network.chat.Component;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 舞台模式选择界面 — 左侧面板风格
  * 上半部分：舞台包列表（子文件夹）
  * 下半部分：选中包的 VMD 文件详情
- * 底部：影院模式开关 + 开始/取消按钮
+ * 底部：影院模式开关 + 镜头高度 + 开始/取消按钮 + 烘焙按钮
  */
 public class StageSelectScreen extends Screen {
     private static final Logger logger = LogManager.getLogger();
@@ -31,7 +35,7 @@ public class StageSelectScreen extends Screen {
     private static final int PANEL_WIDTH = 160;
     private static final int PANEL_MARGIN = 4;
     private static final int HEADER_HEIGHT = 28;
-    private static final int FOOTER_HEIGHT = 56;
+    private static final int FOOTER_HEIGHT = 74;
     private static final int ITEM_HEIGHT = 14;
     private static final int ITEM_SPACING = 1;
     private static final int DETAIL_HEADER = 14;
@@ -53,16 +57,32 @@ public class StageSelectScreen extends Screen {
     private static final int COLOR_TAG_MORPH = 0xFFD070A0;
     private static final int COLOR_BTN_START = 0xFF40A060;
     private static final int COLOR_TAG_AUDIO = 0xFF60B0E0;
+    private static final int COLOR_BTN_BAKE = 0xFF406080;
+    private static final int COLOR_BAKE_FAILED = 0xFFD06060;
     
     // 舞台包列表
     private List<StagePack> stagePacks = new ArrayList<>();
     
+    // 后台扫描
+    private final StagePack.ScanProgress scanProgress = new StagePack.ScanProgress();
+    private CompletableFuture<List<StagePack>> scanFuture;
+    
     // 选择状态
     private int selectedPackIndex = -1;
     private boolean cinematicMode;
     private float cameraHeightOffset;
     private boolean stageStarted = false;
     
+    // 异步舞台准备
+    private StagePreparer.PreparedStage preparing;
+    private StagePack preparingPack;
+    private boolean preparingHasCamera;
+    
+    // 舞台烘焙（任务在后台继续，重新打开界面时恢复显示进度）
+    private StageBakeManager.BakeJob bakeJob = StageBakeManager.getActiveJob();
+    private int bakeStatusPackIndex = -2;
+    private boolean bakeUpToDate = false;
+    
     // 滚动
     private int packScrollOffset = 0;
     private int packMaxScroll = 0;
@@ -74,6 +94,7 @@ public class StageSelectScreen extends Screen {
     private boolean hoverStart = false;
     private boolean hoverCancel = false;
     private boolean hoverToggle = false;
+    private boolean hoverBake = false;
     private boolean draggingHeightSlider = false;
     
     // 面板区域缓存
@@ -92,11 +113,41 @@ public class StageSelectScreen extends Screen {
         // 确保 StageAnim 目录存在
         PathConstants.ensureStageAnimDir();
         
-        // 扫描舞台包
-        stagePacks = StagePack.scan(PathConstants.getStageAnimDir());
-        
-        // 恢复上次选择
-        restoreSelection(config);
+        // 后台扫描舞台包（界面先打开，扫描完成后在 tick 中填充列表）
+        File stageDir = PathConstants.getStageAnimDir();
+        scanFuture = CompletableFuture.supplyAsync(() -> StagePack.scan(stageDir, scanProgress), r -> {
+            Thread t = new Thread(r, "MMD-StageScan");
+            t.setDaemon(true);
+            t.start();
+        });
+    }
+    
+    @Override
+    public void tick() {
+        super.tick();
+        if (preparing != null && preparing.isDone()) {
+            finishStart();
+            return;
+        }
+        if (bakeJob != null && bakeJob.isDone()) {
+            // 完成后刷新烘焙状态（失败的任务保留用于显示提示，直到重新选择）
+            bakeStatusPackIndex = -2;
+            if (!bakeJob.isFailed()) {
+                bakeJob = null;
+            }
+        }
+        if (scanFuture != null && scanFuture.isDone()) {
+            try {
+                stagePacks = scanFuture.join();
+            } catch (Exception e) {
+                logger.error("[舞台模式] 舞台包扫描失败", e);
+                stagePacks = new ArrayList<>();
+            }
+            scanFuture = null;
+            restoreSelection(StageConfig.getInstance());
+            updatePackScroll();
+            updateDetailScroll();
+        }
     }
     
     private void restoreSelection(StageConfig config) {
@@ -199,7 +250,13 @@ public class StageSelectScreen extends Screen {
         int cx = panelX + PANEL_WIDTH / 2;
         g.drawCenteredString(this.font, this.title, cx, panelY + 4, COLOR_ACCENT);
         
-        String info = stagePacks.size() + " packs";
+        String info;
+        if (scanFuture != null) {
+            int total = scanProgress.total;
+            info = total >= 0 ? "Scanning " + scanProgress.done.get() + "/" + total : "Scanning...";
+        } else {
+            info = stagePacks.size() + " packs";
+        }
         g.drawCenteredString(this.font, info, cx, panelY + 16, COLOR_TEXT_DIM);
         
         // 分隔线
@@ -420,14 +477,74 @@ public class StageSelectScreen extends Screen {
         
         // 开始按钮
         int startX = panelX + 6;
-        boolean canStart = canStartStage();
+        boolean canStart = canStartStage() && preparing == null;
         hoverStart = canStart && mouseX >= startX && mouseX < startX + btnW 
                    && mouseY >= btnY && mouseY < btnY + btnH;
         int startColor = canStart ? (hoverStart ? 0xFF50C070 : COLOR_BTN_START) : 0xFF333333;
         g.fill(startX, btnY, startX + btnW, btnY + btnH, startColor);
-        g.drawCenteredString(this.font, "\u25B6 " + Component.translatable("gui.mmdskin.stage.start").getString(), 
-                           startX + btnW / 2, btnY + 4, 
-                           canStart ? 0xFFFFFFFF : COLOR_TEXT_DIM);
+        if (preparing != null) {
+            // 准备中：按钮内显示进度条
+            int progressW = (int) (btnW * preparing.getProgress());
+            g.fill(startX, btnY, startX + progressW, btnY + btnH, COLOR_BTN_START);
+            g.drawCenteredString(this.font, Component.translatable("gui.mmdskin.stage.loading",
+                               (int) (preparing.getProgress() * 100)).getString(),
+                               startX + btnW / 2, btnY + 4, 0xFFFFFFFF);
+        } else {
+            g.drawCenteredString(this.font, "\u25B6 " + Component.translatable("gui.mmdskin.stage.start").getString(), 
+                               startX + btnW / 2, btnY + 4, 
+                               canStart ? 0xFFFFFFFF : COLOR_TEXT_DIM);
+        }
+        
+        renderBakeButton(g, mouseX, mouseY, footerY + 52, btnH);
+    }
+    
+    /**
+     * 烘焙按钮（第四行）：烘焙中显示进度，已有最新烘焙时显示标记
+     */
+    private void renderBakeButton(GuiGraphics g, int mouseX, int mouseY, int bakeY, int btnH) {
+        int bakeX = panelX + 6;
+        int bakeW = PANEL_WIDTH - 12;
+        refreshBakeStatus();
+        
+        boolean running = bakeJob != null && !bakeJob.isDone();
+        boolean canBake = !running && preparing == null && canStartStage() && getSelectedModelName() != null;
+        hoverBake = canBake && mouseX >= bakeX && mouseX < bakeX + bakeW
+                  && mouseY >= bakeY && mouseY < bakeY + btnH;
+        int bakeColor = canBake ? (hoverBake ? 0xFF5080A0 : COLOR_BTN_BAKE) : 0xFF333333;
+        g.fill(bakeX, bakeY, bakeX + bakeW, bakeY + btnH, bakeColor);
+        
+        String label;
+        int labelColor = canBake ? 0xFFFFFFFF : COLOR_TEXT_DIM;
+        if (running) {
+            int progressW = (int) (bakeW * bakeJob.getProgress());
+            g.fill(bakeX, bakeY, bakeX + progressW, bakeY + btnH, COLOR_BTN_BAKE);
+            label = Component.translatable("gui.mmdskin.stage.baking", (int) (bakeJob.getProgress() * 100)).getString();
+            labelColor = 0xFFFFFFFF;
+        } else if (bakeJob != null && bakeJob.isFailed() && bakeJob.getPack() == getSelectedPack()) {
+            label = Component.translatable("gui.mmdskin.stage.bake_failed").getString();
+            labelColor = COLOR_BAKE_FAILED;
+        } else if (bakeUpToDate) {
+            label = "\u2713 " + Component.translatable("gui.mmdskin.stage.rebake").getString();
+        } else {
+            label = Component.translatable("gui.mmdskin.stage.bake").getString();
+        }
+        g.drawCenteredString(this.font, label, bakeX + bakeW / 2, bakeY + 4, labelColor);
+    }
+    
+    /**
+     * 选中包变化后重新检查烘焙文件是否最新（只在切换时访问磁盘）
+     */
+    private void refreshBakeStatus() {
+        if (bakeStatusPackIndex == selectedPackIndex) return;
+        bakeStatusPackIndex = selectedPackIndex;
+        StagePack pack = getSelectedPack();
+        String modelName = getSelectedModelName();
+        bakeUpToDate = pack != null && modelName != null && StageBakeManager.isUpToDate(pack, modelName);
+    }
+    
+    private static String getSelectedModelName() {
+        String modelName = ModelSelectorConfig.getInstance().getSelectedModel();
+        return modelName != null && !modelName.isEmpty() ? modelName : null;
     }
     
     /**
@@ -468,6 +585,11 @@ public class StageSelectScreen extends Screen {
                 startStage();
                 return true;
             }
+            // 烘焙按钮
+            if (hoverBake) {
+                startBake();
+                return true;
+            }
             // 取消按钮
             if (hoverCancel) {
                 this.onClose();
@@ -529,20 +651,17 @@ public class StageSelectScreen extends Screen {
     }
     
     /**
-     * Phase C: 多文件播放逻辑
+     * Phase C: 多文件播放逻辑（异步准备）
      * 1. 收集选中 StagePack 中的所有 VMD 文件
      * 2. 找出相机 VMD（第一个 hasCamera=true 的文件）
-     * 3. 加载所有非相机 VMD 并合并为一个动画
-     * 4. 将合并后的动画 TransitionLayerTo 到模型 layer 0
-     * 5. 加载相机 VMD 到 MMDCameraController
+     * 3. 交给 StagePreparer 后台并行加载动作/相机 VMD 并解码音频，界面显示进度
+     * 4. 准备完成后在 tick 中 {@link #finishStart()}：应用动作并启动相机控制器
      */
     private void startStage() {
+        if (preparing != null) return;
         StagePack pack = getSelectedPack();
         if (pack == null || !pack.hasMotionVmd()) return;
         
-        NativeFunc nf = NativeFunc.GetInst();
-        Minecraft mc = Minecraft.getInstance();
-        
         // 保存配置
         StageConfig config = StageConfig.getInstance();
         config.lastStagePack = pack.getName();
@@ -550,61 +669,79 @@ public class StageSelectScreen extends Screen {
         config.cameraHeightOffset = cameraHeightOffset;
         config.save();
         
-        // 分离相机和动作 VMD
-        StagePack.VmdFileInfo cameraFile = null;
-        List<StagePack.VmdFileInfo> motionFiles = new ArrayList<>();
-        
-        for (StagePack.VmdFileInfo info : pack.getVmdFiles()) {
-            if (info.hasCamera && cameraFile == null) {
-                cameraFile = info;
-            }
-            if (info.hasBones || info.hasMorphs) {
-                motionFiles.add(info);
-            }
-        }
-        
+        List<File> motionFiles = collectMotionFiles(pack);
         if (motionFiles.isEmpty()) {
             logger.warn("[舞台模式] 没有可用的动作 VMD");
             return;
         }
         
-        // 加载第一个动作 VMD 作为合并目标
-        long mergedAnim = nf.LoadAnimation(0, motionFiles.get(0).path);
-        if (mergedAnim == 0) {
-            logger.error("[舞台模式] 动作 VMD 加载失败: {}", motionFiles.get(0).path);
-            return;
-        }
+        String cameraPath = findCameraPath(pack);
+        this.preparingPack = pack;
+        this.preparingHasCamera = cameraPath != null;
+        this.preparing = StagePreparer.prepare(pack.getName(), motionFiles, cameraPath, pack.getFirstAudioPath());
+    }
+    
+    /**
+     * 后台烘焙选中舞台包（使用当前选择的模型）
+     */
+    private void startBake() {
+        StagePack pack = getSelectedPack();
+        String modelName = getSelectedModelName();
+        if (pack == null || modelName == null) return;
+        List<File> motionFiles = collectMotionFiles(pack);
+        if (motionFiles.isEmpty()) return;
         
-        // 合并其余动作 VMD
-        List<Long> tempHandles = new ArrayList<>();
-        for (int i = 1; i < motionFiles.size(); i++) {
-            long tempAnim = nf.LoadAnimation(0, motionFiles.get(i).path);
-            if (tempAnim != 0) {
-                nf.MergeAnimation(mergedAnim, tempAnim);
-                tempHandles.add(tempAnim);
+        bakeJob = StageBakeManager.bake(pack, motionFiles, findCameraPath(pack), modelName);
+        logger.info("[舞台模式] 开始烘焙: 包={}, 模型={}", pack.getName(), modelName);
+    }
+    
+    /**
+     * 动作 VMD（含骨骼或表情的文件，按包内顺序合并）
+     */
+    private static List<File> collectMotionFiles(StagePack pack) {
+        List<File> motionFiles = new ArrayList<>();
+        for (StagePack.VmdFileInfo info : pack.getVmdFiles()) {
+            if (info.hasBones || info.hasMorphs) {
+                motionFiles.add(new File(info.path));
             }
         }
-        
-        // 释放临时句柄
-        for (long handle : tempHandles) {
-            nf.DeleteAnimation(handle);
-        }
-        
-        // 加载相机 VMD
-        long cameraAnim = 0;
-        if (cameraFile != null) {
-            // 如果相机文件也是动作文件之一，且已被合并进 mergedAnim，则直接用 mergedAnim
-            if (cameraFile.hasBones || cameraFile.hasMorphs) {
-                // 相机数据可能在 mergedAnim 中（如果第一个文件就是相机文件）
-                // 但合并不会合并相机数据，所以单独加载相机
-                cameraAnim = nf.LoadAnimation(0, cameraFile.path);
-            } else {
-                cameraAnim = nf.LoadAnimation(0, cameraFile.path);
+        return motionFiles;
+    }
+    
+    /**
+     * 相机 VMD（第一个含相机数据的文件），没有时返回 null
+     */
+    private static String findCameraPath(StagePack pack) {
+        for (StagePack.VmdFileInfo info : pack.getVmdFiles()) {
+            if (info.hasCamera) {
+                return info.path;
             }
         }
+        return null;
+    }
+    
+    /**
+     * 舞台准备完成：应用动作到本地玩家模型，启动相机控制器并广播
+     */
+    private void finishStart() {
+        StagePreparer.PreparedStage stage = this.preparing;
+        StagePack pack = this.preparingPack;
+        this.preparing = null;
+        this.preparingPack = null;
+        
+        if (stage.isFailed()) {
+            logger.error("[舞台模式] 动作 VMD 加载失败: {}", stage.getKey());
+            stage.release();
+            return;
+        }
+        
+        NativeFunc nf = NativeFunc.GetInst();
+        Minecraft mc = Minecraft.getInstance();
+        long mergedAnim = stage.getMotionAnim();
         
         // 获取当前玩家模型句柄
         long modelHandle = 0;
+        long bakedStage = 0;
         String modelName = null;
         if (mc.player != null) {
             String playerName = mc.player.getName().getString();
@@ -613,34 +750,41 @@ public class StageSelectScreen extends Screen {
                 MMDModelManager.Model modelData = MMDModelManager.GetModel(modelName, playerName);
                 if (modelData != null) {
                     modelHandle = modelData.model.GetModelLong();
-                    nf.TransitionLayerTo(modelHandle, 0, mergedAnim, 0.3f);
+                    // 有最新烘焙时直接播放烘焙姿态，否则实时求值合并动作
+                    bakedStage = StageBakeManager.loadIfUpToDate(pack, modelName);
+                    if (bakedStage != 0 && !nf.AttachBakedStage(modelHandle, bakedStage, 0.3f)) {
+                        nf.DeleteBakedStage(bakedStage);
+                        bakedStage = 0;
+                    }
+                    if (bakedStage == 0) {
+                        nf.TransitionLayerTo(modelHandle, 0, mergedAnim, 0.3f);
+                    }
                 }
             }
         }
         
-        // 获取音频路径（取第一个音频文件）
-        String audioPath = pack.getFirstAudioPath();
-        
-        // 启动相机控制器（传递 modelHandle + modelName + 音频路径 + 高度偏移）
-        MMDCameraController.getInstance().startStage(mergedAnim, cameraAnim, cinematicMode, modelHandle, modelName, audioPath, cameraHeightOffset);
+        // 启动相机控制器（舞台资源所有权转移给控制器）
+        MMDCameraController.getInstance().startStage(stage, bakedStage, cinematicMode, modelHandle, modelName, cameraHeightOffset);
         
-        // 广播舞台开始到其他客户端（联机同步）
-        StringBuilder stageData = new StringBuilder(pack.getName());
-        for (StagePack.VmdFileInfo info : motionFiles) {
-            stageData.append("|").append(info.name);
-        }
-        StageNetworkHandler.sendStageStart(stageData.toString());
+        // 广播舞台开始到其他客户端（联机同步，格式与 StagePreparer 的键一致）
+        StageNetworkHandler.sendStageStart(stage.getKey());
         
         // 标记已启动（onClose 不会退出舞台模式）
         this.stageStarted = true;
         this.onClose();
         
-        logger.info("[舞台模式] 开始: 包={}, 动作文件={}, 相机={}, 影院={}", 
-                   pack.getName(), motionFiles.size(), cameraFile != null, cinematicMode);
+        logger.info("[舞台模式] 开始: 包={}, 相机={}, 影院={}, 烘焙={}", 
+                   pack.getName(), preparingHasCamera, cinematicMode, bakedStage != 0);
     }
     
     @Override
     public void onClose() {
+        // 准备中关闭：丢弃后台结果
+        if (preparing != null) {
+            preparing.release();
+            preparing = null;
+            preparingPack = null;
+        }
         // 未启动播放时退出舞台模式（恢复视角）
         if (!stageStarted) {
             MMDCameraController.getInstance().exitStageMode();
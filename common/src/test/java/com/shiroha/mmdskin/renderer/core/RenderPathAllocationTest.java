@@ -0,0 +1,177 @@
+package com.shiroha.mmdskin.renderer.core;
+
+import com.shiroha.mmdskin.config.ModelConfigData;
+import com.shiroha.mmdskin.renderer.animation.AnimationStateManager;
+import com.shiroha.mmdskin.renderer.animation.MMDAnimManager;
+import com.shiroha.mmdskin.renderer.render.InventoryRenderHelper;
+import com.shiroha.mmdskin.renderer.render.ItemRenderHelper;
+import net.minecraft.world.InteractionHand;
+import org.joml.Quaternionf;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 玩家渲染路径分配回归测试
+ *
+ * 逐帧调用渲染路径中的纯 Java 方法：渲染参数（{@link RenderParams#calculate}）、手持物品动画选择与
+ * 动画缓存查询（{@link AnimationStateManager}、{@link MMDAnimManager.ModelAnims}）、物品旋转
+ * （{@link ItemRenderHelper#itemRotation}）与物品栏预览旋转（{@link InventoryRenderHelper#previewRotation}），
+ * 预热后统计当前线程的堆分配字节数，应保持不变。运行时探针见 {@link RenderAllocationProbe}。
+ */
+class RenderPathAllocationTest {
+
+    private static final int WARMUP_FRAMES = 20_000;
+    private static final int MEASURED_FRAMES = 10_000;
+    private static final int ROUNDS = 3;
+    /** 整轮允许的分配字节数（容忍计数器自身的少量开销，远小于每帧一个对象） */
+    private static final long TOLERANCE_BYTES = 256;
+    private static final long NOW = 1_000_000L;
+
+    private static final String[] ITEMS = {"item.minecraft.bow", "item.minecraft.diamond_sword", "block.minecraft.torch"};
+    private static final InteractionHand[] HANDS = InteractionHand.values();
+    private static final RenderParams.Posture[] POSTURES = RenderParams.Posture.values();
+
+    private static com.sun.management.ThreadMXBean threadBean;
+    private static ModelRenderProfile profile;
+    private static MMDAnimManager.ModelAnims anims;
+
+    private final Quaternionf itemRotation = new Quaternionf();
+    private final Quaternionf previewRotation = new Quaternionf();
+    private float sink;
+
+    @BeforeAll
+    static void setUp() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+            "当前 JVM 不提供 com.sun.management.ThreadMXBean");
+        threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported(), "当前 JVM 不支持线程分配计数");
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        Properties properties = new Properties();
+        properties.setProperty("size", "0.9");
+        properties.setProperty("size_in_inventory", "0.6");
+        properties.setProperty("entityTrans", "0.0, 0.1, -0.2");
+        properties.setProperty("flyingPitch", "-30");
+        properties.setProperty("sleepingTrans", "0.0, 0.2, 0.0");
+        properties.setProperty("default_x", "15");
+        properties.setProperty("minecraft.bow_Right_using_x", "30");
+        properties.setProperty("minecraft.bow_Left_swinging_z", "-45");
+        profile = ModelRenderProfile.compile(properties, new ModelConfigData(), 0);
+
+        // 弓的使用动画已加载，剑的挥动动画近期确认缺失，其余未缓存
+        anims = new MMDAnimManager.ModelAnims();
+        ItemKeyCache.Keys bow = ItemKeyCache.get("item.minecraft.bow");
+        ItemKeyCache.Keys sword = ItemKeyCache.get("item.minecraft.diamond_sword");
+        anims.putLoaded(bow.animKey(InteractionHand.MAIN_HAND, ItemKeyCache.HandState.USING), 1L);
+        anims.putLoaded(bow.animKey(InteractionHand.OFF_HAND, ItemKeyCache.HandState.USING), 2L);
+        anims.markMissing(sword.animKey(InteractionHand.MAIN_HAND, ItemKeyCache.HandState.SWINGING), NOW);
+    }
+
+    @Test
+    void perFrameHelpersMatchRenderPath() {
+        ItemKeyCache.Keys keys = ItemKeyCache.get("item.minecraft.bow");
+        assertSame(keys, ItemKeyCache.get("item.minecraft.bow"));
+        assertEquals("minecraft.bow", keys.itemId);
+
+        assertNull(AnimationStateManager.selectHandState(InteractionHand.MAIN_HAND, false, InteractionHand.MAIN_HAND, false));
+        EntityAnimState.State state = AnimationStateManager.selectHandState(
+            InteractionHand.OFF_HAND, true, InteractionHand.MAIN_HAND, true);
+        assertEquals(EntityAnimState.State.SwingRight, state);
+        assertEquals("itemActive_minecraft.bow_Left_using",
+            AnimationStateManager.handAnimKey(keys, EntityAnimState.State.ItemLeft));
+        assertSame(keys.animKey(InteractionHand.MAIN_HAND, ItemKeyCache.HandState.SWINGING),
+            AnimationStateManager.handAnimKey(keys, EntityAnimState.State.SwingRight));
+
+        assertEquals(2L, anims.lookup(AnimationStateManager.handAnimKey(keys, EntityAnimState.State.ItemLeft), NOW));
+        String swordSwing = ItemKeyCache.get("item.minecraft.diamond_sword")
+            .animKey(InteractionHand.MAIN_HAND, ItemKeyCache.HandState.SWINGING);
+        assertEquals(0L, anims.lookup(swordSwing, NOW));
+        assertEquals(MMDAnimManager.ModelAnims.NOT_CACHED, anims.lookup(swordSwing, NOW + 60_000));
+
+        RenderParams params = RenderParams.calculate(profile, RenderParams.Posture.FLYING, 90.0f, 10.0f, 0.0f);
+        assertEquals(90.0f, params.bodyYaw);
+        assertEquals(-20.0f, params.bodyPitch);
+        params = RenderParams.calculate(profile, RenderParams.Posture.SLEEPING, 90.0f, 10.0f, 45.0f);
+        assertEquals(225.0f, params.bodyYaw);
+        assertEquals(0.2f, params.translation.y);
+
+        Quaternionf expected = new Quaternionf().rotationX((float) Math.toRadians(90))
+            .rotateY((float) Math.toRadians(180))
+            .rotateX((float) Math.toRadians(30))
+            .rotateY(0.0f)
+            .rotateZ(0.0f);
+        Quaternionf actual = ItemRenderHelper.itemRotation(profile, keys, InteractionHand.MAIN_HAND,
+            ItemKeyCache.HandState.USING, new Quaternionf());
+        assertTrue(expected.equals(actual, 1e-5f), () -> expected + " != " + actual);
+    }
+
+    @Test
+    void renderPathDoesNotAllocateAfterWarmup() {
+        long threadId = Thread.currentThread().getId();
+        renderFrames(WARMUP_FRAMES);
+
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 16; i++) {
+            long start = threadBean.getThreadAllocatedBytes(threadId);
+            overhead = Math.min(overhead, threadBean.getThreadAllocatedBytes(threadId) - start);
+        }
+
+        // 取多轮中的最小值：每帧都有的分配在每一轮都会出现，偶发的一次性分配不会
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = threadBean.getThreadAllocatedBytes(threadId);
+            renderFrames(MEASURED_FRAMES);
+            long bytes = threadBean.getThreadAllocatedBytes(threadId) - start - overhead;
+            allocated = Math.min(allocated, Math.max(0L, bytes));
+        }
+
+        assertTrue(allocated <= TOLERANCE_BYTES,
+            "预热后 " + MEASURED_FRAMES + " 帧分配了 " + allocated + " B（约 "
+                + String.format("%.2f", (double) allocated / MEASURED_FRAMES) + " B/帧）");
+        assertTrue(Float.isFinite(sink));
+    }
+
+    /**
+     * 模拟 N 帧玩家渲染：依次调用渲染路径中的每帧方法
+     */
+    private void renderFrames(int frames) {
+        float acc = 0.0f;
+        for (int frame = 0; frame < frames; frame++) {
+            // 渲染参数（玩家 Mixin）
+            RenderParams params = RenderParams.calculate(profile, POSTURES[frame % POSTURES.length],
+                frame * 0.5f, frame * 0.1f, 90.0f);
+            acc += params.bodyYaw + params.bodyPitch + params.translation.y;
+            acc += profile.getSize() + profile.getEntityTrans().y() + profile.getModelScale();
+
+            // 手持物品动画（AnimationStateManager → MMDAnimManager 缓存）
+            InteractionHand usedHand = HANDS[frame % HANDS.length];
+            InteractionHand swingingArm = HANDS[(frame / 2) % HANDS.length];
+            EntityAnimState.State state = AnimationStateManager.selectHandState(
+                usedHand, (frame & 1) == 0, swingingArm, (frame & 2) == 0);
+            if (state != null) {
+                InteractionHand hand = AnimationStateManager.handOf(state);
+                ItemKeyCache.Keys keys = ItemKeyCache.get(ITEMS[frame % ITEMS.length]);
+                acc += anims.lookup(AnimationStateManager.handAnimKey(keys, state), NOW);
+
+                // 手持物品旋转（ItemRenderHelper）
+                ItemKeyCache.HandState handState = state == EntityAnimState.State.ItemRight
+                    || state == EntityAnimState.State.ItemLeft ? ItemKeyCache.HandState.USING : ItemKeyCache.HandState.SWINGING;
+                acc += ItemRenderHelper.itemRotation(profile, keys, hand, handState, itemRotation).x;
+            }
+
+            // 物品栏预览旋转（InventoryRenderHelper）
+            acc += InventoryRenderHelper.previewRotation(frame * 0.2f, frame * 0.3f, previewRotation).y
+                + profile.getSizeInInventory();
+        }
+        sink += acc;
+    }
+}
@@ -7,6 +7,8 @@ import com.shiroha.mmdskin.fabric.maid.MaidCompatMixinPlugin;
 import com.shiroha.mmdskin.fabric.network.MmdSkinNetworkPack;
 import com.shiroha.mmdskin.maid.MaidActionNetworkHandler;
 import com.shiroha.mmdskin.maid.MaidModelNetworkHandler;
+import com.shiroha.mmdskin.renderer.render.FrameProfilerOverlay;
+import com.shiroha.mmdskin.renderer.render.ModelMemoryOverlay;
 import com.shiroha.mmdskin.renderer.render.MmdSkinRenderFactory;
 import com.shiroha.mmdskin.renderer.render.MmdSkinRendererPlayerHelper;
 import com.shiroha.mmdskin.ui.network.ActionWheelNetworkHandler;
@@ -25,6 +27,7 @@ import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.fabricmc.fabric.api.client.rendering.v1.EntityRendererRegistry;
+import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
 import net.minecraft.client.KeyMapping;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.player.LocalPlayer;
@@ -54,6 +57,14 @@ public class MmdSkinRegisterClient {
     static KeyMapping keyMaidConfigWheel = new KeyMapping("key.mmdskin.maid_config_wheel",
         InputConstants.Type.KEYSYM, GLFW.GLFW_KEY_B, "key.categories.mmdskin");
     
+    // 帧耗时统计覆盖层按键（默认未绑定，Shift+按键导出 CSV）
+    static KeyMapping keyFrameProfiler = new KeyMapping("key.mmdskin.frame_profiler",
+        InputConstants.Type.KEYSYM, GLFW.GLFW_KEY_UNKNOWN, "key.categories.mmdskin");
+    
+    // 内存统计覆盖层按键（默认未绑定，Shift+按键导出 CSV）
+    static KeyMapping keyMemoryStats = new KeyMapping("key.mmdskin.memory_stats",
+        InputConstants.Type.KEYSYM, GLFW.GLFW_KEY_UNKNOWN, "key.categories.mmdskin");
+    
     // 追踪按键状态
     private static boolean configWheelKeyWasDown = false;
     private static boolean maidConfigWheelKeyWasDown = false;
@@ -66,6 +77,8 @@ public class MmdSkinRegisterClient {
         if (MaidCompatMixinPlugin.isMaidModLoaded()) {
             KeyBindingHelper.registerKeyBinding(keyMaidConfigWheel);
         }
+        KeyBindingHelper.registerKeyBinding(keyFrameProfiler);
+        KeyBindingHelper.registerKeyBinding(keyMemoryStats);
         
         // 设置模组设置界面工厂
         ConfigWheelScreen.setModSettingsScreenFactory(() -> ModConfigScreen.create(null));
@@ -140,6 +153,16 @@ public class MmdSkinRegisterClient {
         ClientTickEvents.END_CLIENT_TICK.register(client -> {
             if (MCinstance.player == null) return;
             
+            // 帧耗时统计覆盖层按键
+            while (keyFrameProfiler.consumeClick()) {
+                FrameProfilerOverlay.onKeyPressed();
+            }
+            
+            // 内存统计覆盖层按键
+            while (keyMemoryStats.consumeClick()) {
+                ModelMemoryOverlay.onKeyPressed();
+            }
+            
             // 主配置轮盘按键处理
             if (MCinstance.screen == null || MCinstance.screen instanceof ConfigWheelScreen) {
                 boolean keyDown = keyConfigWheel.isDown();
@@ -166,6 +189,12 @@ public class MmdSkinRegisterClient {
             }
         });
 
+        // 帧耗时统计与内存统计覆盖层
+        HudRenderCallback.EVENT.register((guiGraphics, tickDelta) -> {
+            FrameProfilerOverlay.render(guiGraphics);
+            ModelMemoryOverlay.render(guiGraphics);
+        });
+
         // 注册实体渲染器
         File[] modelDirs = new File(MCinstance.gameDirectory, "3d-skin").listFiles();
         if (modelDirs != null) {
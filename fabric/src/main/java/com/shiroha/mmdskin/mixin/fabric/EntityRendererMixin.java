@@ -0,0 +1,29 @@
+package com.shiroha.mmdskin.mixin.fabric;
+
+import com.shiroha.mmdskin.renderer.render.ModelCullingHelper;
+import net.minecraft.client.player.AbstractClientPlayer;
+import net.minecraft.client.renderer.culling.Frustum;
+import net.minecraft.client.renderer.entity.EntityRenderer;
+import net.minecraft.world.entity.Entity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * EntityRenderer Mixin — 玩家 MMD 模型视锥剔除
+ * 
+ * PlayerRenderer 没有覆盖 shouldRender，原版按玩家碰撞箱剔除。
+ * 在原版判定之后改用模型姿态包围盒判定，剔除时低频更新模型（见 {@link ModelCullingHelper}）。
+ */
+@Mixin(EntityRenderer.class)
+public abstract class EntityRendererMixin {
+    
+    @Inject(method = "shouldRender", at = @At("RETURN"), cancellable = true)
+    private void onShouldRender(Entity entity, Frustum frustum, double camX, double camY, double camZ,
+                                CallbackInfoReturnable<Boolean> cir) {
+        if (entity instanceof AbstractClientPlayer player) {
+            cir.setReturnValue(ModelCullingHelper.shouldRenderPlayer(cir.getReturnValue(), player, frustum, camX, camY, camZ));
+        }
+    }
+}
@@ -3,13 +3,14 @@ package com.shiroha.mmdskin.mixin.forge;
 import com.shiroha.mmdskin.MmdSkinClient;
 import com.shiroha.mmdskin.NativeFunc;
 import com.shiroha.mmdskin.renderer.animation.AnimationStateManager;
-import com.shiroha.mmdskin.config.ModelConfigManager;
 import com.shiroha.mmdskin.renderer.core.FirstPersonManager;
 import com.shiroha.mmdskin.renderer.render.ItemRenderHelper;
 import com.shiroha.mmdskin.renderer.render.InventoryRenderHelper;
 import com.shiroha.mmdskin.ui.network.PlayerModelSyncManager;
 import com.shiroha.mmdskin.renderer.core.IMMDModel;
+import com.shiroha.mmdskin.renderer.core.ModelRenderProfile;
 import com.shiroha.mmdskin.renderer.core.RenderContext;
+import com.shiroha.mmdskin.renderer.core.RenderAllocationProbe;
 import com.shiroha.mmdskin.renderer.core.RenderParams;
 import com.shiroha.mmdskin.renderer.model.MMDModelManager;
 import com.shiroha.mmdskin.renderer.model.MMDModelManager.ModelWithEntityData;
@@ -22,8 +23,6 @@ import net.minecraft.client.renderer.MultiBufferSource;
 import net.minecraft.client.renderer.entity.EntityRendererProvider;
 import net.minecraft.client.renderer.entity.LivingEntityRenderer;
 import net.minecraft.client.renderer.entity.player.PlayerRenderer;
-import net.minecraft.util.Mth;
-import org.joml.Vector3f;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -53,14 +52,17 @@ public abstract class ForgePlayerRendererMixin extends LivingEntityRenderer<Abst
     @Inject(method = "render", at = @At("HEAD"), cancellable = true)
     public void onRender(AbstractClientPlayer player, float entityYaw, float tickDelta, PoseStack matrixStack, 
                       MultiBufferSource vertexConsumers, int packedLight, CallbackInfo ci) {
+        RenderAllocationProbe.begin();
+        
         // 获取玩家选择的模型（使用同步管理器，支持联机）
-        String playerName = player.getName().getString();
+        String playerName = player.getGameProfile().getName();
         net.minecraft.client.Minecraft mc = net.minecraft.client.Minecraft.getInstance();
         boolean isLocalPlayer = mc.player != null && mc.player.getUUID().equals(player.getUUID());
         String selectedModel = PlayerModelSyncManager.getPlayerModel(player.getUUID(), playerName, isLocalPlayer);
         
         // 如果选择了默认渲染或未选择模型，使用原版渲染
         if (selectedModel == null || selectedModel.isEmpty() || selectedModel.equals("默认 (原版渲染)")) {
+            RenderAllocationProbe.discard();
             super.render(player, entityYaw, tickDelta, matrixStack, vertexConsumers, packedLight);
             return;
         }
@@ -70,6 +72,7 @@ public abstract class ForgePlayerRendererMixin extends LivingEntityRenderer<Abst
         
         // 如果模型加载失败，使用原版渲染
         if (modelData == null) {
+            RenderAllocationProbe.discard();
             super.render(player, entityYaw, tickDelta, matrixStack, vertexConsumers, packedLight);
             return;
         }
@@ -80,11 +83,11 @@ public abstract class ForgePlayerRendererMixin extends LivingEntityRenderer<Abst
         // 加载模型属性
         modelWithData.loadModelProperties(MmdSkinClient.reloadProperties);
         
-        // 获取模型尺寸
-        float[] size = getModelSize(modelWithData);
+        // 编译后的渲染配置（属性 + 模型独立配置）
+        ModelRenderProfile profile = modelWithData.getProfile();
         
         // 第一人称模式管理（阶段一：管理头部隐藏状态，在 render 之前）
-        float combinedScale = size[0] * ModelConfigManager.getConfig(selectedModel).modelScale;
+        float combinedScale = profile.getSize() * profile.getModelScale();
         FirstPersonManager.preRender(NativeFunc.GetInst(), model.GetModelLong(), combinedScale, isLocalPlayer);
         boolean isFirstPerson = isLocalPlayer && FirstPersonManager.isActive();
         
@@ -92,15 +95,15 @@ public abstract class ForgePlayerRendererMixin extends LivingEntityRenderer<Abst
         AnimationStateManager.updateAnimationState(player, modelWithData);
         
         // 计算渲染参数
-        RenderParams params = calculateRenderParams(player, modelWithData, tickDelta);
+        RenderParams params = RenderParams.forPlayer(player, profile, tickDelta);
         
         // 渲染模型
         if (InventoryRenderHelper.isInventoryScreen()) {
             // 库存屏幕渲染
-            InventoryRenderHelper.renderInInventory(player, model, entityYaw, tickDelta, matrixStack, packedLight, size);
+            InventoryRenderHelper.renderInInventory(player, model, entityYaw, tickDelta, matrixStack, packedLight, profile);
         } else {
             // 正常世界渲染
-            matrixStack.scale(size[0], size[0], size[0]);
+            matrixStack.scale(profile.getSize(), profile.getSize(), profile.getSize());
             RenderSystem.setShader(GameRenderer::getRendertypeEntityTranslucentShader);
             RenderContext ctx = isFirstPerson ? RenderContext.FIRST_PERSON : RenderContext.WORLD;
             model.render(player, params.bodyYaw, params.bodyPitch, params.translation, tickDelta, matrixStack, packedLight, ctx);
@@ -108,67 +111,15 @@ public abstract class ForgePlayerRendererMixin extends LivingEntityRenderer<Abst
         
         // 第一人称模式（阶段二：render 之后获取当前帧的眼睛骨骼位置）
         if (isFirstPerson) {
-            FirstPersonManager.postRender(NativeFunc.GetInst(), model.GetModelLong());
+            FirstPersonManager.postRender(NativeFunc.GetInst(), model.GetModelLong(), model.getFrameBuffer());
         }
         
         // 渲染手持物品（委托给 ItemRenderHelper）
         ItemRenderHelper.renderItems(player, modelWithData, matrixStack, vertexConsumers, packedLight);
         
+        RenderAllocationProbe.end();
+        
         // 取消原版渲染
         ci.cancel();
     }
-    
-    /**
-     * 计算渲染参数
-     */
-    private RenderParams calculateRenderParams(AbstractClientPlayer player, ModelWithEntityData modelData, float tickDelta) {
-        RenderParams params = new RenderParams();
-        params.bodyYaw = Mth.rotLerp(tickDelta, player.yBodyRotO, player.yBodyRot);
-        params.bodyPitch = 0.0f;
-        params.translation = new Vector3f(0.0f);
-        
-        // 根据状态调整参数
-        if (player.isFallFlying()) {
-            params.bodyPitch = player.getXRot() + getPropertyFloat(modelData, "flyingPitch", 0.0f);
-            params.translation = getPropertyVector(modelData, "flyingTrans");
-        } else if (player.isSleeping()) {
-            params.bodyYaw = player.getBedOrientation().toYRot() + 180.0f;
-            params.bodyPitch = getPropertyFloat(modelData, "sleepingPitch", 0.0f);
-            params.translation = getPropertyVector(modelData, "sleepingTrans");
-        } else if (player.isSwimming()) {
-            params.bodyPitch = player.getXRot() + getPropertyFloat(modelData, "swimmingPitch", 0.0f);
-            params.translation = getPropertyVector(modelData, "swimmingTrans");
-        } else if (player.isVisuallyCrawling()) {
-            params.bodyPitch = getPropertyFloat(modelData, "crawlingPitch", 0.0f);
-            params.translation = getPropertyVector(modelData, "crawlingTrans");
-        }
-        
-        return params;
-    }
-    
-    /**
-     * 获取模型尺寸
-     */
-    private float[] getModelSize(ModelWithEntityData modelData) {
-        float[] size = new float[2];
-        size[0] = getPropertyFloat(modelData, "size", 1.0f);
-        size[1] = getPropertyFloat(modelData, "size_in_inventory", 1.0f);
-        return size;
-    }
-    
-    /**
-     * 获取属性浮点值
-     */
-    private float getPropertyFloat(ModelWithEntityData modelData, String key, float defaultValue) {
-        String value = modelData.properties.getProperty(key);
-        return value == null ? defaultValue : Float.parseFloat(value);
-    }
-    
-    /**
-     * 获取属性向量值
-     */
-    private Vector3f getPropertyVector(ModelWithEntityData modelData, String key) {
-        String value = modelData.properties.getProperty(key);
-        return value == null ? new Vector3f(0.0f) : MmdSkinClient.str2Vec3f(value);
-    }
 }
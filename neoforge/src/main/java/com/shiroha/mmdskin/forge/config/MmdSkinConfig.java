@@ -276,6 +276,41 @@ public final class MmdSkinConfig implements ConfigManager.IConfigProvider {
         return data.physicsJointsEnabled;
     }
     
+    @Override
+    public boolean isPhysicsAsyncSimulation() {
+        return data.physicsAsyncSimulation;
+    }
+    
+    @Override
+    public boolean isPhysicsSharedWorld() {
+        return data.physicsSharedWorld;
+    }
+    
+    @Override
+    public boolean isPhysicsSleepEnabled() {
+        return data.physicsSleepEnabled;
+    }
+    
+    @Override
+    public float getPhysicsSleepLinearVelocity() {
+        return data.physicsSleepLinearVelocity;
+    }
+    
+    @Override
+    public float getPhysicsSleepAngularVelocity() {
+        return data.physicsSleepAngularVelocity;
+    }
+    
+    @Override
+    public float getPhysicsLodNearDistance() {
+        return data.physicsLodNearDistance;
+    }
+    
+    @Override
+    public float getPhysicsLodFarDistance() {
+        return data.physicsLodFarDistance;
+    }
+    
     @Override
     public boolean isPhysicsDebugLog() {
         return data.physicsDebugLog;
@@ -295,4 +330,29 @@ public final class MmdSkinConfig implements ConfigManager.IConfigProvider {
     public int getVmcPort() {
         return data.vmcPort;
     }
+    
+    @Override
+    public int getModelFinalizeBudgetMs() {
+        return data.modelFinalizeBudgetMs;
+    }
+    
+    @Override
+    public int getModelPoolMaxMemoryMb() {
+        return data.modelPoolMaxMemoryMb;
+    }
+    
+    @Override
+    public boolean isAnimationPoseCacheEnabled() {
+        return data.animationPoseCacheEnabled;
+    }
+    
+    @Override
+    public int getInventoryPreviewFps() {
+        return data.inventoryPreviewFps;
+    }
+    
+    @Override
+    public boolean isThumbnailPregenerate() {
+        return data.thumbnailPregenerate;
+    }
 }
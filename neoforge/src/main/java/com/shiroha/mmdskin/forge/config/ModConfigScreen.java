@@ -69,6 +69,15 @@ public class ModConfigScreen {
             .setSaveConsumer(value -> data.modelPoolMaxCount = value)
             .build());
         
+        performanceCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.model_pool_memory"),
+                data.modelPoolMaxMemoryMb, 256, 8192)
+            .setDefaultValue(1024)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.model_pool_memory.tooltip"))
+            .setSaveConsumer(value -> data.modelPoolMaxMemoryMb = value)
+            .build());
+        
         performanceCategory.addEntry(entryBuilder
             .startBooleanToggle(
                 Component.translatable("gui.mmdskin.mod_settings.gpu_skinning"),
@@ -95,6 +104,36 @@ public class ModConfigScreen {
             .setTooltip(Component.translatable("gui.mmdskin.mod_settings.max_bones.tooltip"))
             .setSaveConsumer(value -> data.maxBones = value)
             .build());
+        
+        // 循环动画姿态缓存
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.animation_pose_cache"),
+                data.animationPoseCacheEnabled)
+            .setDefaultValue(true)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.animation_pose_cache.tooltip"))
+            .setSaveConsumer(value -> data.animationPoseCacheEnabled = value)
+            .build());
+        
+        // 物品栏模型预览刷新率
+        performanceCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.inventory_preview_fps"),
+                data.inventoryPreviewFps, 0, 60)
+            .setDefaultValue(20)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.inventory_preview_fps.tooltip"))
+            .setSaveConsumer(value -> data.inventoryPreviewFps = value)
+            .build());
+        
+        // 启动时批量生成模型缩略图
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.thumbnail_pregenerate"),
+                data.thumbnailPregenerate)
+            .setDefaultValue(true)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.thumbnail_pregenerate.tooltip"))
+            .setSaveConsumer(value -> data.thumbnailPregenerate = value)
+            .build());
 
         performanceCategory.addEntry(entryBuilder
             .startBooleanToggle(
@@ -278,6 +317,56 @@ public class ModConfigScreen {
             .setSaveConsumer(value -> data.physicsMaxSubstepCount = value)
             .build());
         
+        // 独立线程模拟
+        physicsCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.physics_async_simulation"),
+                data.physicsAsyncSimulation)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.physics_async_simulation.tooltip"))
+            .setSaveConsumer(value -> data.physicsAsyncSimulation = value)
+            .build());
+        
+        // 共享物理世界
+        physicsCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.physics_shared_world"),
+                data.physicsSharedWorld)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.physics_shared_world.tooltip"))
+            .setSaveConsumer(value -> data.physicsSharedWorld = value)
+            .build());
+        
+        // 休眠检测
+        physicsCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.physics_sleep_enabled"),
+                data.physicsSleepEnabled)
+            .setDefaultValue(true)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.physics_sleep_enabled.tooltip"))
+            .setSaveConsumer(value -> data.physicsSleepEnabled = value)
+            .build());
+        
+        // LOD 近距离
+        physicsCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.physics_lod_near"),
+                (int)data.physicsLodNearDistance, 4, 128)
+            .setDefaultValue(16)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.physics_lod_near.tooltip"))
+            .setSaveConsumer(value -> data.physicsLodNearDistance = value)
+            .build());
+        
+        // LOD 远距离
+        physicsCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.physics_lod_far"),
+                (int)data.physicsLodFarDistance, 8, 256)
+            .setDefaultValue(48)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.physics_lod_far.tooltip"))
+            .setSaveConsumer(value -> data.physicsLodFarDistance = value)
+            .build());
+        
         // 求解器迭代
         physicsCategory.addEntry(entryBuilder
             .startIntSlider(
@@ -538,6 +627,8 @@ public class ModConfigScreen {
                     data.physicsJointsEnabled,
                     data.physicsDebugLog
                 );
+                com.shiroha.mmdskin.renderer.model.MMDModelManager.applyPhysicsRuntimeConfig();
+                com.shiroha.mmdskin.renderer.model.MMDModelManager.applyAnimationRuntimeConfig();
             } catch (UnsatisfiedLinkError e) {
                 org.apache.logging.log4j.LogManager.getLogger().warn("物理配置 JNI 方法未找到，请重新编译 Rust 库");
             }
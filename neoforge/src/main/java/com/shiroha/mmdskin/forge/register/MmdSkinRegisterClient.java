@@ -5,6 +5,8 @@ import com.shiroha.mmdskin.forge.config.ModConfigScreen;
 import com.shiroha.mmdskin.forge.network.MmdSkinNetworkPack;
 import com.shiroha.mmdskin.maid.MaidActionNetworkHandler;
 import com.shiroha.mmdskin.maid.MaidModelNetworkHandler;
+import com.shiroha.mmdskin.renderer.render.FrameProfilerOverlay;
+import com.shiroha.mmdskin.renderer.render.ModelMemoryOverlay;
 import com.shiroha.mmdskin.renderer.render.MmdSkinRenderFactory;
 import com.shiroha.mmdskin.renderer.render.MmdSkinRendererPlayerHelper;
 import com.shiroha.mmdskin.ui.network.ActionWheelNetworkHandler;
@@ -29,6 +31,7 @@ import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.client.settings.KeyConflictContext;
 import net.minecraftforge.client.event.EntityRenderersEvent;
 import net.minecraftforge.client.event.RegisterKeyMappingsEvent;
+import net.minecraftforge.client.event.RenderGuiEvent;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
@@ -68,6 +71,24 @@ public class MmdSkinRegisterClient {
         "key.categories.mmdskin"
     );
     
+    // 帧耗时统计覆盖层按键（默认未绑定，Shift+按键导出 CSV）
+    public static final KeyMapping keyFrameProfiler = new KeyMapping(
+        "key.mmdskin.frame_profiler", 
+        KeyConflictContext.IN_GAME, 
+        InputConstants.Type.KEYSYM, 
+        GLFW.GLFW_KEY_UNKNOWN, 
+        "key.categories.mmdskin"
+    );
+    
+    // 内存统计覆盖层按键（默认未绑定，Shift+按键导出 CSV）
+    public static final KeyMapping keyMemoryStats = new KeyMapping(
+        "key.mmdskin.memory_stats", 
+        KeyConflictContext.IN_GAME, 
+        InputConstants.Type.KEYSYM, 
+        GLFW.GLFW_KEY_UNKNOWN, 
+        "key.categories.mmdskin"
+    );
+    
     // 追踪按键状态
     private static boolean configWheelKeyWasDown = false;
     private static boolean maidConfigWheelKeyWasDown = false;
@@ -182,6 +203,8 @@ public class MmdSkinRegisterClient {
     public static void onRegisterKeyMappings(RegisterKeyMappingsEvent event) {
         event.register(keyConfigWheel);
         event.register(keyMaidConfigWheel);
+        event.register(keyFrameProfiler);
+        event.register(keyMemoryStats);
         logger.info("按键映射注册完成");
     }
     
@@ -231,6 +254,16 @@ public class MmdSkinRegisterClient {
             Minecraft mc = Minecraft.getInstance();
             if (mc.player == null) return;
             
+            // 帧耗时统计覆盖层按键
+            while (keyFrameProfiler.consumeClick()) {
+                FrameProfilerOverlay.onKeyPressed();
+            }
+            
+            // 内存统计覆盖层按键
+            while (keyMemoryStats.consumeClick()) {
+                ModelMemoryOverlay.onKeyPressed();
+            }
+            
             // 主配置轮盘按键处理
             if (mc.screen == null || mc.screen instanceof ConfigWheelScreen) {
                 boolean keyDown = keyConfigWheel.isDown();
@@ -255,6 +288,15 @@ public class MmdSkinRegisterClient {
             }
         }
         
+        /**
+         * HUD 渲染事件 - 绘制帧耗时统计与内存统计覆盖层（与 Fabric 的 HudRenderCallback 对应）
+         */
+        @SubscribeEvent
+        public static void onRenderGui(RenderGuiEvent.Post event) {
+            FrameProfilerOverlay.render(event.getGuiGraphics());
+            ModelMemoryOverlay.render(event.getGuiGraphics());
+        }
+        
         /**
          * 尝试打开女仆配置轮盘
          */
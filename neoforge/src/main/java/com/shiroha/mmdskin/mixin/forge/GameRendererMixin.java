@@ -1,19 +1,27 @@
 package com.shiroha.mmdskin.mixin.forge;
 
 import com.shiroha.mmdskin.renderer.camera.MMDCameraController;
+import com.shiroha.mmdskin.renderer.model.MMDModelManager;
 import net.minecraft.client.Camera;
+import net.minecraft.client.DeltaTracker;
 import net.minecraft.client.renderer.GameRenderer;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 /**
- * GameRenderer Mixin — 舞台模式 FOV 覆盖
+ * GameRenderer Mixin — 舞台模式 FOV 覆盖、每帧推进模型分帧加载
  */
 @Mixin(GameRenderer.class)
 public abstract class GameRendererMixin {
     
+    @Inject(method = "render", at = @At("HEAD"))
+    private void onRenderHead(DeltaTracker deltaTracker, boolean renderLevel, CallbackInfo ci) {
+        MMDModelManager.onRenderFrame();
+    }
+    
     @Inject(method = "getFov", at = @At("RETURN"), cancellable = true)
     private void onGetFov(Camera camera, float partialTick, boolean useFovSetting, CallbackInfoReturnable<Double> cir) {
         MMDCameraController controller = MMDCameraController.getInstance();
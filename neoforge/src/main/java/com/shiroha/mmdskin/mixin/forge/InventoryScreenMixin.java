@@ -0,0 +1,28 @@
+package com.shiroha.mmdskin.mixin.forge;
+
+import com.shiroha.mmdskin.renderer.core.RenderContext;
+import net.minecraft.client.gui.screens.inventory.InventoryScreen;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * InventoryScreen Mixin — 物品栏实体预览渲染阶段
+ * 
+ * 在 renderEntityInInventory 期间把 {@link RenderContext} 设为物品栏阶段，
+ * 渲染器据此切换到物品栏渲染路径，无需检测调用栈或当前屏幕类型。
+ */
+@Mixin(InventoryScreen.class)
+public abstract class InventoryScreenMixin {
+    
+    @Inject(method = "renderEntityInInventory", at = @At("HEAD"))
+    private static void onRenderEntityHead(CallbackInfo ci) {
+        RenderContext.pushScene(RenderContext.SceneType.INVENTORY);
+    }
+    
+    @Inject(method = "renderEntityInInventory", at = @At("RETURN"))
+    private static void onRenderEntityReturn(CallbackInfo ci) {
+        RenderContext.popScene();
+    }
+}
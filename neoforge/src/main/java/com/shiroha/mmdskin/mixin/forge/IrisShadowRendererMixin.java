@@ -0,0 +1,33 @@
+package com.shiroha.mmdskin.mixin.forge;
+
+import com.shiroha.mmdskin.renderer.core.RenderContext;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Pseudo;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Iris ShadowRenderer Mixin — 光影阴影渲染阶段
+ * 
+ * 在 renderShadows 期间把 {@link RenderContext} 设为阴影阶段。
+ * 目标类按名称引用（@Pseudo），未安装 Iris 时不会加载；Iris 版本不匹配时注入静默跳过，
+ * 此时仍可通过 IrisCompat 的反射检测判断阴影 pass。
+ */
+@Pseudo
+@Mixin(targets = {
+    "net.irisshaders.iris.shadows.ShadowRenderer",
+    "net.coderbot.iris.pipeline.ShadowRenderer"
+}, remap = false)
+public abstract class IrisShadowRendererMixin {
+    
+    @Inject(method = "renderShadows", at = @At("HEAD"), require = 0)
+    private void onRenderShadowsHead(CallbackInfo ci) {
+        RenderContext.pushScene(RenderContext.SceneType.SHADOW);
+    }
+    
+    @Inject(method = "renderShadows", at = @At("RETURN"), require = 0)
+    private void onRenderShadowsReturn(CallbackInfo ci) {
+        RenderContext.popScene();
+    }
+}
@@ -2,22 +2,37 @@ package com.shiroha.mmdskin.mixin.forge;
 
 import com.shiroha.mmdskin.renderer.core.FirstPersonManager;
 import com.shiroha.mmdskin.renderer.core.IrisCompat;
+import com.shiroha.mmdskin.renderer.core.RenderContext;
 import net.minecraft.client.Camera;
 import net.minecraft.client.renderer.LevelRenderer;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 /**
- * LevelRenderer Mixin — 第一人称 MMD 模型渲染
+ * LevelRenderer Mixin — 第一人称 MMD 模型渲染、世界渲染阶段
  * 
  * 在第一人称模式下，Minecraft 默认跳过渲染本地玩家实体。
  * 此 Mixin 通过在 renderLevel 方法内将 Camera.isDetached() 重定向为 true，
  * 使实体渲染循环不再跳过本地玩家，从而触发 PlayerRendererMixin 的 MMD 模型渲染。
+ * 同时在 renderLevel 期间把 {@link RenderContext} 设为世界渲染阶段。
  */
 @Mixin(LevelRenderer.class)
 public abstract class LevelRendererMixin {
     
+    @Inject(method = "renderLevel", at = @At("HEAD"))
+    private void onRenderLevelHead(CallbackInfo ci) {
+        RenderContext.resetScene();
+        RenderContext.pushScene(RenderContext.SceneType.WORLD);
+    }
+    
+    @Inject(method = "renderLevel", at = @At("RETURN"))
+    private void onRenderLevelReturn(CallbackInfo ci) {
+        RenderContext.popScene();
+    }
+    
     @Redirect(
         method = "renderLevel",
         at = @At(value = "INVOKE", target = "Lnet/minecraft/client/Camera;isDetached()Z", ordinal = 0)
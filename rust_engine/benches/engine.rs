@@ -0,0 +1,105 @@
+//! 原生引擎 Criterion 基准测试
+//!
+//! 使用合成资源（`mmd_engine::synthetic`，medium 预设），不需要 GPU 与 JVM：
+//! `cargo bench --features bench --bench engine`。多模型规模与分阶段耗时见 `bench` 可执行文件。
+
+use std::hint::black_box;
+use std::sync::Arc;
+
+use criterion::{criterion_group, criterion_main, BatchSize, BenchmarkId, Criterion, Throughput};
+use glam::{Mat3, Mat4};
+use mmd_engine::model::load_pmx;
+use mmd_engine::synthetic::{ModelSpec, SyntheticAssets};
+use mmd_engine::{MmdModel, VmdAnimation};
+
+const FRAME_TIME: f32 = 1.0 / 60.0;
+
+fn assets() -> SyntheticAssets {
+    SyntheticAssets::create(&ModelSpec::MEDIUM, 1800, 5).expect("生成合成资源失败")
+}
+
+/// 加载模型并开始播放合并后的动作（同步物理）
+fn animated_models(assets: &SyntheticAssets, count: usize) -> Vec<MmdModel> {
+    let mut motion = VmdAnimation::load(&assets.body_vmd).unwrap();
+    motion.merge_from(VmdAnimation::load(&assets.face_vmd).unwrap());
+    let motion = Arc::new(motion);
+    (0..count)
+        .map(|i| {
+            let mut model = load_pmx(&assets.pmx).unwrap();
+            model.set_synchronous_physics(true);
+            model.init_physics();
+            model.set_layer_animation(0, Some(motion.clone()));
+            model.play_layer(0);
+            model.seek_layer(0, (i * 37) as f32);
+            model
+        })
+        .collect()
+}
+
+fn bench_load(c: &mut Criterion) {
+    let assets = assets();
+    let mut group = c.benchmark_group("load");
+    group.sample_size(20);
+    group.bench_function("pmx", |b| b.iter(|| load_pmx(black_box(&assets.pmx)).unwrap()));
+    group.bench_function("vmd", |b| b.iter(|| VmdAnimation::load(black_box(&assets.body_vmd)).unwrap()));
+    group.bench_function("vmd_merge", |b| {
+        b.iter_batched(
+            || {
+                let body = VmdAnimation::load(&assets.body_vmd).unwrap();
+                let face = VmdAnimation::load(&assets.face_vmd).unwrap();
+                (body, face)
+            },
+            |(mut body, face)| {
+                body.merge_from(face);
+                body
+            },
+            BatchSize::SmallInput,
+        )
+    });
+    group.finish();
+}
+
+fn bench_tick(c: &mut Criterion) {
+    let assets = assets();
+    let mut group = c.benchmark_group("tick_animation");
+    for count in [1usize, 2, 4, 8] {
+        let mut models = animated_models(&assets, count);
+        group.throughput(Throughput::Elements(count as u64));
+        group.bench_with_input(BenchmarkId::from_parameter(count), &count, |b, _| {
+            b.iter(|| {
+                for model in models.iter_mut() {
+                    model.tick_animation(FRAME_TIME);
+                }
+            })
+        });
+    }
+    group.finish();
+}
+
+fn bench_mc_vertex_buffer(c: &mut Criterion) {
+    let assets = assets();
+    let mut model = animated_models(&assets, 1).pop().unwrap();
+    for _ in 0..30 {
+        model.tick_animation(FRAME_TIME);
+    }
+    let max_indices = model.submeshes.iter().map(|s| s.index_count as usize).max().unwrap_or(0);
+    let mut output = vec![0u8; max_indices * 36];
+    let pose = Mat4::IDENTITY;
+    let normal = Mat3::IDENTITY;
+
+    let mut group = c.benchmark_group("build_mc_vertex_buffer");
+    group.throughput(Throughput::Elements(model.indices.len() as u64));
+    group.bench_function("all_submeshes", |b| {
+        b.iter(|| {
+            let mut written = 0usize;
+            for sub in 0..model.submesh_count() {
+                written += model.build_mc_vertex_buffer(sub, &mut output, &pose, &normal, 0xFFFF_FFFF, 0, 0x00F0_00F0);
+            }
+            black_box(written)
+        })
+    });
+    group.finish();
+}
+
+criterion_group!(benches, bench_load, bench_tick, bench_mc_vertex_buffer);
+criterion_main!(benches);
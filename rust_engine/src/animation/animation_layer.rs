@@ -14,6 +14,7 @@ use glam::{Vec3, Quat};
 use crate::skeleton::BoneManager;
 use crate::morph::MorphManager;
 
+use super::pose_cache::{self, PoseBinding};
 use super::VmdAnimation;
 
 // ============================================================================
@@ -151,6 +152,9 @@ pub struct AnimationLayer {
     transition_duration: f32,
     /// 过渡进度（0.0 - 1.0）
     transition_progress: f32,
+
+    /// 姿态缓存轨道到本模型骨骼/Morph 的映射（切换动画时失效）
+    pose_binding: Option<PoseBinding>,
 }
 
 impl AnimationLayer {
@@ -169,12 +173,14 @@ impl AnimationLayer {
             transition_snapshot: None,
             transition_duration: 0.0,
             transition_progress: 0.0,
+            pose_binding: None,
         }
     }
 
     /// 设置动画（无过渡，直接替换）
     pub fn set_animation(&mut self, animation: Option<Arc<VmdAnimation>>) {
         self.animation = animation;
+        self.pose_binding = None;
         self.current_frame = 0.0;
         self.state = AnimationLayerState::Stopped;
         self.effective_weight = 0.0;
@@ -202,6 +208,7 @@ impl AnimationLayer {
         
         // 设置新动画
         self.animation = animation;
+        self.pose_binding = None;
         self.current_frame = 0.0;
         
         if transition_time > 0.0 && !snapshot.is_empty() {
@@ -389,38 +396,57 @@ impl AnimationLayer {
     }
 
     /// 评估动画并应用到骨骼管理器
-    pub fn evaluate(&self, bone_manager: &mut BoneManager, morph_manager: &mut MorphManager) {
+    pub fn evaluate(&mut self, bone_manager: &mut BoneManager, morph_manager: &mut MorphManager) {
         if self.state == AnimationLayerState::Transitioning {
             // 过渡模式：混合缓存姿态和新动画
             self.evaluate_transition(bone_manager, morph_manager);
-        } else if let Some(ref animation) = self.animation {
-            if self.effective_weight > 0.001 {
-                animation.evaluate_with_weight(
+        } else if self.effective_weight > 0.001 {
+            self.evaluate_animation(bone_manager, morph_manager);
+        }
+    }
+
+    /// 在当前帧以有效权重评估动画
+    ///
+    /// 循环播放的动画在启用姿态缓存时使用预采样姿态（结果相同，省去关键帧查找与贝塞尔求值）
+    fn evaluate_animation(&mut self, bone_manager: &mut BoneManager, morph_manager: &mut MorphManager) {
+        let animation = match self.animation {
+            Some(ref animation) => animation,
+            None => return,
+        };
+
+        if self.config.loop_playback && pose_cache::is_enabled() {
+            if let Some(sampled) = animation.sampled_motion() {
+                let binding = self.pose_binding
+                    .get_or_insert_with(|| sampled.bind(bone_manager, morph_manager));
+                animation.evaluate_sampled(
+                    sampled,
+                    binding,
                     self.current_frame,
                     self.effective_weight,
                     bone_manager,
                     morph_manager,
                 );
+                return;
             }
         }
+
+        animation.evaluate_with_weight(
+            self.current_frame,
+            self.effective_weight,
+            bone_manager,
+            morph_manager,
+        );
     }
     
     /// 评估过渡动画（混合缓存姿态和新动画）
-    fn evaluate_transition(&self, bone_manager: &mut BoneManager, morph_manager: &mut MorphManager) {
+    fn evaluate_transition(&mut self, bone_manager: &mut BoneManager, morph_manager: &mut MorphManager) {
         let t = self.transition_progress;
         
         // 平滑过渡曲线（smoothstep）
         let smooth_t = t * t * (3.0 - 2.0 * t);
         
         // 先应用新动画（权重 = 1.0，获取完整的新动画姿态）
-        if let Some(ref animation) = self.animation {
-            animation.evaluate_with_weight(
-                self.current_frame,
-                self.effective_weight,
-                bone_manager,
-                morph_manager,
-            );
-        }
+        self.evaluate_animation(bone_manager, morph_manager);
         
         // 然后混合快照姿态（快照权重 = 1 - smooth_t）
         if let Some(ref snapshot) = self.transition_snapshot {
@@ -606,7 +632,7 @@ impl AnimationLayerManager {
     }
 
     /// 评估所有层（带权重归一化）
-    pub fn evaluate_normalized(&self, bone_manager: &mut BoneManager, morph_manager: &mut MorphManager) {
+    pub fn evaluate_normalized(&mut self, bone_manager: &mut BoneManager, morph_manager: &mut MorphManager) {
         // 收集所有活跃层（包括过渡中的层）
         let active_layers: Vec<usize> = self.layers
             .iter()
@@ -624,7 +650,7 @@ impl AnimationLayerManager {
 
         // 对每个活跃层进行评估（使用 layer.evaluate 以支持过渡）
         for layer_idx in active_layers {
-            if let Some(layer) = self.layers.get(layer_idx) {
+            if let Some(layer) = self.layers.get_mut(layer_idx) {
                 layer.evaluate(bone_manager, morph_manager);
             }
         }
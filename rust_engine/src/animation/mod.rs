@@ -10,12 +10,14 @@ mod motion;
 mod vmd_loader;
 mod vpd_file;
 mod animation_layer;
+pub mod pose_cache;
 
 pub use bezier_curve::{BezierCurve, BezierCurveCache, Curve};
 pub use interpolation::{KeyframeInterpolationPoint, BoneKeyframeInterpolation};
 pub use keyframe::{BoneKeyframe, MorphKeyframe, CameraKeyframe, CameraInterpolation};
 pub use motion_track::{MotionTrack, BoneMotionTrack, MorphMotionTrack, BoneFrameTransform, CameraMotionTrack, CameraFrameTransform};
 pub use motion::Motion;
-pub use vmd_loader::{VmdFile, VmdAnimation};
+pub use vmd_loader::{VmdFile, VmdAnimation, VmdSectionCounts};
 pub use vpd_file::{VpdFile, VpdBone, VpdMorph};
+pub use pose_cache::{SampledMotion, PoseBinding};
 pub use animation_layer::{AnimationLayer, AnimationLayerManager, AnimationLayerState, AnimationLayerConfig, PoseSnapshot, BonePose};
@@ -2,7 +2,10 @@
 //!
 //! 存储完整的动画数据，包括骨骼轨道和 Morph 轨道
 
-use std::collections::HashMap;
+use std::collections::{BTreeMap, HashMap};
+use std::mem::size_of;
+
+use crate::model::memory::name_map_bytes;
 
 use super::bezier_curve::BezierCurveCache;
 use super::motion_track::{BoneMotionTrack, MorphMotionTrack, IkMotionTrack, CameraMotionTrack, MotionTrack, BoneFrameTransform, CameraFrameTransform};
@@ -25,10 +28,26 @@ pub struct Motion {
     pub dirty: bool,
 }
 
+/// 关键帧映射的近似堆字节数（按条目大小计，不含 BTreeMap 节点开销）
+fn keyframe_bytes<K>(keyframes: &BTreeMap<u32, K>) -> usize {
+    keyframes.len() * (size_of::<u32>() + size_of::<K>())
+}
+
 impl Motion {
     /// 最大帧索引
     pub const MAX_KEYFRAME_INDEX: u32 = u32::MAX;
 
+    /// 关键帧数据的近似堆字节数（轨道映射与关键帧，不含贝塞尔曲线缓存）
+    pub fn heap_bytes(&self) -> usize {
+        name_map_bytes(&self.bone_tracks)
+            + self.bone_tracks.values().map(|t| keyframe_bytes(&t.keyframes)).sum::<usize>()
+            + name_map_bytes(&self.morph_tracks)
+            + self.morph_tracks.values().map(|t| keyframe_bytes(&t.keyframes)).sum::<usize>()
+            + name_map_bytes(&self.ik_tracks)
+            + self.ik_tracks.values().map(|t| keyframe_bytes(&t.keyframes)).sum::<usize>()
+            + keyframe_bytes(&self.camera_track.keyframes)
+    }
+
     /// 创建空的 Motion
     pub fn new() -> Self {
         Self {
@@ -256,6 +275,31 @@ impl Motion {
         
         self.dirty = true;
     }
+
+    /// 合并另一个 Motion（消耗 other，关键帧按移动转交，不做克隆）
+    ///
+    /// 新轨道整体移入；已有轨道用 BTreeMap::append 并入，同帧以 other 为准（与 merge 一致）
+    pub fn merge_from(&mut self, other: Motion) {
+        for (name, mut track) in other.bone_tracks {
+            match self.bone_tracks.get_mut(&name) {
+                Some(entry) => entry.keyframes.append(&mut track.keyframes),
+                None => {
+                    self.bone_tracks.insert(name, track);
+                }
+            }
+        }
+
+        for (name, mut track) in other.morph_tracks {
+            match self.morph_tracks.get_mut(&name) {
+                Some(entry) => entry.keyframes.append(&mut track.keyframes),
+                None => {
+                    self.morph_tracks.insert(name, track);
+                }
+            }
+        }
+
+        self.dirty = true;
+    }
 }
 
 impl Default for Motion {
@@ -263,3 +307,28 @@ impl Default for Motion {
         Self::new()
     }
 }
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    #[test]
+    fn merge_from_moves_tracks_and_overrides_same_frame() {
+        let mut a = Motion::new();
+        a.insert_bone_keyframe("センター", BoneKeyframe::new(0));
+        a.insert_morph_keyframe("あ", MorphKeyframe::new(10, 0.2));
+
+        let mut b = Motion::new();
+        b.insert_bone_keyframe("センター", BoneKeyframe::new(30));
+        b.insert_bone_keyframe("頭", BoneKeyframe::new(5));
+        b.insert_morph_keyframe("あ", MorphKeyframe::new(10, 0.8));
+
+        a.merge_from(b);
+
+        assert_eq!(a.bone_tracks["センター"].keyframes.len(), 2);
+        assert_eq!(a.bone_tracks["頭"].keyframes.len(), 1);
+        assert_eq!(a.morph_tracks["あ"].keyframes[&10].weight, 0.8);
+        assert_eq!(a.duration(), 30);
+        assert!(a.dirty);
+    }
+}
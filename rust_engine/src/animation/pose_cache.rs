@@ -0,0 +1,249 @@
+//! 循环动画姿态缓存
+//!
+//! 待机、行走、奔跑、潜行等状态机动作会一直循环播放，逐帧实时求值需要对每条轨道做关键帧查找与贝塞尔插值。
+//! 姿态缓存在动画加载或合并完成时（加载线程/舞台准备线程），把每条骨骼/Morph 轨道按 VMD 帧（30 FPS）
+//! 采样成紧凑数组，循环层之后每帧只做数组读取与帧间插值。
+//!
+//! 实时求值（`seek_precisely`）本身就是先求相邻两个整数帧、再按小数部分线性插值平移与球面插值旋转，
+//! 缓存采用完全相同的帧间插值，因此结果与实时求值一致。
+//!
+//! 缓存只替换关键帧采样：层混合、头部/眼球追踪、IK、骨骼层级与物理仍然逐帧实时计算。
+
+use std::sync::atomic::{AtomicBool, Ordering};
+
+use glam::{Quat, Vec3};
+
+use crate::morph::MorphManager;
+use crate::skeleton::BoneManager;
+
+use super::motion::Motion;
+use super::motion_track::MotionTrack;
+
+/// 超过该帧数（60 秒）的动画不缓存（舞蹈等长动作只播放一遍，缓存收益低而内存开销大）
+pub const MAX_CACHED_FRAMES: u32 = 1800;
+
+/// 是否启用姿态缓存
+static POSE_CACHE_ENABLED: AtomicBool = AtomicBool::new(true);
+
+/// 设置是否启用姿态缓存（已生成的缓存保留，关闭后回到实时求值）
+pub fn set_enabled(enabled: bool) {
+    POSE_CACHE_ENABLED.store(enabled, Ordering::Relaxed);
+}
+
+/// 是否启用姿态缓存
+pub fn is_enabled() -> bool {
+    POSE_CACHE_ENABLED.load(Ordering::Relaxed)
+}
+
+/// 单条轨道在采样数组中的范围（只有一个关键帧的轨道只占一个采样）
+#[derive(Debug, Clone, Copy)]
+struct TrackRange {
+    start: usize,
+    len: usize,
+}
+
+impl TrackRange {
+    /// 帧号对应的采样下标（超出轨道末尾时取最后一帧，与实时求值一致）
+    #[inline]
+    fn index(&self, frame_index: usize) -> usize {
+        self.start + frame_index.min(self.len - 1)
+    }
+}
+
+/// 预采样的动画（与模型无关，按轨道名称存放）
+#[derive(Debug, Clone)]
+pub struct SampledMotion {
+    bone_names: Vec<String>,
+    bone_ranges: Vec<TrackRange>,
+    translations: Vec<Vec3>,
+    rotations: Vec<Quat>,
+    morph_names: Vec<String>,
+    morph_ranges: Vec<TrackRange>,
+    morph_weights: Vec<f32>,
+}
+
+/// 采样轨道与某个模型的骨骼/Morph 索引的对应关系（每个动画层各一份）
+#[derive(Debug, Clone, Default)]
+pub struct PoseBinding {
+    bones: Vec<(usize, usize)>,
+    morphs: Vec<(usize, usize)>,
+}
+
+/// 轨道采样长度：最后一个关键帧之后保持不变，无需继续采样
+fn sample_len(keyframe_count: usize, max_frame_index: u32) -> usize {
+    if keyframe_count <= 1 {
+        1
+    } else {
+        max_frame_index as usize + 1
+    }
+}
+
+impl SampledMotion {
+    /// 按整数帧采样全部骨骼与 Morph 轨道
+    pub fn sample(motion: &Motion) -> Self {
+        let mut bone_names = Vec::with_capacity(motion.bone_tracks.len());
+        let mut bone_ranges = Vec::with_capacity(motion.bone_tracks.len());
+        let mut translations = Vec::new();
+        let mut rotations = Vec::new();
+        for (name, track) in &motion.bone_tracks {
+            let len = sample_len(track.len(), track.max_frame_index());
+            bone_ranges.push(TrackRange { start: translations.len(), len });
+            bone_names.push(name.clone());
+            translations.reserve(len);
+            rotations.reserve(len);
+            for frame in 0..len {
+                let transform = motion.find_bone_transform(name, frame as u32, 0.0);
+                translations.push(transform.translation);
+                rotations.push(transform.orientation);
+            }
+        }
+
+        let mut morph_names = Vec::with_capacity(motion.morph_tracks.len());
+        let mut morph_ranges = Vec::with_capacity(motion.morph_tracks.len());
+        let mut morph_weights = Vec::new();
+        for (name, track) in &motion.morph_tracks {
+            let len = sample_len(track.len(), track.max_frame_index());
+            morph_ranges.push(TrackRange { start: morph_weights.len(), len });
+            morph_names.push(name.clone());
+            morph_weights.extend((0..len).map(|frame| motion.find_morph_weight(name, frame as u32, 0.0)));
+        }
+
+        Self {
+            bone_names,
+            bone_ranges,
+            translations,
+            rotations,
+            morph_names,
+            morph_ranges,
+            morph_weights,
+        }
+    }
+
+    /// 采样数据占用的字节数
+    pub fn memory_bytes(&self) -> usize {
+        self.translations.len() * std::mem::size_of::<Vec3>()
+            + self.rotations.len() * std::mem::size_of::<Quat>()
+            + self.morph_weights.len() * std::mem::size_of::<f32>()
+    }
+
+    /// 解析轨道名称到模型的骨骼/Morph 索引（模型中不存在的轨道被忽略）
+    pub fn bind(&self, bone_manager: &BoneManager, morph_manager: &MorphManager) -> PoseBinding {
+        PoseBinding {
+            bones: self.bone_names.iter().enumerate()
+                .filter_map(|(track, name)| bone_manager.find_bone_by_name(name).map(|bone| (track, bone)))
+                .collect(),
+            morphs: self.morph_names.iter().enumerate()
+                .filter_map(|(track, name)| morph_manager.find_morph_by_name(name).map(|morph| (track, morph)))
+                .collect(),
+        }
+    }
+
+    /// 按帧应用缓存姿态（权重语义与 `VmdAnimation::evaluate_with_weight` 相同，不含 IK 开关）
+    pub fn apply(
+        &self,
+        binding: &PoseBinding,
+        frame: f32,
+        weight: f32,
+        bone_manager: &mut BoneManager,
+        morph_manager: &mut MorphManager,
+    ) {
+        if weight <= 0.0 {
+            return;
+        }
+        let frame = frame.max(0.0);
+        let frame_index = frame.floor() as usize;
+        let amount = frame.fract();
+
+        for &(track, bone_idx) in &binding.bones {
+            let range = self.bone_ranges[track];
+            let i0 = range.index(frame_index);
+            let (mut translation, mut rotation) = (self.translations[i0], self.rotations[i0]);
+            if amount > 0.0 {
+                let i1 = range.index(frame_index + 1);
+                translation = translation.lerp(self.translations[i1], amount);
+                rotation = rotation.slerp(self.rotations[i1], amount);
+            }
+
+            if weight < 1.0 {
+                match bone_manager.get_bone(bone_idx) {
+                    Some(bone) => {
+                        translation = bone.animation_translate.lerp(translation, weight);
+                        rotation = bone.animation_rotate.slerp(rotation, weight);
+                    }
+                    None => continue,
+                }
+            }
+            bone_manager.set_bone_translation(bone_idx, translation);
+            bone_manager.set_bone_rotation(bone_idx, rotation);
+        }
+
+        for &(track, morph_idx) in &binding.morphs {
+            let range = self.morph_ranges[track];
+            let w0 = self.morph_weights[range.index(frame_index)];
+            let mut morph_weight = if amount > 0.0 {
+                let w1 = self.morph_weights[range.index(frame_index + 1)];
+                w0 + (w1 - w0) * amount
+            } else {
+                w0
+            };
+
+            if weight < 1.0 {
+                let current = morph_manager.get_morph_weight(morph_idx);
+                morph_weight = current + (morph_weight - current) * weight;
+            }
+            morph_manager.set_morph_weight(morph_idx, morph_weight);
+        }
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use crate::animation::{BoneKeyframe, MorphKeyframe, VmdAnimation, VmdFile};
+    use crate::morph::{Morph, MorphType};
+    use crate::skeleton::BoneLink;
+
+    fn managers() -> (BoneManager, MorphManager) {
+        let mut bones = BoneManager::new();
+        bones.add_bone(BoneLink::new(String::from("センター")));
+        bones.add_bone(BoneLink::new(String::from("頭")));
+        let mut morphs = MorphManager::new();
+        morphs.add_morph(Morph::new(String::from("あ"), MorphType::Vertex));
+        (bones, morphs)
+    }
+
+    #[test]
+    fn cached_pose_matches_live_evaluation() {
+        let mut motion = Motion::new();
+        let mut key = BoneKeyframe::with_transform(12, Vec3::new(1.0, 2.0, 3.0), Quat::from_rotation_y(1.2));
+        key.interpolation_r = [20, 107, 107, 20];
+        motion.insert_bone_keyframe("センター", BoneKeyframe::new(0));
+        motion.insert_bone_keyframe("センター", key);
+        motion.insert_bone_keyframe("頭", BoneKeyframe::with_transform(0, Vec3::ZERO, Quat::from_rotation_x(0.3)));
+        motion.insert_morph_keyframe("あ", MorphKeyframe::new(0, 0.0));
+        motion.insert_morph_keyframe("あ", MorphKeyframe::new(6, 1.0));
+        let animation = VmdAnimation::from_vmd_file(VmdFile { model_name: String::new(), motion: motion.clone() });
+
+        let sampled = SampledMotion::sample(&motion);
+        // 单关键帧轨道只占一个采样
+        assert_eq!(sampled.translations.len(), 13 + 1);
+
+        for &frame in &[0.0, 0.25, 5.5, 11.75, 12.0, 20.3] {
+            for &weight in &[1.0, 0.4] {
+                let (mut live_bones, mut live_morphs) = managers();
+                animation.evaluate_with_weight(frame, weight, &mut live_bones, &mut live_morphs);
+
+                let (mut bones, mut morphs) = managers();
+                let binding = sampled.bind(&bones, &morphs);
+                sampled.apply(&binding, frame, weight, &mut bones, &mut morphs);
+
+                for i in 0..2 {
+                    let (live, cached) = (live_bones.get_bone(i).unwrap(), bones.get_bone(i).unwrap());
+                    assert!(live.animation_translate.abs_diff_eq(cached.animation_translate, 1e-6));
+                    assert!(live.animation_rotate.abs_diff_eq(cached.animation_rotate, 1e-6));
+                }
+                assert!((live_morphs.get_morph_weight(0) - morphs.get_morph_weight(0)).abs() < 1e-6);
+            }
+        }
+    }
+}
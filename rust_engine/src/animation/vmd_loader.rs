@@ -2,7 +2,7 @@
 //!
 //! 解析 VMD 动画文件并转换为 Motion 数据
 
-use std::io::{BufReader, Read, Seek};
+use std::io::{BufReader, Read, Seek, SeekFrom};
 use std::fs::File;
 use std::path::Path;
 
@@ -13,7 +13,10 @@ use crate::{MmdError, Result};
 use crate::skeleton::BoneManager;
 use crate::morph::MorphManager;
 
+use once_cell::sync::OnceCell;
+
 use super::motion::Motion;
+use super::pose_cache::{self, SampledMotion};
 use super::keyframe::{BoneKeyframe, MorphKeyframe, IkKeyframe, CameraKeyframe, CameraInterpolation};
 use super::motion_track::{BoneFrameTransform, CameraFrameTransform};
 
@@ -21,6 +24,81 @@ use super::motion_track::{BoneFrameTransform, CameraFrameTransform};
 const VMD_HEADER_V1: &[u8] = b"Vocaloid Motion Data file";
 const VMD_HEADER_V2: &[u8] = b"Vocaloid Motion Data 0002";
 
+/// 骨骼关键帧记录大小：名称 15 + 帧号 4 + 平移 12 + 旋转 16 + 插值 64
+const BONE_KEYFRAME_SIZE: u64 = 111;
+/// Morph 关键帧记录大小：名称 15 + 帧号 4 + 权重 4
+const MORPH_KEYFRAME_SIZE: u64 = 23;
+
+/// VMD 各段关键帧数量（只读头部与段计数，不解析关键帧）
+#[derive(Debug, Clone, Copy, Default, PartialEq, Eq)]
+pub struct VmdSectionCounts {
+    pub bone_keyframes: u32,
+    pub morph_keyframes: u32,
+    pub camera_keyframes: u32,
+}
+
+impl VmdSectionCounts {
+    /// 从文件路径探测
+    pub fn probe<P: AsRef<Path>>(path: P) -> Result<Self> {
+        let file = File::open(path.as_ref())
+            .map_err(|e| MmdError::Io(e))?;
+        let mut reader = BufReader::new(file);
+        Self::probe_from_reader(&mut reader)
+    }
+
+    /// 从 Reader 探测：读取头部后按固定记录大小跳过骨骼/Morph 段，只读取段计数
+    pub fn probe_from_reader<R: Read + Seek>(reader: &mut R) -> Result<Self> {
+        let len = reader.seek(SeekFrom::End(0))
+            .map_err(|e| MmdError::VmdParse(format!("Failed to seek: {}", e)))?;
+        reader.seek(SeekFrom::Start(0))
+            .map_err(|e| MmdError::VmdParse(format!("Failed to seek: {}", e)))?;
+
+        let mut header = [0u8; 30];
+        reader.read_exact(&mut header)
+            .map_err(|e| MmdError::VmdParse(format!("Failed to read header: {}", e)))?;
+        if header[..25] != VMD_HEADER_V1[..] && header[..25] != VMD_HEADER_V2[..] {
+            return Err(MmdError::VmdParse("Invalid VMD header".to_string()));
+        }
+        // 跳过模型名称 (20 字节)
+        reader.seek(SeekFrom::Current(20))
+            .map_err(|e| MmdError::VmdParse(format!("Failed to seek: {}", e)))?;
+
+        let bone_keyframes = reader.read_u32::<LittleEndian>()
+            .map_err(|e| MmdError::VmdParse(format!("Failed to read bone keyframe count: {}", e)))?;
+        let pos = skip_records(reader, bone_keyframes, BONE_KEYFRAME_SIZE, len)?;
+
+        let morph_keyframes = if pos + 4 <= len {
+            reader.read_u32::<LittleEndian>()
+                .map_err(|e| MmdError::VmdParse(format!("Failed to read morph keyframe count: {}", e)))?
+        } else {
+            return Err(MmdError::VmdParse("Missing morph section".to_string()));
+        };
+        let pos = skip_records(reader, morph_keyframes, MORPH_KEYFRAME_SIZE, len)?;
+
+        // 相机段可能不存在（较老的 VMD 文件）
+        let camera_keyframes = if pos + 4 <= len {
+            reader.read_u32::<LittleEndian>().unwrap_or(0)
+        } else {
+            0
+        };
+
+        Ok(Self { bone_keyframes, morph_keyframes, camera_keyframes })
+    }
+}
+
+/// 跳过 count 条定长记录，返回跳过后的位置；越过文件末尾视为截断
+fn skip_records<R: Seek>(reader: &mut R, count: u32, record_size: u64, len: u64) -> Result<u64> {
+    let pos = reader.stream_position()
+        .map_err(|e| MmdError::VmdParse(format!("Failed to seek: {}", e)))?;
+    let end = pos + count as u64 * record_size;
+    if end > len {
+        return Err(MmdError::VmdParse("Truncated VMD keyframe section".to_string()));
+    }
+    reader.seek(SeekFrom::Start(end))
+        .map_err(|e| MmdError::VmdParse(format!("Failed to seek: {}", e)))?;
+    Ok(end)
+}
+
 /// VMD 文件数据
 #[derive(Debug, Clone)]
 pub struct VmdFile {
@@ -346,6 +424,8 @@ fn decode_shift_jis(bytes: &[u8]) -> String {
 pub struct VmdAnimation {
     /// Motion 数据
     motion: Motion,
+    /// 预采样姿态（加载或合并完成后由 [`Self::prepare_pose_cache`] 在加载线程生成，超长动画为 None）
+    sampled: OnceCell<Option<SampledMotion>>,
 }
 
 impl VmdAnimation {
@@ -353,6 +433,7 @@ impl VmdAnimation {
     pub fn from_vmd_file(vmd: VmdFile) -> Self {
         Self {
             motion: vmd.motion,
+            sampled: OnceCell::new(),
         }
     }
 
@@ -374,6 +455,13 @@ impl VmdAnimation {
     /// 合并另一个动画的骨骼和 Morph 数据
     pub fn merge(&mut self, other: &VmdAnimation) {
         self.motion.merge(&other.motion);
+        self.sampled = OnceCell::new();
+    }
+
+    /// 合并另一个动画的骨骼和 Morph 数据（消耗 other，不克隆关键帧）
+    pub fn merge_from(&mut self, other: VmdAnimation) {
+        self.motion.merge_from(other.motion);
+        self.sampled = OnceCell::new();
     }
 
     /// 获取相机帧变换
@@ -483,15 +571,69 @@ impl VmdAnimation {
             }
         }
         
-        // 应用 IK 启用/禁用状态
+        self.apply_ik_states(frame_index, weight, bone_manager);
+    }
+
+    /// 应用 IK 启用/禁用状态（仅完整权重时生效）
+    fn apply_ik_states(&self, frame_index: u32, weight: f32, bone_manager: &mut BoneManager) {
+        if weight < 1.0 {
+            return;
+        }
         for ik_name in self.motion.ik_track_names() {
             let enabled = self.motion.is_ik_enabled(ik_name, frame_index);
-            if weight >= 1.0 {
-                bone_manager.set_ik_enabled_by_name(ik_name, enabled);
-            }
+            bone_manager.set_ik_enabled_by_name(ik_name, enabled);
+        }
+    }
+
+    /// 关键帧数据的近似堆字节数（不含姿态缓存）
+    pub fn heap_bytes(&self) -> usize {
+        self.motion.heap_bytes()
+    }
+
+    /// 已生成的姿态缓存字节数（未生成或超长动画为 0）
+    pub fn pose_cache_bytes(&self) -> usize {
+        self.sampled.get().and_then(|s| s.as_ref()).map_or(0, |s| s.memory_bytes())
+    }
+
+    /// 在当前线程生成姿态缓存（加载/合并完成后调用，避免首次循环时在渲染线程持模型锁采样）
+    pub fn prepare_pose_cache(&self) {
+        if pose_cache::is_enabled() {
+            self.sampled_motion();
         }
     }
 
+    /// 预采样姿态（未预先生成时在首次调用时采样，超过 [`pose_cache::MAX_CACHED_FRAMES`] 的动画返回 None）
+    pub fn sampled_motion(&self) -> Option<&SampledMotion> {
+        self.sampled
+            .get_or_init(|| {
+                if self.max_frame() > pose_cache::MAX_CACHED_FRAMES {
+                    return None;
+                }
+                let sampled = SampledMotion::sample(&self.motion);
+                log::debug!("姿态缓存: {} 帧, {} KB", self.max_frame(), sampled.memory_bytes() / 1024);
+                Some(sampled)
+            })
+            .as_ref()
+    }
+
+    /// 使用预采样姿态评估动画（结果与 [`Self::evaluate_with_weight`] 相同）
+    ///
+    /// # 参数
+    /// - `sampled`: 本动画的 [`Self::sampled_motion`]
+    /// - `binding`: 轨道到模型骨骼/Morph 的索引映射（由 `sampled.bind` 生成）
+    pub fn evaluate_sampled(
+        &self,
+        sampled: &SampledMotion,
+        binding: &pose_cache::PoseBinding,
+        frame: f32,
+        weight: f32,
+        bone_manager: &mut BoneManager,
+        morph_manager: &mut MorphManager,
+    ) {
+        sampled.apply(binding, frame, weight, bone_manager, morph_manager);
+        self.apply_ik_states(frame.max(0.0).floor() as u32, weight, bone_manager);
+    }
+
     /// 检查是否包含骨骼轨道
     pub fn contains_bone_track(&self, name: &str) -> bool {
         self.motion.contains_bone_track(name)
@@ -512,3 +654,43 @@ impl VmdAnimation {
         self.motion.morph_track_names().cloned().collect()
     }
 }
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use std::io::Cursor;
+
+    fn build_vmd(bones: u32, morphs: u32, cameras: Option<u32>) -> Vec<u8> {
+        let mut data = Vec::new();
+        let mut header = [0u8; 30];
+        header[..25].copy_from_slice(VMD_HEADER_V2);
+        data.extend_from_slice(&header);
+        data.extend_from_slice(&[0u8; 20]);
+        data.extend_from_slice(&bones.to_le_bytes());
+        data.resize(data.len() + (bones as u64 * BONE_KEYFRAME_SIZE) as usize, 0);
+        data.extend_from_slice(&morphs.to_le_bytes());
+        data.resize(data.len() + (morphs as u64 * MORPH_KEYFRAME_SIZE) as usize, 0);
+        if let Some(c) = cameras {
+            data.extend_from_slice(&c.to_le_bytes());
+        }
+        data
+    }
+
+    #[test]
+    fn probe_reads_section_counts() {
+        let data = build_vmd(3, 2, Some(5));
+        let counts = VmdSectionCounts::probe_from_reader(&mut Cursor::new(data)).unwrap();
+        assert_eq!(counts, VmdSectionCounts { bone_keyframes: 3, morph_keyframes: 2, camera_keyframes: 5 });
+    }
+
+    #[test]
+    fn probe_handles_missing_camera_and_truncation() {
+        let data = build_vmd(1, 0, None);
+        let counts = VmdSectionCounts::probe_from_reader(&mut Cursor::new(data)).unwrap();
+        assert_eq!(counts.camera_keyframes, 0);
+
+        let mut truncated = build_vmd(4, 0, Some(0));
+        truncated.truncate(60);
+        assert!(VmdSectionCounts::probe_from_reader(&mut Cursor::new(truncated)).is_err());
+    }
+}
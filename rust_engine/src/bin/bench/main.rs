@@ -0,0 +1,410 @@
+//! 原生引擎无头基准测试
+//!
+//! 生成合成模型与动作（见 `mmd_engine::synthetic`），不需要 GPU 与 JVM，对 1..N 个模型分别测量：
+//! - `pmx_load`：加载全部模型（每个样本为加载 N 个模型的总耗时）
+//! - `vmd_load` / `vmd_merge`：身体动作解析、与表情动作合并（与模型数量无关，只在第一轮输出）
+//! - `tick`：全部模型各执行一次 `tick_animation`（动画、IK、物理、Morph、CPU 蒙皮；关闭帧耗时统计测量）
+//! - `tick.<阶段>`：引擎帧耗时统计的分阶段结果（单个模型每帧的耗时，取各模型平均；只统计最后 240 帧）。
+//!   在 `tick` 之后单独再跑一遍同样帧数，统计本身的计时开销不会计入 `tick`
+//! - `mc_vertex_buffer`：全部模型所有子网格的 `build_mc_vertex_buffer`
+//!
+//! 每项结果输出一行到 stdout（JSON Lines 或 CSV，时间单位微秒），模型规模与运行环境输出到 stderr。
+//!
+//! ```text
+//! cargo run --release --features bench --bin bench -- [--preset small|medium|large] [--models 1,2,4,8]
+//!     [--frames 600] [--warmup 60] [--load-iterations 5]
+//!     [--physics sync|async|shared|off] [--format json|csv]
+//! ```
+
+use std::hint::black_box;
+use std::process;
+use std::sync::Arc;
+use std::time::Instant;
+
+use glam::{Mat3, Mat4};
+use mmd_engine::model::frame_profiler::{self, ProfileSummary, Stage};
+use mmd_engine::model::load_pmx;
+use mmd_engine::physics;
+use mmd_engine::synthetic::{ModelSpec, SyntheticAssets};
+use mmd_engine::{MmdModel, VmdAnimation};
+
+/// 每帧时间（60 FPS）
+const FRAME_TIME: f32 = 1.0 / 60.0;
+/// 合成动作长度（帧）与关键帧间隔
+const MOTION_FRAMES: u32 = 1800;
+const KEY_INTERVAL: u32 = 5;
+/// MC 顶点格式每顶点字节数
+const MC_VERTEX_STRIDE: usize = 36;
+/// 输出的引擎阶段
+const STAGES: [(Stage, &str); 6] = [
+    (Stage::Animation, "animation"),
+    (Stage::Morph, "morph"),
+    (Stage::Bones, "bones"),
+    (Stage::Ik, "ik"),
+    (Stage::Physics, "physics"),
+    (Stage::Skinning, "skinning"),
+];
+
+const USAGE: &str = "用法: bench [--preset small|medium|large] [--models 1,2,4,8] [--frames 600] \
+[--warmup 60] [--load-iterations 5] [--physics sync|async|shared|off] [--format json|csv]";
+
+#[derive(Debug, Clone, Copy, PartialEq, Eq)]
+enum PhysicsMode {
+    /// 每个模型独立的同步物理世界（结果只取决于帧时间）
+    Sync,
+    /// 各模型物理在共享模拟线程上异步推进
+    Async,
+    /// 所有模型共享一个物理世界
+    Shared,
+    Off,
+}
+
+impl PhysicsMode {
+    fn parse(s: &str) -> Option<Self> {
+        match s {
+            "sync" => Some(Self::Sync),
+            "async" => Some(Self::Async),
+            "shared" => Some(Self::Shared),
+            "off" => Some(Self::Off),
+            _ => None,
+        }
+    }
+
+    fn name(self) -> &'static str {
+        match self {
+            Self::Sync => "sync",
+            Self::Async => "async",
+            Self::Shared => "shared",
+            Self::Off => "off",
+        }
+    }
+}
+
+#[derive(Debug, Clone, Copy, PartialEq, Eq)]
+enum Format {
+    Json,
+    Csv,
+}
+
+struct Options {
+    preset: String,
+    spec: ModelSpec,
+    models: Vec<usize>,
+    frames: usize,
+    warmup: usize,
+    load_iterations: usize,
+    physics: PhysicsMode,
+    format: Format,
+}
+
+impl Options {
+    fn parse() -> Result<Self, String> {
+        let mut options = Options {
+            preset: "medium".to_string(),
+            spec: ModelSpec::MEDIUM,
+            models: vec![1, 2, 4, 8],
+            frames: 600,
+            warmup: 60,
+            load_iterations: 5,
+            physics: PhysicsMode::Sync,
+            format: Format::Json,
+        };
+        let mut args = std::env::args().skip(1);
+        while let Some(key) = args.next() {
+            if key == "--help" || key == "-h" {
+                return Err(String::new());
+            }
+            let value = args.next().ok_or_else(|| format!("{} 缺少参数值", key))?;
+            let bad = || format!("无效的参数值: {} {}", key, value);
+            match key.as_str() {
+                "--preset" => {
+                    options.spec = ModelSpec::preset(&value).ok_or_else(bad)?;
+                    options.preset = value.clone();
+                }
+                "--models" => {
+                    let mut models = value
+                        .split(',')
+                        .map(|n| n.trim().parse::<usize>().ok().filter(|&n| n > 0))
+                        .collect::<Option<Vec<_>>>()
+                        .ok_or_else(bad)?;
+                    models.sort_unstable();
+                    models.dedup();
+                    options.models = models;
+                }
+                "--frames" => options.frames = value.parse().ok().filter(|&n| n > 0).ok_or_else(bad)?,
+                "--warmup" => options.warmup = value.parse().map_err(|_| bad())?,
+                "--load-iterations" => {
+                    options.load_iterations = value.parse().ok().filter(|&n| n > 0).ok_or_else(bad)?
+                }
+                "--physics" => options.physics = PhysicsMode::parse(&value).ok_or_else(bad)?,
+                "--format" => {
+                    options.format = match value.as_str() {
+                        "json" => Format::Json,
+                        "csv" => Format::Csv,
+                        _ => return Err(bad()),
+                    }
+                }
+                _ => return Err(format!("未知参数: {}", key)),
+            }
+        }
+        Ok(options)
+    }
+}
+
+/// 一组样本的统计（微秒）
+#[derive(Debug, Clone, Copy, Default)]
+struct Stats {
+    samples: usize,
+    mean: f64,
+    p50: f64,
+    p95: f64,
+    max: f64,
+}
+
+impl Stats {
+    fn from_samples(mut samples: Vec<f64>) -> Self {
+        if samples.is_empty() {
+            return Self::default();
+        }
+        samples.sort_unstable_by(|a, b| a.total_cmp(b));
+        let percentile = |p: usize| samples[((samples.len() - 1) * p + 50) / 100];
+        Self {
+            samples: samples.len(),
+            mean: samples.iter().sum::<f64>() / samples.len() as f64,
+            p50: percentile(50),
+            p95: percentile(95),
+            max: samples[samples.len() - 1],
+        }
+    }
+
+    /// 各模型帧耗时统计中指定阶段的平均值
+    fn from_profiles(profiles: &[ProfileSummary], stage: Stage) -> Self {
+        if profiles.is_empty() {
+            return Self::default();
+        }
+        let n = profiles.len() as f64;
+        let mut stats = Self {
+            samples: profiles.iter().map(|p| p.samples as usize).min().unwrap_or(0),
+            ..Self::default()
+        };
+        for profile in profiles {
+            let s = profile.stages[stage as usize];
+            stats.mean += s.mean as f64 / n;
+            stats.p50 += s.p50 as f64 / n;
+            stats.p95 += s.p95 as f64 / n;
+            stats.max = stats.max.max(s.max as f64);
+        }
+        stats
+    }
+}
+
+/// 结果输出（stdout）
+struct Reporter {
+    format: Format,
+    preset: String,
+    physics: &'static str,
+}
+
+impl Reporter {
+    fn header(&self) {
+        if self.format == Format::Csv {
+            println!("bench,preset,physics,models,samples,mean_us,p50_us,p95_us,max_us");
+        }
+    }
+
+    fn record(&self, bench: &str, models: usize, stats: &Stats) {
+        match self.format {
+            Format::Json => println!(
+                "{{\"bench\":\"{}\",\"preset\":\"{}\",\"physics\":\"{}\",\"models\":{},\"samples\":{},\
+\"mean_us\":{:.3},\"p50_us\":{:.3},\"p95_us\":{:.3},\"max_us\":{:.3}}}",
+                bench, self.preset, self.physics, models, stats.samples, stats.mean, stats.p50, stats.p95, stats.max
+            ),
+            Format::Csv => println!(
+                "{},{},{},{},{},{:.3},{:.3},{:.3},{:.3}",
+                bench, self.preset, self.physics, models, stats.samples, stats.mean, stats.p50, stats.p95, stats.max
+            ),
+        }
+    }
+}
+
+fn micros(start: Instant) -> f64 {
+    start.elapsed().as_secs_f64() * 1e6
+}
+
+fn main() {
+    let options = match Options::parse() {
+        Ok(options) => options,
+        Err(message) => {
+            if !message.is_empty() {
+                eprintln!("{}", message);
+            }
+            eprintln!("{}", USAGE);
+            process::exit(2);
+        }
+    };
+
+    let spec = options.spec;
+    let assets = match SyntheticAssets::create(&spec, MOTION_FRAMES, KEY_INTERVAL) {
+        Ok(assets) => assets,
+        Err(e) => {
+            eprintln!("生成合成资源失败: {}", e);
+            process::exit(1);
+        }
+    };
+    eprintln!(
+        "preset={} vertices={} triangles={} bones={} morphs={} rigid_bodies={} materials={} physics={} threads={}",
+        options.preset,
+        spec.vertex_count(),
+        spec.triangle_count(),
+        spec.bone_count(),
+        spec.vertex_morphs,
+        spec.rigid_body_count(),
+        spec.materials,
+        options.physics.name(),
+        rayon::current_num_threads()
+    );
+
+    let mut config = physics::get_config();
+    config.async_simulation = options.physics == PhysicsMode::Async;
+    config.shared_world = options.physics == PhysicsMode::Shared;
+    physics::set_config(config);
+
+    let reporter = Reporter { format: options.format, preset: options.preset.clone(), physics: options.physics.name() };
+    reporter.header();
+
+    let motion = match bench_motion(&assets, options.load_iterations, &reporter) {
+        Ok(motion) => Arc::new(motion),
+        Err(e) => {
+            eprintln!("加载合成动作失败: {}", e);
+            process::exit(1);
+        }
+    };
+
+    for &count in &options.models {
+        let models = match bench_load(&assets, count, options.load_iterations, &reporter) {
+            Ok(models) => models,
+            Err(e) => {
+                eprintln!("加载合成模型失败: {}", e);
+                process::exit(1);
+            }
+        };
+        bench_frames(models, &motion, &options, &reporter);
+    }
+}
+
+/// 动作解析与合并，返回合并后的动作
+fn bench_motion(assets: &SyntheticAssets, iterations: usize, reporter: &Reporter) -> mmd_engine::Result<VmdAnimation> {
+    let mut load = Vec::with_capacity(iterations);
+    let mut merge = Vec::with_capacity(iterations);
+    let mut merged = None;
+    for _ in 0..iterations {
+        let start = Instant::now();
+        let mut body = VmdAnimation::load(&assets.body_vmd)?;
+        load.push(micros(start));
+
+        let face = VmdAnimation::load(&assets.face_vmd)?;
+        let start = Instant::now();
+        body.merge_from(face);
+        merge.push(micros(start));
+        merged = Some(body);
+    }
+    reporter.record("vmd_load", 1, &Stats::from_samples(load));
+    reporter.record("vmd_merge", 1, &Stats::from_samples(merge));
+    Ok(merged.expect("iterations > 0"))
+}
+
+/// 加载 count 个模型，重复 iterations 次，返回最后一次加载的模型
+fn bench_load(
+    assets: &SyntheticAssets,
+    count: usize,
+    iterations: usize,
+    reporter: &Reporter,
+) -> mmd_engine::Result<Vec<MmdModel>> {
+    let mut samples = Vec::with_capacity(iterations);
+    let mut models = Vec::new();
+    for _ in 0..iterations {
+        drop(std::mem::take(&mut models));
+        let start = Instant::now();
+        for _ in 0..count {
+            models.push(load_pmx(&assets.pmx)?);
+        }
+        samples.push(micros(start));
+    }
+    reporter.record("pmx_load", count, &Stats::from_samples(samples));
+    Ok(models)
+}
+
+/// 逐帧更新与构建 MC 顶点缓冲
+fn bench_frames(mut models: Vec<MmdModel>, motion: &Arc<VmdAnimation>, options: &Options, reporter: &Reporter) {
+    let count = models.len();
+    for (i, model) in models.iter_mut().enumerate() {
+        if options.physics == PhysicsMode::Sync {
+            model.set_synchronous_physics(true);
+        }
+        if options.physics != PhysicsMode::Off {
+            model.init_physics();
+        }
+        model.set_model_position_and_yaw(i as f32 * 2.0, 0.0, 0.0, 0.0);
+        model.set_layer_animation(0, Some(motion.clone()));
+        model.play_layer(0);
+        // 错开各模型的播放进度，避免所有模型姿势相同
+        model.seek_layer(0, (i * 37) as f32);
+    }
+
+    let max_indices = models
+        .iter()
+        .flat_map(|m| m.submeshes.iter().map(|s| s.index_count as usize))
+        .max()
+        .unwrap_or(0);
+    let mut output = vec![0u8; max_indices * MC_VERTEX_STRIDE];
+    let pose = Mat4::IDENTITY;
+    let normal = Mat3::IDENTITY;
+
+    let mut frame = |models: &mut [MmdModel], tick: Option<&mut Vec<f64>>, build: Option<&mut Vec<f64>>| {
+        let start = Instant::now();
+        for model in models.iter_mut() {
+            model.tick_animation(FRAME_TIME);
+        }
+        if let Some(tick) = tick {
+            tick.push(micros(start));
+        }
+
+        let start = Instant::now();
+        let mut written = 0usize;
+        for model in models.iter() {
+            for sub in 0..model.submesh_count() {
+                written += model.build_mc_vertex_buffer(sub, &mut output, &pose, &normal, 0xFFFF_FFFF, 0, 0x00F0_00F0);
+            }
+        }
+        black_box(written);
+        if let Some(build) = build {
+            build.push(micros(start));
+        }
+    };
+
+    for _ in 0..options.warmup {
+        frame(&mut models, None, None);
+    }
+
+    // 总耗时在关闭帧耗时统计时测量，不含分阶段计时的 Instant::now 开销
+    frame_profiler::set_enabled(false);
+    let mut tick = Vec::with_capacity(options.frames);
+    let mut build = Vec::with_capacity(options.frames);
+    for _ in 0..options.frames {
+        frame(&mut models, Some(&mut tick), Some(&mut build));
+    }
+
+    // 分阶段耗时单独一遍（开启时清空之前的数据）
+    frame_profiler::set_enabled(true);
+    for _ in 0..options.frames {
+        frame(&mut models, None, None);
+    }
+    let profiles: Vec<ProfileSummary> = models.iter().map(|m| m.frame_profile()).collect();
+    frame_profiler::set_enabled(false);
+
+    reporter.record("tick", count, &Stats::from_samples(tick));
+    for (stage, name) in STAGES {
+        reporter.record(&format!("tick.{}", name), count, &Stats::from_profiles(&profiles, stage));
+    }
+    reporter.record("mc_vertex_buffer", count, &Stats::from_samples(build));
+}
@@ -0,0 +1,230 @@
+//! 每帧模型命令缓冲
+//!
+//! Java 侧把一帧的模型输入（头部角度、眼球追踪、位置朝向、LOD 距离、帧时间）写入直接缓冲区，
+//! 一次 JNI 调用完成“应用输入 → 更新 → 写回输出（手部矩阵、眼睛骨骼位置、头部高度、包围盒、材质 Morph 结果）”，
+//! 替代每个模型每帧十余次独立的 JNI 调用与模型加锁。
+//!
+//! 缓冲区可连续存放多个模型的记录（每条 [`RECORD_SIZE`] 字节），一次调用处理全部。
+//!
+//! ## 记录布局（小端，偏移单位字节）
+//! | 偏移 | 类型 | 字段 |
+//! |------|------|------|
+//! | 0 | i64 | 模型句柄 |
+//! | 8 | u32 | 标志位（`FLAG_*`） |
+//! | 12 | f32 | 帧时间（秒） |
+//! | 16 | f32×3 | 头部角度（弧度） |
+//! | 28 | f32×2 | 眼球角度（弧度） |
+//! | 36 | f32 | 眼球最大角度 |
+//! | 40 | f32×3 + f32 | 模型位置 + 身体朝向 |
+//! | 56 | f32 | 与相机距离（物理 LOD） |
+//! | 60 | i32 | 材质 Morph 输出缓冲区容量（字节） |
+//! | 64 | i64 | 材质 Morph 输出缓冲区地址（0 表示不输出） |
+//! | 72 | i32 | 输出：材质 Morph 结果数量 |
+//! | 76 | i32 | 输出：1 = 模型存在并已处理，0 = 句柄无效 |
+//! | 80 | f32×16 | 输出：右手矩阵（列主序） |
+//! | 144 | f32×16 | 输出：左手矩阵（列主序） |
+//! | 208 | f32×3 | 输出：眼睛骨骼位置（模型局部空间） |
+//! | 220 | f32 | 输出：头部骨骼初始高度 |
+//! | 224 | f32×3 | 输出：包围盒最小点（模型局部空间） |
+//! | 236 | f32×3 | 输出：包围盒最大点（模型局部空间） |
+//! | 248 | u32×4 | 上一帧 Java 侧渲染耗时（纳秒：拷贝、上传、派发、绘制），见 `FLAG_RENDER_TIMES` |
+
+use std::ptr;
+
+use crate::model::frame_profiler::RENDER_STAGE_COUNT;
+use crate::model::MmdModel;
+
+use super::MODELS;
+
+/// 设置头部角度
+pub const FLAG_HEAD_ANGLE: u32 = 1 << 0;
+/// 设置眼球追踪状态（启用状态取 FLAG_EYE_TRACKING_ENABLED）
+pub const FLAG_EYE_TRACKING: u32 = 1 << 1;
+/// 眼球追踪启用，同时应用眼球角度与最大角度
+pub const FLAG_EYE_TRACKING_ENABLED: u32 = 1 << 2;
+/// 设置模型位置与朝向
+pub const FLAG_POSITION: u32 = 1 << 3;
+/// 设置物理 LOD 距离
+pub const FLAG_LOD_DISTANCE: u32 = 1 << 4;
+/// 更新模型（动画 + 物理 + 蒙皮）
+pub const FLAG_UPDATE: u32 = 1 << 5;
+/// 与 FLAG_UPDATE 同时设置时只更新动画（GPU 蒙皮模式）
+pub const FLAG_ANIMATION_ONLY: u32 = 1 << 6;
+/// 输出左右手矩阵
+pub const FLAG_HAND_MATRICES: u32 = 1 << 7;
+/// 输出眼睛骨骼位置与头部高度
+pub const FLAG_EYE_BONE: u32 = 1 << 8;
+/// 输出当前姿态的保守包围盒（视锥剔除）
+pub const FLAG_BOUNDS: u32 = 1 << 9;
+/// 计入上一帧 Java 侧渲染耗时（帧耗时统计）
+pub const FLAG_RENDER_TIMES: u32 = 1 << 10;
+
+/// 每条记录的字节数
+pub const RECORD_SIZE: usize = std::mem::size_of::<ModelFrameRecord>();
+
+/// 单个模型一帧的输入与输出
+#[repr(C)]
+#[derive(Debug, Clone, Copy, Default)]
+pub struct ModelFrameRecord {
+    pub model: i64,
+    pub flags: u32,
+    pub delta_time: f32,
+    pub head_angle: [f32; 3],
+    pub eye_angle: [f32; 2],
+    pub eye_max_angle: f32,
+    pub position: [f32; 3],
+    pub yaw: f32,
+    pub lod_distance: f32,
+    pub material_morph_capacity: i32,
+    pub material_morph_address: i64,
+    // 输出
+    pub material_morph_count: i32,
+    pub status: i32,
+    pub right_hand: [f32; 16],
+    pub left_hand: [f32; 16],
+    pub eye_bone_position: [f32; 3],
+    pub head_bone_y: f32,
+    pub bounds_min: [f32; 3],
+    pub bounds_max: [f32; 3],
+    // 输入（统计）
+    pub render_ns: [u32; RENDER_STAGE_COUNT],
+}
+
+const _: () = assert!(std::mem::size_of::<ModelFrameRecord>() == 264);
+
+/// 应用输入、更新模型并填写输出
+fn apply_record(model: &mut MmdModel, record: &mut ModelFrameRecord) {
+    let flags = record.flags;
+
+    if flags & FLAG_HEAD_ANGLE != 0 {
+        let [x, y, z] = record.head_angle;
+        model.set_head_angle(x, y, z);
+    }
+    if flags & FLAG_EYE_TRACKING != 0 {
+        let enabled = flags & FLAG_EYE_TRACKING_ENABLED != 0;
+        model.set_eye_tracking_enabled(enabled);
+        if enabled {
+            model.set_eye_max_angle(record.eye_max_angle);
+            model.set_eye_angle(record.eye_angle[0], record.eye_angle[1]);
+        }
+    }
+    if flags & FLAG_POSITION != 0 {
+        let [x, y, z] = record.position;
+        model.set_model_position_and_yaw(x, y, z, record.yaw);
+    }
+    if flags & FLAG_LOD_DISTANCE != 0 {
+        model.set_physics_lod_distance(record.lod_distance);
+    }
+
+    if flags & FLAG_RENDER_TIMES != 0 {
+        model.set_render_times(record.render_ns);
+    }
+
+    if flags & FLAG_UPDATE != 0 {
+        if flags & FLAG_ANIMATION_ONLY != 0 {
+            model.tick_animation_no_skinning(record.delta_time);
+        } else {
+            model.tick_animation(record.delta_time);
+        }
+    }
+
+    if flags & FLAG_HAND_MATRICES != 0 {
+        record.right_hand = model.get_right_hand_matrix().to_cols_array();
+        record.left_hand = model.get_left_hand_matrix().to_cols_array();
+    }
+    if flags & FLAG_EYE_BONE != 0 {
+        record.eye_bone_position = model.get_eye_bone_animated_position().to_array();
+        record.head_bone_y = model.get_head_bone_rest_position_y();
+    }
+    if flags & FLAG_BOUNDS != 0 {
+        let (min, max) = model.skinned_bounds();
+        record.bounds_min = min.to_array();
+        record.bounds_max = max.to_array();
+    }
+
+    record.material_morph_count = 0;
+    if record.material_morph_address != 0 {
+        let flat = model.get_material_morph_results_flat();
+        let byte_size = flat.len() * 4;
+        if byte_size <= record.material_morph_capacity.max(0) as usize {
+            unsafe {
+                ptr::copy_nonoverlapping(
+                    flat.as_ptr() as *const u8,
+                    record.material_morph_address as *mut u8,
+                    byte_size,
+                );
+            }
+            record.material_morph_count = model.get_material_morph_result_count() as i32;
+        } else {
+            log::error!("UpdateModelFrames: 材质 Morph 结果需要 {} 字节, 容量 {}",
+                byte_size, record.material_morph_capacity);
+        }
+    }
+}
+
+/// 处理缓冲区中的前 count 条记录，返回有效模型数量
+///
+/// 记录按字节读写，不要求缓冲区对齐。
+pub fn process_records(buffer: &mut [u8], count: usize) -> usize {
+    let count = count.min(buffer.len() / RECORD_SIZE);
+    let mut processed = 0;
+    for i in 0..count {
+        let slot = buffer[i * RECORD_SIZE..].as_mut_ptr() as *mut ModelFrameRecord;
+        let mut record = unsafe { ptr::read_unaligned(slot) };
+        record.status = 0;
+        if let Some(mut model) = MODELS.lock(record.model) {
+            apply_record(&mut model, &mut record);
+            record.status = 1;
+            processed += 1;
+        }
+        unsafe { ptr::write_unaligned(slot, record) };
+    }
+    processed
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    fn write(buffer: &mut [u8], index: usize, record: ModelFrameRecord) {
+        unsafe {
+            ptr::write_unaligned(buffer[index * RECORD_SIZE..].as_mut_ptr() as *mut ModelFrameRecord, record);
+        }
+    }
+
+    fn read(buffer: &[u8], index: usize) -> ModelFrameRecord {
+        unsafe { ptr::read_unaligned(buffer[index * RECORD_SIZE..].as_ptr() as *const ModelFrameRecord) }
+    }
+
+    #[test]
+    fn records_update_models_and_report_invalid_handles() {
+        let handle = MODELS.insert(MmdModel::new());
+        // 已删除模型的句柄：槽位代数已递增，即使槽位被复用也不会解析成功
+        let deleted = MODELS.insert(MmdModel::new());
+        MODELS.remove(deleted);
+        // 额外 1 字节使记录不对齐
+        let mut storage = vec![0u8; RECORD_SIZE * 3 + 1];
+        let buffer = &mut storage[1..];
+        write(buffer, 0, ModelFrameRecord {
+            model: handle,
+            flags: FLAG_HEAD_ANGLE | FLAG_POSITION | FLAG_UPDATE | FLAG_HAND_MATRICES | FLAG_BOUNDS,
+            delta_time: 1.0 / 60.0,
+            status: 7,
+            ..Default::default()
+        });
+        write(buffer, 1, ModelFrameRecord { model: deleted, status: 7, ..Default::default() });
+        write(buffer, 2, ModelFrameRecord { model: 0, status: 7, ..Default::default() });
+
+        assert_eq!(process_records(buffer, 5), 1);
+        let first = read(buffer, 0);
+        assert_eq!(first.status, 1);
+        // 没有手部骨骼时输出单位矩阵
+        assert_eq!(first.right_hand, glam::Mat4::IDENTITY.to_cols_array());
+        // 空模型的包围盒退化为原点
+        assert_eq!((first.bounds_min, first.bounds_max), ([0.0; 3], [0.0; 3]));
+        assert_eq!(read(buffer, 1).status, 0);
+        assert_eq!(read(buffer, 2).status, 0);
+
+        MODELS.remove(handle);
+    }
+}
@@ -0,0 +1,58 @@
+//! 帧耗时统计批量读取
+//!
+//! Java 侧把要查询的模型句柄写入直接缓冲区，一次 JNI 调用填写全部模型的汇总
+//! （每条 [`RECORD_SIZE`] 字节），统计逻辑见 [`crate::model::frame_profiler`]。
+//!
+//! ## 记录布局（小端，偏移单位字节）
+//! | 偏移 | 类型 | 字段 |
+//! |------|------|------|
+//! | 0 | i64 | 模型句柄 |
+//! | 8 | i32 | 输出：1 = 模型存在，0 = 句柄无效 |
+//! | 12 | i32 | 输出：窗口内帧数 |
+//! | 16 | f32×4×11 | 输出：各阶段均值、P50、P95、最大值（微秒），阶段顺序同 `Stage` |
+
+use std::ptr;
+
+use crate::model::frame_profiler::STAGE_COUNT;
+
+use super::MODELS;
+
+/// 每条记录的字节数
+pub const RECORD_SIZE: usize = std::mem::size_of::<FrameProfileRecord>();
+
+/// 单个模型的统计汇总
+#[repr(C)]
+#[derive(Debug, Clone, Copy)]
+pub struct FrameProfileRecord {
+    pub model: i64,
+    // 输出
+    pub status: i32,
+    pub samples: i32,
+    pub stages: [[f32; 4]; STAGE_COUNT],
+}
+
+const _: () = assert!(std::mem::size_of::<FrameProfileRecord>() == 192);
+
+/// 填写缓冲区中的前 count 条记录，返回有效模型数量
+pub fn fetch_records(buffer: &mut [u8], count: usize) -> usize {
+    let count = count.min(buffer.len() / RECORD_SIZE);
+    let mut found = 0;
+    for i in 0..count {
+        let slot = buffer[i * RECORD_SIZE..].as_mut_ptr() as *mut FrameProfileRecord;
+        let mut record = unsafe { ptr::read_unaligned(slot) };
+        record.status = 0;
+        record.samples = 0;
+        record.stages = [[0.0; 4]; STAGE_COUNT];
+        if let Some(model) = MODELS.lock(record.model) {
+            let summary = model.frame_profile();
+            record.status = 1;
+            record.samples = summary.samples as i32;
+            for (out, stage) in record.stages.iter_mut().zip(summary.stages.iter()) {
+                *out = [stage.mean, stage.p50, stage.p95, stage.max];
+            }
+            found += 1;
+        }
+        unsafe { ptr::write_unaligned(slot, record) };
+    }
+    found
+}
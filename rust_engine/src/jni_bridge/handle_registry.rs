@@ -0,0 +1,316 @@
+//! 代际句柄表
+//!
+//! 替代 `RwLock<HashMap<i64, Arc<Mutex<T>>>>`：
+//! - 句柄 = 槽位索引（低 32 位，+1 保证非 0）| 代数（高 31 位），解析只是数组下标，不经过全局锁与哈希
+//! - 槽位按固定大小分块分配，块一旦分配不再移动，解析时只需一次原子读取块指针
+//! - 每个槽位自带互斥锁（仅保护该对象），不同对象之间、解析与增删之间互不阻塞
+//! - 删除后槽位代数递增，旧句柄随之失效（不会误访问复用该槽位的新对象）
+//!
+//! 只有分配/回收槽位时需要短暂持有空闲链表锁。
+
+use std::ops::{Deref, DerefMut};
+use std::ptr;
+use std::sync::atomic::{AtomicPtr, Ordering};
+use std::sync::{Mutex, MutexGuard};
+
+/// 每块的槽位数
+const CHUNK_SIZE: usize = 64;
+/// 最大块数（总容量 = CHUNK_SIZE × MAX_CHUNKS）
+const MAX_CHUNKS: usize = 1024;
+/// 代数掩码（保持句柄为正数）
+const GENERATION_MASK: u32 = 0x7FFF_FFFF;
+
+struct SlotState<T> {
+    generation: u32,
+    value: Option<T>,
+}
+
+type Slot<T> = Mutex<SlotState<T>>;
+
+struct FreeList {
+    free: Vec<u32>,
+    /// 尚未使用过的下一个槽位索引
+    next: u32,
+}
+
+/// 代际句柄表
+pub struct HandleRegistry<T> {
+    chunks: Box<[AtomicPtr<Slot<T>>]>,
+    free_list: Mutex<FreeList>,
+}
+
+/// 已加锁的句柄对象（持有期间该对象不会被删除）
+pub struct HandleGuard<'a, T> {
+    guard: MutexGuard<'a, SlotState<T>>,
+}
+
+fn encode(index: u32, generation: u32) -> i64 {
+    ((generation as i64) << 32) | (index as i64 + 1)
+}
+
+fn decode(handle: i64) -> Option<(usize, u32)> {
+    let low = (handle & 0xFFFF_FFFF) as u32;
+    if handle <= 0 || low == 0 {
+        return None;
+    }
+    Some(((low - 1) as usize, (handle >> 32) as u32))
+}
+
+impl<T> HandleRegistry<T> {
+    /// 创建空句柄表（块按需分配）
+    pub fn new() -> Self {
+        Self {
+            chunks: (0..MAX_CHUNKS).map(|_| AtomicPtr::new(ptr::null_mut())).collect(),
+            free_list: Mutex::new(FreeList { free: Vec::new(), next: 0 }),
+        }
+    }
+
+    fn slot(&self, index: usize) -> Option<&Slot<T>> {
+        let chunk = self.chunks.get(index / CHUNK_SIZE)?.load(Ordering::Acquire);
+        if chunk.is_null() {
+            return None;
+        }
+        // 块分配后直到句柄表销毁都不会释放或移动
+        unsafe { Some(&*chunk.add(index % CHUNK_SIZE)) }
+    }
+
+    fn lock_slot(slot: &Slot<T>) -> MutexGuard<'_, SlotState<T>> {
+        slot.lock().unwrap_or_else(|e| e.into_inner())
+    }
+
+    /// 分配槽位（容量耗尽时返回 None）
+    fn allocate_index(&self) -> Option<u32> {
+        let mut free_list = self.free_list.lock().unwrap_or_else(|e| e.into_inner());
+        if let Some(index) = free_list.free.pop() {
+            return Some(index);
+        }
+        let index = free_list.next as usize;
+        let chunk_index = index / CHUNK_SIZE;
+        if chunk_index >= MAX_CHUNKS {
+            return None;
+        }
+        if index % CHUNK_SIZE == 0 {
+            // 在空闲链表锁内分配新块，不会与其他插入竞争
+            let chunk: Box<[Slot<T>]> = (0..CHUNK_SIZE)
+                .map(|_| Mutex::new(SlotState { generation: 1, value: None }))
+                .collect();
+            self.chunks[chunk_index].store(Box::into_raw(chunk) as *mut Slot<T>, Ordering::Release);
+        }
+        free_list.next += 1;
+        Some(index as u32)
+    }
+
+    /// 放入对象并返回句柄（容量耗尽时返回 0）
+    pub fn insert(&self, value: T) -> i64 {
+        let index = match self.allocate_index() {
+            Some(index) => index,
+            None => {
+                log::error!("句柄表已满（{} 个槽位）", CHUNK_SIZE * MAX_CHUNKS);
+                return 0;
+            }
+        };
+        let slot = match self.slot(index as usize) {
+            Some(slot) => slot,
+            None => return 0,
+        };
+        let mut state = Self::lock_slot(slot);
+        state.value = Some(value);
+        encode(index, state.generation)
+    }
+
+    /// 取出对象并使句柄失效（句柄无效时返回 None）
+    ///
+    /// 若其他线程正持有该对象的锁，会等待其释放。
+    pub fn remove(&self, handle: i64) -> Option<T> {
+        let (index, generation) = decode(handle)?;
+        let slot = self.slot(index)?;
+        let value = {
+            let mut state = Self::lock_slot(slot);
+            if state.generation != generation || state.value.is_none() {
+                return None;
+            }
+            state.generation = state.generation.wrapping_add(1) & GENERATION_MASK;
+            if state.generation == 0 {
+                state.generation = 1;
+            }
+            state.value.take()
+        };
+        self.free_list.lock().unwrap_or_else(|e| e.into_inner()).free.push(index as u32);
+        value
+    }
+
+    /// 解析句柄并锁定对象（句柄无效或已删除时返回 None）
+    #[inline]
+    pub fn lock(&self, handle: i64) -> Option<HandleGuard<'_, T>> {
+        let (index, generation) = decode(handle)?;
+        let guard = Self::lock_slot(self.slot(index)?);
+        if guard.generation != generation || guard.value.is_none() {
+            return None;
+        }
+        Some(HandleGuard { guard })
+    }
+
+    /// 句柄是否有效
+    pub fn contains(&self, handle: i64) -> bool {
+        self.lock(handle).is_some()
+    }
+}
+
+impl<T: Clone> HandleRegistry<T> {
+    /// 解析句柄并复制对象
+    pub fn get(&self, handle: i64) -> Option<T> {
+        self.lock(handle).map(|guard| (*guard).clone())
+    }
+}
+
+impl<T> Default for HandleRegistry<T> {
+    fn default() -> Self {
+        Self::new()
+    }
+}
+
+impl<T> Drop for HandleRegistry<T> {
+    fn drop(&mut self) {
+        for chunk in self.chunks.iter() {
+            let chunk = chunk.load(Ordering::Acquire);
+            if !chunk.is_null() {
+                unsafe {
+                    drop(Box::from_raw(ptr::slice_from_raw_parts_mut(chunk, CHUNK_SIZE)));
+                }
+            }
+        }
+    }
+}
+
+// 槽位内容只通过各自的互斥锁访问
+unsafe impl<T: Send> Send for HandleRegistry<T> {}
+unsafe impl<T: Send> Sync for HandleRegistry<T> {}
+
+impl<T> Deref for HandleGuard<'_, T> {
+    type Target = T;
+
+    #[inline]
+    fn deref(&self) -> &T {
+        match self.guard.value {
+            Some(ref value) => value,
+            None => unreachable!("加锁时已检查槽位非空"),
+        }
+    }
+}
+
+impl<T> DerefMut for HandleGuard<'_, T> {
+    #[inline]
+    fn deref_mut(&mut self) -> &mut T {
+        match self.guard.value {
+            Some(ref mut value) => value,
+            None => unreachable!("加锁时已检查槽位非空"),
+        }
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    #[test]
+    fn stale_handles_are_rejected_after_slot_reuse() {
+        let registry = HandleRegistry::new();
+        let a = registry.insert(String::from("a"));
+        assert!(a > 0);
+        assert_eq!(registry.get(a).as_deref(), Some("a"));
+
+        assert_eq!(registry.remove(a).as_deref(), Some("a"));
+        assert!(registry.lock(a).is_none());
+        assert!(registry.remove(a).is_none());
+
+        // 复用同一槽位，但代数不同
+        let b = registry.insert(String::from("b"));
+        assert_eq!(b & 0xFFFF_FFFF, a & 0xFFFF_FFFF);
+        assert_ne!(a, b);
+        assert!(registry.get(a).is_none());
+        registry.lock(b).unwrap().push('!');
+        assert_eq!(registry.get(b).as_deref(), Some("b!"));
+
+        assert!(registry.lock(0).is_none());
+        assert!(registry.lock(-1).is_none());
+        assert!(registry.lock(encode((CHUNK_SIZE * 3) as u32, 1)).is_none());
+    }
+
+    #[test]
+    fn handles_span_multiple_chunks() {
+        let registry = HandleRegistry::new();
+        let handles: Vec<i64> = (0..CHUNK_SIZE * 2 + 5).map(|i| registry.insert(i)).collect();
+        for (i, &handle) in handles.iter().enumerate() {
+            assert_eq!(registry.get(handle), Some(i));
+        }
+    }
+
+    /// 句柄解析开销对比：旧的 RwLock<HashMap> + Arc<Mutex> 与代际句柄表
+    /// （JNI 调用中被替换的部分；JVM 侧的调用开销两者相同）
+    /// 运行: cargo test --release bench_handle_resolution -- --ignored --nocapture
+    #[test]
+    #[ignore]
+    fn bench_handle_resolution() {
+        use std::collections::HashMap;
+        use std::sync::{Arc, RwLock};
+        use std::time::Instant;
+
+        const MODELS: usize = 32;
+        const CALLS: usize = 2_000_000;
+        const THREADS: usize = 4;
+
+        let legacy: RwLock<HashMap<i64, Arc<Mutex<u64>>>> = RwLock::new(HashMap::new());
+        let registry: HandleRegistry<u64> = HandleRegistry::new();
+        let legacy_ids: Vec<i64> = (1..=MODELS as i64).collect();
+        for &id in &legacy_ids {
+            legacy.write().unwrap().insert(id, Arc::new(Mutex::new(0)));
+        }
+        let handles: Vec<i64> = (0..MODELS).map(|_| registry.insert(0)).collect();
+
+        let run_legacy = |thread: usize| {
+            for i in 0..CALLS {
+                let id = legacy_ids[(i + thread) % MODELS];
+                let models = legacy.read().unwrap();
+                if let Some(model) = models.get(&id) {
+                    *model.lock().unwrap() += 1;
+                }
+            }
+        };
+        let run_registry = |thread: usize| {
+            for i in 0..CALLS {
+                if let Some(mut model) = registry.lock(handles[(i + thread) % MODELS]) {
+                    *model += 1;
+                }
+            }
+        };
+
+        let start = Instant::now();
+        run_legacy(0);
+        let legacy_single = start.elapsed();
+        let start = Instant::now();
+        run_registry(0);
+        let registry_single = start.elapsed();
+
+        let start = Instant::now();
+        std::thread::scope(|s| {
+            for t in 0..THREADS {
+                s.spawn(move || run_legacy(t));
+            }
+        });
+        let legacy_multi = start.elapsed();
+        let start = Instant::now();
+        std::thread::scope(|s| {
+            for t in 0..THREADS {
+                s.spawn(move || run_registry(t));
+            }
+        });
+        let registry_multi = start.elapsed();
+
+        let per_call = |d: std::time::Duration, calls: usize| d.as_nanos() as f64 / calls as f64;
+        println!("单线程 {} 次解析: RwLock+HashMap {:.1} ns/次, 句柄表 {:.1} ns/次",
+            CALLS, per_call(legacy_single, CALLS), per_call(registry_single, CALLS));
+        println!("{} 线程 {} 次解析: RwLock+HashMap {:.1} ns/次, 句柄表 {:.1} ns/次",
+            THREADS, CALLS * THREADS,
+            per_call(legacy_multi, CALLS * THREADS), per_call(registry_multi, CALLS * THREADS));
+    }
+}
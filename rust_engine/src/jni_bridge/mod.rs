@@ -1,24 +1,28 @@
 //! JNI 绑定层 - 与 Java 代码交互
 
 mod native_func;
+mod frame_commands;
+mod frame_profiles;
+mod handle_registry;
 mod model_handle;
 mod animation_handle;
 
 pub use native_func::*;
 pub use model_handle::ModelHandle;
 pub use animation_handle::AnimationHandle;
+pub use handle_registry::{HandleGuard, HandleRegistry};
 
 use std::collections::HashMap;
-use std::sync::{Arc, Mutex, RwLock};
+use std::sync::{Arc, RwLock};
 use once_cell::sync::Lazy;
 
 use crate::model::MmdModel;
 use crate::animation::VmdAnimation;
 use crate::texture::Texture;
+use crate::stage::{BakedStage, StageBaker};
 
-/// 全局模型存储
-pub static MODELS: Lazy<RwLock<HashMap<i64, Arc<Mutex<MmdModel>>>>> = 
-    Lazy::new(|| RwLock::new(HashMap::new()));
+/// 全局模型存储（每帧每个模型数十次 JNI 调用，句柄解析不经过全局锁）
+pub static MODELS: Lazy<HandleRegistry<MmdModel>> = Lazy::new(HandleRegistry::new);
 
 /// 全局动画存储
 pub static ANIMATIONS: Lazy<RwLock<HashMap<i64, Arc<VmdAnimation>>>> = 
@@ -28,6 +32,13 @@ pub static ANIMATIONS: Lazy<RwLock<HashMap<i64, Arc<VmdAnimation>>>> =
 pub static TEXTURES: Lazy<RwLock<HashMap<i64, Arc<Texture>>>> = 
     Lazy::new(|| RwLock::new(HashMap::new()));
 
+/// 进行中的舞台烘焙
+pub static STAGE_BAKERS: Lazy<HandleRegistry<StageBaker>> = Lazy::new(HandleRegistry::new);
+
+/// 已加载的烘焙舞台（可被多个模型共享）
+pub static BAKED_STAGES: Lazy<RwLock<HashMap<i64, Arc<BakedStage>>>> = 
+    Lazy::new(|| RwLock::new(HashMap::new()));
+
 /// 生成唯一句柄 ID
 fn next_handle_id() -> i64 {
     use std::sync::atomic::{AtomicI64, Ordering};
@@ -37,10 +48,7 @@ fn next_handle_id() -> i64 {
 
 /// 注册模型并返回句柄
 pub fn register_model(model: MmdModel) -> i64 {
-    let id = next_handle_id();
-    let mut models = MODELS.write().unwrap();
-    models.insert(id, Arc::new(Mutex::new(model)));
-    id
+    MODELS.insert(model)
 }
 
 /// 注册动画并返回句柄
@@ -51,6 +59,14 @@ pub fn register_animation(animation: VmdAnimation) -> i64 {
     id
 }
 
+/// 注册烘焙舞台并返回句柄
+pub fn register_baked_stage(stage: BakedStage) -> i64 {
+    let id = next_handle_id();
+    let mut stages = BAKED_STAGES.write().unwrap_or_else(|e| e.into_inner());
+    stages.insert(id, Arc::new(stage));
+    id
+}
+
 /// 注册纹理并返回句柄
 pub fn register_texture(texture: Texture) -> i64 {
     let id = next_handle_id();
@@ -9,11 +9,18 @@ use jni::JNIEnv;
 use std::ptr;
 use std::sync::Arc;
 
-use crate::animation::{VmdAnimation, VmdFile};
-use crate::model::load_pmx;
+use crate::animation::{VmdAnimation, VmdFile, VmdSectionCounts};
+use crate::model::memory::{SharedAssetMemory, CATEGORY_COUNT, SHARED_CATEGORY_COUNT};
+use crate::model::{load_pmx, save_thumbnail};
+use crate::stage::{BakedStage, StageBaker};
 use crate::texture::load_texture;
 
-use super::{register_animation, register_model, register_texture, ANIMATIONS, MODELS, TEXTURES};
+use super::frame_commands;
+use super::frame_profiles;
+use super::{
+    register_animation, register_baked_stage, register_model, register_texture, HandleRegistry, ANIMATIONS,
+    BAKED_STAGES, MODELS, STAGE_BAKERS, TEXTURES,
+};
 
 const VERSION: &str = "v1.0.2";
 
@@ -140,8 +147,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_DeleteModel(
     _class: JClass,
     model: jlong,
 ) {
-    let mut models = MODELS.write().unwrap();
-    models.remove(&model);
+    // 在锁外释放模型，不阻塞其他线程对句柄表的访问
+    drop(MODELS.remove(model));
 }
 
 /// 更新模型
@@ -152,9 +159,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_UpdateModel(
     model: jlong,
     delta_time: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         // 更新动画（内部已包含物理更新）
         model.tick_animation(delta_time);
     }
@@ -171,10 +176,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetVertexCount(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .map(|m| m.lock().unwrap().vertex_count() as jlong)
+    MODELS
+        .lock(model)
+        .map(|m| m.vertex_count() as jlong)
         .unwrap_or(0)
 }
 
@@ -185,11 +189,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetPoss(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .map(|m| {
-            let mg = m.lock().unwrap();
+    MODELS
+        .lock(model)
+        .map(|mg| {
             if mg.update_positions_raw.is_empty() { 0 } else { mg.get_positions_ptr() as jlong }
         })
         .unwrap_or(0)
@@ -202,11 +204,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetNormals(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .map(|m| {
-            let mg = m.lock().unwrap();
+    MODELS
+        .lock(model)
+        .map(|mg| {
             if mg.update_normals_raw.is_empty() { 0 } else { mg.get_normals_ptr() as jlong }
         })
         .unwrap_or(0)
@@ -219,11 +219,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetUVs(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .map(|m| {
-            let mg = m.lock().unwrap();
+    MODELS
+        .lock(model)
+        .map(|mg| {
             if mg.update_uvs_raw.is_empty() { 0 } else { mg.get_uvs_ptr() as jlong }
         })
         .unwrap_or(0)
@@ -250,10 +248,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetIndexCount(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .map(|m| m.lock().unwrap().index_count() as jlong)
+    MODELS
+        .lock(model)
+        .map(|m| m.index_count() as jlong)
         .unwrap_or(0)
 }
 
@@ -264,10 +261,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetIndices(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .map(|m| m.lock().unwrap().get_indices_ptr() as jlong)
+    MODELS
+        .lock(model)
+        .map(|m| m.get_indices_ptr() as jlong)
         .unwrap_or(0)
 }
 
@@ -282,10 +278,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialCount(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .map(|m| m.lock().unwrap().material_count() as jlong)
+    MODELS
+        .lock(model)
+        .map(|m| m.material_count() as jlong)
         .unwrap_or(0)
 }
 
@@ -297,9 +292,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialTex(
     model: jlong,
     pos: jlong,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let idx = pos as usize;
         if idx < model.materials.len() {
             let tex_idx = model.materials[idx].texture_index;
@@ -323,9 +316,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialSpTex(
     model: jlong,
     pos: jlong,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let idx = pos as usize;
         if idx < model.materials.len() {
             let env_idx = model.materials[idx].environment_index;
@@ -349,9 +340,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialToonTex(
     model: jlong,
     pos: jlong,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let idx = pos as usize;
         if idx < model.materials.len() {
             let toon_idx = model.materials[idx].toon_index;
@@ -380,9 +369,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialAmbient(
     model: jlong,
     pos: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let idx = pos as usize;
         if idx < model.materials.len() {
             let ambient = model.materials[idx].ambient;
@@ -410,9 +397,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialDiffuse(
     model: jlong,
     pos: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let idx = pos as usize;
         if idx < model.materials.len() {
             let diffuse = model.materials[idx].diffuse;
@@ -440,9 +425,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialSpecular(
     model: jlong,
     pos: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let idx = pos as usize;
         if idx < model.materials.len() {
             let specular = model.materials[idx].specular;
@@ -470,11 +453,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialSpecularPo
     model: jlong,
     pos: jlong,
 ) -> jfloat {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .and_then(|m| {
-            let model = m.lock().unwrap();
+    MODELS
+        .lock(model)
+        .and_then(|model| {
             model
                 .materials
                 .get(pos as usize)
@@ -491,11 +472,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialAlpha(
     model: jlong,
     pos: jlong,
 ) -> jfloat {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .and_then(|m| {
-            let model = m.lock().unwrap();
+    MODELS
+        .lock(model)
+        .and_then(|model| {
             model.materials.get(pos as usize).map(|mat| mat.diffuse.w)
         })
         .unwrap_or(1.0)
@@ -593,11 +572,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialBothFace(
     model: jlong,
     pos: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .and_then(|m| {
-            let model = m.lock().unwrap();
+    MODELS
+        .lock(model)
+        .and_then(|model| {
             model
                 .materials
                 .get(pos as usize)
@@ -618,10 +595,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetSubMeshCount(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .map(|m| m.lock().unwrap().submesh_count() as jlong)
+    MODELS
+        .lock(model)
+        .map(|m| m.submesh_count() as jlong)
         .unwrap_or(0)
 }
 
@@ -633,9 +609,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetSubMeshMaterialID(
     model: jlong,
     pos: jlong,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let idx = pos as usize;
         if idx < model.submeshes.len() {
             return model.submeshes[idx].material_id;
@@ -652,9 +626,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetSubMeshBeginIndex(
     model: jlong,
     pos: jlong,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let idx = pos as usize;
         if idx < model.submeshes.len() {
             return model.submeshes[idx].begin_index as jint;
@@ -671,9 +643,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetSubMeshVertexCount
     model: jlong,
     pos: jlong,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let idx = pos as usize;
         if idx < model.submeshes.len() {
             return model.submeshes[idx].index_count as jint;
@@ -696,13 +666,10 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ChangeModelAnim(
     anim: jlong,
     layer: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    let animations = ANIMATIONS.read().unwrap();
+    let anim_opt = ANIMATIONS.read().unwrap().get(&anim).cloned();
 
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         let layer_id = layer as usize;
-        let anim_opt = animations.get(&anim).cloned();
         model.set_layer_animation(layer_id, anim_opt);
         model.play_layer(layer_id);
     }
@@ -715,9 +682,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ResetModelPhysics(
     _class: JClass,
     model: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.reset_physics();
     }
 }
@@ -738,6 +703,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_LoadAnimation(
     match VmdFile::load(&filename_str) {
         Ok(vmd) => {
             let animation = VmdAnimation::from_vmd_file(vmd);
+            animation.prepare_pose_cache();
             register_animation(animation)
         }
         Err(e) => {
@@ -773,6 +739,48 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_HasCameraData(
     }
 }
 
+/// 探测 VMD 文件各段关键帧数量（只读头部与段计数，不创建动画句柄）
+/// 缓冲区布局：bone_keyframes, morph_keyframes, camera_keyframes（3 × i32）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ProbeVmdFile(
+    mut env: JNIEnv,
+    _class: JClass,
+    filename: JString,
+    buffer: JByteBuffer,
+) -> jboolean {
+    let filename_str: String = match env.get_string(&filename) {
+        Ok(s) => s.into(),
+        Err(_) => return 0,
+    };
+
+    // 先校验输出缓冲区，避免无效调用也打开并解析文件
+    let dst = match env.get_direct_buffer_address(&buffer) {
+        Ok(p) => p,
+        Err(_) => return 0,
+    };
+    let capacity = env.get_direct_buffer_capacity(&buffer).unwrap_or(0);
+    if capacity < 12 {
+        log::error!("ProbeVmdFile: 缓冲区容量 {} < 12 字节", capacity);
+        return 0;
+    }
+
+    let counts = match VmdSectionCounts::probe(&filename_str) {
+        Ok(c) => c,
+        Err(e) => {
+            log::warn!("VMD 探测失败 {}: {}", filename_str, e);
+            return 0;
+        }
+    };
+
+    unsafe {
+        let ptr = dst as *mut i32;
+        *ptr.add(0) = counts.bone_keyframes as i32;
+        *ptr.add(1) = counts.morph_keyframes as i32;
+        *ptr.add(2) = counts.camera_keyframes as i32;
+    }
+    1
+}
+
 /// 获取动画最大帧数（包含相机轨道）
 #[no_mangle]
 pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetAnimMaxFrame(
@@ -861,7 +869,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_HasMorphData(
 }
 
 /// 将 source 动画的骨骼和 Morph 数据合并到 target 动画中
-/// 实现方式：克隆 target → 合并 source → 替换回 HashMap
+/// target 仅由句柄表持有时原地修改；已被模型层引用时写时复制，不影响正在播放的动画
 #[no_mangle]
 pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_MergeAnimation(
     _env: JNIEnv,
@@ -869,21 +877,59 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_MergeAnimation(
     target: jlong,
     source: jlong,
 ) {
-    // 先读取并克隆两个动画，避免借用冲突
-    let (target_clone, source_ref) = {
-        let animations = ANIMATIONS.read().unwrap();
-        let t = animations.get(&target).cloned();
-        let s = animations.get(&source).cloned();
-        (t, s)
+    if target == source {
+        return;
+    }
+    // 短暂持锁取出 target、克隆 source 引用，合并期间不持有全局锁
+    let (target_arc, source_arc) = {
+        let mut animations = ANIMATIONS.write().unwrap();
+        let source_arc = match animations.get(&source) {
+            Some(s) => s.clone(),
+            None => return,
+        };
+        match animations.remove(&target) {
+            Some(t) => (t, source_arc),
+            None => return,
+        }
     };
+    merge_unlocked(target, target_arc, |anim| anim.merge(&source_arc));
+}
 
-    if let (Some(target_arc), Some(source_arc)) = (target_clone, source_ref) {
-        let mut merged = (*target_arc).clone();
-        merged.merge(&source_arc);
-        // 写回 HashMap，替换原 target
-        let mut animations = ANIMATIONS.write().unwrap();
-        animations.insert(target, Arc::new(merged));
+/// 合并动画并释放 source 句柄
+/// source 没有其他持有者时关键帧按移动转交，不产生任何克隆
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_MergeAnimationMove(
+    _env: JNIEnv,
+    _class: JClass,
+    target: jlong,
+    source: jlong,
+) {
+    if target == source {
+        return;
     }
+    // 同一次短暂持锁内取出 target 并移除 source
+    let (target_arc, source_arc) = {
+        let mut animations = ANIMATIONS.write().unwrap();
+        if !animations.contains_key(&target) || !animations.contains_key(&source) {
+            return;
+        }
+        (animations.remove(&target).unwrap(), animations.remove(&source).unwrap())
+    };
+    merge_unlocked(target, target_arc, |anim| match Arc::try_unwrap(source_arc) {
+        Ok(owned) => anim.merge_from(owned),
+        Err(shared) => anim.merge(&shared),
+    });
+}
+
+/// 在不持有句柄表锁的情况下合并，完成后放回 target
+///
+/// 合并期间 target 句柄暂时不在表中（合并目标由舞台准备线程独占，尚未交给模型层），
+/// 渲染线程的其他动画查询不会被多文件合并阻塞；Arc::make_mut 的写时复制同样在锁外进行。
+fn merge_unlocked(target: i64, mut target_arc: Arc<VmdAnimation>, merge: impl FnOnce(&mut VmdAnimation)) {
+    merge(Arc::make_mut(&mut target_arc));
+    // 合并清空了姿态缓存，在舞台准备线程重新采样
+    target_arc.prepare_pose_cache();
+    ANIMATIONS.write().unwrap().insert(target, target_arc);
 }
 
 /// 设置模型全局变换（用于人物移动时传递位置给物理系统）
@@ -898,9 +944,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetModelTransform(
     m20: jfloat, m21: jfloat, m22: jfloat, m23: jfloat,
     m30: jfloat, m31: jfloat, m32: jfloat, m33: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         let transform = glam::Mat4::from_cols_array(&[
             m00, m01, m02, m03,
             m10, m11, m12, m13,
@@ -924,9 +968,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetModelPositionAndYa
     pos_z: jfloat,
     yaw: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.set_model_position_and_yaw(pos_x, pos_y, pos_z, yaw);
     }
 }
@@ -942,9 +984,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetHeadAngle(
     head_z: jfloat,
     _is_head_in_sync: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.set_head_angle(head_x, head_y, head_z);
     }
 }
@@ -960,9 +1000,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetEyeAngle(
     eye_x: jfloat,
     eye_y: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.set_eye_angle(eye_x, eye_y);
     }
 }
@@ -976,9 +1014,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetEyeMaxAngle(
     model: jlong,
     max_angle: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.set_eye_max_angle(max_angle);
     }
 }
@@ -991,9 +1027,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetEyeTrackingEnabled
     model: jlong,
     enabled: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.set_eye_tracking_enabled(enabled != 0);
     }
 }
@@ -1005,11 +1039,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsEyeTrackingEnabled(
     _class: JClass,
     model: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .map(|m| {
-            let model = m.lock().unwrap();
+    MODELS
+        .lock(model)
+        .map(|model| {
             if model.is_eye_tracking_enabled() { 1u8 } else { 0u8 }
         })
         .unwrap_or(0u8)
@@ -1023,9 +1055,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetAutoBlinkEnabled(
     model: jlong,
     enabled: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.set_auto_blink_enabled(enabled != 0);
     }
 }
@@ -1037,11 +1067,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsAutoBlinkEnabled(
     _class: JClass,
     model: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .map(|m| {
-            let model = m.lock().unwrap();
+    MODELS
+        .lock(model)
+        .map(|model| {
             if model.is_auto_blink_enabled() { 1u8 } else { 0u8 }
         })
         .unwrap_or(0u8)
@@ -1058,9 +1086,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetBlinkParams(
     interval: jfloat,
     duration: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.set_blink_params(interval, duration);
     }
 }
@@ -1078,9 +1104,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_PlayLayer(
     model: jlong,
     layer: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.play_layer(layer as usize);
     }
 }
@@ -1094,9 +1118,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_StopLayer(
     model: jlong,
     layer: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.stop_layer(layer as usize);
     }
 }
@@ -1110,9 +1132,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_PauseLayer(
     model: jlong,
     layer: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.pause_layer(layer as usize);
     }
 }
@@ -1126,9 +1146,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ResumeLayer(
     model: jlong,
     layer: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.resume_layer(layer as usize);
     }
 }
@@ -1144,9 +1162,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetLayerWeight(
     layer: jlong,
     weight: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.set_layer_weight(layer as usize, weight);
     }
 }
@@ -1162,9 +1178,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetLayerSpeed(
     layer: jlong,
     speed: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.set_layer_speed(layer as usize, speed);
     }
 }
@@ -1180,9 +1194,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SeekLayer(
     layer: jlong,
     frame: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.seek_layer(layer as usize, frame);
     }
 }
@@ -1200,9 +1212,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetLayerFadeTimes(
     fade_in: jfloat,
     fade_out: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.set_layer_fade_times(layer as usize, fade_in, fade_out);
     }
 }
@@ -1225,16 +1235,13 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_TransitionLayerTo(
     animation: jlong,
     transition_time: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    let animations = ANIMATIONS.read().unwrap();
+    let anim = if animation != 0 {
+        ANIMATIONS.read().unwrap().get(&animation).cloned()
+    } else {
+        None
+    };
     
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
-        let anim = if animation != 0 {
-            animations.get(&animation).cloned()
-        } else {
-            None
-        };
+    if let Some(mut model) = MODELS.lock(model) {
         model.transition_layer_to(layer as usize, anim, transition_time);
     }
 }
@@ -1248,14 +1255,38 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetLayerMaxFrame(
     model: jlong,
     layer: jlong,
 ) -> jfloat {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         return model.get_layer_max_frame(layer as usize) as jfloat;
     }
     0.0
 }
 
+/// 获取动画层当前帧（用于与外部时钟对齐）
+/// layer: 动画层ID（0-3）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetLayerFrame(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    layer: jlong,
+) -> jfloat {
+    if let Some(model) = MODELS.lock(model) {
+        return model.get_layer_frame(layer as usize);
+    }
+    0.0
+}
+
+/// 设置循环动画是否使用预采样姿态缓存（全局，下一帧生效）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPoseCacheEnabled(
+    _env: JNIEnv,
+    _class: JClass,
+    enabled: jboolean,
+) {
+    crate::animation::pose_cache::set_enabled(enabled != 0);
+    log::info!("[动画配置] 姿态缓存: {}", enabled != 0);
+}
+
 // ============================================================================
 // 纹理相关函数
 // ============================================================================
@@ -1347,17 +1378,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_TextureHasAlpha(
 // ============================================================================
 
 use once_cell::sync::Lazy;
-use std::sync::Mutex;
-
-/// 矩阵存储（使用 HashMap + ID，避免 Vec 扩容导致指针失效）
-static MATRICES: Lazy<Mutex<std::collections::HashMap<i64, glam::Mat4>>> = Lazy::new(|| Mutex::new(std::collections::HashMap::new()));
 
-/// 矩阵 ID 计数器
-fn next_matrix_id() -> i64 {
-    use std::sync::atomic::{AtomicI64, Ordering};
-    static MAT_COUNTER: AtomicI64 = AtomicI64::new(1);
-    MAT_COUNTER.fetch_add(1, Ordering::SeqCst)
-}
+/// 矩阵存储（代际句柄表，每个矩阵独立加锁）
+static MATRICES: Lazy<HandleRegistry<glam::Mat4>> = Lazy::new(HandleRegistry::new);
 
 /// 创建矩阵
 #[no_mangle]
@@ -1365,10 +1388,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CreateMat(
     _env: JNIEnv,
     _class: JClass,
 ) -> jlong {
-    let id = next_matrix_id();
-    let mut matrices = MATRICES.lock().unwrap();
-    matrices.insert(id, glam::Mat4::IDENTITY);
-    id
+    MATRICES.insert(glam::Mat4::IDENTITY)
 }
 
 /// 删除矩阵
@@ -1378,8 +1398,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_DeleteMat(
     _class: JClass,
     mat: jlong,
 ) {
-    let mut matrices = MATRICES.lock().unwrap();
-    matrices.remove(&mat);
+    MATRICES.remove(mat);
 }
 
 /// 将矩阵数据复制到 ByteBuffer（64 字节 = 16 floats）
@@ -1390,8 +1409,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyMatToBuffer(
     mat: jlong,
     buffer: JByteBuffer,
 ) -> jboolean {
-    let matrices = MATRICES.lock().unwrap();
-    if let Some(m) = matrices.get(&mat) {
+    if let Some(m) = MATRICES.get(mat) {
         let dst = match env.get_direct_buffer_address(&buffer) {
             Ok(p) => p,
             Err(_) => return 0,
@@ -1402,7 +1420,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyMatToBuffer(
             return 0;
         }
         unsafe {
-            let src = m as *const glam::Mat4 as *const u8;
+            let src = &m as *const glam::Mat4 as *const u8;
             ptr::copy_nonoverlapping(src, dst, 64);
         }
         return 1;
@@ -1418,16 +1436,12 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetRightHandMat(
     model: jlong,
     mat: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model_guard = model_arc.lock().unwrap();
-        let hand_mat = model_guard.get_right_hand_matrix();
-        drop(model_guard);
-        drop(models);
-        let mut matrices = MATRICES.lock().unwrap();
-        if let Some(m) = matrices.get_mut(&mat) {
-            *m = hand_mat;
-        }
+    let hand_mat = match MODELS.lock(model) {
+        Some(model) => model.get_right_hand_matrix(),
+        None => return,
+    };
+    if let Some(mut m) = MATRICES.lock(mat) {
+        *m = hand_mat;
     }
 }
 
@@ -1439,16 +1453,12 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetLeftHandMat(
     model: jlong,
     mat: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model_guard = model_arc.lock().unwrap();
-        let hand_mat = model_guard.get_left_hand_matrix();
-        drop(model_guard);
-        drop(models);
-        let mut matrices = MATRICES.lock().unwrap();
-        if let Some(m) = matrices.get_mut(&mat) {
-            *m = hand_mat;
-        }
+    let hand_mat = match MODELS.lock(model) {
+        Some(model) => model.get_left_hand_matrix(),
+        None => return,
+    };
+    if let Some(mut m) = MATRICES.lock(mat) {
+        *m = hand_mat;
     }
 }
 
@@ -1463,9 +1473,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_InitPhysics(
     _class: JClass,
     model: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         if model.init_physics() {
             return 1;
         }
@@ -1480,9 +1488,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ResetPhysics(
     _class: JClass,
     model: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.reset_physics();
     }
 }
@@ -1495,9 +1501,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsEnabled(
     model: jlong,
     enabled: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.set_physics_enabled(enabled != 0);
     }
 }
@@ -1509,9 +1513,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsPhysicsEnabled(
     _class: JClass,
     model: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         if model.is_physics_enabled() {
             return 1;
         }
@@ -1526,9 +1528,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_HasPhysics(
     _class: JClass,
     model: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         if model.has_physics() {
             return 1;
         }
@@ -1543,9 +1543,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetPhysicsDebugInfo(
     _class: JClass,
     model: jlong,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let debug_info = model.get_physics_debug_info();
         if let Ok(s) = env.new_string(&debug_info) {
             return s.into_raw();
@@ -1568,9 +1566,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsMaterialVisible(
     model: jlong,
     index: jint,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         if model.is_material_visible(index as usize) { 1 } else { 0 }
     } else {
         1 // 默认可见
@@ -1586,9 +1582,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetMaterialVisible(
     index: jint,
     visible: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.set_material_visible(index as usize, visible != 0);
     }
 }
@@ -1606,9 +1600,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetMaterialVisibleByN
         Ok(s) => s.into(),
         Err(_) => return 0,
     };
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.set_material_visible_by_name(&name_str, visible != 0) as jint
     } else {
         0
@@ -1623,9 +1615,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetAllMaterialsVisibl
     model: jlong,
     visible: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.set_all_materials_visible(visible != 0);
     }
 }
@@ -1638,9 +1628,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialName(
     model: jlong,
     index: jint,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         if let Some(name) = model.get_material_name(index as usize) {
             if let Ok(s) = env.new_string(name) {
                 return s.into_raw();
@@ -1659,9 +1647,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialNames(
     _class: JClass,
     model: jlong,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let names = model.get_material_names();
         // 构建简单的 JSON 数组
         let json = format!("[{}]", 
@@ -1690,10 +1676,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetBoneCount(
     _class: JClass,
     model: jlong,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .map(|m| m.lock().unwrap().bone_manager.bone_count() as jint)
+    MODELS
+        .lock(model)
+        .map(|m| m.bone_manager.bone_count() as jint)
         .unwrap_or(0)
 }
 
@@ -1705,9 +1690,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetSkinningMatrices(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let matrices = model.bone_manager.get_skinning_matrices();
         if !matrices.is_empty() {
             return matrices.as_ptr() as jlong;
@@ -1724,9 +1707,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopySkinningMatricesT
     model: jlong,
     buffer: JByteBuffer,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let matrices = model.bone_manager.get_skinning_matrices();
         if matrices.is_empty() {
             return 0;
@@ -1759,9 +1740,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetBoneIndices(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let ptr = model.get_bone_indices_ptr();
         if ptr.is_null() { return 0; }
         return ptr as jlong;
@@ -1778,9 +1757,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyBoneIndicesToBuff
     buffer: JByteBuffer,
     vertex_count: jint,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let ptr = model.get_bone_indices_ptr();
         if ptr.is_null() {
             return 0;
@@ -1812,9 +1789,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetBoneWeights(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let ptr = model.get_bone_weights_ptr();
         if ptr.is_null() { return 0; }
         return ptr as jlong;
@@ -1831,9 +1806,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyBoneWeightsToBuff
     buffer: JByteBuffer,
     vertex_count: jint,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let ptr = model.get_bone_weights_ptr();
         if ptr.is_null() {
             return 0;
@@ -1865,9 +1838,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetOriginalPositions(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let ptr = model.get_original_positions_ptr();
         if ptr.is_null() { return 0; }
         return ptr as jlong;
@@ -1884,9 +1855,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyOriginalPositions
     buffer: JByteBuffer,
     vertex_count: jint,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let ptr = model.get_original_positions_ptr();
         if ptr.is_null() {
             return 0;
@@ -1918,9 +1887,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetOriginalNormals(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let ptr = model.get_original_normals_ptr();
         if ptr.is_null() { return 0; }
         return ptr as jlong;
@@ -1937,9 +1904,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyOriginalNormalsTo
     buffer: JByteBuffer,
     vertex_count: jint,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let ptr = model.get_original_normals_ptr();
         if ptr.is_null() {
             return 0;
@@ -1971,9 +1936,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetGpuSkinningDebugIn
     _class: JClass,
     model: jlong,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         
         let vertex_count = model.vertices.len();
         let bone_count = model.bone_manager.bone_count();
@@ -2048,9 +2011,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_UpdateAnimationOnly(
     model: jlong,
     delta_time: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.tick_animation_no_skinning(delta_time);
     }
 }
@@ -2062,9 +2023,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_InitGpuSkinningData(
     _class: JClass,
     model: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.init_gpu_skinning_data();
     }
 }
@@ -2080,9 +2039,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_InitGpuMorphData(
     _class: JClass,
     model: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.init_gpu_morph_data();
     }
 }
@@ -2094,10 +2051,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetVertexMorphCount(
     _class: JClass,
     model: jlong,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .map(|m| m.lock().unwrap().get_vertex_morph_count() as jint)
+    MODELS
+        .lock(model)
+        .map(|m| m.get_vertex_morph_count() as jint)
         .unwrap_or(0)
 }
 
@@ -2108,9 +2064,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetGpuMorphOffsets(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         return model.get_gpu_morph_offsets_ptr() as jlong;
     }
     0
@@ -2123,10 +2077,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetGpuMorphOffsetsSiz
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .map(|m| m.lock().unwrap().get_gpu_morph_offsets_size() as jlong)
+    MODELS
+        .lock(model)
+        .map(|m| m.get_gpu_morph_offsets_size() as jlong)
         .unwrap_or(0)
 }
 
@@ -2137,9 +2090,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetGpuMorphWeights(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         return model.get_gpu_morph_weights_ptr() as jlong;
     }
     0
@@ -2152,9 +2103,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SyncGpuMorphWeights(
     _class: JClass,
     model: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.sync_gpu_morph_weights();
     }
 }
@@ -2167,9 +2116,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyGpuMorphOffsetsTo
     model: jlong,
     buffer: JByteBuffer,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let size = model.get_gpu_morph_offsets_size();
         if size == 0 {
             return 0;
@@ -2201,9 +2148,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyGpuMorphWeightsTo
     model: jlong,
     buffer: JByteBuffer,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let morph_count = model.get_vertex_morph_count();
         if morph_count == 0 {
             return 0;
@@ -2235,9 +2180,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsGpuMorphInitialized
     _class: JClass,
     model: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         if model.is_gpu_morph_initialized() {
             return 1;
         }
@@ -2271,9 +2214,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ApplyVpdMorph(
         Err(_) => return -1,
     };
     
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         
         match VpdFile::load(&filename_str) {
             Ok(vpd) => {
@@ -2318,9 +2259,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ResetAllMorphs(
     _class: JClass,
     model: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.morph_manager.reset_all_weights();
         model.clear_vpd_bone_overrides();
         model.sync_gpu_morph_weights();
@@ -2341,9 +2280,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetMorphWeightByName(
         Err(_) => return 0,
     };
     
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         if let Some(idx) = model.morph_manager.find_morph_by_name(&name_str) {
             model.morph_manager.set_morph_weight(idx, weight);
             model.sync_gpu_morph_weights();
@@ -2360,9 +2297,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMorphCount(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         return model.morph_manager.morph_count() as jlong;
     }
     0
@@ -2376,9 +2311,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMorphName(
     model: jlong,
     index: jint,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         if let Some(morph) = model.morph_manager.get_morph(index as usize) {
             if let Ok(s) = env.new_string(&morph.name) {
                 return s.into_raw();
@@ -2396,9 +2329,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMorphWeight(
     model: jlong,
     index: jint,
 ) -> jfloat {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         if let Some(morph) = model.morph_manager.get_morph(index as usize) {
             return morph.weight;
         }
@@ -2415,9 +2346,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetMorphWeight(
     index: jint,
     weight: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.morph_manager.set_morph_weight(index as usize, weight);
     }
 }
@@ -2433,9 +2362,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_InitGpuUvMorphData(
     _class: JClass,
     model: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.init_gpu_uv_morph_data();
     }
 }
@@ -2447,10 +2374,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetUvMorphCount(
     _class: JClass,
     model: jlong,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .map(|m| m.lock().unwrap().get_uv_morph_count() as jint)
+    MODELS
+        .lock(model)
+        .map(|m| m.get_uv_morph_count() as jint)
         .unwrap_or(0)
 }
 
@@ -2461,10 +2387,22 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetGpuUvMorphOffsetsS
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
-        .map(|m| m.lock().unwrap().get_gpu_uv_morph_offsets_size() as jlong)
+    MODELS
+        .lock(model)
+        .map(|m| m.get_gpu_uv_morph_offsets_size() as jlong)
+        .unwrap_or(0)
+}
+
+/// 获取 GPU UV Morph 偏移数据指针（密集格式：uv_morph_count * vertex_count * 2）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetGpuUvMorphOffsets(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+) -> jlong {
+    MODELS
+        .lock(model)
+        .map(|m| m.get_gpu_uv_morph_offsets_ptr() as jlong)
         .unwrap_or(0)
 }
 
@@ -2476,9 +2414,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyGpuUvMorphOffsets
     model: jlong,
     buffer: JByteBuffer,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let size = model.get_gpu_uv_morph_offsets_size();
         if size == 0 {
             return 0;
@@ -2510,9 +2446,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyGpuUvMorphWeights
     model: jlong,
     buffer: JByteBuffer,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         let morph_count = model.get_uv_morph_count();
         if morph_count == 0 {
             return 0;
@@ -2548,9 +2482,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialMorphResul
     _class: JClass,
     model: jlong,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         return model.get_material_morph_result_count() as jint;
     }
     0
@@ -2569,9 +2501,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyMaterialMorphResu
     model: jlong,
     buffer: JByteBuffer,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         let result_count = model.get_material_morph_result_count();
         let flat = model.get_material_morph_results_flat();
         if flat.is_empty() {
@@ -2633,7 +2563,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsConfig(
     joints_enabled: jboolean,
     debug_log: jboolean,
 ) {
-    use crate::physics::config::{PhysicsConfig, set_config};
+    use crate::physics::config::{PhysicsConfig, get_config, set_config};
     
     // 旧参数映射：
     // - linear_spring_stiffness_scale → spring_stiffness_scale
@@ -2654,6 +2584,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsConfig(
         max_angular_velocity,
         joints_enabled: joints_enabled != 0,
         debug_log: debug_log != 0,
+        // 休眠/LOD 与模拟线程模式由单独的接口设置，这里保持不变
+        ..get_config()
     };
     
     set_config(config);
@@ -2666,6 +2598,76 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsConfig(
     }
 }
 
+/// 设置物理是否在独立线程中以固定步长模拟（已加载的模型在下一次更新时切换）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsAsyncSimulation(
+    _env: JNIEnv,
+    _class: JClass,
+    enabled: jboolean,
+) {
+    use crate::physics::config::{get_config, set_config};
+
+    let mut config = get_config();
+    config.async_simulation = enabled != 0;
+    set_config(config);
+    log::info!("[物理配置] 独立线程模拟: {}", enabled != 0);
+}
+
+/// 设置是否让所有模型共享一个物理世界（已加载的模型在下一次更新时重建到对应世界）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsSharedWorld(
+    _env: JNIEnv,
+    _class: JClass,
+    enabled: jboolean,
+) {
+    use crate::physics::config::{get_config, set_config};
+
+    let mut config = get_config();
+    config.shared_world = enabled != 0;
+    set_config(config);
+    log::info!("[物理配置] 共享物理世界: {}", enabled != 0);
+}
+
+/// 设置物理休眠检测与距离 LOD 参数
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsSleepLodConfig(
+    _env: JNIEnv,
+    _class: JClass,
+    sleep_enabled: jboolean,
+    sleep_linear_velocity: jfloat,
+    sleep_angular_velocity: jfloat,
+    lod_near_distance: jfloat,
+    lod_far_distance: jfloat,
+) {
+    use crate::physics::config::{get_config, set_config};
+
+    let mut config = get_config();
+    config.sleep_enabled = sleep_enabled != 0;
+    config.sleep_linear_velocity = sleep_linear_velocity.max(0.0);
+    config.sleep_angular_velocity = sleep_angular_velocity.max(0.0);
+    config.lod_near_distance = lod_near_distance.max(0.0);
+    config.lod_far_distance = lod_far_distance.max(config.lod_near_distance);
+    if config.debug_log {
+        log::info!("[物理配置] 休眠={}, 阈值={}/{}, LOD 距离={}/{}",
+            config.sleep_enabled, config.sleep_linear_velocity, config.sleep_angular_velocity,
+            config.lod_near_distance, config.lod_far_distance);
+    }
+    set_config(config);
+}
+
+/// 设置模型与相机的距离（方块），用于物理 LOD
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsLodDistance(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    distance: jfloat,
+) {
+    if let Some(mut model) = MODELS.lock(model) {
+        model.set_physics_lod_distance(distance);
+    }
+}
+
 // ========== 第一人称模式相关 ==========
 
 /// 设置第一人称模式（启用时自动隐藏头部子网格，禁用时恢复）
@@ -2676,9 +2678,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetFirstPersonMode(
     model: jlong,
     enabled: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.set_first_person_mode(enabled != 0);
     }
 }
@@ -2690,9 +2690,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsFirstPersonMode(
     _class: JClass,
     model: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         if model.is_first_person_enabled() { 1 } else { 0 }
     } else {
         0
@@ -2706,9 +2704,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetHeadBonePositionY(
     _class: JClass,
     model: jlong,
 ) -> jfloat {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         model.get_head_bone_rest_position_y()
     } else {
         0.0
@@ -2726,15 +2722,129 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetEyeBonePosition(
     model: jlong,
     out: jni::objects::JFloatArray,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
+    if let Some(mut model) = MODELS.lock(model) {
         let pos = model.get_eye_bone_animated_position();
         let buf: [f32; 3] = [pos.x, pos.y, pos.z];
         let _ = env.set_float_array_region(&out, 0, &buf);
     }
 }
 
+// ============================================================================
+// 每帧模型命令缓冲
+// ============================================================================
+
+/// 批量应用模型帧输入、更新模型并写回输出（布局见 frame_commands 模块）
+/// 返回句柄有效的记录数量
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_UpdateModelFrames(
+    env: JNIEnv,
+    _class: JClass,
+    buffer: JByteBuffer,
+    count: jint,
+) -> jint {
+    if count <= 0 {
+        return 0;
+    }
+    let ptr = match env.get_direct_buffer_address(&buffer) {
+        Ok(p) => p,
+        Err(_) => return 0,
+    };
+    let capacity = match env.get_direct_buffer_capacity(&buffer) {
+        Ok(c) => c,
+        Err(_) => return 0,
+    };
+    let bytes = unsafe { std::slice::from_raw_parts_mut(ptr, capacity) };
+    frame_commands::process_records(bytes, count as usize) as jint
+}
+
+/// 设置是否启用分阶段帧耗时统计（开启时清空旧数据）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetFrameProfilerEnabled(
+    _env: JNIEnv,
+    _class: JClass,
+    enabled: jboolean,
+) {
+    crate::model::frame_profiler::set_enabled(enabled != 0);
+    log::info!("[帧耗时统计] {}", if enabled != 0 { "已启用" } else { "已关闭" });
+}
+
+/// 批量读取模型帧耗时统计汇总（布局见 frame_profiles 模块）
+/// 返回句柄有效的记录数量
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_FetchFrameProfiles(
+    env: JNIEnv,
+    _class: JClass,
+    buffer: JByteBuffer,
+    count: jint,
+) -> jint {
+    if count <= 0 {
+        return 0;
+    }
+    let ptr = match env.get_direct_buffer_address(&buffer) {
+        Ok(p) => p,
+        Err(_) => return 0,
+    };
+    let capacity = match env.get_direct_buffer_capacity(&buffer) {
+        Ok(c) => c,
+        Err(_) => return 0,
+    };
+    let bytes = unsafe { std::slice::from_raw_parts_mut(ptr, capacity) };
+    frame_profiles::fetch_records(bytes, count as usize) as jint
+}
+
+// ============================================================================
+// 内存统计
+// ============================================================================
+
+/// 获取模型持有的原生内存（字节），返回总量
+/// 异步/共享物理正在步进时不等待，物理一项沿用上次统计值
+/// out 长度不小于 5 时依次写入网格、运行时缓冲、Morph、骨骼、物理五类
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetModelMemoryUsage(
+    mut env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    out: jni::objects::JLongArray,
+) -> jlong {
+    let usage = match MODELS.lock(model) {
+        Some(model) => model.memory_usage(),
+        None => return 0,
+    };
+    if env.get_array_length(&out).unwrap_or(0) as usize >= CATEGORY_COUNT {
+        let _ = env.set_long_array_region(&out, 0, &usage.to_array());
+    }
+    usage.total() as jlong
+}
+
+/// 获取共享资源的原生内存（字节），返回总量
+/// out 长度不小于 3 时依次写入动画关键帧、姿态缓存、烘焙舞台三类（同一资源被多个句柄引用时只计一次）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetSharedMemoryUsage(
+    mut env: JNIEnv,
+    _class: JClass,
+    out: jni::objects::JLongArray,
+) -> jlong {
+    let mut usage = SharedAssetMemory::default();
+    {
+        let animations = ANIMATIONS.read().unwrap_or_else(|e| e.into_inner());
+        let mut seen = std::collections::HashSet::with_capacity(animations.len());
+        for animation in animations.values() {
+            if seen.insert(Arc::as_ptr(animation)) {
+                usage.animation += animation.heap_bytes();
+                usage.pose_cache += animation.pose_cache_bytes();
+            }
+        }
+    }
+    {
+        let stages = BAKED_STAGES.read().unwrap_or_else(|e| e.into_inner());
+        usage.baked_stage = stages.values().map(|stage| stage.heap_bytes()).sum();
+    }
+    if env.get_array_length(&out).unwrap_or(0) as usize >= SHARED_CATEGORY_COUNT {
+        let _ = env.set_long_array_region(&out, 0, &usage.to_array());
+    }
+    usage.total() as jlong
+}
+
 // ============================================================================
 // 批量子网格元数据（G3 优化）
 // ============================================================================
@@ -2760,9 +2870,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_BatchGetSubMeshData(
         std::slice::from_raw_parts_mut(out_ptr, out_cap)
     };
     
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         model.batch_get_sub_mesh_data(output) as jint
     } else {
         0
@@ -2825,9 +2933,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_BuildMCVertexBuffer(
     };
     
     // 调用模型方法构建顶点数据
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let model = model_arc.lock().unwrap();
+    if let Some(model) = MODELS.lock(model) {
         model.build_mc_vertex_buffer(
             sub_mesh_index as usize,
             output,
@@ -2841,3 +2947,263 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_BuildMCVertexBuffer(
         0
     }
 }
+
+// ============================================================================
+// 舞台烘焙
+// ============================================================================
+
+/// 创建舞台烘焙器（独立加载一份模型，不影响正在渲染的模型）
+///
+/// cameraAnim 为 0 时使用动作中的相机数据（如果有）。返回烘焙器句柄，失败返回 0。
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CreateStageBaker(
+    mut env: JNIEnv,
+    _class: JClass,
+    model_path: JString,
+    motion_anim: jlong,
+    camera_anim: jlong,
+    output_path: JString,
+    fps: jfloat,
+) -> jlong {
+    let model_path: String = match env.get_string(&model_path) {
+        Ok(s) => s.into(),
+        Err(_) => return 0,
+    };
+    let output_path: String = match env.get_string(&output_path) {
+        Ok(s) => s.into(),
+        Err(_) => return 0,
+    };
+    let (motion, camera) = {
+        let animations = ANIMATIONS.read().unwrap();
+        let motion = match animations.get(&motion_anim) {
+            Some(anim) => anim.clone(),
+            None => return 0,
+        };
+        let camera = animations.get(&camera_anim).cloned().unwrap_or_else(|| motion.clone());
+        (motion, camera)
+    };
+
+    let model = match load_pmx(&model_path) {
+        Ok(model) => model,
+        Err(e) => {
+            log::error!("CreateStageBaker: 加载模型失败: {}", e);
+            return 0;
+        }
+    };
+    match StageBaker::new(model, motion, Some(camera), std::path::Path::new(&output_path), fps) {
+        Ok(baker) => {
+            log::info!("[舞台烘焙] 开始: {} 帧 @ {} FPS -> {}", baker.frame_count(), fps, output_path);
+            STAGE_BAKERS.insert(baker)
+        }
+        Err(e) => {
+            log::error!("CreateStageBaker: 创建输出文件失败: {}", e);
+            0
+        }
+    }
+}
+
+/// 烘焙总帧数
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetStageBakerFrameCount(
+    _env: JNIEnv,
+    _class: JClass,
+    baker: jlong,
+) -> jint {
+    STAGE_BAKERS.lock(baker).map_or(0, |b| b.frame_count() as jint)
+}
+
+/// 推进烘焙最多 maxFrames 帧，返回累计已烘焙帧数（失败返回 -1）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_StepStageBaker(
+    _env: JNIEnv,
+    _class: JClass,
+    baker: jlong,
+    max_frames: jint,
+) -> jint {
+    match STAGE_BAKERS.lock(baker) {
+        Some(mut baker) => match baker.step(max_frames.max(0) as u32) {
+            Ok(done) => done as jint,
+            Err(e) => {
+                log::error!("StepStageBaker: 写入失败: {}", e);
+                -1
+            }
+        },
+        None => -1,
+    }
+}
+
+/// 完成烘焙：写入索引并关闭文件，同时释放烘焙器
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_FinishStageBaker(
+    _env: JNIEnv,
+    _class: JClass,
+    baker: jlong,
+) -> jboolean {
+    match STAGE_BAKERS.remove(baker) {
+        Some(baker) => match baker.finish() {
+            Ok(()) => 1,
+            Err(e) => {
+                log::error!("FinishStageBaker: 写入失败: {}", e);
+                0
+            }
+        },
+        None => 0,
+    }
+}
+
+/// 放弃烘焙：释放烘焙器并删除未完成的文件
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_DeleteStageBaker(
+    _env: JNIEnv,
+    _class: JClass,
+    baker: jlong,
+) {
+    if let Some(baker) = STAGE_BAKERS.remove(baker) {
+        baker.abort();
+    }
+}
+
+/// 加载烘焙舞台文件，失败返回 0
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_LoadBakedStage(
+    mut env: JNIEnv,
+    _class: JClass,
+    path: JString,
+) -> jlong {
+    let path: String = match env.get_string(&path) {
+        Ok(s) => s.into(),
+        Err(_) => return 0,
+    };
+    match BakedStage::open(std::path::Path::new(&path)) {
+        Ok(stage) => {
+            log::info!("[舞台烘焙] 已加载: {} 帧 @ {} FPS, 帧数据 {:.1} MB",
+                stage.header().frame_count, stage.header().fps,
+                stage.compressed_bytes() as f64 / 1024.0 / 1024.0);
+            register_baked_stage(stage)
+        }
+        Err(e) => {
+            log::warn!("LoadBakedStage: {}: {}", path, e);
+            0
+        }
+    }
+}
+
+/// 释放烘焙舞台（已挂载的模型继续持有，直到卸载）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_DeleteBakedStage(
+    _env: JNIEnv,
+    _class: JClass,
+    stage: jlong,
+) {
+    BAKED_STAGES.write().unwrap_or_else(|e| e.into_inner()).remove(&stage);
+}
+
+/// 烘焙舞台总长度（VMD 帧）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetBakedStageMaxFrame(
+    _env: JNIEnv,
+    _class: JClass,
+    stage: jlong,
+) -> jfloat {
+    let stages = BAKED_STAGES.read().unwrap_or_else(|e| e.into_inner());
+    stages.get(&stage).map_or(0.0, |s| s.max_frame())
+}
+
+/// 烘焙舞台是否包含相机轨道
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_BakedStageHasCamera(
+    _env: JNIEnv,
+    _class: JClass,
+    stage: jlong,
+) -> jboolean {
+    let stages = BAKED_STAGES.read().unwrap_or_else(|e| e.into_inner());
+    stages.get(&stage).map_or(0, |s| s.has_camera() as jboolean)
+}
+
+/// 获取烘焙相机变换（缓冲区布局与 GetCameraTransform 相同）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetBakedCameraTransform(
+    env: JNIEnv,
+    _class: JClass,
+    stage: jlong,
+    frame: jfloat,
+    buffer: JByteBuffer,
+) {
+    let stages = BAKED_STAGES.read().unwrap_or_else(|e| e.into_inner());
+    let words = match stages.get(&stage).and_then(|s| s.camera_words(frame)) {
+        Some(words) => words,
+        None => return,
+    };
+    let dst = match env.get_direct_buffer_address(&buffer) {
+        Ok(p) => p,
+        Err(_) => return,
+    };
+    let capacity = env.get_direct_buffer_capacity(&buffer).unwrap_or(0);
+    if capacity < words.len() * 4 {
+        log::error!("GetBakedCameraTransform: 缓冲区容量 {} < {} 字节", capacity, words.len() * 4);
+        return;
+    }
+    unsafe {
+        ptr::copy_nonoverlapping(words.as_ptr(), dst as *mut u32, words.len());
+    }
+}
+
+/// 把烘焙舞台挂载到模型（stage 为 0 时卸载），模型结构不一致时返回 false
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_AttachBakedStage(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    stage: jlong,
+    transition_time: jfloat,
+) -> jboolean {
+    let baked = if stage == 0 {
+        None
+    } else {
+        match BAKED_STAGES.read().unwrap_or_else(|e| e.into_inner()).get(&stage) {
+            Some(s) => Some(s.clone()),
+            None => return 0,
+        }
+    };
+    match MODELS.lock(model) {
+        Some(mut model) => model.attach_baked_stage(baked, transition_time) as jboolean,
+        None => 0,
+    }
+}
+
+// ============================================================================
+// 模型缩略图
+// ============================================================================
+
+/// 解析模型并用软件光栅化生成缩略图 PNG（不创建模型句柄、不初始化物理、不使用 GL，可在任意线程调用）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_RenderModelThumbnail(
+    mut env: JNIEnv,
+    _class: JClass,
+    model_path: JString,
+    output_path: JString,
+    size: jint,
+) -> jboolean {
+    let model_path: String = match env.get_string(&model_path) {
+        Ok(s) => s.into(),
+        Err(_) => return 0,
+    };
+    let output_path: String = match env.get_string(&output_path) {
+        Ok(s) => s.into(),
+        Err(_) => return 0,
+    };
+    let model = match load_pmx(&model_path) {
+        Ok(model) => model,
+        Err(e) => {
+            log::error!("RenderModelThumbnail: 加载模型失败: {}", e);
+            return 0;
+        }
+    };
+    match save_thumbnail(&model, size.clamp(16, 1024) as u32, &output_path) {
+        Ok(()) => 1,
+        Err(e) => {
+            log::error!("RenderModelThumbnail: {}", e);
+            0
+        }
+    }
+}
@@ -15,8 +15,14 @@ pub mod morph;
 pub mod physics;
 pub mod skeleton;
 pub mod skinning;
+pub mod stage;
+#[cfg(any(test, feature = "bench"))]
+pub mod synthetic;
 pub mod texture;
 
+#[cfg(test)]
+mod test_alloc;
+
 pub use animation::{VmdAnimation, VmdFile};
 pub use model::MmdModel;
 pub use morph::{Morph, MorphManager};
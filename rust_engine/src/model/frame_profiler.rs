@@ -0,0 +1,252 @@
+//! 每模型分阶段帧耗时统计
+//!
+//! 记录每个模型每帧各阶段的耗时（动画求值、Morph、骨骼、IK、物理、CPU 蒙皮，以及 Java 侧回传的
+//! 拷贝、上传、计算着色器派发、绘制），保留最近 [`WINDOW`] 帧的滚动窗口，按需汇总为均值与分位数。
+//!
+//! 默认关闭：关闭时每帧只读取一次原子标志，不调用计时函数、不占用窗口内存。
+//! 每次开启都会清空所有模型的旧数据（按代数判断，无需遍历模型）。
+
+use std::sync::atomic::{AtomicBool, AtomicU32, Ordering};
+use std::time::Instant;
+
+/// 滚动窗口帧数
+pub const WINDOW: usize = 240;
+
+/// 统计阶段
+#[derive(Debug, Clone, Copy, PartialEq, Eq)]
+#[repr(usize)]
+pub enum Stage {
+    /// 整个 tick_animation（含以下原生阶段与未归类的开销）
+    Tick = 0,
+    /// 动画层更新与求值、VPD 覆盖、眨眼、头部旋转
+    Animation,
+    /// Morph 应用（含 GPU Morph 权重同步）
+    Morph,
+    /// 骨骼变换（不含 IK）
+    Bones,
+    /// IK 求解
+    Ik,
+    /// 物理更新
+    Physics,
+    /// CPU 蒙皮（update）
+    Skinning,
+    /// Java：原生数据拷贝到直接缓冲区
+    Copy,
+    /// Java：GL 缓冲区上传
+    Upload,
+    /// Java：计算着色器派发
+    Dispatch,
+    /// Java：绘制调用提交
+    Draw,
+}
+
+/// 阶段数量
+pub const STAGE_COUNT: usize = 11;
+/// Java 侧阶段数量（Copy 起的连续阶段，由帧记录回传）
+pub const RENDER_STAGE_COUNT: usize = 4;
+/// 第一个 Java 侧阶段
+const FIRST_RENDER_STAGE: usize = Stage::Copy as usize;
+
+static ENABLED: AtomicBool = AtomicBool::new(false);
+/// 每次开启递增，模型发现代数变化时丢弃旧数据
+static GENERATION: AtomicU32 = AtomicU32::new(0);
+
+/// 设置是否启用帧耗时统计（开启时清空所有模型的历史数据）
+pub fn set_enabled(enabled: bool) {
+    if enabled && !ENABLED.load(Ordering::Relaxed) {
+        GENERATION.fetch_add(1, Ordering::Relaxed);
+    }
+    ENABLED.store(enabled, Ordering::Relaxed);
+}
+
+/// 是否启用帧耗时统计
+pub fn is_enabled() -> bool {
+    ENABLED.load(Ordering::Relaxed)
+}
+
+/// 单个阶段的汇总（微秒）
+#[derive(Debug, Clone, Copy, Default, PartialEq)]
+pub struct StageSummary {
+    pub mean: f32,
+    pub p50: f32,
+    pub p95: f32,
+    pub max: f32,
+}
+
+/// 单个模型的汇总
+#[derive(Debug, Clone, Copy, Default)]
+pub struct ProfileSummary {
+    /// 窗口内的帧数
+    pub samples: u32,
+    pub stages: [StageSummary; STAGE_COUNT],
+}
+
+/// 单个模型的帧耗时窗口
+#[derive(Debug, Default)]
+pub struct FrameProfiler {
+    generation: u32,
+    /// 环形窗口（纳秒），首次启用时分配
+    frames: Vec<[u32; STAGE_COUNT]>,
+    cursor: usize,
+    filled: usize,
+    current: [u32; STAGE_COUNT],
+    /// 上一帧 Java 侧阶段耗时，下一次 begin_frame 时计入
+    pending_render: [u32; RENDER_STAGE_COUNT],
+    active: bool,
+}
+
+impl FrameProfiler {
+    pub fn new() -> Self {
+        Self::default()
+    }
+
+    /// 开始一帧，未启用时返回 false
+    pub fn begin_frame(&mut self) -> bool {
+        if !is_enabled() {
+            if !self.frames.is_empty() {
+                self.frames = Vec::new();
+                self.filled = 0;
+                self.cursor = 0;
+            }
+            self.active = false;
+            return false;
+        }
+        let generation = GENERATION.load(Ordering::Relaxed);
+        if self.frames.is_empty() || self.generation != generation {
+            self.generation = generation;
+            self.frames = vec![[0; STAGE_COUNT]; WINDOW];
+            self.filled = 0;
+            self.cursor = 0;
+            self.pending_render = [0; RENDER_STAGE_COUNT];
+        }
+        self.current = [0; STAGE_COUNT];
+        self.current[FIRST_RENDER_STAGE..].copy_from_slice(&self.pending_render);
+        self.pending_render = [0; RENDER_STAGE_COUNT];
+        self.active = true;
+        true
+    }
+
+    /// 累加阶段耗时（纳秒）
+    pub fn add(&mut self, stage: Stage, nanos: u64) {
+        if self.active {
+            let slot = &mut self.current[stage as usize];
+            *slot = slot.saturating_add(nanos.min(u32::MAX as u64) as u32);
+        }
+    }
+
+    /// 把 from 阶段中的一部分耗时改记到 to 阶段（用于从骨骼耗时中拆出 IK）
+    pub fn transfer(&mut self, from: Stage, to: Stage, nanos: u64) {
+        if self.active {
+            let nanos = nanos.min(self.current[from as usize] as u64);
+            self.current[from as usize] -= nanos as u32;
+            self.add(to, nanos);
+        }
+    }
+
+    /// 结束一帧并写入窗口
+    pub fn end_frame(&mut self) {
+        if !self.active {
+            return;
+        }
+        self.active = false;
+        self.frames[self.cursor] = self.current;
+        self.cursor = (self.cursor + 1) % WINDOW;
+        self.filled = (self.filled + 1).min(WINDOW);
+    }
+
+    /// 记录上一帧 Java 侧阶段耗时（纳秒，顺序为 Copy、Upload、Dispatch、Draw）
+    pub fn set_render_times(&mut self, nanos: [u32; RENDER_STAGE_COUNT]) {
+        if is_enabled() {
+            self.pending_render = nanos;
+        }
+    }
+
+    /// 汇总窗口内各阶段的均值、中位数、P95 与最大值（微秒）
+    pub fn summary(&self) -> ProfileSummary {
+        let mut summary = ProfileSummary { samples: self.filled as u32, ..Default::default() };
+        if self.filled == 0 {
+            return summary;
+        }
+        let mut values = [0u32; WINDOW];
+        for stage in 0..STAGE_COUNT {
+            let values = &mut values[..self.filled];
+            for (value, frame) in values.iter_mut().zip(&self.frames) {
+                *value = frame[stage];
+            }
+            values.sort_unstable();
+            let total: u64 = values.iter().map(|&v| v as u64).sum();
+            let percentile = |p: usize| values[((values.len() - 1) * p + 50) / 100] as f32 / 1000.0;
+            summary.stages[stage] = StageSummary {
+                mean: total as f32 / values.len() as f32 / 1000.0,
+                p50: percentile(50),
+                p95: percentile(95),
+                max: values[values.len() - 1] as f32 / 1000.0,
+            };
+        }
+        summary
+    }
+}
+
+/// 分段计时器：每次 lap 把距上一次 lap 的耗时计入指定阶段
+///
+/// 未启用统计时不读取时钟。
+pub struct StageClock {
+    start: Option<Instant>,
+    last: Option<Instant>,
+}
+
+impl StageClock {
+    pub fn start(enabled: bool) -> Self {
+        let now = enabled.then(Instant::now);
+        Self { start: now, last: now }
+    }
+
+    pub fn lap(&mut self, profiler: &mut FrameProfiler, stage: Stage) {
+        if let Some(last) = self.last {
+            let now = Instant::now();
+            profiler.add(stage, (now - last).as_nanos() as u64);
+            self.last = Some(now);
+        }
+    }
+
+    /// 记录整帧耗时并结束本帧
+    pub fn finish(self, profiler: &mut FrameProfiler) {
+        if let Some(start) = self.start {
+            profiler.add(Stage::Tick, start.elapsed().as_nanos() as u64);
+            profiler.end_frame();
+        }
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    #[test]
+    fn summary_reports_percentiles_over_rolling_window() {
+        set_enabled(true);
+        let mut profiler = FrameProfiler::new();
+        // 超出窗口的旧帧被覆盖：最终窗口内为 1..=WINDOW 微秒
+        for i in 0..(WINDOW + 10) {
+            assert!(profiler.begin_frame());
+            let micros = if i < 10 { 1_000_000 } else { (i - 9) as u64 };
+            profiler.add(Stage::Bones, micros * 1000);
+            profiler.transfer(Stage::Bones, Stage::Ik, 1000);
+            profiler.end_frame();
+        }
+        profiler.set_render_times([2000, 0, 0, 0]);
+        let summary = profiler.summary();
+        assert_eq!(summary.samples, WINDOW as u32);
+
+        let bones = summary.stages[Stage::Bones as usize];
+        assert_eq!(bones.max, (WINDOW - 1) as f32);
+        assert_eq!(bones.p50, 120.0);
+        assert!((bones.mean - (WINDOW as f32 + 1.0) / 2.0 + 1.0).abs() < 1e-3);
+        assert_eq!(summary.stages[Stage::Ik as usize].max, 1.0);
+        // Java 侧耗时在下一帧计入
+        assert_eq!(summary.stages[Stage::Copy as usize].max, 0.0);
+        profiler.begin_frame();
+        profiler.end_frame();
+        assert_eq!(profiler.summary().stages[Stage::Copy as usize].max, 2.0);
+    }
+}
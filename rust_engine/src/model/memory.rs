@@ -0,0 +1,93 @@
+//! 模型原生内存统计
+//!
+//! 按容量（而非长度）统计模型持有的堆内存，分为网格、运行时缓冲、Morph、骨骼与物理五类，
+//! 供 Java 侧内存统计与缓存淘汰使用。
+//!
+//! - 物理：模型在 Rapier 世界中的刚体、碰撞体、关节（按结构体大小）与独立世界的窄相接触对；
+//!   碰撞形状、宽相、岛管理器与求解器临时缓冲无法从外部测量，不计入（每个刚体约数百字节）
+//! - 动画关键帧、姿态缓存与烘焙舞台由多个模型共享，不计入模型，由 [`SharedAssetMemory`] 单独统计
+//! - 纹理由 Java 侧纹理管理器统计
+
+use std::collections::HashMap;
+use std::mem::size_of;
+
+/// 统计分类数量（与 Java 侧 NativeFunc.GetModelMemoryUsage 的输出数组长度一致）
+pub const CATEGORY_COUNT: usize = 5;
+
+/// 共享资源分类数量（与 Java 侧 NativeFunc.GetSharedMemoryUsage 的输出数组长度一致）
+pub const SHARED_CATEGORY_COUNT: usize = 3;
+
+/// 模型原生内存占用（字节）
+#[derive(Debug, Clone, Copy, Default, PartialEq, Eq)]
+pub struct NativeMemoryUsage {
+    /// 静态网格：顶点、索引、权重、材质、子网格、刚体与关节定义
+    pub mesh: usize,
+    /// 运行时缓冲：蒙皮结果、平铺输出、GPU 蒙皮输入、过渡矩阵等
+    pub runtime: usize,
+    /// Morph 定义与密集 GPU Morph 偏移
+    pub morph: usize,
+    /// 骨骼、IK 与蒙皮矩阵
+    pub skeleton: usize,
+    /// 物理世界中属于该模型的刚体、碰撞体、关节与接触对（估算，见模块说明）
+    pub physics: usize,
+}
+
+impl NativeMemoryUsage {
+    pub fn total(&self) -> usize {
+        self.mesh + self.runtime + self.morph + self.skeleton + self.physics
+    }
+
+    /// 按 mesh、runtime、morph、skeleton、physics 顺序输出
+    pub fn to_array(&self) -> [i64; CATEGORY_COUNT] {
+        [self.mesh as i64, self.runtime as i64, self.morph as i64, self.skeleton as i64, self.physics as i64]
+    }
+}
+
+/// 共享资源的原生内存占用（字节，按句柄表中的资源去重统计）
+#[derive(Debug, Clone, Copy, Default, PartialEq, Eq)]
+pub struct SharedAssetMemory {
+    /// VMD 关键帧数据
+    pub animation: usize,
+    /// 循环动画的预采样姿态
+    pub pose_cache: usize,
+    /// 烘焙舞台常驻的块索引与相机轨道
+    pub baked_stage: usize,
+}
+
+impl SharedAssetMemory {
+    pub fn total(&self) -> usize {
+        self.animation + self.pose_cache + self.baked_stage
+    }
+
+    /// 按 animation、pose_cache、baked_stage 顺序输出
+    pub fn to_array(&self) -> [i64; SHARED_CATEGORY_COUNT] {
+        [self.animation as i64, self.pose_cache as i64, self.baked_stage as i64]
+    }
+}
+
+/// Vec 已分配的堆字节数
+pub fn vec_bytes<T>(v: &Vec<T>) -> usize {
+    v.capacity() * size_of::<T>()
+}
+
+/// 字符串键映射的近似堆字节数（桶 + 键内容）
+pub fn name_map_bytes<V>(map: &HashMap<String, V>) -> usize {
+    map.capacity() * (size_of::<String>() + size_of::<V>() + 1)
+        + map.keys().map(|k| k.capacity()).sum::<usize>()
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    #[test]
+    fn vec_bytes_counts_capacity() {
+        let mut v: Vec<u32> = Vec::with_capacity(16);
+        v.push(1);
+        assert_eq!(vec_bytes(&v), 64);
+
+        let usage = NativeMemoryUsage { mesh: 1, runtime: 2, morph: 3, skeleton: 4, physics: 5 };
+        assert_eq!(usage.total(), 15);
+        assert_eq!(usage.to_array(), [1, 2, 3, 4, 5]);
+    }
+}
@@ -1,14 +1,18 @@
 //! MMD 模型运行时管理
 
 mod runtime;
+pub mod frame_profiler;
 mod loader;
 mod material;
+pub mod memory;
 mod submesh;
+mod thumbnail;
 
 pub use runtime::MmdModel;
 pub use loader::load_pmx;
 pub use material::MmdMaterial;
 pub use submesh::SubMesh;
+pub use thumbnail::{render_thumbnail, save_thumbnail};
 
 use glam::{Vec2, Vec3};
 
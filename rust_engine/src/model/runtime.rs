@@ -2,17 +2,40 @@
 
 use crate::animation::{VmdAnimation, AnimationLayerManager};
 use crate::morph::MorphManager;
-use crate::physics::MMDPhysics;
+use crate::physics::{MMDPhysics, ModelPhysics, PhysicsWorker, PhysicsWorld, SharedPhysicsHandle};
 use crate::skeleton::BoneManager;
+use crate::stage::{BakedPlayback, BakedStage};
 use glam::{Mat3, Mat4, Quat, Vec2, Vec3, Vec4};
 use rayon::prelude::*;
 use std::collections::HashMap;
 use std::sync::Arc;
-use std::sync::atomic::{AtomicU32, Ordering};
+use std::sync::atomic::{AtomicU32, AtomicUsize, Ordering};
 use std::time::{SystemTime, UNIX_EPOCH};
 
+use super::frame_profiler::{FrameProfiler, ProfileSummary, Stage, StageClock, RENDER_STAGE_COUNT};
+use super::memory::{vec_bytes, NativeMemoryUsage};
 use super::{MmdMaterial, RuntimeVertex, SubMesh, VertexWeight};
 
+/// 顶点权重最大的骨骼索引（无效索引返回 usize::MAX）
+fn primary_bone(weight: &VertexWeight) -> usize {
+    let bone = match *weight {
+        VertexWeight::Bdef1 { bone } => bone,
+        VertexWeight::Bdef2 { bones, weight } | VertexWeight::Sdef { bones, weight, .. } => {
+            if weight >= 0.5 { bones[0] } else { bones[1] }
+        }
+        VertexWeight::Bdef4 { bones, weights } | VertexWeight::Qdef { bones, weights } => {
+            let mut best = 0;
+            for i in 1..4 {
+                if weights[i] > weights[best] {
+                    best = i;
+                }
+            }
+            bones[best]
+        }
+    };
+    if bone < 0 { usize::MAX } else { bone as usize }
+}
+
 /// 全局 PRNG 状态（xorshift32）
 static PRNG_STATE: AtomicU32 = AtomicU32::new(0);
 
@@ -87,12 +110,27 @@ pub struct MmdModel {
     
     debug_logged: bool,
     
+    /// 分阶段帧耗时统计
+    frame_profiler: FrameProfiler,
+    
     // 模型全局变换
     model_transform: Mat4,
     
     // 物理系统
     physics: Option<MMDPhysics>,
+    /// 独立线程模拟模式下物理世界由此持有（此时 physics 为 None）
+    physics_worker: Option<PhysicsWorker>,
+    /// 共享物理世界模式下的槽位句柄（此时 physics 与 physics_worker 均为 None）
+    physics_shared: Option<SharedPhysicsHandle>,
+    /// 最近一次统计到的物理内存（字节）；异步物理正在步进时内存统计沿用该值，不等待
+    physics_heap_bytes: AtomicUsize,
     physics_enabled: bool,
+    /// 与相机的距离（方块），用于物理 LOD
+    physics_lod_distance: f32,
+    /// 物理同步用的骨骼全局变换快照（每帧复用）
+    physics_bone_snapshot: Vec<Mat4>,
+    /// 固定使用同步独立物理世界（忽略共享世界/独立线程配置，用于离线烘焙）
+    synchronous_physics: bool,
     
     // 材质可见性控制（用于脱外套等功能）
     material_visible: Vec<bool>,
@@ -162,6 +200,14 @@ pub struct MmdModel {
     transition_duration: f32,
     /// 是否正在过渡
     is_transitioning: bool,
+    
+    // ======== 烘焙舞台播放 ========
+    /// 挂载烘焙舞台后由其驱动姿态，跳过动画层求值、IK 与物理
+    baked_playback: Option<BakedPlayback>,
+    
+    // ======== 包围盒（视锥剔除） ========
+    /// 每根骨骼的包络半径：以该骨骼为主权重的顶点到骨骼初始位置的最大距离（首次计算包围盒时求得）
+    bone_bounds_radii: Vec<f32>,
 }
 
 impl MmdModel {
@@ -203,9 +249,16 @@ impl MmdModel {
             is_blinking: false,
             blink_morph_index: None,
             debug_logged: false,
+            frame_profiler: FrameProfiler::new(),
             model_transform: Mat4::IDENTITY,
             physics: None,
+            physics_worker: None,
+            physics_shared: None,
+            physics_heap_bytes: AtomicUsize::new(0),
             physics_enabled: false,
+            physics_lod_distance: 0.0,
+            physics_bone_snapshot: Vec::new(),
+            synchronous_physics: false,
             material_visible: Vec::new(),
             bone_indices: Vec::new(),
             bone_weights: Vec::new(),
@@ -227,6 +280,8 @@ impl MmdModel {
             transition_progress: 0.0,
             transition_duration: 0.0,
             is_transitioning: false,
+            baked_playback: None,
+            bone_bounds_radii: Vec::new(),
             first_person_enabled: false,
             head_bone_index: None,
             head_submesh_flags: Vec::new(),
@@ -750,6 +805,12 @@ impl MmdModel {
 
     /// 跳转到指定帧
     pub fn seek_layer(&mut self, layer_id: usize, frame: f32) {
+        if layer_id == 0 {
+            if let Some(ref mut baked) = self.baked_playback {
+                baked.seek(frame);
+                return;
+            }
+        }
         self.animation_layer_manager.seek_layer(layer_id, frame);
     }
 
@@ -780,12 +841,26 @@ impl MmdModel {
     
     /// 获取指定层的最大帧数
     pub fn get_layer_max_frame(&self, layer_id: usize) -> u32 {
+        if let (0, Some(baked)) = (layer_id, self.baked_playback.as_ref()) {
+            return baked.stage().max_frame().ceil() as u32;
+        }
         self.animation_layer_manager
             .get_layer(layer_id)
             .map(|l| l.max_frame())
             .unwrap_or(0)
     }
 
+    /// 获取指定层的当前帧
+    pub fn get_layer_frame(&self, layer_id: usize) -> f32 {
+        if let (0, Some(baked)) = (layer_id, self.baked_playback.as_ref()) {
+            return baked.frame();
+        }
+        self.animation_layer_manager
+            .get_layer(layer_id)
+            .map(|l| l.current_frame())
+            .unwrap_or(0.0)
+    }
+
     /// 获取所有活跃层中的最大帧数
     pub fn get_max_frame(&self) -> u32 {
         (0..self.animation_layer_manager.layer_count())
@@ -796,6 +871,13 @@ impl MmdModel {
 
     /// 更新动画（每帧调用）- 多动画层版本（CPU蒙皮模式）
     pub fn tick_animation(&mut self, elapsed: f32) {
+        let mut clock = self.begin_profiled_frame();
+        if self.baked_playback.is_some() {
+            self.tick_baked(elapsed, true, &mut clock);
+            self.finish_profiled_frame(clock);
+            return;
+        }
+        
         // 更新所有动画层
         self.animation_layer_manager.update(elapsed);
 
@@ -815,13 +897,17 @@ impl MmdModel {
         self.update_auto_blink(elapsed);
 
         self.apply_head_rotation();
+        clock.lap(&mut self.frame_profiler, Stage::Animation);
         self.update_morph_animation();
+        clock.lap(&mut self.frame_profiler, Stage::Morph);
         
         // 骨骼更新（物理前）
         self.update_node_animation(false);
+        clock.lap(&mut self.frame_profiler, Stage::Bones);
         
         // 物理更新
         self.update_physics(elapsed);
+        clock.lap(&mut self.frame_profiler, Stage::Physics);
         
         // 骨骼更新（物理后）
         self.update_node_animation(true);
@@ -833,8 +919,102 @@ impl MmdModel {
         
         // 应用矩阵插值过渡
         self.apply_transition_blend(elapsed);
+        clock.lap(&mut self.frame_profiler, Stage::Bones);
         
         self.update();
+        clock.lap(&mut self.frame_profiler, Stage::Skinning);
+        self.finish_profiled_frame(clock);
+    }
+    
+    // ========== 帧耗时统计 ==========
+    
+    /// 开始统计一帧（未启用统计时返回不计时的时钟）
+    fn begin_profiled_frame(&mut self) -> StageClock {
+        let enabled = self.frame_profiler.begin_frame();
+        if enabled {
+            self.bone_manager.begin_ik_timing();
+        }
+        StageClock::start(enabled)
+    }
+    
+    /// 结束统计一帧：IK 耗时从骨骼阶段中拆出
+    fn finish_profiled_frame(&mut self, clock: StageClock) {
+        let ik = self.bone_manager.take_ik_time_ns();
+        self.frame_profiler.transfer(Stage::Bones, Stage::Ik, ik);
+        clock.finish(&mut self.frame_profiler);
+    }
+    
+    /// 记录上一帧 Java 侧渲染阶段耗时（纳秒：拷贝、上传、派发、绘制）
+    pub fn set_render_times(&mut self, nanos: [u32; RENDER_STAGE_COUNT]) {
+        self.frame_profiler.set_render_times(nanos);
+    }
+    
+    /// 帧耗时统计汇总
+    pub fn frame_profile(&self) -> ProfileSummary {
+        self.frame_profiler.summary()
+    }
+    
+    /// 模型持有的原生堆内存（按容量统计，分类见 [`NativeMemoryUsage`]）
+    pub fn memory_usage(&self) -> NativeMemoryUsage {
+        let mesh = vec_bytes(&self.vertices)
+            + vec_bytes(&self.indices)
+            + vec_bytes(&self.weights)
+            + vec_bytes(&self.materials)
+            + vec_bytes(&self.submeshes)
+            + vec_bytes(&self.texture_paths)
+            + self.texture_paths.iter().map(|p| p.capacity()).sum::<usize>()
+            + vec_bytes(&self.rigid_bodies)
+            + vec_bytes(&self.joints);
+        let runtime = vec_bytes(&self.update_positions)
+            + vec_bytes(&self.update_normals)
+            + vec_bytes(&self.update_uvs)
+            + vec_bytes(&self.update_positions_raw)
+            + vec_bytes(&self.update_normals_raw)
+            + vec_bytes(&self.update_uvs_raw)
+            + vec_bytes(&self.bone_indices)
+            + vec_bytes(&self.bone_weights)
+            + vec_bytes(&self.original_positions)
+            + vec_bytes(&self.original_normals)
+            + vec_bytes(&self.physics_bone_snapshot)
+            + vec_bytes(&self.material_visible)
+            + vec_bytes(&self.material_visible_backup)
+            + vec_bytes(&self.head_submesh_flags)
+            + vec_bytes(&self.transition_matrices)
+            + vec_bytes(&self.bone_bounds_radii)
+            + vec_bytes(&self.material_morph_results_flat_cache)
+            + self.vpd_bone_overrides.capacity() * std::mem::size_of::<(usize, (Vec3, Quat))>()
+            + self.baked_playback.as_ref().map_or(0, |p| p.heap_bytes());
+        let morph = self.morph_manager.heap_bytes()
+            + vec_bytes(&self.gpu_morph_offsets)
+            + vec_bytes(&self.gpu_morph_weights)
+            + vec_bytes(&self.vertex_morph_indices)
+            + vec_bytes(&self.gpu_uv_morph_offsets)
+            + vec_bytes(&self.gpu_uv_morph_weights)
+            + vec_bytes(&self.uv_morph_indices);
+        // 异步/共享模式下物理世界正被占用时不等待，沿用上次统计值
+        let physics = if let Some(ref shared) = self.physics_shared {
+            shared.try_with_model(|model| model.heap_bytes())
+        } else if let Some(ref worker) = self.physics_worker {
+            worker.try_with_physics(|physics| physics.heap_bytes())
+        } else if let Some(ref physics) = self.physics {
+            Some(physics.heap_bytes())
+        } else {
+            Some(0)
+        };
+        let physics = match physics {
+            Some(bytes) => {
+                self.physics_heap_bytes.store(bytes, Ordering::Relaxed);
+                bytes
+            }
+            None => self.physics_heap_bytes.load(Ordering::Relaxed),
+        };
+        NativeMemoryUsage {
+            mesh,
+            runtime,
+            morph,
+            skeleton: self.bone_manager.heap_bytes(),
+            physics,
+        }
     }
     
     /// 应用矩阵插值过渡
@@ -1142,6 +1322,42 @@ impl MmdModel {
         Mat4::IDENTITY
     }
 
+    /// 计算每根骨骼的包络半径
+    fn init_bone_bounds_radii(&mut self) {
+        let bone_count = self.bone_manager.bone_count();
+        let mut radii = vec![0.0f32; bone_count.max(1)];
+        for (vertex, weight) in self.vertices.iter().zip(&self.weights) {
+            let bone = primary_bone(weight);
+            let slot = if bone < bone_count { bone } else { 0 };
+            let origin = self.bone_manager.get_bone(slot).map(|b| b.initial_position).unwrap_or(Vec3::ZERO);
+            radii[slot] = radii[slot].max(vertex.position.distance(origin));
+        }
+        self.bone_bounds_radii = radii;
+    }
+    
+    /// 当前姿态的保守包围盒（模型局部空间，返回 (min, max)）
+    ///
+    /// 每根骨骼以当前全局位置为中心、包络半径为半径取球，合并为包围盒。
+    /// 顶点随主骨骼刚体运动时不会超出该范围；顶点 Morph 与骨骼缩放造成的偏移不计入。
+    pub fn skinned_bounds(&mut self) -> (Vec3, Vec3) {
+        if self.bone_bounds_radii.is_empty() {
+            self.init_bone_bounds_radii();
+        }
+        let bone_count = self.bone_manager.bone_count();
+        if bone_count == 0 {
+            let r = self.bone_bounds_radii[0];
+            return (Vec3::splat(-r), Vec3::splat(r));
+        }
+        let mut min = Vec3::splat(f32::MAX);
+        let mut max = Vec3::splat(f32::MIN);
+        for (i, &radius) in self.bone_bounds_radii.iter().enumerate().take(bone_count) {
+            let center = self.bone_manager.get_global_transform(i).w_axis.truncate();
+            min = min.min(center - Vec3::splat(radius));
+            max = max.max(center + Vec3::splat(radius));
+        }
+        (min, max)
+    }
+
     /// 获取更新后的顶点位置数据指针
     pub fn get_positions_ptr(&self) -> *const f32 {
         self.update_positions_raw.as_ptr()
@@ -1443,8 +1659,12 @@ impl MmdModel {
     
     /// 获取物理系统动态骨骼数量
     pub fn get_dynamic_bone_count(&self) -> usize {
-        if let Some(ref physics) = self.physics {
-            physics.get_dynamic_bone_indices().len()
+        if let Some(ref shared) = self.physics_shared {
+            shared.dynamic_bone_mask().count()
+        } else if let Some(ref worker) = self.physics_worker {
+            worker.dynamic_bone_mask().count()
+        } else if let Some(ref physics) = self.physics {
+            physics.dynamic_bone_mask().count()
         } else {
             0
         }
@@ -1727,6 +1947,13 @@ impl MmdModel {
     
     /// 仅更新动画（不执行 CPU 蒙皮，用于 GPU 蒙皮模式）
     pub fn tick_animation_no_skinning(&mut self, elapsed: f32) {
+        let mut clock = self.begin_profiled_frame();
+        if self.baked_playback.is_some() {
+            self.tick_baked(elapsed, false, &mut clock);
+            self.finish_profiled_frame(clock);
+            return;
+        }
+        
         self.animation_layer_manager.update(elapsed);
         self.begin_animation();
         
@@ -1742,34 +1969,98 @@ impl MmdModel {
         self.update_auto_blink(elapsed);
         
         self.apply_head_rotation();
+        clock.lap(&mut self.frame_profiler, Stage::Animation);
         self.update_morph_animation();
         
         // Morph 应用后同步 GPU 权重（顶点 Morph + UV Morph）
         self.sync_gpu_morph_weights();
         self.sync_gpu_uv_morph_weights();
+        clock.lap(&mut self.frame_profiler, Stage::Morph);
         
         self.update_node_animation(false);
+        clock.lap(&mut self.frame_profiler, Stage::Bones);
         
         // 记录物理更新前的动态骨骼数量
-        let physics_enabled = self.physics_enabled && self.physics.is_some();
+        let physics_enabled = self.is_physics_enabled();
         
         self.update_physics(elapsed);
+        clock.lap(&mut self.frame_profiler, Stage::Physics);
         self.update_node_animation(true);
         self.end_physics_update();
         self.end_animation();
         
         // 应用矩阵插值过渡（GPU蒙皮模式也需要）
         self.apply_transition_blend(elapsed);
+        clock.lap(&mut self.frame_profiler, Stage::Bones);
         
         // 调试日志（仅首次）
         if !self.debug_logged && physics_enabled {
             self.debug_logged = true;
-            if let Some(ref physics) = self.physics {
-                let dynamic_count = physics.get_dynamic_bone_indices().len();
-                log::info!("GPU蒙皮物理调试: 物理已启用, {} 个动态骨骼", dynamic_count);
-            }
+            let dynamic_count = self.get_dynamic_bone_count();
+            log::info!("GPU蒙皮物理调试: 物理已启用, {} 个动态骨骼", dynamic_count);
         }
         // 注意：不调用 self.update()，跳过 CPU 蒙皮
+        self.finish_profiled_frame(clock);
+    }
+    
+    // ========== 烘焙舞台播放 ==========
+    
+    /// 挂载烘焙舞台（None 表示卸载，恢复动画层驱动）
+    ///
+    /// 挂载后动作层 0 的帧查询/跳转作用于烘焙时间轴，舞台控制器的同步逻辑无需区分。
+    /// 模型骨骼/Morph 结构与烘焙时不一致时拒绝挂载。
+    ///
+    /// # 参数
+    /// - `stage`: 烘焙舞台
+    /// - `transition_time`: 从当前姿态过渡到第一帧的时间（秒）
+    pub fn attach_baked_stage(&mut self, stage: Option<Arc<BakedStage>>, transition_time: f32) -> bool {
+        let stage = match stage {
+            Some(stage) => stage,
+            None => {
+                self.baked_playback = None;
+                return true;
+            }
+        };
+        if !stage.matches(&self.bone_manager, &self.morph_manager) {
+            log::warn!("烘焙舞台与模型 {} 的骨骼/Morph 结构不一致，拒绝挂载", self.name);
+            return false;
+        }
+        if transition_time > 0.0 {
+            self.transition_matrices = self.bone_manager.get_skinning_matrices().to_vec();
+            self.transition_duration = transition_time;
+            self.transition_progress = 0.0;
+            self.is_transitioning = true;
+        }
+        self.baked_playback = Some(BakedPlayback::new(stage));
+        true
+    }
+    
+    /// 是否正在播放烘焙舞台
+    pub fn has_baked_stage(&self) -> bool {
+        self.baked_playback.is_some()
+    }
+    
+    /// 烘焙舞台驱动的更新：读取记录的全局变换与 Morph 权重，只做 Morph 应用与蒙皮
+    fn tick_baked(&mut self, elapsed: f32, skin_vertices: bool, clock: &mut StageClock) {
+        // 清除上一帧骨骼 Morph 累加的动画值（烘焙姿态已包含其效果）
+        self.begin_animation();
+        if let Some(ref mut baked) = self.baked_playback {
+            baked.advance(elapsed);
+            baked.apply(&mut self.bone_manager, &mut self.morph_manager);
+        }
+        clock.lap(&mut self.frame_profiler, Stage::Animation);
+        self.update_morph_animation();
+        if !skin_vertices {
+            self.sync_gpu_morph_weights();
+            self.sync_gpu_uv_morph_weights();
+        }
+        clock.lap(&mut self.frame_profiler, Stage::Morph);
+        self.apply_transition_blend(elapsed);
+        clock.lap(&mut self.frame_profiler, Stage::Bones);
+        if skin_vertices {
+            self.update();
+            clock.lap(&mut self.frame_profiler, Stage::Skinning);
+        }
     }
     
     // ========== 物理系统方法 ==========
@@ -1781,23 +2072,56 @@ impl MmdModel {
             return false;
         }
         
-        let mut physics = MMDPhysics::new();
+        // 重新初始化时释放旧的物理世界；独立线程模式在下一次物理更新时按配置切换
+        self.physics = None;
+        self.physics_worker = None;
+        self.physics_shared = None;
         
+        if crate::physics::is_shared_world() && !self.synchronous_physics {
+            let shared = self.build_shared_physics();
+            shared.with_model(Self::log_physics_summary);
+            self.physics_shared = Some(shared);
+        } else {
+            let physics = self.build_standalone_physics();
+            Self::log_physics_summary(&physics.model);
+            self.physics = Some(physics);
+        }
+        self.physics_enabled = true;
+        true
+    }
+    
+    /// 向物理世界添加模型的刚体与关节（刚体偏移按绑定姿势计算，与当前动画无关）
+    fn add_physics_bodies(&self, model: &mut ModelPhysics, world: &mut PhysicsWorld) {
         // 添加刚体
         for pmx_rb in &self.rigid_bodies {
             let bone_transform = if pmx_rb.bone_index >= 0 {
-                Some(self.bone_manager.get_global_transform(pmx_rb.bone_index as usize))
+                self.bone_manager.get_bone(pmx_rb.bone_index as usize)
+                    .map(|bone| Mat4::from_translation(bone.initial_position))
             } else {
                 None
             };
-            physics.add_rigid_body(pmx_rb, bone_transform);
+            model.add_rigid_body(world, pmx_rb, bone_transform);
         }
         
         // 添加关节
         for pmx_joint in &self.joints {
-            physics.add_joint(pmx_joint);
+            model.add_joint(world, pmx_joint);
         }
-        
+    }
+    
+    /// 创建模型独占的物理世界
+    fn build_standalone_physics(&self) -> MMDPhysics {
+        let mut physics = MMDPhysics::new();
+        self.add_physics_bodies(&mut physics.model, &mut physics.world);
+        physics
+    }
+    
+    /// 在共享物理世界中创建模型的刚体与关节
+    fn build_shared_physics(&self) -> SharedPhysicsHandle {
+        SharedPhysicsHandle::create(|model, world| self.add_physics_bodies(model, world))
+    }
+    
+    fn log_physics_summary(physics: &ModelPhysics) {
         // 统计刚体类型
         use crate::physics::RigidBodyType;
         let kinematic_count = physics.mmd_rigid_bodies.iter()
@@ -1816,15 +2140,15 @@ impl MmdModel {
             kinematic_count, dynamic_count, dynamic_bone_count,
             physics.joint_count()
         );
-        
-        self.physics = Some(physics);
-        self.physics_enabled = true;
-        true
     }
     
     /// 重置物理系统
     pub fn reset_physics(&mut self) {
-        if let Some(ref mut physics) = self.physics {
+        if let Some(ref shared) = self.physics_shared {
+            shared.reset();
+        } else if let Some(ref worker) = self.physics_worker {
+            worker.request_reset();
+        } else if let Some(ref mut physics) = self.physics {
             physics.reset();
         }
     }
@@ -1832,16 +2156,67 @@ impl MmdModel {
     /// 启用/禁用物理
     pub fn set_physics_enabled(&mut self, enabled: bool) {
         self.physics_enabled = enabled;
+        if let Some(ref shared) = self.physics_shared {
+            // 共享世界中禁用的模型立即退出求解，不再占用其他模型的步进时间
+            shared.set_enabled(enabled);
+        }
+    }
+    
+    /// 固定使用同步独立物理世界（结果只取决于输入的帧时间，与墙钟时间和其他模型无关）
+    pub fn set_synchronous_physics(&mut self, enabled: bool) {
+        self.synchronous_physics = enabled;
+    }
+    
+    /// 设置与相机的距离（方块），远处模型降低子步数与求解器迭代次数
+    pub fn set_physics_lod_distance(&mut self, distance: f32) {
+        self.physics_lod_distance = distance;
     }
     
     /// 获取物理是否启用
     pub fn is_physics_enabled(&self) -> bool {
-        self.physics_enabled && self.physics.is_some()
+        self.physics_enabled && self.has_physics()
     }
     
     /// 获取物理系统是否已初始化
     pub fn has_physics(&self) -> bool {
-        self.physics.is_some()
+        self.physics.is_some() || self.physics_worker.is_some() || self.physics_shared.is_some()
+    }
+    
+    /// 按全局配置切换物理模式
+    ///
+    /// - 共享世界优先：切入/切出共享世界时按 PMX 数据重建刚体（状态重置）
+    /// - 同步模式与独立线程模式之间整体移交物理世界，状态不丢失
+    fn sync_physics_mode(&mut self) {
+        if self.synchronous_physics {
+            if self.physics_shared.take().is_some() {
+                self.physics = Some(self.build_standalone_physics());
+            }
+            if let Some(worker) = self.physics_worker.take() {
+                self.physics = Some(worker.shutdown());
+            }
+            return;
+        }
+        if crate::physics::is_shared_world() {
+            if self.physics_shared.is_none() && (self.physics.is_some() || self.physics_worker.is_some()) {
+                self.physics = None;
+                self.physics_worker = None;
+                self.physics_shared = Some(self.build_shared_physics());
+            }
+            return;
+        }
+        if self.physics_shared.take().is_some() {
+            self.physics = Some(self.build_standalone_physics());
+        }
+        
+        if crate::physics::is_async_simulation() {
+            if self.physics_worker.is_none() {
+                if let Some(physics) = self.physics.take() {
+                    self.physics_worker = Some(PhysicsWorker::spawn(physics));
+                }
+            }
+        } else if let Some(worker) = self.physics_worker.take() {
+            self.physics = Some(worker.shutdown());
+        }
     }
     
     /// 更新物理模拟
@@ -1850,125 +2225,146 @@ impl MmdModel {
             return;
         }
         
+        self.sync_physics_mode();
+        if !self.has_physics() {
+            return;
+        }
+        
+        // 骨骼全局变换快照（复用缓冲区）
+        // 注意：骨骼变换保持在模型局部空间，不乘以 model_transform
+        // model_transform 的变化会通过 sync_kinematic_bodies 内部计算位置差来影响速度
+        self.bone_manager.copy_global_transforms_into(&mut self.physics_bone_snapshot);
+        
+        if let Some(ref shared) = self.physics_shared {
+            // 共享世界模式：同步本模型的运动学刚体，世界每帧只步进一次（由本帧第一个更新的模型触发）
+            shared.update(
+                &mut self.bone_manager,
+                &self.physics_bone_snapshot,
+                self.model_transform,
+                delta_time,
+            );
+            return;
+        }
+        
+        if let Some(ref worker) = self.physics_worker {
+            // 独立线程模式：提交姿势快照，取最近两次物理步的插值结果，不等待求解器
+            worker.submit_pose(
+                &self.physics_bone_snapshot,
+                delta_time,
+                self.model_transform,
+                self.physics_lod_distance,
+            );
+            worker.write_interpolated_bones(&mut self.bone_manager, &self.physics_bone_snapshot);
+            return;
+        }
+        
         if let Some(ref mut physics) = self.physics {
-            // 同步运动学刚体（跟随骨骼），传入 delta_time 用于计算速度
-            // 注意：骨骼变换保持在模型局部空间，不乘以 model_transform
-            // model_transform 的变化会通过 sync_kinematic_bodies 内部计算位置差来影响速度
-            let bone_transforms: Vec<Mat4> = (0..self.bone_manager.bone_count())
-                .map(|i| self.bone_manager.get_global_transform(i))
-                .collect();
-            
-            // 传入 model_transform 用于计算模型整体移动的速度
-            physics.sync_kinematic_bodies_with_model_velocity(&bone_transforms, delta_time, self.model_transform);
-            
-            // 更新物理模拟
-            physics.update(delta_time);
+            physics.set_lod_distance(self.physics_lod_distance);
             
-            // 获取当前骨骼变换
-            let current_bone_transforms: Vec<Mat4> = (0..self.bone_manager.bone_count())
-                .map(|i| self.bone_manager.get_global_transform(i))
-                .collect();
-            
-            // 获取动态刚体关联的骨骼变换和索引
-            let dynamic_bone_transforms = physics.get_dynamic_bone_transforms(&current_bone_transforms);
-            let physics_bone_indices = physics.get_dynamic_bone_indices();
-            
-            // 设置物理骨骼索引，防止后续骨骼更新覆盖物理变换
-            self.bone_manager.set_physics_bone_indices(physics_bone_indices.clone());
-            
-            // 只更新被物理驱动的骨骼
-            for (bone_idx, transform) in dynamic_bone_transforms {
-                self.bone_manager.set_global_transform_physics(bone_idx, transform);
+            // 同步运动学刚体（跟随骨骼）；姿势静止且刚体已停稳时跳过求解，刚体位姿不变，下方仍照常写回骨骼
+            if physics.sync_from_bones(&self.physics_bone_snapshot, self.model_transform, delta_time) {
+                physics.update(delta_time);
             }
             
-            // 更新非物理骨骼的全局变换（它们可能是物理骨骼的子骨骼）
-            self.bone_manager.update_non_physics_children(&physics_bone_indices);
+            // 动态刚体位姿写回骨骼
+            physics.write_dynamic_bones(&mut self.bone_manager, &self.physics_bone_snapshot);
         }
     }
     
     /// 结束物理更新，清除物理骨骼保护
     /// 在 tick_animation 结束时调用
     fn end_physics_update(&mut self) {
-        self.bone_manager.clear_physics_bone_indices();
+        self.bone_manager.clear_physics_bone_mask();
     }
     
     /// 获取物理调试信息（JSON 格式）
     pub fn get_physics_debug_info(&self) -> String {
+        if let Some(ref shared) = self.physics_shared {
+            if let Some(info) = shared.with_model(Self::format_physics_debug_info) {
+                return info;
+            }
+        }
+        if let Some(ref worker) = self.physics_worker {
+            return worker.with_physics(|physics| Self::format_physics_debug_info(&physics.model));
+        }
+        match self.physics {
+            Some(ref physics) => Self::format_physics_debug_info(&physics.model),
+            None => String::from("{\"error\": \"no physics\"}"),
+        }
+    }
+    
+    fn format_physics_debug_info(physics: &ModelPhysics) -> String {
         use crate::physics::RigidBodyType;
         
-        if let Some(ref physics) = self.physics {
-            let mut info = String::from("{\n");
-            
-            // 刚体信息
-            info.push_str("  \"rigid_bodies\": [\n");
-            for (i, rb) in physics.mmd_rigid_bodies.iter().enumerate() {
-                let type_str = match rb.body_type {
-                    RigidBodyType::Kinematic => "Kinematic",
-                    RigidBodyType::Dynamic => "Dynamic",
-                    RigidBodyType::DynamicWithBonePosition => "DynamicWithBonePosition",
-                };
-                let escaped_name = rb.name.replace('\\', "\\\\").replace('"', "\\\"");
-                info.push_str(&format!(
-                    "    {{\"index\": {}, \"name\": \"{}\", \"type\": \"{}\", \"bone\": {}, \"mass\": {:.3}}}",
-                    i, escaped_name, type_str, rb.bone_index, rb.mass
-                ));
-                if i < physics.mmd_rigid_bodies.len() - 1 {
-                    info.push_str(",\n");
-                } else {
-                    info.push_str("\n");
-                }
-            }
-            info.push_str("  ],\n");
-            
-            // 关节信息
-            info.push_str("  \"joints\": [\n");
-            for (i, joint) in physics.mmd_joints.iter().enumerate() {
-                let escaped_jname = joint.name.replace('\\', "\\\\").replace('"', "\\\"");
-                info.push_str(&format!(
-                    "    {{\"index\": {}, \"name\": \"{}\", \"rb_a\": {}, \"rb_b\": {}, ",
-                    i, escaped_jname, joint.rigid_body_a_index, joint.rigid_body_b_index
-                ));
-                info.push_str(&format!(
-                    "\"lin_lower\": [{:.3},{:.3},{:.3}], \"lin_upper\": [{:.3},{:.3},{:.3}], ",
-                    joint.linear_lower.x, joint.linear_lower.y, joint.linear_lower.z,
-                    joint.linear_upper.x, joint.linear_upper.y, joint.linear_upper.z
-                ));
-                info.push_str(&format!(
-                    "\"ang_lower\": [{:.3},{:.3},{:.3}], \"ang_upper\": [{:.3},{:.3},{:.3}], ",
-                    joint.angular_lower.x, joint.angular_lower.y, joint.angular_lower.z,
-                    joint.angular_upper.x, joint.angular_upper.y, joint.angular_upper.z
-                ));
-                info.push_str(&format!(
-                    "\"lin_spring\": [{:.3},{:.3},{:.3}], \"ang_spring\": [{:.3},{:.3},{:.3}]}}",
-                    joint.linear_spring.x, joint.linear_spring.y, joint.linear_spring.z,
-                    joint.angular_spring.x, joint.angular_spring.y, joint.angular_spring.z
-                ));
-                if i < physics.mmd_joints.len() - 1 {
-                    info.push_str(",\n");
-                } else {
-                    info.push_str("\n");
-                }
+        let mut info = String::from("{\n");
+        
+        // 刚体信息
+        info.push_str("  \"rigid_bodies\": [\n");
+        for (i, rb) in physics.mmd_rigid_bodies.iter().enumerate() {
+            let type_str = match rb.body_type {
+                RigidBodyType::Kinematic => "Kinematic",
+                RigidBodyType::Dynamic => "Dynamic",
+                RigidBodyType::DynamicWithBonePosition => "DynamicWithBonePosition",
+            };
+            let escaped_name = rb.name.replace('\\', "\\\\").replace('"', "\\\"");
+            info.push_str(&format!(
+                "    {{\"index\": {}, \"name\": \"{}\", \"type\": \"{}\", \"bone\": {}, \"mass\": {:.3}}}",
+                i, escaped_name, type_str, rb.bone_index, rb.mass
+            ));
+            if i < physics.mmd_rigid_bodies.len() - 1 {
+                info.push_str(",\n");
+            } else {
+                info.push_str("\n");
             }
-            info.push_str("  ],\n");
-            
-            // 统计信息
-            let kinematic_count = physics.mmd_rigid_bodies.iter()
-                .filter(|rb| rb.body_type == RigidBodyType::Kinematic).count();
-            let dynamic_count = physics.mmd_rigid_bodies.iter()
-                .filter(|rb| rb.body_type == RigidBodyType::Dynamic).count();
-            let dynamic_bone_count = physics.mmd_rigid_bodies.iter()
-                .filter(|rb| rb.body_type == RigidBodyType::DynamicWithBonePosition).count();
-            
+        }
+        info.push_str("  ],\n");
+        
+        // 关节信息
+        info.push_str("  \"joints\": [\n");
+        for (i, joint) in physics.mmd_joints.iter().enumerate() {
+            let escaped_jname = joint.name.replace('\\', "\\\\").replace('"', "\\\"");
             info.push_str(&format!(
-                "  \"stats\": {{\"total_rb\": {}, \"kinematic\": {}, \"dynamic\": {}, \"dynamic_bone\": {}, \"joints\": {}}}\n",
-                physics.mmd_rigid_bodies.len(), kinematic_count, dynamic_count, dynamic_bone_count, physics.mmd_joints.len()
+                "    {{\"index\": {}, \"name\": \"{}\", \"rb_a\": {}, \"rb_b\": {}, ",
+                i, escaped_jname, joint.rigid_body_a_index, joint.rigid_body_b_index
             ));
-            
-            info.push_str("}");
-            info
-        } else {
-            String::from("{\"error\": \"no physics\"}")
+            info.push_str(&format!(
+                "\"lin_lower\": [{:.3},{:.3},{:.3}], \"lin_upper\": [{:.3},{:.3},{:.3}], ",
+                joint.linear_lower.x, joint.linear_lower.y, joint.linear_lower.z,
+                joint.linear_upper.x, joint.linear_upper.y, joint.linear_upper.z
+            ));
+            info.push_str(&format!(
+                "\"ang_lower\": [{:.3},{:.3},{:.3}], \"ang_upper\": [{:.3},{:.3},{:.3}], ",
+                joint.angular_lower.x, joint.angular_lower.y, joint.angular_lower.z,
+                joint.angular_upper.x, joint.angular_upper.y, joint.angular_upper.z
+            ));
+            info.push_str(&format!(
+                "\"lin_spring\": [{:.3},{:.3},{:.3}], \"ang_spring\": [{:.3},{:.3},{:.3}]}}",
+                joint.linear_spring.x, joint.linear_spring.y, joint.linear_spring.z,
+                joint.angular_spring.x, joint.angular_spring.y, joint.angular_spring.z
+            ));
+            if i < physics.mmd_joints.len() - 1 {
+                info.push_str(",\n");
+            } else {
+                info.push_str("\n");
+            }
         }
+        info.push_str("  ],\n");
+        
+        // 统计信息
+        let kinematic_count = physics.mmd_rigid_bodies.iter()
+            .filter(|rb| rb.body_type == RigidBodyType::Kinematic).count();
+        let dynamic_count = physics.mmd_rigid_bodies.iter()
+            .filter(|rb| rb.body_type == RigidBodyType::Dynamic).count();
+        let dynamic_bone_count = physics.mmd_rigid_bodies.iter()
+            .filter(|rb| rb.body_type == RigidBodyType::DynamicWithBonePosition).count();
+        
+        info.push_str(&format!(
+            "  \"stats\": {{\"total_rb\": {}, \"kinematic\": {}, \"dynamic\": {}, \"dynamic_bone\": {}, \"joints\": {}}}\n",
+            physics.mmd_rigid_bodies.len(), kinematic_count, dynamic_count, dynamic_bone_count, physics.mmd_joints.len()
+        ));
+        
+        info.push_str("}");
+        info
     }
 }
 
@@ -0,0 +1,235 @@
+//! 模型缩略图：不依赖 GL 的软件光栅化
+//!
+//! 以正交投影从正面绘制模型的初始姿态（无动作、无物理），采样材质主纹理并做简单的半兰伯特光照，
+//! 输出带透明背景的 RGBA 图像。只读取解析后的模型数据，可在任意线程批量调用。
+
+use std::collections::HashMap;
+use std::path::Path;
+
+use glam::{Vec2, Vec3};
+
+use crate::texture::{load_texture, Texture};
+use crate::{MmdError, Result};
+
+use super::MmdModel;
+
+/// 超采样倍数（按 2x2 块平均抗锯齿）
+const SUPERSAMPLE: u32 = 2;
+/// 模型在画面中的占比
+const FILL_RATIO: f32 = 0.92;
+/// 不透明度低于该值的片元直接丢弃
+const ALPHA_CUTOFF: f32 = 0.05;
+
+/// 渲染缩略图，返回自上而下逐行排列的 RGBA8 像素（size × size）
+pub fn render_thumbnail(model: &MmdModel, size: u32) -> Vec<u8> {
+    let size = size.max(1);
+    let ss_size = size * SUPERSAMPLE;
+    let mut target = Raster::new(ss_size);
+
+    let Some((min, max)) = visible_bounds(model) else {
+        return vec![0; (size * size * 4) as usize];
+    };
+    let extent = (max.x - min.x).max(max.y - min.y).max(1e-4);
+    let scale = ss_size as f32 * FILL_RATIO / extent;
+    let center = (min + max) * 0.5;
+    let half = ss_size as f32 * 0.5;
+    // 屏幕坐标：x 向右，y 向下；深度越大越靠近观察者（模型正面朝 +Z）
+    let project = |p: Vec3| Vec3::new((p.x - center.x) * scale + half, half - (p.y - center.y) * scale, p.z);
+
+    let light = Vec3::new(-0.3, 0.5, 1.0).normalize();
+    let mut textures: HashMap<i32, Option<Texture>> = HashMap::new();
+
+    for submesh in &model.submeshes {
+        let Some(material) = model.materials.get(submesh.material_id as usize) else { continue };
+        if material.diffuse.w <= ALPHA_CUTOFF {
+            continue;
+        }
+        let texture = textures
+            .entry(material.texture_index)
+            .or_insert_with(|| {
+                usize::try_from(material.texture_index).ok()
+                    .and_then(|index| model.texture_paths.get(index))
+                    .and_then(|path| load_texture(path).ok())
+            })
+            .as_ref();
+        let base = material.diffuse.truncate();
+        let ambient = material.ambient;
+
+        let begin = submesh.begin_index as usize;
+        let end = (begin + submesh.index_count as usize).min(model.indices.len());
+        for tri in model.indices[begin..end].chunks_exact(3) {
+            let v = [tri[0] as usize, tri[1] as usize, tri[2] as usize];
+            if v.iter().any(|&i| i >= model.vertices.len()) {
+                continue;
+            }
+            let verts = v.map(|i| &model.vertices[i]);
+            let screen = verts.map(|vert| project(vert.position));
+            target.draw_triangle(screen, |w| {
+                let uv = verts[0].uv * w.x + verts[1].uv * w.y + verts[2].uv * w.z;
+                let normal = (verts[0].normal * w.x + verts[1].normal * w.y + verts[2].normal * w.z)
+                    .normalize_or_zero();
+                // 半兰伯特，背面按双面处理，避免单面材质在正视图中发黑
+                let lambert = normal.dot(light).abs() * 0.5 + 0.5;
+                let shade = (ambient + base * lambert).min(Vec3::ONE);
+                let (tex_rgb, tex_a) = texture.map_or((Vec3::ONE, 1.0), |t| sample(t, uv));
+                let rgb = tex_rgb * shade;
+                [rgb.x, rgb.y, rgb.z, tex_a * material.diffuse.w]
+            });
+        }
+    }
+
+    target.downsample(SUPERSAMPLE)
+}
+
+/// 渲染缩略图并写入 PNG 文件
+pub fn save_thumbnail<P: AsRef<Path>>(model: &MmdModel, size: u32, path: P) -> Result<()> {
+    let pixels = render_thumbnail(model, size);
+    image::save_buffer(path.as_ref(), &pixels, size.max(1), size.max(1), image::ColorType::Rgba8)
+        .map_err(|e| MmdError::Texture(format!("Failed to save thumbnail: {}", e)))
+}
+
+/// 可见材质引用的顶点包围盒（模型空间）
+fn visible_bounds(model: &MmdModel) -> Option<(Vec3, Vec3)> {
+    let mut min = Vec3::splat(f32::MAX);
+    let mut max = Vec3::splat(f32::MIN);
+    for submesh in &model.submeshes {
+        let visible = model.materials.get(submesh.material_id as usize)
+            .map_or(false, |m| m.diffuse.w > ALPHA_CUTOFF);
+        if !visible {
+            continue;
+        }
+        let begin = submesh.begin_index as usize;
+        let end = (begin + submesh.index_count as usize).min(model.indices.len());
+        for &index in &model.indices[begin..end] {
+            if let Some(vertex) = model.vertices.get(index as usize) {
+                min = min.min(vertex.position);
+                max = max.max(vertex.position);
+            }
+        }
+    }
+    (min.x <= max.x).then_some((min, max))
+}
+
+/// 最近点采样（纹理数据已按 GL 约定垂直翻转，与运行时 UV 的翻转相互抵消）
+fn sample(texture: &Texture, uv: Vec2) -> (Vec3, f32) {
+    if texture.width == 0 || texture.height == 0 {
+        return (Vec3::ONE, 1.0);
+    }
+    let channels = if texture.has_alpha { 4 } else { 3 };
+    let x = ((uv.x.rem_euclid(1.0) * texture.width as f32) as u32).min(texture.width - 1);
+    let y = ((uv.y.rem_euclid(1.0) * texture.height as f32) as u32).min(texture.height - 1);
+    let offset = ((y * texture.width + x) * channels) as usize;
+    let Some(px) = texture.data.get(offset..offset + channels as usize) else {
+        return (Vec3::ONE, 1.0);
+    };
+    let rgb = Vec3::new(px[0] as f32, px[1] as f32, px[2] as f32) / 255.0;
+    let alpha = if channels == 4 { px[3] as f32 / 255.0 } else { 1.0 };
+    (rgb, alpha)
+}
+
+/// 带深度缓冲的浮点颜色目标（颜色为预乘 alpha）
+struct Raster {
+    size: u32,
+    color: Vec<[f32; 4]>,
+    depth: Vec<f32>,
+}
+
+impl Raster {
+    fn new(size: u32) -> Self {
+        let pixels = (size * size) as usize;
+        Self { size, color: vec![[0.0; 4]; pixels], depth: vec![f32::MIN; pixels] }
+    }
+
+    /// 光栅化三角形，shader 接收重心坐标并返回非预乘 RGBA
+    ///
+    /// 材质按模型顺序绘制：近乎不透明的片元写深度，半透明片元只做深度测试并混合。
+    fn draw_triangle(&mut self, v: [Vec3; 3], mut shader: impl FnMut(Vec3) -> [f32; 4]) {
+        let area = edge(v[0], v[1], v[2]);
+        if area.abs() < 1e-8 {
+            return;
+        }
+        let limit = (self.size - 1) as f32;
+        let min_x = v[0].x.min(v[1].x).min(v[2].x).floor().clamp(0.0, limit) as u32;
+        let max_x = v[0].x.max(v[1].x).max(v[2].x).ceil().clamp(0.0, limit) as u32;
+        let min_y = v[0].y.min(v[1].y).min(v[2].y).floor().clamp(0.0, limit) as u32;
+        let max_y = v[0].y.max(v[1].y).max(v[2].y).ceil().clamp(0.0, limit) as u32;
+
+        for y in min_y..=max_y {
+            for x in min_x..=max_x {
+                let p = Vec3::new(x as f32 + 0.5, y as f32 + 0.5, 0.0);
+                let w = Vec3::new(edge(v[1], v[2], p), edge(v[2], v[0], p), edge(v[0], v[1], p)) / area;
+                if w.x < 0.0 || w.y < 0.0 || w.z < 0.0 {
+                    continue;
+                }
+                let z = v[0].z * w.x + v[1].z * w.y + v[2].z * w.z;
+                let index = (y * self.size + x) as usize;
+                if z < self.depth[index] {
+                    continue;
+                }
+                let [r, g, b, a] = shader(w);
+                if a < ALPHA_CUTOFF {
+                    continue;
+                }
+                let dst = &mut self.color[index];
+                let keep = 1.0 - a;
+                *dst = [r * a + dst[0] * keep, g * a + dst[1] * keep, b * a + dst[2] * keep, a + dst[3] * keep];
+                if a > 0.9 {
+                    self.depth[index] = z;
+                }
+            }
+        }
+    }
+
+    /// 按 factor × factor 块平均，输出非预乘 RGBA8
+    fn downsample(&self, factor: u32) -> Vec<u8> {
+        let size = self.size / factor;
+        let samples = (factor * factor) as f32;
+        let mut out = Vec::with_capacity((size * size * 4) as usize);
+        for y in 0..size {
+            for x in 0..size {
+                let mut sum = [0.0f32; 4];
+                for sy in 0..factor {
+                    for sx in 0..factor {
+                        let c = self.color[((y * factor + sy) * self.size + x * factor + sx) as usize];
+                        sum.iter_mut().zip(c).for_each(|(s, c)| *s += c);
+                    }
+                }
+                let alpha = sum[3] / samples;
+                let unpremultiply = if alpha > 0.0 { 1.0 / (alpha * samples) } else { 0.0 };
+                for channel in &sum[..3] {
+                    out.push(((channel * unpremultiply).clamp(0.0, 1.0) * 255.0 + 0.5) as u8);
+                }
+                out.push((alpha.clamp(0.0, 1.0) * 255.0 + 0.5) as u8);
+            }
+        }
+        out
+    }
+}
+
+/// 边函数（p 在 a→b 左侧为正，屏幕 y 向下）
+fn edge(a: Vec3, b: Vec3, p: Vec3) -> f32 {
+    (b.x - a.x) * (p.y - a.y) - (b.y - a.y) * (p.x - a.x)
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    #[test]
+    fn raster_covers_triangle_and_keeps_background_transparent() {
+        let mut raster = Raster::new(8);
+        let tri = [Vec3::new(0.0, 0.0, 0.0), Vec3::new(8.0, 0.0, 0.0), Vec3::new(0.0, 8.0, 0.0)];
+        raster.draw_triangle(tri, |_| [1.0, 0.5, 0.0, 1.0]);
+        // 绕序相反的三角形同样被光栅化，且被更近的深度覆盖
+        let near = [Vec3::new(0.0, 0.0, 1.0), Vec3::new(0.0, 4.0, 1.0), Vec3::new(4.0, 0.0, 1.0)];
+        raster.draw_triangle(near, |_| [0.0, 0.0, 1.0, 1.0]);
+
+        let pixels = raster.downsample(2);
+        assert_eq!(pixels.len(), 4 * 4 * 4);
+        assert_eq!(&pixels[0..4], &[0, 0, 255, 255]);
+        let top = 2 * 4;
+        assert_eq!(&pixels[top..top + 4], &[255, 128, 0, 255]);
+        let bottom_right = (3 * 4 + 3) * 4;
+        assert_eq!(pixels[bottom_right + 3], 0);
+    }
+}
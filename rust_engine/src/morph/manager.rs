@@ -10,6 +10,7 @@
 use std::collections::HashMap;
 use glam::{Vec2, Vec3, Vec4};
 
+use crate::model::memory::{name_map_bytes, vec_bytes};
 use crate::skeleton::BoneManager;
 use super::{Morph, MorphType, MaterialMorphOffset};
 
@@ -161,6 +162,22 @@ impl MorphManager {
         self.uv_morph_deltas = vec![Vec2::ZERO; count];
     }
     
+    /// 已分配的堆字节数（Morph 定义、名称索引与计算结果）
+    pub fn heap_bytes(&self) -> usize {
+        vec_bytes(&self.morphs)
+            + self.morphs.iter().map(|m| {
+                m.name.capacity()
+                    + vec_bytes(&m.vertex_offsets)
+                    + vec_bytes(&m.bone_offsets)
+                    + vec_bytes(&m.material_offsets)
+                    + vec_bytes(&m.uv_offsets)
+                    + vec_bytes(&m.group_offsets)
+            }).sum::<usize>()
+            + name_map_bytes(&self.name_to_index)
+            + vec_bytes(&self.material_morph_results)
+            + vec_bytes(&self.uv_morph_deltas)
+    }
+    
     /// 添加 Morph
     pub fn add_morph(&mut self, morph: Morph) {
         let index = self.morphs.len();
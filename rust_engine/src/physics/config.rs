@@ -55,6 +55,33 @@ pub struct PhysicsConfig {
     /// 最大角速度 (rad/s)，默认 20.0
     pub max_angular_velocity: f32,
 
+    // ========== 休眠 ==========
+    /// 是否启用休眠检测，默认 true
+    /// 姿势静止且所有动态刚体低于速度阈值一段时间后，跳过运动学同步与求解
+    pub sleep_enabled: bool,
+    /// 休眠线速度阈值，默认 0.02
+    pub sleep_linear_velocity: f32,
+    /// 休眠角速度阈值 (rad/s)，默认 0.05
+    pub sleep_angular_velocity: f32,
+    /// 低于阈值持续多久后进入休眠（秒），默认 0.5
+    pub sleep_delay: f32,
+
+    // ========== 距离 LOD ==========
+    /// 超过该距离（方块）时每帧（异步模式为每次姿势快照）子步数上限降为 2、求解器迭代减半，默认 16.0
+    pub lod_near_distance: f32,
+    /// 超过该距离（方块）时每帧子步数上限降为 1、求解器迭代降为 1/4，默认 48.0
+    pub lod_far_distance: f32,
+
+    // ========== 模拟线程 ==========
+    /// 是否在独立线程中按固定步长模拟，默认 false
+    /// 启用后渲染线程只提交姿势并在最近两次物理步之间插值
+    pub async_simulation: bool,
+
+    // ========== 共享世界 ==========
+    /// 是否让所有模型共享一个物理世界，默认 false
+    /// 启用后每个物理步只运行一次流水线，模型之间以碰撞标记隔离；优先于 async_simulation
+    pub shared_world: bool,
+
     // ========== 调试 ==========
     /// 是否启用关节，默认 true
     pub joints_enabled: bool,
@@ -136,6 +163,30 @@ impl Default for PhysicsConfig {
             // 同上
             max_angular_velocity: 5.0,
 
+            // ====== 休眠 ======
+            // 待机不动时头发、裙子静止后不再求解，有任何骨骼或模型移动立即唤醒
+            sleep_enabled: true,
+            // 所有动态刚体的线速度/角速度都低于阈值才算静止
+            sleep_linear_velocity: 0.02,
+            sleep_angular_velocity: 0.05,
+            // 静止持续时间，太短会在摆动的最高点误判为静止
+            sleep_delay: 0.5,
+
+            // ====== 距离 LOD ======
+            // 远处模型看不清细节，降低子步数和求解器迭代次数以节省 CPU
+            lod_near_distance: 16.0,
+            lod_far_distance: 48.0,
+
+            // ====== 模拟线程 ======
+            // 开启后所有模型的物理在一条共享模拟线程上按 physics_fps 固定步长轮流推进，
+            // 与游戏帧率无关（30 或 240 FPS 下头发表现一致），渲染线程不再等待求解器
+            async_simulation: false,
+
+            // ====== 共享世界 ======
+            // 多人同屏时所有模型共用一个物理世界，只付一次流水线开销，互不碰撞
+            // 切换时已加载模型的物理会在下一次更新时重建（状态重置）
+            shared_world: false,
+
             // ====== 调试 ======
             // 是否启用关节约束
             // 关闭后头发会完全散开（用于调试）
@@ -157,6 +208,16 @@ pub fn get_config() -> PhysicsConfig {
     PHYSICS_CONFIG.read().unwrap_or_else(|e| e.into_inner()).clone()
 }
 
+/// 是否启用独立线程模拟（每帧调用，避免克隆整份配置）
+pub fn is_async_simulation() -> bool {
+    PHYSICS_CONFIG.read().unwrap_or_else(|e| e.into_inner()).async_simulation
+}
+
+/// 是否启用多模型共享物理世界（每帧调用，避免克隆整份配置）
+pub fn is_shared_world() -> bool {
+    PHYSICS_CONFIG.read().unwrap_or_else(|e| e.into_inner()).shared_world
+}
+
 /// 手动设置配置（用于运行时调试）
 pub fn set_config(config: PhysicsConfig) {
     *PHYSICS_CONFIG.write().unwrap_or_else(|e| e.into_inner()) = config;
@@ -2,6 +2,11 @@
 //!
 //! 对应 C++ saba 的 MMDPhysics 类，使用 Rapier3D 实现。
 //!
+//! - [`ModelPhysics`]：单个模型的刚体、关节与休眠状态，操作传入的 [`PhysicsWorld`]
+//! - [`MMDPhysics`]：独立模式，模型独占一个物理世界并自行步进
+//!
+//! 共享模式下多个模型的 [`ModelPhysics`] 放入同一个世界，见 [`super::shared_world`]。
+//!
 //! ## Bullet3 → Rapier 映射
 //! | Bullet3 | Rapier |
 //! |---------|--------|
@@ -13,173 +18,154 @@
 use glam::{Mat4, Vec3};
 use rapier3d::prelude::*;
 use rapier3d::math::Real;
-use std::num::NonZeroUsize;
 
 use mmd::pmx::rigid_body::RigidBody as PmxRigidBody;
 use mmd::pmx::joint::Joint as PmxJoint;
 
-use super::mmd_rigid_body::{MMDRigidBody, RigidBodyType};
+use crate::model::memory::vec_bytes;
+use crate::skeleton::{BoneMask, BoneSet};
+
+use super::mmd_rigid_body::{MMDRigidBody, Pose, RigidBodyType};
 use super::mmd_joint::MMDJoint;
-use super::config::get_config;
+use super::physics_world::PhysicsWorld;
+use super::config::{get_config, PhysicsConfig};
 
-/// MMD 物理世界管理器
-/// 
-/// 对应 C++ saba 的 MMDPhysics 类，管理：
-/// - Rapier PhysicsPipeline (物理流水线)
-/// - RigidBodySet (刚体集合)
-/// - ColliderSet (碰撞体集合)
-/// - ImpulseJointSet (关节集合)
-/// - 地面刚体
-pub struct MMDPhysics {
-    /// 物理流水线
-    pub physics_pipeline: PhysicsPipeline,
-    /// 积分参数
-    pub integration_parameters: IntegrationParameters,
-    /// 岛管理器
-    pub island_manager: IslandManager,
-    /// 宽相检测
-    pub broad_phase: DefaultBroadPhase,
-    /// 窄相检测
-    pub narrow_phase: NarrowPhase,
-    /// 刚体集合
-    pub rigid_body_set: RigidBodySet,
-    /// 碰撞体集合
-    pub collider_set: ColliderSet,
-    /// 关节集合
-    pub impulse_joint_set: ImpulseJointSet,
-    /// 多体关节集合
-    pub multibody_joint_set: MultibodyJointSet,
-    /// CCD 求解器
-    pub ccd_solver: CCDSolver,
+/// 平移位姿（模型局部空间 ↔ 世界空间）
+#[inline]
+fn translated(pose: Pose, offset: Vector<Real>) -> Pose {
+    let mut pose = pose;
+    pose.translation.vector += offset;
+    pose
+}
+
+/// 模型在物理世界中的放置方式
+#[derive(Debug, Clone, Copy)]
+pub struct WorldPlacement {
+    /// 模型局部原点在世界中的位置（共享世界中各模型分区放置，互不重叠）
+    pub origin: Vec3,
+    /// 碰撞体标记（写入 Collider::user_data）；非 0 时启用接触过滤，只与同标记的碰撞体接触
+    pub collision_tag: u128,
+    /// 地面盒子的水平半宽
+    pub ground_half_extent: f32,
+}
+
+impl WorldPlacement {
+    /// 独立世界：原点不偏移，不过滤接触
+    pub fn standalone() -> Self {
+        Self {
+            origin: Vec3::ZERO,
+            collision_tag: 0,
+            ground_half_extent: 1000.0,
+        }
+    }
+}
+
+/// 单个模型的物理状态
+///
+/// 刚体与关节位于传入的 [`PhysicsWorld`] 中，位姿在接口上始终是模型局部空间，
+/// 与世界原点偏移的换算在内部完成。
+pub struct ModelPhysics {
     /// 地面刚体句柄
     pub ground_handle: Option<RigidBodyHandle>,
     /// MMD 刚体列表
     pub mmd_rigid_bodies: Vec<MMDRigidBody>,
     /// MMD 关节列表
     pub mmd_joints: Vec<MMDJoint>,
-    /// FPS（用于计算固定时间步长）
-    pub fps: f32,
-    /// 最大子步数
-    pub max_substep_count: i32,
-    /// 重力向量
-    pub gravity: Vector<Real>,
+    /// 动态刚体关联骨骼的掩码（添加刚体时预先计算）
+    dynamic_bone_mask: BoneMask,
     /// 是否启用关节（调试用）
     pub joints_enabled: bool,
     /// 上一帧的模型变换（用于计算模型整体移动速度）
     pub prev_model_transform: Option<Mat4>,
-    /// 时间累积器（固定时间步模式）
-    accumulator: f32,
+    /// 是否处于休眠（跳过运动学同步与求解）
+    sleeping: bool,
+    /// 动态刚体持续静止的时间（秒）
+    sleep_timer: f32,
+    /// 模型局部原点在世界中的偏移
+    origin: Vector<Real>,
+    /// 碰撞体标记（0 表示不过滤）
+    collision_tag: u128,
+    /// 刚体是否参与模拟
+    bodies_enabled: bool,
 }
 
-impl MMDPhysics {
-    /// 创建新的物理世界
-    pub fn new() -> Self {
-        let config = get_config();
-        
-        let mut rigid_body_set = RigidBodySet::new();
-        let mut collider_set = ColliderSet::new();
+impl ModelPhysics {
+    /// 在世界中创建模型的地面，刚体与关节随后通过 add_rigid_body / add_joint 添加
+    pub fn new(world: &mut PhysicsWorld, placement: WorldPlacement) -> Self {
+        let origin = Vector::new(placement.origin.x, placement.origin.y, placement.origin.z);
         
         // 创建地面（静态平面）
         // 使用一个大的静态盒子作为地面
         let ground = RigidBodyBuilder::fixed()
-            .translation(Vector::new(0.0, -50.0, 0.0))
+            .translation(origin + Vector::new(0.0, -50.0, 0.0))
             .build();
-        let ground_handle = rigid_body_set.insert(ground);
+        let ground_handle = world.rigid_body_set.insert(ground);
         
         // 地面碰撞体（大盒子）
-        let ground_collider = ColliderBuilder::cuboid(1000.0, 50.0, 1000.0)
+        let extent = placement.ground_half_extent;
+        let mut ground_collider = ColliderBuilder::cuboid(extent, 50.0, extent)
             .build();
-        collider_set.insert_with_parent(ground_collider, ground_handle, &mut rigid_body_set);
-        
-        // 设置积分参数（从配置读取）
-        let mut integration_parameters = IntegrationParameters::default();
-        integration_parameters.dt = 1.0 / config.physics_fps;
-        integration_parameters.num_solver_iterations = NonZeroUsize::new(config.solver_iterations).unwrap_or(NonZeroUsize::new(4).unwrap());
-        integration_parameters.num_internal_pgs_iterations = config.pgs_iterations;
-        integration_parameters.normalized_max_corrective_velocity = config.max_corrective_velocity;
-        
-        if config.debug_log {
-            log::info!("[物理配置] FPS={}, 重力Y={}, 求解器迭代={}, PGS迭代={}",
-                config.physics_fps, config.gravity_y, config.solver_iterations, config.pgs_iterations);
-        }
+        Self::tag_collider(&mut ground_collider, placement.collision_tag);
+        world.collider_set.insert_with_parent(ground_collider, ground_handle, &mut world.rigid_body_set);
         
         Self {
-            physics_pipeline: PhysicsPipeline::new(),
-            integration_parameters,
-            island_manager: IslandManager::new(),
-            broad_phase: DefaultBroadPhase::new(),
-            narrow_phase: NarrowPhase::new(),
-            rigid_body_set,
-            collider_set,
-            impulse_joint_set: ImpulseJointSet::new(),
-            multibody_joint_set: MultibodyJointSet::new(),
-            ccd_solver: CCDSolver::new(),
             ground_handle: Some(ground_handle),
             mmd_rigid_bodies: Vec::new(),
             mmd_joints: Vec::new(),
-            fps: config.physics_fps,
-            max_substep_count: config.max_substep_count,
-            gravity: Vector::new(0.0, config.gravity_y, 0.0),
-            joints_enabled: config.joints_enabled,
+            dynamic_bone_mask: BoneMask::new(),
+            joints_enabled: get_config().joints_enabled,
             prev_model_transform: None,
-            accumulator: 0.0,
+            sleeping: false,
+            sleep_timer: 0.0,
+            origin,
+            collision_tag: placement.collision_tag,
+            bodies_enabled: true,
         }
     }
     
-    /// 设置 FPS
-    pub fn set_fps(&mut self, fps: f32) {
-        self.fps = fps;
-        self.integration_parameters.dt = 1.0 / fps;
-    }
-    
-    /// 获取 FPS
-    pub fn get_fps(&self) -> f32 {
-        self.fps
-    }
-    
-    /// 设置最大子步数
-    pub fn set_max_substep_count(&mut self, count: i32) {
-        self.max_substep_count = count;
-    }
-    
-    /// 获取最大子步数
-    pub fn get_max_substep_count(&self) -> i32 {
-        self.max_substep_count
-    }
-    
-    /// 设置重力
-    pub fn set_gravity(&mut self, gravity: Vec3) {
-        self.gravity = Vector::new(gravity.x, gravity.y, gravity.z);
+    fn tag_collider(collider: &mut Collider, collision_tag: u128) {
+        if collision_tag != 0 {
+            collider.user_data = collision_tag;
+            collider.set_active_hooks(ActiveHooks::FILTER_CONTACT_PAIRS);
+        }
     }
     
     /// 从 PMX 数据添加刚体
     /// 
     /// # 参数
+    /// - `world`: 物理世界
     /// - `pmx_rb`: PMX 刚体数据
-    /// - `bone_global_transform`: 关联骨骼的全局变换
+    /// - `bone_global_transform`: 关联骨骼的全局变换（绑定姿势）
     pub fn add_rigid_body(
         &mut self,
+        world: &mut PhysicsWorld,
         pmx_rb: &PmxRigidBody,
         bone_global_transform: Option<Mat4>,
     ) -> usize {
         let mut mmd_rb = MMDRigidBody::from_pmx(pmx_rb, bone_global_transform);
         
         // 创建 Rapier 刚体
-        let rb = mmd_rb.build_rigid_body();
-        let rb_handle = self.rigid_body_set.insert(rb);
+        let mut rb = mmd_rb.build_rigid_body();
+        rb.set_position(translated(mmd_rb.initial_transform, self.origin), false);
+        let rb_handle = world.rigid_body_set.insert(rb);
         mmd_rb.rigid_body_handle = Some(rb_handle);
         
         // 创建 Rapier 碰撞体
-        let collider = mmd_rb.build_collider(pmx_rb);
-        let collider_handle = self.collider_set.insert_with_parent(
+        let mut collider = mmd_rb.build_collider(pmx_rb);
+        Self::tag_collider(&mut collider, self.collision_tag);
+        let collider_handle = world.collider_set.insert_with_parent(
             collider,
             rb_handle,
-            &mut self.rigid_body_set,
+            &mut world.rigid_body_set,
         );
         mmd_rb.collider_handle = Some(collider_handle);
         
         let index = self.mmd_rigid_bodies.len();
         
+        if mmd_rb.body_type != RigidBodyType::Kinematic && mmd_rb.bone_index >= 0 {
+            self.dynamic_bone_mask.insert(mmd_rb.bone_index as usize);
+        }
+        
         // 调试：打印前几个刚体的信息
         if get_config().debug_log && index < 5 {
             let pos = mmd_rb.initial_transform.translation;
@@ -198,7 +184,7 @@ impl MMDPhysics {
     /// 
     /// # 参数
     /// - `pmx_joint`: PMX 关节数据
-    pub fn add_joint(&mut self, pmx_joint: &PmxJoint) -> Option<usize> {
+    pub fn add_joint(&mut self, world: &mut PhysicsWorld, pmx_joint: &PmxJoint) -> Option<usize> {
         // 调试：如果禁用关节，跳过添加
         if !self.joints_enabled {
             return None;
@@ -214,12 +200,9 @@ impl MMDPhysics {
         let rb_a_handle = self.mmd_rigid_bodies[rb_a_idx].rigid_body_handle?;
         let rb_b_handle = self.mmd_rigid_bodies[rb_b_idx].rigid_body_handle?;
         
-        // 获取刚体的世界变换
-        let rb_a = self.rigid_body_set.get(rb_a_handle)?;
-        let rb_b = self.rigid_body_set.get(rb_b_handle)?;
-        
-        let rb_a_transform = *rb_a.position();
-        let rb_b_transform = *rb_b.position();
+        // 刚体的初始变换（模型局部空间，与刚体刚插入世界时的位姿一致，不受世界原点偏移影响）
+        let rb_a_transform = self.mmd_rigid_bodies[rb_a_idx].initial_transform;
+        let rb_b_transform = self.mmd_rigid_bodies[rb_b_idx].initial_transform;
         
         let mut mmd_joint = MMDJoint::from_pmx(pmx_joint, rb_a_transform, rb_b_transform);
         
@@ -255,7 +238,7 @@ impl MMDPhysics {
         
         // 创建 Rapier 关节（限制 + ForceBased motor 弹簧）
         let joint = mmd_joint.build_joint();
-        let joint_handle = self.impulse_joint_set.insert(
+        let joint_handle = world.impulse_joint_set.insert(
             rb_a_handle,
             rb_b_handle,
             joint,
@@ -266,71 +249,94 @@ impl MMDPhysics {
         self.mmd_joints.push(mmd_joint);
         Some(index)
     }
-
-    /// 更新物理模拟
+    
+    /// 休眠检测（在同步运动学刚体之前调用）
     ///
-    /// 使用标准的 "Fix Your Timestep" 累积器模式：
-    /// 每次物理步进始终使用固定 dt，剩余不足一步的时间保留到下一帧。
-    /// 这保证了不同游戏帧率下物理行为完全一致。
-    /// 
-    /// # 参数
-    /// - `delta_time`: 经过的时间（秒）
-    pub fn update(&mut self, delta_time: f32) {
-        let fixed_dt = 1.0 / self.fps;
-        let max_steps = self.max_substep_count.max(1);
+    /// 返回 true 表示世界处于休眠，本帧应跳过运动学同步与物理步进。
+    /// 模型位置或任何运动学刚体的目标位姿发生变化都会立即唤醒。
+    pub fn update_sleep_state(&mut self, world: &PhysicsWorld, bone_transforms: &[Mat4], model_transform: Mat4, delta_time: f32) -> bool {
+        let config = get_config();
+        if !config.sleep_enabled || !self.is_kinematic_pose_static(bone_transforms, model_transform) {
+            self.sleeping = false;
+            self.sleep_timer = 0.0;
+            return false;
+        }
+        if self.sleeping {
+            return true;
+        }
         
-        // 累积本帧时间
-        self.accumulator += delta_time;
+        if self.dynamic_bodies_at_rest(world, config.sleep_linear_velocity, config.sleep_angular_velocity) {
+            self.sleep_timer += delta_time;
+            if self.sleep_timer >= config.sleep_delay {
+                self.sleeping = true;
+                return true;
+            }
+        } else {
+            self.sleep_timer = 0.0;
+        }
+        false
+    }
+    
+    /// 是否处于休眠
+    pub fn is_sleeping(&self) -> bool {
+        self.sleeping
+    }
+    
+    /// 运动学姿势是否与上一次同步时相同（模型未移动且所有跟随骨骼的刚体目标位姿未变）
+    fn is_kinematic_pose_static(&self, bone_transforms: &[Mat4], model_transform: Mat4) -> bool {
+        const EPSILON: f32 = 1e-4;
         
-        // 防止螺旋死亡：如果累积时间过大，截断到最大可处理时间
-        let max_accumulator = fixed_dt * max_steps as f32;
-        if self.accumulator > max_accumulator {
-            self.accumulator = max_accumulator;
+        let prev_model = match self.prev_model_transform {
+            Some(transform) => transform,
+            None => return false,
+        };
+        // 比较完整矩阵：绕 X 轴的旋转与非均匀缩放不会体现在 x_axis 上
+        if !prev_model.abs_diff_eq(model_transform, EPSILON) {
+            return false;
         }
         
-        // 以固定步长消耗累积时间
-        while self.accumulator >= fixed_dt {
-            self.step_once(fixed_dt);
-            self.accumulator -= fixed_dt;
+        for mmd_rb in &self.mmd_rigid_bodies {
+            if mmd_rb.body_type != RigidBodyType::Kinematic || mmd_rb.bone_index < 0 {
+                continue;
+            }
+            let bone_transform = match bone_transforms.get(mmd_rb.bone_index as usize) {
+                Some(transform) => *transform,
+                None => continue,
+            };
+            let prev_pose = match mmd_rb.prev_transform {
+                Some(pose) => pose,
+                None => return false,
+            };
+            let new_pose = mmd_rb.compute_world_transform(bone_transform);
+            if (new_pose.translation.vector - prev_pose.translation.vector).norm() > EPSILON
+                || new_pose.rotation.angle_to(&prev_pose.rotation) > EPSILON
+            {
+                return false;
+            }
         }
-
-        let config = get_config();
-        self.clamp_velocities(config.max_linear_velocity, config.max_angular_velocity);
+        true
     }
-
-    /// 执行一次物理步进
-    fn step_once(&mut self, dt: f32) {
-        self.integration_parameters.dt = dt;
-        self.physics_pipeline.step(
-            &self.gravity,
-            &self.integration_parameters,
-            &mut self.island_manager,
-            &mut self.broad_phase,
-            &mut self.narrow_phase,
-            &mut self.rigid_body_set,
-            &mut self.collider_set,
-            &mut self.impulse_joint_set,
-            &mut self.multibody_joint_set,
-            &mut self.ccd_solver,
-            None,
-            &(),
-            &(),
-        );
+    
+    /// 所有动态刚体的线速度与角速度是否都低于阈值
+    fn dynamic_bodies_at_rest(&self, world: &PhysicsWorld, max_linear_velocity: f32, max_angular_velocity: f32) -> bool {
+        self.mmd_rigid_bodies.iter()
+            .filter(|rb| rb.body_type != RigidBodyType::Kinematic)
+            .filter_map(|rb| rb.rigid_body_handle.and_then(|h| world.rigid_body_set.get(h)))
+            .all(|rb| rb.linvel().norm() <= max_linear_velocity && rb.angvel().norm() <= max_angular_velocity)
     }
     
     /// 限制刚体速度，防止物理爆炸
     /// 
     /// MMD 物理中，当刚体穿透卡模时会产生极大的恢复力导致速度过高。
     /// 通过限制最大速度可以防止这种情况。
-    fn clamp_velocities(&mut self, max_linear_velocity: f32, max_angular_velocity: f32) {
-        
+    pub fn clamp_velocities(&mut self, world: &mut PhysicsWorld, max_linear_velocity: f32, max_angular_velocity: f32) {
         for mmd_rb in &self.mmd_rigid_bodies {
             if mmd_rb.body_type == RigidBodyType::Kinematic {
                 continue;
             }
             
             if let Some(rb_handle) = mmd_rb.rigid_body_handle {
-                if let Some(rb) = self.rigid_body_set.get_mut(rb_handle) {
+                if let Some(rb) = world.rigid_body_set.get_mut(rb_handle) {
                     // 限制线速度
                     let linvel = rb.linvel();
                     let linvel_mag = linvel.norm();
@@ -351,6 +357,18 @@ impl MMDPhysics {
         }
     }
     
+    /// 骨骼 → 物理：休眠检测并同步运动学刚体
+    ///
+    /// 返回 true 表示需要随后推进模拟；
+    /// 返回 false 表示处于休眠，本帧跳过同步与求解。
+    pub fn sync_from_bones(&mut self, world: &mut PhysicsWorld, bone_snapshot: &[Mat4], model_transform: Mat4, delta_time: f32) -> bool {
+        if self.update_sleep_state(world, bone_snapshot, model_transform, delta_time) {
+            return false;
+        }
+        self.sync_kinematic_bodies_with_model_velocity(world, bone_snapshot, delta_time, model_transform);
+        true
+    }
+    
     /// 在物理更新前同步运动学刚体（跟随骨骼）
     /// 
     /// 关键改进：计算并设置运动学刚体的速度，使连接的动态刚体产生惯性
@@ -358,8 +376,9 @@ impl MMDPhysics {
     /// # 参数
     /// - `bone_transforms`: 骨骼全局变换列表
     /// - `delta_time`: 时间步长（秒）
-    pub fn sync_kinematic_bodies(&mut self, bone_transforms: &[Mat4], delta_time: f32) {
+    pub fn sync_kinematic_bodies(&mut self, world: &mut PhysicsWorld, bone_transforms: &[Mat4], delta_time: f32) {
         let dt = delta_time.max(0.001); // 防止除零
+        let origin = self.origin;
         
         for mmd_rb in &mut self.mmd_rigid_bodies {
             if mmd_rb.body_type != RigidBodyType::Kinematic {
@@ -367,7 +386,7 @@ impl MMDPhysics {
             }
             
             if let Some(rb_handle) = mmd_rb.rigid_body_handle {
-                if let Some(rb) = self.rigid_body_set.get_mut(rb_handle) {
+                if let Some(rb) = world.rigid_body_set.get_mut(rb_handle) {
                     let bone_idx = mmd_rb.bone_index;
                     if bone_idx >= 0 && (bone_idx as usize) < bone_transforms.len() {
                         let bone_transform = bone_transforms[bone_idx as usize];
@@ -402,7 +421,7 @@ impl MMDPhysics {
                         }
                         
                         // 设置目标位置
-                        rb.set_next_kinematic_position(new_pose);
+                        rb.set_next_kinematic_position(translated(new_pose, origin));
                         
                         // 保存当前变换用于下一帧
                         mmd_rb.prev_transform = Some(new_pose);
@@ -421,12 +440,14 @@ impl MMDPhysics {
     /// - `delta_time`: 时间步长（秒）
     /// - `model_transform`: 当前模型的世界变换
     pub fn sync_kinematic_bodies_with_model_velocity(
-        &mut self, 
+        &mut self,
+        world: &mut PhysicsWorld,
         bone_transforms: &[Mat4], 
         delta_time: f32,
         model_transform: Mat4,
     ) {
         let dt = delta_time.max(0.001);
+        let origin = self.origin;
         
         // 计算模型整体移动的速度（仅使用位置差）
         let model_velocity = if let Some(prev_transform) = self.prev_model_transform {
@@ -450,14 +471,14 @@ impl MMDPhysics {
             }
             
             if let Some(rb_handle) = mmd_rb.rigid_body_handle {
-                if let Some(rb) = self.rigid_body_set.get_mut(rb_handle) {
+                if let Some(rb) = world.rigid_body_set.get_mut(rb_handle) {
                     let bone_idx = mmd_rb.bone_index;
                     if bone_idx >= 0 && (bone_idx as usize) < bone_transforms.len() {
                         let bone_transform = bone_transforms[bone_idx as usize];
                         let new_pose = mmd_rb.compute_world_transform(bone_transform);
                         
                         // Kinematic 刚体：只设置位置，速度设置无意义
-                        rb.set_next_kinematic_position(new_pose);
+                        rb.set_next_kinematic_position(translated(new_pose, origin));
                         mmd_rb.prev_transform = Some(new_pose);
                     }
                 }
@@ -495,7 +516,7 @@ impl MMDPhysics {
             }
             
             if let Some(rb_handle) = mmd_rb.rigid_body_handle {
-                if let Some(rb) = self.rigid_body_set.get_mut(rb_handle) {
+                if let Some(rb) = world.rigid_body_set.get_mut(rb_handle) {
                     let mass = rb.mass();
                     // F = m * v / dt，将速度转换为力（冲量等效）
                     // 这样在一个物理步内产生的速度变化 ≈ inertia_velocity
@@ -511,17 +532,17 @@ impl MMDPhysics {
     /// 
     /// # 参数
     /// - `bone_transforms`: 骨骼全局变换列表（会被修改）
-    pub fn reflect_to_bones(&self, bone_transforms: &mut [Mat4]) {
+    pub fn reflect_to_bones(&self, world: &PhysicsWorld, bone_transforms: &mut [Mat4]) {
         for mmd_rb in &self.mmd_rigid_bodies {
             if mmd_rb.body_type == RigidBodyType::Kinematic {
                 continue;
             }
             
             if let Some(rb_handle) = mmd_rb.rigid_body_handle {
-                if let Some(rb) = self.rigid_body_set.get(rb_handle) {
+                if let Some(rb) = world.rigid_body_set.get(rb_handle) {
                     let bone_idx = mmd_rb.bone_index;
                     if bone_idx >= 0 && (bone_idx as usize) < bone_transforms.len() {
-                        let rb_pose = *rb.position();
+                        let rb_pose = translated(*rb.position(), -self.origin);
                         
                         let new_bone_transform = match mmd_rb.body_type {
                             RigidBodyType::Dynamic => {
@@ -545,14 +566,15 @@ impl MMDPhysics {
     }
     
     /// 重置所有刚体到初始状态
-    pub fn reset(&mut self) {
+    pub fn reset(&mut self, world: &mut PhysicsWorld) {
+        let origin = self.origin;
         for mmd_rb in &mut self.mmd_rigid_bodies {
             // 清除上一帧变换，防止重置后第一帧计算出巨大速度
             mmd_rb.prev_transform = None;
             if let Some(rb_handle) = mmd_rb.rigid_body_handle {
-                if let Some(rb) = self.rigid_body_set.get_mut(rb_handle) {
+                if let Some(rb) = world.rigid_body_set.get_mut(rb_handle) {
                     // 重置位置
-                    rb.set_position(mmd_rb.initial_transform, true);
+                    rb.set_position(translated(mmd_rb.initial_transform, origin), true);
                     // 重置速度
                     rb.set_linvel(Vector::new(0.0, 0.0, 0.0), true);
                     rb.set_angvel(Vector::new(0.0, 0.0, 0.0), true);
@@ -563,9 +585,10 @@ impl MMDPhysics {
                 }
             }
         }
-        // 清除模型变换状态和时间累积器
+        // 清除模型变换状态和休眠状态
         self.prev_model_transform = None;
-        self.accumulator = 0.0;
+        self.sleeping = false;
+        self.sleep_timer = 0.0;
     }
     
     /// 获取刚体数量
@@ -578,12 +601,17 @@ impl MMDPhysics {
         self.mmd_joints.len()
     }
     
-    /// 获取动态刚体关联的骨骼变换列表
-    /// 
-    /// 返回 (骨骼索引, 新变换) 列表，按刚体顺序排列
-    /// 用于物理更新后只更新被物理驱动的骨骼
-    pub fn get_dynamic_bone_transforms(&self, current_bone_transforms: &[Mat4]) -> Vec<(usize, Mat4)> {
-        let mut result = Vec::new();
+    /// 将动态刚体的位姿写回骨骼（物理 → 骨骼桥接，稳态下不分配内存）
+    ///
+    /// 1. 设置物理骨骼掩码，防止后续骨骼更新覆盖物理变换
+    /// 2. 只更新被物理驱动的骨骼
+    /// 3. 更新非物理骨骼的全局变换（它们可能是物理骨骼的子骨骼）
+    ///
+    /// # 参数
+    /// - `bones`: 骨骼集合
+    /// - `bone_snapshot`: 物理更新前的骨骼全局变换（DynamicWithBonePosition 从中取骨骼位置）
+    pub fn write_dynamic_bones(&self, world: &PhysicsWorld, bones: &mut BoneSet, bone_snapshot: &[Mat4]) {
+        bones.set_physics_bone_mask(&self.dynamic_bone_mask);
         
         for mmd_rb in &self.mmd_rigid_bodies {
             if mmd_rb.body_type == RigidBodyType::Kinematic {
@@ -591,17 +619,17 @@ impl MMDPhysics {
             }
             
             if let Some(rb_handle) = mmd_rb.rigid_body_handle {
-                if let Some(rb) = self.rigid_body_set.get(rb_handle) {
+                if let Some(rb) = world.rigid_body_set.get(rb_handle) {
                     let bone_idx = mmd_rb.bone_index;
-                    if bone_idx >= 0 && (bone_idx as usize) < current_bone_transforms.len() {
-                        let rb_pose = *rb.position();
+                    if bone_idx >= 0 && (bone_idx as usize) < bone_snapshot.len() {
+                        let rb_pose = translated(*rb.position(), -self.origin);
                         
                         let new_bone_transform = match mmd_rb.body_type {
                             RigidBodyType::Dynamic => {
                                 mmd_rb.compute_bone_transform(rb_pose)
                             }
                             RigidBodyType::DynamicWithBonePosition => {
-                                let current_pos = current_bone_transforms[bone_idx as usize]
+                                let current_pos = bone_snapshot[bone_idx as usize]
                                     .w_axis
                                     .truncate();
                                 mmd_rb.compute_bone_transform_rotation_only(rb_pose, current_pos)
@@ -609,22 +637,303 @@ impl MMDPhysics {
                             RigidBodyType::Kinematic => unreachable!(),
                         };
                         
-                        result.push((bone_idx as usize, new_bone_transform));
+                        bones.set_global_transform_physics(bone_idx as usize, new_bone_transform);
                     }
                 }
             }
         }
         
-        result
+        bones.update_non_physics_children();
+    }
+    
+    /// 该模型在物理世界中占用的堆内存估算（刚体、碰撞体、关节按结构体大小计，不含碰撞形状）
+    pub fn heap_bytes(&self) -> usize {
+        let bodies = self.mmd_rigid_bodies.iter().filter(|rb| rb.rigid_body_handle.is_some()).count()
+            + self.ground_handle.is_some() as usize;
+        let joints = self.mmd_joints.iter().filter(|j| j.joint_handle.is_some()).count();
+        vec_bytes(&self.mmd_rigid_bodies)
+            + vec_bytes(&self.mmd_joints)
+            + bodies * (std::mem::size_of::<RigidBody>() + std::mem::size_of::<Collider>())
+            + joints * std::mem::size_of::<ImpulseJoint>()
+    }
+    
+    /// 动态刚体关联骨骼的掩码
+    pub fn dynamic_bone_mask(&self) -> &BoneMask {
+        &self.dynamic_bone_mask
+    }
+    
+    /// 刚体当前位姿（模型局部空间），刚体不存在时返回初始位姿
+    pub fn body_pose(&self, world: &PhysicsWorld, mmd_rb: &MMDRigidBody) -> Pose {
+        mmd_rb.rigid_body_handle
+            .and_then(|h| world.rigid_body_set.get(h))
+            .map(|rb| translated(*rb.position(), -self.origin))
+            .unwrap_or(mmd_rb.initial_transform)
     }
     
-    /// 获取所有动态刚体关联的骨骼索引集合
-    pub fn get_dynamic_bone_indices(&self) -> std::collections::HashSet<usize> {
-        self.mmd_rigid_bodies
-            .iter()
-            .filter(|rb| rb.body_type != RigidBodyType::Kinematic && rb.bone_index >= 0)
-            .map(|rb| rb.bone_index as usize)
-            .collect()
+    /// 启用/停用模型的全部刚体（停用后不参与求解与碰撞，位姿保留）
+    pub fn set_bodies_enabled(&mut self, world: &mut PhysicsWorld, enabled: bool) {
+        if self.bodies_enabled == enabled {
+            return;
+        }
+        self.bodies_enabled = enabled;
+        let handles = self.ground_handle.into_iter()
+            .chain(self.mmd_rigid_bodies.iter().filter_map(|rb| rb.rigid_body_handle));
+        for handle in handles {
+            if let Some(rb) = world.rigid_body_set.get_mut(handle) {
+                rb.set_enabled(enabled);
+            }
+        }
+    }
+    
+    /// 丢弃上一帧的运动学变换（长时间未更新后调用，避免恢复后第一帧按过期位姿产生巨大速度）
+    pub fn clear_previous_transforms(&mut self) {
+        self.prev_model_transform = None;
+        for mmd_rb in &mut self.mmd_rigid_bodies {
+            mmd_rb.prev_transform = None;
+        }
+    }
+    
+    /// 刚体是否参与模拟
+    pub fn bodies_enabled(&self) -> bool {
+        self.bodies_enabled
+    }
+    
+    /// 从世界中移除模型的全部刚体、碰撞体与关节
+    pub fn remove_from_world(&mut self, world: &mut PhysicsWorld) {
+        for mmd_rb in &mut self.mmd_rigid_bodies {
+            if let Some(handle) = mmd_rb.rigid_body_handle.take() {
+                world.remove_rigid_body(handle);
+            }
+            mmd_rb.collider_handle = None;
+        }
+        for joint in &mut self.mmd_joints {
+            joint.joint_handle = None;
+        }
+        if let Some(handle) = self.ground_handle.take() {
+            world.remove_rigid_body(handle);
+        }
+    }
+}
+
+/// 独立物理世界：模型独占一个 Rapier 世界，按累积器固定步长自行步进
+pub struct MMDPhysics {
+    /// Rapier 世界
+    pub world: PhysicsWorld,
+    /// 模型刚体与关节
+    pub model: ModelPhysics,
+    /// FPS（用于计算固定时间步长）
+    pub fps: f32,
+    /// 最大子步数
+    pub max_substep_count: i32,
+    /// 时间累积器（固定时间步模式）
+    accumulator: f32,
+    /// 基础求解器迭代次数（LOD 在此基础上降低）
+    solver_iterations: usize,
+    /// 与相机的距离（方块），用于选择 LOD 档位
+    lod_distance: f32,
+}
+
+impl MMDPhysics {
+    /// 创建新的物理世界
+    pub fn new() -> Self {
+        let config = get_config();
+        let mut world = PhysicsWorld::new();
+        let model = ModelPhysics::new(&mut world, WorldPlacement::standalone());
+        
+        Self {
+            world,
+            model,
+            fps: config.physics_fps,
+            max_substep_count: config.max_substep_count,
+            accumulator: 0.0,
+            solver_iterations: config.solver_iterations.max(1),
+            lod_distance: 0.0,
+        }
+    }
+    
+    /// 设置 FPS
+    pub fn set_fps(&mut self, fps: f32) {
+        self.fps = fps;
+        self.world.integration_parameters.dt = 1.0 / fps;
+    }
+    
+    /// 获取 FPS
+    pub fn get_fps(&self) -> f32 {
+        self.fps
+    }
+    
+    /// 设置最大子步数
+    pub fn set_max_substep_count(&mut self, count: i32) {
+        self.max_substep_count = count;
+    }
+    
+    /// 获取最大子步数
+    pub fn get_max_substep_count(&self) -> i32 {
+        self.max_substep_count
+    }
+    
+    /// 设置与相机的距离（方块），下一次更新按配置选择子步数与求解器迭代的 LOD 档位
+    pub fn set_lod_distance(&mut self, distance: f32) {
+        self.lod_distance = distance;
+    }
+    
+    /// 当前 LOD 档位下每个渲染帧最多推进的物理步数（异步模拟线程按此限制每次快照的步数）
+    pub fn lod_substep_limit(&self) -> i32 {
+        self.lod_limits(&get_config()).0
+    }
+    
+    /// 独立物理世界的堆内存估算：模型刚体/关节与窄相接触对（宽相、岛与求解器缓冲不计入）
+    pub fn heap_bytes(&self) -> usize {
+        let contacts: usize = self.world.narrow_phase.contact_pairs()
+            .map(|pair| std::mem::size_of::<ContactPair>() + vec_bytes(&pair.manifolds))
+            .sum();
+        self.model.heap_bytes() + contacts
+    }
+    
+    /// 按 LOD 距离得到 (子步数上限, 求解器迭代次数)
+    fn lod_limits(&self, config: &PhysicsConfig) -> (i32, usize) {
+        let substeps = self.max_substep_count.max(1);
+        let iterations = self.solver_iterations;
+        if self.lod_distance > config.lod_far_distance {
+            (1, (iterations / 4).max(1))
+        } else if self.lod_distance > config.lod_near_distance {
+            (substeps.min(2), (iterations / 2).max(1))
+        } else {
+            (substeps, iterations)
+        }
+    }
+    
+    /// 设置重力
+    pub fn set_gravity(&mut self, gravity: Vec3) {
+        self.world.gravity = Vector::new(gravity.x, gravity.y, gravity.z);
+    }
+    
+    /// 从 PMX 数据添加刚体
+    pub fn add_rigid_body(
+        &mut self,
+        pmx_rb: &PmxRigidBody,
+        bone_global_transform: Option<Mat4>,
+    ) -> usize {
+        self.model.add_rigid_body(&mut self.world, pmx_rb, bone_global_transform)
+    }
+    
+    /// 从 PMX 数据添加关节
+    pub fn add_joint(&mut self, pmx_joint: &PmxJoint) -> Option<usize> {
+        self.model.add_joint(&mut self.world, pmx_joint)
+    }
+
+    /// 更新物理模拟
+    ///
+    /// 使用标准的 "Fix Your Timestep" 累积器模式：
+    /// 每次物理步进始终使用固定 dt，剩余不足一步的时间保留到下一帧。
+    /// 这保证了不同游戏帧率下物理行为完全一致。
+    /// 
+    /// # 参数
+    /// - `delta_time`: 经过的时间（秒）
+    pub fn update(&mut self, delta_time: f32) {
+        let config = get_config();
+        let fixed_dt = 1.0 / self.fps;
+        let (max_steps, iterations) = self.lod_limits(&config);
+        self.world.set_solver_iterations(iterations);
+        
+        // 累积本帧时间
+        self.accumulator += delta_time;
+        
+        // 防止螺旋死亡：如果累积时间过大，截断到最大可处理时间
+        let max_accumulator = fixed_dt * max_steps as f32;
+        if self.accumulator > max_accumulator {
+            self.accumulator = max_accumulator;
+        }
+        
+        // 以固定步长消耗累积时间
+        while self.accumulator >= fixed_dt {
+            self.world.step(fixed_dt, &());
+            self.accumulator -= fixed_dt;
+        }
+
+        self.model.clamp_velocities(&mut self.world, config.max_linear_velocity, config.max_angular_velocity);
+    }
+
+    /// 以指定步长推进一步并限制速度（物理模拟线程按自身节拍调用，不使用累积器）
+    pub fn step_fixed(&mut self, dt: f32) {
+        let config = get_config();
+        let (_, iterations) = self.lod_limits(&config);
+        self.world.set_solver_iterations(iterations);
+        self.world.step(dt, &());
+        self.model.clamp_velocities(&mut self.world, config.max_linear_velocity, config.max_angular_velocity);
+    }
+    
+    /// 休眠检测（在同步运动学刚体之前调用），返回 true 表示处于休眠
+    pub fn update_sleep_state(&mut self, bone_transforms: &[Mat4], model_transform: Mat4, delta_time: f32) -> bool {
+        let asleep = self.model.update_sleep_state(&self.world, bone_transforms, model_transform, delta_time);
+        if asleep {
+            // 防止唤醒时一次性消耗休眠前残留的时间
+            self.accumulator = 0.0;
+        }
+        asleep
+    }
+    
+    /// 是否处于休眠
+    pub fn is_sleeping(&self) -> bool {
+        self.model.is_sleeping()
+    }
+    
+    /// 骨骼 → 物理：休眠检测并同步运动学刚体
+    ///
+    /// 返回 true 表示需要随后调用 [`update`](Self::update) 推进模拟；
+    /// 返回 false 表示处于休眠，本帧跳过同步与求解。
+    pub fn sync_from_bones(&mut self, bone_snapshot: &[Mat4], model_transform: Mat4, delta_time: f32) -> bool {
+        if self.update_sleep_state(bone_snapshot, model_transform, delta_time) {
+            return false;
+        }
+        self.model.sync_kinematic_bodies_with_model_velocity(&mut self.world, bone_snapshot, delta_time, model_transform);
+        true
+    }
+    
+    /// 在物理更新前同步运动学刚体（跟随骨骼）
+    pub fn sync_kinematic_bodies(&mut self, bone_transforms: &[Mat4], delta_time: f32) {
+        self.model.sync_kinematic_bodies(&mut self.world, bone_transforms, delta_time);
+    }
+    
+    /// 在物理更新前同步运动学刚体，同时考虑模型整体移动
+    pub fn sync_kinematic_bodies_with_model_velocity(
+        &mut self,
+        bone_transforms: &[Mat4],
+        delta_time: f32,
+        model_transform: Mat4,
+    ) {
+        self.model.sync_kinematic_bodies_with_model_velocity(&mut self.world, bone_transforms, delta_time, model_transform);
+    }
+    
+    /// 在物理更新后将动态刚体的变换反映到骨骼
+    pub fn reflect_to_bones(&self, bone_transforms: &mut [Mat4]) {
+        self.model.reflect_to_bones(&self.world, bone_transforms);
+    }
+    
+    /// 重置所有刚体到初始状态
+    pub fn reset(&mut self) {
+        self.model.reset(&mut self.world);
+        self.accumulator = 0.0;
+    }
+    
+    /// 获取刚体数量
+    pub fn rigid_body_count(&self) -> usize {
+        self.model.rigid_body_count()
+    }
+    
+    /// 获取关节数量
+    pub fn joint_count(&self) -> usize {
+        self.model.joint_count()
+    }
+    
+    /// 将动态刚体的位姿写回骨骼（物理 → 骨骼桥接，稳态下不分配内存）
+    pub fn write_dynamic_bones(&self, bones: &mut BoneSet, bone_snapshot: &[Mat4]) {
+        self.model.write_dynamic_bones(&self.world, bones, bone_snapshot);
+    }
+    
+    /// 动态刚体关联骨骼的掩码
+    pub fn dynamic_bone_mask(&self) -> &BoneMask {
+        self.model.dynamic_bone_mask()
     }
 }
 
@@ -633,3 +942,92 @@ impl Default for MMDPhysics {
         Self::new()
     }
 }
+
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use crate::skeleton::BoneLink;
+    use crate::test_alloc::count_allocations;
+    use mmd::pmx::rigid_body::{RigidBodyMode, RigidBodyShape};
+
+    fn pmx_rigid_body(bone_index: i32, mode: RigidBodyMode, y: f32) -> PmxRigidBody {
+        PmxRigidBody {
+            local_name: format!("rb{}", bone_index),
+            universal_name: String::new(),
+            bone_index,
+            group: 0,
+            un_collision_group_flag: 0,
+            shape: RigidBodyShape::Sphere,
+            size: [0.5, 0.0, 0.0],
+            position: [0.0, y, 0.0],
+            rotation: [0.0; 3],
+            mass: 1.0,
+            move_attenuation: 0.5,
+            rotation_attenuation: 0.5,
+            repulsion: 0.0,
+            friction: 0.5,
+            mode,
+        }
+    }
+
+    /// 三节骨骼链：根（运动学）→ 动态 → 动态跟骨
+    fn build_chain() -> (BoneSet, MMDPhysics) {
+        let mut bones = BoneSet::new();
+        for i in 0..3 {
+            let mut bone = BoneLink::new(format!("bone{}", i));
+            bone.parent_index = i - 1;
+            bone.initial_position = Vec3::new(0.0, 10.0 - i as f32 * 2.0, 0.0);
+            bones.add_bone(bone);
+        }
+        bones.build_hierarchy();
+
+        let mut physics = MMDPhysics::new();
+        let modes = [RigidBodyMode::Static, RigidBodyMode::Dynamic, RigidBodyMode::DynamicWithBonePosition];
+        for (i, mode) in modes.into_iter().enumerate() {
+            let rb = pmx_rigid_body(i as i32, mode, 10.0 - i as f32 * 2.0);
+            physics.add_rigid_body(&rb, Some(bones.get_global_transform(i)));
+        }
+        (bones, physics)
+    }
+
+    /// 与 MmdModel::update_physics 相同的桥接步骤（不含求解器步进）
+    fn bridge_frame(bones: &mut BoneSet, physics: &mut MMDPhysics, snapshot: &mut Vec<Mat4>, model_transform: Mat4) {
+        bones.copy_global_transforms_into(snapshot);
+        physics.sync_from_bones(snapshot, model_transform, 1.0 / 60.0);
+        physics.write_dynamic_bones(bones, snapshot);
+        bones.clear_physics_bone_mask();
+    }
+
+    #[test]
+    fn dynamic_bone_mask_covers_dynamic_bodies_only() {
+        let (_, physics) = build_chain();
+        let mask = physics.dynamic_bone_mask();
+        assert!(!mask.contains(0));
+        assert!(mask.contains(1));
+        assert!(mask.contains(2));
+        assert_eq!(mask.count(), 2);
+    }
+
+    #[test]
+    fn steady_state_bone_sync_does_not_allocate() {
+        let (mut bones, mut physics) = build_chain();
+        let mut snapshot = Vec::new();
+
+        // 预热：首帧建立快照与掩码缓冲区容量
+        bridge_frame(&mut bones, &mut physics, &mut snapshot, Mat4::IDENTITY);
+        physics.update(1.0 / 60.0);
+
+        for frame in 1..=10 {
+            // 模型持续移动，保证不会进入休眠而跳过同步
+            let model_transform = Mat4::from_translation(Vec3::new(frame as f32 * 0.1, 0.0, 0.0));
+            let (allocations, _) = count_allocations(|| {
+                bridge_frame(&mut bones, &mut physics, &mut snapshot, model_transform)
+            });
+            assert_eq!(allocations, 0, "第 {} 帧物理同步发生了堆分配", frame);
+
+            // Rapier 求解器内部缓冲不在本测试范围内
+            physics.update(1.0 / 60.0);
+        }
+    }
+}
@@ -15,10 +15,16 @@
 mod mmd_physics;
 mod mmd_rigid_body;
 mod mmd_joint;
+mod physics_worker;
+mod physics_world;
+mod shared_world;
 pub mod spring_6dof;
 pub mod config;
 
-pub use mmd_physics::MMDPhysics;
+pub use mmd_physics::{MMDPhysics, ModelPhysics, WorldPlacement};
 pub use mmd_rigid_body::{MMDRigidBody, RigidBodyType};
 pub use mmd_joint::MMDJoint;
-pub use config::{PhysicsConfig, get_config, set_config, reset_config};
+pub use physics_worker::PhysicsWorker;
+pub use physics_world::PhysicsWorld;
+pub use shared_world::SharedPhysicsHandle;
+pub use config::{PhysicsConfig, get_config, set_config, reset_config, is_async_simulation, is_shared_world};
@@ -0,0 +1,394 @@
+//! 物理模拟线程
+//!
+//! 所有异步模式模型的 MMDPhysics 由一条共享的模拟线程轮流推进：每个模型按自己的物理 FPS
+//! 固定步长计时，线程依次步进已到期的模型，再休眠到最早的下一步。模拟与渲染帧率解耦，
+//! 同屏模型再多也只占用一个线程。
+//!
+//! 距离 LOD 与同步模式一致：除求解器迭代按档位降低外，每次姿势快照之后最多推进
+//! [`MMDPhysics::lod_substep_limit`] 步（远处 1 步、中距离 2 步），超出的时间直接丢弃，
+//! 远处模型的实际步进频率因此跟随渲染帧率而不是 physics_fps。
+//!
+//! ## 数据流
+//! - 渲染线程：提交运动学骨骼姿势快照（[`PhysicsWorker::submit_pose`]），
+//!   读取最近两次物理步的动态刚体位姿并按时间插值后写回骨骼（[`PhysicsWorker::write_interpolated_bones`]）
+//! - 模拟线程：取最新快照 → 同步运动学刚体 → 单步求解 → 发布刚体位姿
+//!
+//! 两侧只在拷贝快照/结果时短暂持锁，渲染线程不会等待求解器。
+
+use glam::Mat4;
+use once_cell::sync::{Lazy, OnceCell};
+use std::sync::atomic::{AtomicBool, Ordering};
+use std::sync::{Arc, Mutex, MutexGuard, TryLockError};
+use std::thread::Thread;
+use std::time::{Duration, Instant};
+
+use crate::skeleton::{BoneMask, BoneSet};
+
+use super::mmd_physics::MMDPhysics;
+use super::mmd_rigid_body::{isometry_to_mat4, Pose, RigidBodyType};
+
+/// 超过该时间没有新姿势快照时暂停步进（模型不再被更新，如离开视野或物理被禁用）
+const IDLE_TIMEOUT: Duration = Duration::from_millis(250);
+
+/// 共享模拟线程的调度器
+static SCHEDULER: Lazy<Scheduler> = Lazy::new(|| Scheduler {
+    workers: Mutex::new(Vec::new()),
+    thread: OnceCell::new(),
+});
+
+/// 动态刚体与骨骼的关联（渲染线程侧的只读副本，避免访问模拟线程持有的物理世界）
+struct BoneLink {
+    bone_index: usize,
+    body_type: RigidBodyType,
+    inv_offset_matrix: Mat4,
+}
+
+/// 渲染线程 → 模拟线程：运动学姿势快照
+struct PoseInput {
+    bone_transforms: Vec<Mat4>,
+    model_transform: Mat4,
+    /// 与相机的距离（方块），用于物理 LOD
+    lod_distance: f32,
+    /// 自上次被模拟线程取走后累计的渲染时间（秒），0 表示没有新快照
+    pending_time: f32,
+    submitted_at: Option<Instant>,
+}
+
+/// 模拟线程 → 渲染线程：最近两次物理步的动态刚体位姿（与 links 一一对应）
+struct PoseOutput {
+    prev: Vec<Pose>,
+    curr: Vec<Pose>,
+    curr_at: Instant,
+    step_dt: f32,
+}
+
+/// 模拟线程侧的步进节拍（只由模拟线程访问）
+struct Schedule {
+    /// 下一步的时间点，None 表示空闲后尚未重新开始计时
+    next_step: Option<Instant>,
+    /// 自最近一次姿势快照以来已推进的步数（与 LOD 子步数上限比较）
+    steps_since_pose: i32,
+}
+
+struct Shared {
+    /// 物理世界，shutdown 后为 None
+    physics: Mutex<Option<MMDPhysics>>,
+    input: Mutex<PoseInput>,
+    output: Mutex<PoseOutput>,
+    schedule: Mutex<Schedule>,
+    running: AtomicBool,
+    reset_requested: AtomicBool,
+}
+
+/// 单个模型在共享模拟线程上的注册项
+pub struct PhysicsWorker {
+    shared: Arc<Shared>,
+    links: Vec<BoneLink>,
+    dynamic_bone_mask: BoneMask,
+}
+
+/// 共享模拟线程：持有所有已注册模型，按各自节拍轮流步进
+struct Scheduler {
+    workers: Mutex<Vec<Arc<Shared>>>,
+    /// 首次注册时启动；启动失败时为 None（模型保持最后一次发布的位姿）
+    thread: OnceCell<Option<Thread>>,
+}
+
+impl Scheduler {
+    fn register(&self, shared: Arc<Shared>) {
+        lock(&self.workers).push(shared);
+        self.wake();
+    }
+
+    fn unregister(&self, shared: &Arc<Shared>) {
+        lock(&self.workers).retain(|w| !Arc::ptr_eq(w, shared));
+    }
+
+    /// 唤醒模拟线程（首次调用时启动线程）
+    fn wake(&self) {
+        let thread = self.thread.get_or_init(|| {
+            std::thread::Builder::new()
+                .name("MMD-Physics".to_string())
+                .spawn(run)
+                .map(|handle| handle.thread().clone())
+                .map_err(|e| log::error!("物理模拟线程启动失败: {}", e))
+                .ok()
+        });
+        if let Some(thread) = thread {
+            thread.unpark();
+        }
+    }
+}
+
+fn lock<T>(mutex: &Mutex<T>) -> MutexGuard<'_, T> {
+    mutex.lock().unwrap_or_else(|e| e.into_inner())
+}
+
+/// 收集动态刚体当前位姿（顺序与 BoneLink 列表一致）
+fn collect_dynamic_poses(physics: &MMDPhysics, out: &mut Vec<Pose>) {
+    out.clear();
+    for mmd_rb in &physics.model.mmd_rigid_bodies {
+        if mmd_rb.body_type == RigidBodyType::Kinematic || mmd_rb.bone_index < 0 {
+            continue;
+        }
+        out.push(physics.model.body_pose(&physics.world, mmd_rb));
+    }
+}
+
+impl PhysicsWorker {
+    /// 接管物理世界并注册到共享模拟线程
+    pub fn spawn(physics: MMDPhysics) -> Self {
+        let links: Vec<BoneLink> = physics.model.mmd_rigid_bodies.iter()
+            .filter(|rb| rb.body_type != RigidBodyType::Kinematic && rb.bone_index >= 0)
+            .map(|rb| BoneLink {
+                bone_index: rb.bone_index as usize,
+                body_type: rb.body_type,
+                inv_offset_matrix: rb.inv_offset_matrix,
+            })
+            .collect();
+        let dynamic_bone_mask = physics.dynamic_bone_mask().clone();
+
+        let mut poses = Vec::with_capacity(links.len());
+        collect_dynamic_poses(&physics, &mut poses);
+        let step_dt = 1.0 / physics.get_fps().max(1.0);
+
+        let shared = Arc::new(Shared {
+            physics: Mutex::new(Some(physics)),
+            input: Mutex::new(PoseInput {
+                bone_transforms: Vec::new(),
+                model_transform: Mat4::IDENTITY,
+                lod_distance: 0.0,
+                pending_time: 0.0,
+                submitted_at: None,
+            }),
+            output: Mutex::new(PoseOutput {
+                prev: poses.clone(),
+                curr: poses,
+                curr_at: Instant::now(),
+                step_dt,
+            }),
+            schedule: Mutex::new(Schedule { next_step: None, steps_since_pose: 0 }),
+            running: AtomicBool::new(true),
+            reset_requested: AtomicBool::new(false),
+        });
+
+        SCHEDULER.register(Arc::clone(&shared));
+
+        Self { shared, links, dynamic_bone_mask }
+    }
+
+    /// 提交当前运动学骨骼姿势（模型局部空间）、模型世界变换与相机距离
+    pub fn submit_pose(
+        &self,
+        bone_transforms: &[Mat4],
+        delta_time: f32,
+        model_transform: Mat4,
+        lod_distance: f32,
+    ) {
+        let woke = {
+            let mut input = lock(&self.shared.input);
+            input.bone_transforms.clear();
+            input.bone_transforms.extend_from_slice(bone_transforms);
+            input.model_transform = model_transform;
+            input.lod_distance = lod_distance;
+            input.pending_time += delta_time;
+            let idle = input.submitted_at.map_or(true, |t| t.elapsed() > IDLE_TIMEOUT);
+            input.submitted_at = Some(Instant::now());
+            idle
+        };
+        if woke {
+            SCHEDULER.wake();
+        }
+    }
+
+    /// 按当前时间在最近两次物理步之间插值，写回物理骨骼并更新其余骨骼（不分配内存）
+    ///
+    /// # 参数
+    /// - `bones`: 骨骼集合
+    /// - `bone_snapshot`: 本帧提交的骨骼全局变换（DynamicWithBonePosition 从中取骨骼位置）
+    pub fn write_interpolated_bones(&self, bones: &mut BoneSet, bone_snapshot: &[Mat4]) {
+        bones.set_physics_bone_mask(&self.dynamic_bone_mask);
+        {
+            let output = lock(&self.shared.output);
+            let alpha = (output.curr_at.elapsed().as_secs_f32() / output.step_dt).clamp(0.0, 1.0);
+            for ((link, prev), curr) in self.links.iter().zip(output.prev.iter()).zip(output.curr.iter()) {
+                if link.bone_index >= bone_snapshot.len() {
+                    continue;
+                }
+                let pose = prev.lerp_slerp(curr, alpha);
+                let mut transform = isometry_to_mat4(pose) * link.inv_offset_matrix;
+                if link.body_type == RigidBodyType::DynamicWithBonePosition {
+                    // 只应用旋转，保留骨骼动画位置
+                    let bone_pos = bone_snapshot[link.bone_index].w_axis;
+                    transform.w_axis.x = bone_pos.x;
+                    transform.w_axis.y = bone_pos.y;
+                    transform.w_axis.z = bone_pos.z;
+                }
+                bones.set_global_transform_physics(link.bone_index, transform);
+            }
+        }
+        bones.update_non_physics_children();
+    }
+
+    /// 动态刚体关联骨骼的掩码
+    pub fn dynamic_bone_mask(&self) -> &BoneMask {
+        &self.dynamic_bone_mask
+    }
+
+    /// 请求在下一步前重置物理世界
+    pub fn request_reset(&self) {
+        self.shared.reset_requested.store(true, Ordering::Release);
+    }
+
+    /// 访问物理世界（会等待正在进行的物理步，仅用于调试等非每帧路径）
+    pub fn with_physics<R>(&self, f: impl FnOnce(&MMDPhysics) -> R) -> R {
+        f(lock(&self.shared.physics).as_ref().expect("物理世界仅在 shutdown 时取走"))
+    }
+
+    /// 访问物理世界，模拟线程正在步进该模型时不等待，直接返回 None（用于内存统计等周期性路径）
+    pub fn try_with_physics<R>(&self, f: impl FnOnce(&MMDPhysics) -> R) -> Option<R> {
+        let guard = match self.shared.physics.try_lock() {
+            Ok(guard) => guard,
+            Err(TryLockError::Poisoned(e)) => e.into_inner(),
+            Err(TryLockError::WouldBlock) => return None,
+        };
+        guard.as_ref().map(f)
+    }
+
+    /// 从模拟线程注销并取回物理世界（切回同步模式时使用）
+    ///
+    /// 会等待正在进行的物理步；模拟线程之后看到 None 即跳过该模型。
+    pub fn shutdown(self) -> MMDPhysics {
+        self.stop();
+        let physics = lock(&self.shared.physics).take();
+        physics.expect("物理世界仅在 shutdown 时取走")
+    }
+
+    fn stop(&self) {
+        self.shared.running.store(false, Ordering::Release);
+        SCHEDULER.unregister(&self.shared);
+    }
+}
+
+impl Drop for PhysicsWorker {
+    fn drop(&mut self) {
+        self.stop();
+    }
+}
+
+/// 模拟线程在各模型之间复用的缓冲
+#[derive(Default)]
+struct StepScratch {
+    bone_transforms: Vec<Mat4>,
+    poses: Vec<Pose>,
+}
+
+/// 模拟线程主循环：依次步进到期的模型，再休眠到最早的下一步
+fn run() {
+    let mut workers: Vec<Arc<Shared>> = Vec::new();
+    let mut scratch = StepScratch::default();
+
+    loop {
+        workers.clone_from(&lock(&SCHEDULER.workers));
+
+        let mut wake_at: Option<Instant> = None;
+        for shared in &workers {
+            if let Some(next) = step_worker(shared, &mut scratch) {
+                wake_at = Some(wake_at.map_or(next, |at| at.min(next)));
+            }
+        }
+        // 及时释放引用，注销后的模型不在此停留
+        workers.clear();
+
+        match wake_at {
+            Some(at) => {
+                let now = Instant::now();
+                if at > now {
+                    std::thread::park_timeout(at - now);
+                }
+            }
+            // 全部空闲：等待注册或空闲模型重新提交快照时唤醒
+            None => std::thread::park(),
+        }
+    }
+}
+
+/// 到期时推进单个模型一步，返回其下一步的时间点（空闲或已停止时返回 None）
+fn step_worker(shared: &Shared, scratch: &mut StepScratch) -> Option<Instant> {
+    if !shared.running.load(Ordering::Acquire) {
+        return None;
+    }
+    let mut schedule = lock(&shared.schedule);
+    let now = Instant::now();
+
+    // 到期后才取走最新快照
+    let (pending_time, model_transform, lod_distance) = {
+        let mut input = lock(&shared.input);
+        if input.submitted_at.map_or(true, |t| t.elapsed() > IDLE_TIMEOUT) {
+            schedule.next_step = None;
+            return None;
+        }
+        if let Some(next_step) = schedule.next_step {
+            if now < next_step {
+                return Some(next_step);
+            }
+        }
+        let pending = input.pending_time;
+        if pending > 0.0 {
+            scratch.bone_transforms.clone_from(&input.bone_transforms);
+            input.pending_time = 0.0;
+        }
+        (pending, input.model_transform, input.lod_distance)
+    };
+
+    let (step_dt, max_substeps, stepped) = {
+        let mut physics = lock(&shared.physics);
+        let physics = physics.as_mut()?;
+        if shared.reset_requested.swap(false, Ordering::AcqRel) {
+            physics.reset();
+        }
+        physics.set_lod_distance(lod_distance);
+        let step_dt = 1.0 / physics.get_fps().max(1.0);
+        let max_substeps = physics.lod_substep_limit().max(1);
+        if pending_time > 0.0 {
+            schedule.steps_since_pose = 0;
+        }
+        // 与同步模式的累积器上限一致：同一快照之后超出 LOD 子步数的时间直接丢弃
+        let throttled = schedule.steps_since_pose >= max_substeps;
+        let asleep = if pending_time > 0.0 {
+            physics.update_sleep_state(&scratch.bone_transforms, model_transform, pending_time)
+        } else {
+            physics.is_sleeping()
+        };
+        let stepped = !asleep && !throttled;
+        if stepped {
+            // 只有收到新快照时才同步运动学刚体，速度按快照实际间隔计算
+            if pending_time > 0.0 {
+                physics.sync_kinematic_bodies_with_model_velocity(&scratch.bone_transforms, pending_time, model_transform);
+            }
+            physics.step_fixed(step_dt);
+            collect_dynamic_poses(physics, &mut scratch.poses);
+            schedule.steps_since_pose += 1;
+        }
+        (step_dt, max_substeps as u32, stepped)
+    };
+
+    // 休眠或超出 LOD 步数时刚体位姿不变，保留上次发布的结果
+    if stepped {
+        let mut output = lock(&shared.output);
+        let output = &mut *output;
+        std::mem::swap(&mut output.prev, &mut output.curr);
+        output.curr.clone_from(&scratch.poses);
+        output.curr_at = Instant::now();
+        output.step_dt = step_dt;
+    }
+
+    // 固定节拍：落后过多时放弃追赶，避免螺旋死亡
+    let step = Duration::from_secs_f32(step_dt);
+    let mut next_step = schedule.next_step.unwrap_or(now) + step;
+    if now > next_step + step * max_substeps {
+        next_step = now;
+    }
+    schedule.next_step = Some(next_step);
+    Some(next_step)
+}
@@ -0,0 +1,116 @@
+//! Rapier 物理世界
+//!
+//! 只持有 Rapier 的流水线与各集合，不关心刚体属于哪个模型。
+//! 独立模式下每个 [`MMDPhysics`](super::MMDPhysics) 持有一个；
+//! 共享模式下所有模型的刚体都放入 共享物理世界（[`shared_world`](super::shared_world)） 中的同一个世界。
+
+use rapier3d::prelude::*;
+use rapier3d::math::Real;
+use std::num::NonZeroUsize;
+
+use super::config::get_config;
+
+/// Rapier 物理世界（流水线 + 刚体/碰撞体/关节集合）
+pub struct PhysicsWorld {
+    /// 物理流水线
+    pub physics_pipeline: PhysicsPipeline,
+    /// 积分参数
+    pub integration_parameters: IntegrationParameters,
+    /// 岛管理器
+    pub island_manager: IslandManager,
+    /// 宽相检测
+    pub broad_phase: DefaultBroadPhase,
+    /// 窄相检测
+    pub narrow_phase: NarrowPhase,
+    /// 刚体集合
+    pub rigid_body_set: RigidBodySet,
+    /// 碰撞体集合
+    pub collider_set: ColliderSet,
+    /// 关节集合
+    pub impulse_joint_set: ImpulseJointSet,
+    /// 多体关节集合
+    pub multibody_joint_set: MultibodyJointSet,
+    /// CCD 求解器
+    pub ccd_solver: CCDSolver,
+    /// 重力向量
+    pub gravity: Vector<Real>,
+}
+
+impl PhysicsWorld {
+    /// 按当前配置创建空世界
+    pub fn new() -> Self {
+        let config = get_config();
+
+        // 设置积分参数（从配置读取）
+        let mut integration_parameters = IntegrationParameters::default();
+        integration_parameters.dt = 1.0 / config.physics_fps;
+        integration_parameters.num_solver_iterations = NonZeroUsize::new(config.solver_iterations).unwrap_or(NonZeroUsize::new(4).unwrap());
+        integration_parameters.num_internal_pgs_iterations = config.pgs_iterations;
+        integration_parameters.normalized_max_corrective_velocity = config.max_corrective_velocity;
+
+        if config.debug_log {
+            log::info!("[物理配置] FPS={}, 重力Y={}, 求解器迭代={}, PGS迭代={}",
+                config.physics_fps, config.gravity_y, config.solver_iterations, config.pgs_iterations);
+        }
+
+        Self {
+            physics_pipeline: PhysicsPipeline::new(),
+            integration_parameters,
+            island_manager: IslandManager::new(),
+            broad_phase: DefaultBroadPhase::new(),
+            narrow_phase: NarrowPhase::new(),
+            rigid_body_set: RigidBodySet::new(),
+            collider_set: ColliderSet::new(),
+            impulse_joint_set: ImpulseJointSet::new(),
+            multibody_joint_set: MultibodyJointSet::new(),
+            ccd_solver: CCDSolver::new(),
+            gravity: Vector::new(0.0, config.gravity_y, 0.0),
+        }
+    }
+
+    /// 设置求解器迭代次数
+    pub fn set_solver_iterations(&mut self, iterations: usize) {
+        self.integration_parameters.num_solver_iterations =
+            NonZeroUsize::new(iterations).unwrap_or(NonZeroUsize::new(1).unwrap());
+    }
+
+    /// 执行一次物理步进
+    ///
+    /// 启用 rapier 的 parallel 特性后，互不相连的岛在 rayon 线程池上并行求解。
+    pub fn step(&mut self, dt: f32, hooks: &dyn PhysicsHooks) {
+        self.integration_parameters.dt = dt;
+        self.physics_pipeline.step(
+            &self.gravity,
+            &self.integration_parameters,
+            &mut self.island_manager,
+            &mut self.broad_phase,
+            &mut self.narrow_phase,
+            &mut self.rigid_body_set,
+            &mut self.collider_set,
+            &mut self.impulse_joint_set,
+            &mut self.multibody_joint_set,
+            &mut self.ccd_solver,
+            None,
+            hooks,
+            &(),
+        );
+    }
+
+    /// 移除刚体及其碰撞体、关节
+    pub fn remove_rigid_body(&mut self, handle: RigidBodyHandle) {
+        self.rigid_body_set.remove(
+            handle,
+            &mut self.island_manager,
+            &mut self.collider_set,
+            &mut self.impulse_joint_set,
+            &mut self.multibody_joint_set,
+            true,
+        );
+    }
+}
+
+impl Default for PhysicsWorld {
+    fn default() -> Self {
+        Self::new()
+    }
+}
@@ -0,0 +1,342 @@
+//! 多模型共享物理世界
+//!
+//! 所有模型的刚体放入同一个 Rapier 世界，每个物理步只运行一次流水线（宽相、窄相、岛划分、求解），
+//! 而不是每个模型各跑一遍。
+//!
+//! ## 模型隔离
+//! - 每个模型占用一个槽位，槽位决定其局部原点在世界中的位置（网格排布），不同模型的刚体在宽相中不会相交
+//! - 碰撞体以槽位编号标记，接触过滤钩子只放行同一模型内的接触，刚体飞出分区也不会与其他模型碰撞
+//! - 模型之间没有关节相连，各自构成独立的岛；rapier 启用 parallel 特性后各岛在 rayon 线程池上并行求解
+//!
+//! ## 步进
+//! 世界按墙钟时间以 physics_fps 固定步长推进：每帧第一个更新的模型触发步进，同一帧内其余模型直接读取结果。
+//! 休眠、被禁用或长时间未更新（离开视野、实体卸载）的模型停用其刚体，不参与求解。
+
+use glam::{Mat4, Vec3};
+use once_cell::sync::Lazy;
+use rapier3d::prelude::*;
+use std::sync::{Mutex, MutexGuard, TryLockError};
+use std::time::{Duration, Instant};
+
+use crate::skeleton::{BoneMask, BoneSet};
+
+use super::config::get_config;
+use super::mmd_physics::{ModelPhysics, WorldPlacement};
+use super::physics_world::PhysicsWorld;
+
+/// 每个模型分区的边长（模型局部空间单位）
+const CELL_SIZE: f32 = 256.0;
+/// 分区网格每行的槽位数
+const GRID_COLUMNS: usize = 16;
+/// 超过该时间没有更新的模型停用其刚体
+const IDLE_TIMEOUT: Duration = Duration::from_millis(250);
+
+/// 只放行同一模型（相同标记）碰撞体之间的接触
+struct ModelIsolationHooks;
+
+impl PhysicsHooks for ModelIsolationHooks {
+    fn filter_contact_pair(&self, context: &PairFilterContext) -> Option<SolverFlags> {
+        let tag1 = context.colliders[context.collider1].user_data;
+        let tag2 = context.colliders[context.collider2].user_data;
+        if tag1 == tag2 {
+            Some(SolverFlags::COMPUTE_IMPULSES)
+        } else {
+            None
+        }
+    }
+}
+
+struct Slot {
+    model: ModelPhysics,
+    last_update: Instant,
+}
+
+struct SharedWorld {
+    world: PhysicsWorld,
+    slots: Vec<Option<Slot>>,
+    free_slots: Vec<usize>,
+    accumulator: f32,
+    last_advance: Option<Instant>,
+}
+
+static SHARED_WORLD: Lazy<Mutex<SharedWorld>> = Lazy::new(|| {
+    Mutex::new(SharedWorld {
+        world: PhysicsWorld::new(),
+        slots: Vec::new(),
+        free_slots: Vec::new(),
+        accumulator: 0.0,
+        last_advance: None,
+    })
+});
+
+fn lock_shared() -> MutexGuard<'static, SharedWorld> {
+    SHARED_WORLD.lock().unwrap_or_else(|e| e.into_inner())
+}
+
+/// 槽位对应的分区原点
+fn cell_origin(slot: usize) -> Vec3 {
+    Vec3::new(
+        (slot % GRID_COLUMNS) as f32 * CELL_SIZE,
+        0.0,
+        (slot / GRID_COLUMNS) as f32 * CELL_SIZE,
+    )
+}
+
+impl SharedWorld {
+    fn slot_mut(&mut self, slot: usize) -> Option<&mut Slot> {
+        self.slots.get_mut(slot).and_then(|s| s.as_mut())
+    }
+
+    /// 按墙钟时间以固定步长推进世界
+    fn advance(&mut self) {
+        let now = Instant::now();
+        let elapsed = self.last_advance.map_or(0.0, |t| now.duration_since(t).as_secs_f32());
+        self.last_advance = Some(now);
+
+        let config = get_config();
+        let fixed_dt = 1.0 / config.physics_fps.max(1.0);
+        let max_accumulator = fixed_dt * config.max_substep_count.max(1) as f32;
+        self.accumulator = (self.accumulator + elapsed).min(max_accumulator);
+        if self.accumulator < fixed_dt {
+            return;
+        }
+
+        // 长时间未更新的模型不参与求解
+        for slot in self.slots.iter_mut().flatten() {
+            if now.duration_since(slot.last_update) > IDLE_TIMEOUT {
+                slot.model.set_bodies_enabled(&mut self.world, false);
+            }
+        }
+
+        self.world.gravity = Vector::new(0.0, config.gravity_y, 0.0);
+        self.world.set_solver_iterations(config.solver_iterations);
+        while self.accumulator >= fixed_dt {
+            self.world.step(fixed_dt, &ModelIsolationHooks);
+            self.accumulator -= fixed_dt;
+        }
+
+        for slot in self.slots.iter_mut().flatten() {
+            if slot.model.bodies_enabled() {
+                slot.model.clamp_velocities(&mut self.world, config.max_linear_velocity, config.max_angular_velocity);
+            }
+        }
+    }
+}
+
+/// 模型在共享物理世界中的句柄（Drop 时从世界移除其刚体与关节）
+pub struct SharedPhysicsHandle {
+    slot: usize,
+    /// 动态刚体关联骨骼的掩码（副本，查询时无需加锁）
+    dynamic_bone_mask: BoneMask,
+}
+
+impl SharedPhysicsHandle {
+    /// 分配槽位并由 build 向世界添加模型的刚体与关节
+    pub fn create(build: impl FnOnce(&mut ModelPhysics, &mut PhysicsWorld)) -> Self {
+        let mut guard = lock_shared();
+        let shared = &mut *guard;
+        let slot = match shared.free_slots.pop() {
+            Some(slot) => slot,
+            None => {
+                shared.slots.push(None);
+                shared.slots.len() - 1
+            }
+        };
+
+        let placement = WorldPlacement {
+            origin: cell_origin(slot),
+            collision_tag: slot as u128 + 1,
+            ground_half_extent: CELL_SIZE * 0.5,
+        };
+        let mut model = ModelPhysics::new(&mut shared.world, placement);
+        build(&mut model, &mut shared.world);
+        let dynamic_bone_mask = model.dynamic_bone_mask().clone();
+        shared.slots[slot] = Some(Slot { model, last_update: Instant::now() });
+
+        Self { slot, dynamic_bone_mask }
+    }
+
+    /// 同步运动学刚体、按需推进世界，并将动态刚体位姿写回骨骼
+    ///
+    /// # 参数
+    /// - `bones`: 骨骼集合
+    /// - `bone_snapshot`: 骨骼全局变换快照（模型局部空间）
+    /// - `model_transform`: 模型世界变换（用于惯性）
+    /// - `delta_time`: 本帧时间（秒）
+    pub fn update(&self, bones: &mut BoneSet, bone_snapshot: &[Mat4], model_transform: Mat4, delta_time: f32) {
+        let mut guard = lock_shared();
+        let shared = &mut *guard;
+
+        match shared.slots.get_mut(self.slot).and_then(|s| s.as_mut()) {
+            Some(slot) => {
+                let now = Instant::now();
+                if now.duration_since(slot.last_update) > IDLE_TIMEOUT {
+                    slot.model.clear_previous_transforms();
+                }
+                slot.last_update = now;
+                // 休眠时停用刚体，唤醒时恢复
+                let awake = slot.model.sync_from_bones(&mut shared.world, bone_snapshot, model_transform, delta_time);
+                slot.model.set_bodies_enabled(&mut shared.world, awake);
+            }
+            None => return,
+        }
+
+        shared.advance();
+
+        if let Some(slot) = shared.slots.get(self.slot).and_then(|s| s.as_ref()) {
+            slot.model.write_dynamic_bones(&shared.world, bones, bone_snapshot);
+        }
+    }
+
+    /// 重置该模型的刚体到初始状态（不影响其他模型）
+    pub fn reset(&self) {
+        let mut guard = lock_shared();
+        let shared = &mut *guard;
+        if let Some(slot) = shared.slots.get_mut(self.slot).and_then(|s| s.as_mut()) {
+            slot.model.reset(&mut shared.world);
+        }
+    }
+
+    /// 禁用时立即停用该模型的刚体；启用后在下一次更新时恢复
+    pub fn set_enabled(&self, enabled: bool) {
+        if enabled {
+            return;
+        }
+        let mut guard = lock_shared();
+        let shared = &mut *guard;
+        if let Some(slot) = shared.slots.get_mut(self.slot).and_then(|s| s.as_mut()) {
+            slot.model.set_bodies_enabled(&mut shared.world, false);
+        }
+    }
+
+    /// 动态刚体关联骨骼的掩码
+    pub fn dynamic_bone_mask(&self) -> &BoneMask {
+        &self.dynamic_bone_mask
+    }
+
+    /// 访问该模型的物理状态（加锁，仅用于调试等非每帧路径）
+    pub fn with_model<R>(&self, f: impl FnOnce(&ModelPhysics) -> R) -> Option<R> {
+        let mut guard = lock_shared();
+        guard.slot_mut(self.slot).map(|slot| f(&slot.model))
+    }
+
+    /// 访问该模型的物理状态，共享世界正被占用（步进中）时不等待，直接返回 None（用于内存统计等周期性路径）
+    pub fn try_with_model<R>(&self, f: impl FnOnce(&ModelPhysics) -> R) -> Option<R> {
+        let mut guard = match SHARED_WORLD.try_lock() {
+            Ok(guard) => guard,
+            Err(TryLockError::Poisoned(e)) => e.into_inner(),
+            Err(TryLockError::WouldBlock) => return None,
+        };
+        guard.slot_mut(self.slot).map(|slot| f(&slot.model))
+    }
+}
+
+impl Drop for SharedPhysicsHandle {
+    fn drop(&mut self) {
+        let mut guard = lock_shared();
+        let shared = &mut *guard;
+        if let Some(mut slot) = shared.slots.get_mut(self.slot).and_then(|s| s.take()) {
+            slot.model.remove_from_world(&mut shared.world);
+            shared.free_slots.push(self.slot);
+        }
+        // 最后一个模型离开后重建空世界，释放宽相/岛等内部缓冲
+        if shared.slots.iter().all(|s| s.is_none()) {
+            shared.world = PhysicsWorld::new();
+            shared.slots.clear();
+            shared.free_slots.clear();
+            shared.accumulator = 0.0;
+            shared.last_advance = None;
+        }
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use mmd::pmx::rigid_body::{RigidBody as PmxRigidBody, RigidBodyMode, RigidBodyShape};
+
+    fn sphere(mode: RigidBodyMode) -> PmxRigidBody {
+        PmxRigidBody {
+            local_name: String::from("rb"),
+            universal_name: String::new(),
+            bone_index: 0,
+            group: 0,
+            un_collision_group_flag: 0xFFFF,
+            shape: RigidBodyShape::Sphere,
+            size: [0.5, 0.0, 0.0],
+            position: [0.0, 10.0, 0.0],
+            rotation: [0.0; 3],
+            mass: 1.0,
+            move_attenuation: 0.5,
+            rotation_attenuation: 0.5,
+            repulsion: 0.0,
+            friction: 0.5,
+            mode,
+        }
+    }
+
+    /// 句柄所属模型在世界中的刚体（地面 + 模型刚体）
+    ///
+    /// 共享世界是进程全局的，其他测试可能同时创建句柄，只检查本测试自己的刚体。
+    fn owned_bodies(handle: &SharedPhysicsHandle) -> Vec<RigidBodyHandle> {
+        handle
+            .with_model(|model| {
+                model
+                    .ground_handle
+                    .into_iter()
+                    .chain(model.mmd_rigid_bodies.iter().filter_map(|rb| rb.rigid_body_handle))
+                    .collect()
+            })
+            .unwrap_or_default()
+    }
+
+    fn in_world(bodies: &[RigidBodyHandle]) -> usize {
+        let guard = lock_shared();
+        bodies.iter().filter(|&&h| guard.world.rigid_body_set.contains(h)).count()
+    }
+
+    #[test]
+    fn models_get_separate_cells_and_are_removed_on_drop() {
+        let build = |model: &mut ModelPhysics, world: &mut PhysicsWorld| {
+            model.add_rigid_body(world, &sphere(RigidBodyMode::Dynamic), Some(Mat4::from_translation(Vec3::new(0.0, 10.0, 0.0))));
+        };
+        let a = SharedPhysicsHandle::create(build);
+        let b = SharedPhysicsHandle::create(build);
+        assert_ne!(a.slot, b.slot);
+        // 每个模型：地面 + 1 个刚体
+        let bodies_a = owned_bodies(&a);
+        let bodies_b = owned_bodies(&b);
+        assert_eq!(bodies_a.len(), 2);
+        assert_eq!(bodies_b.len(), 2);
+        assert_eq!(in_world(&bodies_a) + in_world(&bodies_b), 4);
+
+        // 两个模型的刚体重叠在同一局部位置，但在世界中位于不同分区，局部位姿一致
+        let (pose_a, pose_b) = {
+            let mut guard = lock_shared();
+            let shared = &mut *guard;
+            let world = &shared.world;
+            let pose = |slot: usize| {
+                let model = &shared.slots[slot].as_ref().unwrap().model;
+                let rb = &model.mmd_rigid_bodies[0];
+                let world_pos = world.rigid_body_set[rb.rigid_body_handle.unwrap()].translation().x;
+                (model.body_pose(world, rb).translation.vector.x, world_pos)
+            };
+            (pose(a.slot), pose(b.slot))
+        };
+        assert!((pose_a.0 - pose_b.0).abs() < 1e-4);
+        assert!((pose_a.1 - pose_b.1).abs() >= CELL_SIZE - 1e-3);
+
+        drop(a);
+        assert_eq!(in_world(&bodies_a), 0);
+        assert_eq!(in_world(&bodies_b), 2);
+
+        let c = SharedPhysicsHandle::create(build);
+        assert_ne!(c.slot, b.slot);
+        let bodies_c = owned_bodies(&c);
+        assert_eq!(in_world(&bodies_c), 2);
+
+        // 全部模型离开后世界会重建，句柄可能被其他测试的新刚体复用，不再检查
+        drop(b);
+        drop(c);
+    }
+}
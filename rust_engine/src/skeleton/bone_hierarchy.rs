@@ -0,0 +1,148 @@
+//! 骨骼层级扁平索引
+//!
+//! 将父子关系展开为深度优先先序数组：父骨骼总在子骨骼之前，
+//! 且任一骨骼的子树在数组中是一段连续区间。
+//! 子树的全局变换更新因此是一次线性遍历，无需递归，也无需克隆子骨骼列表。
+
+use glam::Mat4;
+
+use super::{BoneLink, BoneMask};
+
+/// 骨骼层级扁平索引（在 build_hierarchy 时构建，之后只读）
+#[derive(Debug, Clone, Default)]
+pub struct BoneHierarchy {
+    /// 先序遍历顺序
+    order: Vec<usize>,
+    /// 骨骼索引 -> 在 order 中的位置（usize::MAX 表示不可达，如父子关系成环）
+    position: Vec<usize>,
+    /// 骨骼索引 -> 子树在 order 中的结束位置（不含）
+    subtree_end: Vec<usize>,
+}
+
+impl BoneHierarchy {
+    /// 已分配的堆字节数
+    pub fn heap_bytes(&self) -> usize {
+        (self.order.capacity() + self.position.capacity() + self.subtree_end.capacity())
+            * std::mem::size_of::<usize>()
+    }
+
+    /// 根据骨骼的父索引构建（子骨骼按索引升序访问）
+    pub fn build(links: &[BoneLink]) -> Self {
+        let bone_count = links.len();
+        let parent_of = |i: usize| {
+            let parent = links[i].parent_index;
+            if parent >= 0 && (parent as usize) < bone_count {
+                Some(parent as usize)
+            } else {
+                None
+            }
+        };
+
+        // 子骨骼表（CSR 布局：children[child_start[i]..child_start[i + 1]]）
+        let mut child_start = vec![0usize; bone_count + 1];
+        for i in 0..bone_count {
+            if let Some(parent) = parent_of(i) {
+                child_start[parent + 1] += 1;
+            }
+        }
+        for i in 0..bone_count {
+            child_start[i + 1] += child_start[i];
+        }
+        let mut children = vec![0usize; child_start[bone_count]];
+        let mut fill = child_start.clone();
+        for i in 0..bone_count {
+            if let Some(parent) = parent_of(i) {
+                children[fill[parent]] = i;
+                fill[parent] += 1;
+            }
+        }
+
+        // 显式栈的深度优先遍历（栈元素：骨骼, 下一个待访问子骨骼的游标）
+        let mut order = Vec::with_capacity(bone_count);
+        let mut position = vec![usize::MAX; bone_count];
+        let mut subtree_end = vec![0usize; bone_count];
+        let mut stack: Vec<(usize, usize)> = Vec::new();
+        for root in (0..bone_count).filter(|&i| parent_of(i).is_none()) {
+            position[root] = order.len();
+            order.push(root);
+            stack.push((root, child_start[root]));
+            while let Some(top) = stack.last_mut() {
+                let (bone, cursor) = *top;
+                if cursor < child_start[bone + 1] {
+                    top.1 += 1;
+                    let child = children[cursor];
+                    position[child] = order.len();
+                    order.push(child);
+                    stack.push((child, child_start[child]));
+                } else {
+                    subtree_end[bone] = order.len();
+                    stack.pop();
+                }
+            }
+        }
+
+        Self { order, position, subtree_end }
+    }
+
+    /// 骨骼及其所有后代（父先子后）；越界或不可达的骨骼返回空切片
+    #[inline]
+    pub fn subtree(&self, bone: usize) -> &[usize] {
+        match self.position.get(bone) {
+            Some(&start) if start != usize::MAX => &self.order[start..self.subtree_end[bone]],
+            _ => &[],
+        }
+    }
+
+    /// 从 root 开始按先序更新子树的全局变换
+    ///
+    /// `skip` 中的骨骼保留当前全局变换（由物理系统设置），但其子骨骼仍会更新。
+    pub fn update_subtree(&self, bones: &mut [BoneLink], root: usize, skip: Option<&BoneMask>) {
+        for &idx in self.subtree(root) {
+            if skip.map_or(false, |mask| mask.contains(idx)) {
+                continue;
+            }
+            let parent_idx = bones[idx].parent_index;
+            if parent_idx >= 0 && (parent_idx as usize) < bones.len() {
+                let parent_global = bones[parent_idx as usize].local_to_world;
+                bones[idx].parent_to_world = parent_global;
+                bones[idx].local_to_world = parent_global * bones[idx].local_to_parent;
+            } else {
+                bones[idx].parent_to_world = Mat4::IDENTITY;
+                bones[idx].local_to_world = bones[idx].local_to_parent;
+            }
+        }
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    fn links(parents: &[i32]) -> Vec<BoneLink> {
+        parents.iter().enumerate().map(|(i, &parent)| {
+            let mut bone = BoneLink::new(format!("bone{}", i));
+            bone.parent_index = parent;
+            bone
+        }).collect()
+    }
+
+    #[test]
+    fn subtrees_are_contiguous_and_parent_first() {
+        // 0 ─┬─ 2 ── 3
+        //    └─ 4
+        // 1 ── 5
+        let hierarchy = BoneHierarchy::build(&links(&[-1, -1, 0, 2, 0, 1]));
+        assert_eq!(hierarchy.subtree(0), &[0, 2, 3, 4]);
+        assert_eq!(hierarchy.subtree(2), &[2, 3]);
+        assert_eq!(hierarchy.subtree(1), &[1, 5]);
+        assert_eq!(hierarchy.subtree(3), &[3]);
+        assert!(hierarchy.subtree(99).is_empty());
+    }
+
+    #[test]
+    fn cyclic_bones_are_unreachable() {
+        let hierarchy = BoneHierarchy::build(&links(&[-1, 2, 1]));
+        assert_eq!(hierarchy.subtree(0), &[0]);
+        assert!(hierarchy.subtree(1).is_empty());
+    }
+}
@@ -0,0 +1,88 @@
+//! 骨骼位掩码
+//!
+//! 以位图标记一组骨骼（如物理驱动的骨骼），替代每帧构建的 HashSet<usize>：
+//! 查询为一次位运算，复制在容量足够时不分配内存。
+
+/// 骨骼位掩码（每个骨骼索引占 1 位）
+#[derive(Debug, Clone, Default, PartialEq, Eq)]
+pub struct BoneMask {
+    words: Vec<u64>,
+}
+
+impl BoneMask {
+    /// 创建空掩码
+    pub fn new() -> Self {
+        Self { words: Vec::new() }
+    }
+
+    /// 创建可容纳 bone_count 个骨骼的空掩码（之后插入范围内的索引不再分配）
+    pub fn with_bone_count(bone_count: usize) -> Self {
+        Self { words: vec![0; (bone_count + 63) / 64] }
+    }
+
+    /// 标记骨骼（超出当前容量时扩容）
+    pub fn insert(&mut self, index: usize) {
+        let word = index / 64;
+        if word >= self.words.len() {
+            self.words.resize(word + 1, 0);
+        }
+        self.words[word] |= 1u64 << (index % 64);
+    }
+
+    /// 是否标记了该骨骼
+    #[inline]
+    pub fn contains(&self, index: usize) -> bool {
+        self.words
+            .get(index / 64)
+            .map_or(false, |w| w & (1u64 << (index % 64)) != 0)
+    }
+
+    /// 清除所有标记（保留容量）
+    pub fn clear(&mut self) {
+        self.words.iter_mut().for_each(|w| *w = 0);
+    }
+
+    /// 是否没有任何标记
+    pub fn is_empty(&self) -> bool {
+        self.words.iter().all(|&w| w == 0)
+    }
+
+    /// 标记的骨骼数量
+    pub fn count(&self) -> usize {
+        self.words.iter().map(|w| w.count_ones() as usize).sum()
+    }
+
+    /// 复制另一个掩码的内容（容量足够时不分配内存）
+    pub fn copy_from(&mut self, other: &BoneMask) {
+        self.words.clone_from(&other.words);
+    }
+
+    /// 遍历所有标记的骨骼索引（升序）
+    pub fn iter(&self) -> impl Iterator<Item = usize> + '_ {
+        self.words.iter().enumerate().flat_map(|(i, &word)| {
+            (0..64).filter(move |bit| word & (1u64 << bit) != 0).map(move |bit| i * 64 + bit)
+        })
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    #[test]
+    fn insert_contains_and_grow() {
+        let mut mask = BoneMask::with_bone_count(10);
+        mask.insert(3);
+        mask.insert(130);
+        assert!(mask.contains(3));
+        assert!(mask.contains(130));
+        assert!(!mask.contains(4));
+        assert!(!mask.contains(1000));
+        assert_eq!(mask.count(), 2);
+        assert_eq!(mask.iter().collect::<Vec<_>>(), vec![3, 130]);
+
+        mask.clear();
+        assert!(mask.is_empty());
+        assert!(!mask.contains(130));
+    }
+}
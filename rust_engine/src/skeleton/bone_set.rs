@@ -8,9 +8,11 @@
 //! - IK 求解
 
 use glam::{Vec3, Quat, Mat4};
-use std::collections::{HashMap, HashSet};
+use std::collections::HashMap;
+use std::time::Instant;
 
-use super::{BoneLink, IkSolver};
+use super::{BoneHierarchy, BoneLink, BoneMask, IkSolver};
+use crate::model::memory::{name_map_bytes, vec_bytes};
 
 // ============================================================================
 // 骨骼集合
@@ -21,6 +23,7 @@ use super::{BoneLink, IkSolver};
 /// 设计原则（参考 nphysics）：
 /// - 所有骨骼存储在连续数组中
 /// - 使用排序索引确保父骨骼先于子骨骼更新
+/// - 子树更新使用扁平先序索引线性遍历，每帧更新不分配内存
 /// - 变换传播：local_to_world = parent.local_to_world * local_to_parent
 pub struct BoneSet {
     /// 骨骼数组
@@ -35,17 +38,23 @@ pub struct BoneSet {
     /// IK 求解器列表
     ik_solvers: Vec<IkSolver>,
     
+    /// 骨骼索引 -> IK 求解器索引
+    ik_solver_of: Vec<Option<usize>>,
+    
     /// 蒙皮矩阵缓存
     skinning_matrices: Vec<Mat4>,
     
-    /// 物理驱动的骨骼索引集合
-    physics_bone_indices: HashSet<usize>,
+    /// 物理驱动的骨骼掩码
+    physics_bone_mask: BoneMask,
     
-    /// 子骨骼缓存（parent_index -> children_indices）
-    children_cache: Vec<Vec<usize>>,
+    /// 层级扁平索引（子树为连续区间，父先子后）
+    hierarchy: BoneHierarchy,
     
     /// 更新标志
     needs_hierarchy_update: bool,
+    
+    /// IK 求解累计耗时（纳秒），None 表示不计时
+    ik_time_ns: Option<u64>,
 }
 
 impl BoneSet {
@@ -56,10 +65,12 @@ impl BoneSet {
             name_to_index: HashMap::new(),
             sorted_indices: Vec::new(),
             ik_solvers: Vec::new(),
+            ik_solver_of: Vec::new(),
             skinning_matrices: Vec::new(),
-            physics_bone_indices: HashSet::new(),
-            children_cache: Vec::new(),
+            physics_bone_mask: BoneMask::new(),
+            hierarchy: BoneHierarchy::default(),
             needs_hierarchy_update: true,
+            ik_time_ns: None,
         }
     }
     
@@ -93,7 +104,7 @@ impl BoneSet {
     /// 2. 计算 body_shift（相对于父骨骼的偏移）
     /// 3. 计算初始全局变换
     /// 4. 计算逆绑定矩阵
-    /// 5. 构建子骨骼缓存
+    /// 5. 构建层级扁平索引
     /// 6. 创建 IK 求解器
     pub fn build_hierarchy(&mut self) {
         let bone_count = self.links.len();
@@ -132,13 +143,15 @@ impl BoneSet {
             self.links[i].local_to_parent = Mat4::from_translation(body_shift);
         }
         
-        // 3. 构建子骨骼缓存
-        self.build_children_cache();
+        // 3. 构建层级扁平索引
+        self.build_hierarchy_index();
         
         // 4. 创建 IK 求解器
         self.ik_solvers.clear();
+        self.ik_solver_of = vec![None; bone_count];
         for (i, bone) in self.links.iter().enumerate() {
             if let Some(ref ik_config) = bone.ik_config {
+                self.ik_solver_of[i] = Some(self.ik_solvers.len());
                 self.ik_solvers.push(IkSolver::new(i, ik_config.clone()));
             }
         }
@@ -154,15 +167,14 @@ impl BoneSet {
         self.needs_hierarchy_update = false;
     }
     
-    /// 构建子骨骼缓存
-    fn build_children_cache(&mut self) {
+    /// 构建层级扁平索引并标记非叶骨骼
+    fn build_hierarchy_index(&mut self) {
         let bone_count = self.links.len();
-        self.children_cache = vec![Vec::new(); bone_count];
+        self.hierarchy = BoneHierarchy::build(&self.links);
         
         for i in 0..bone_count {
             let parent_idx = self.links[i].parent_index;
             if parent_idx >= 0 && (parent_idx as usize) < bone_count {
-                self.children_cache[parent_idx as usize].push(i);
                 self.links[parent_idx as usize].is_leaf = false;
             }
         }
@@ -250,20 +262,20 @@ impl BoneSet {
     // 物理骨骼管理
     // ========================================
     
-    /// 设置物理骨骼索引集合
-    pub fn set_physics_bone_indices(&mut self, indices: HashSet<usize>) {
-        self.physics_bone_indices = indices;
+    /// 设置物理骨骼掩码（复制到内部缓冲区，容量足够时不分配内存）
+    pub fn set_physics_bone_mask(&mut self, mask: &BoneMask) {
+        self.physics_bone_mask.copy_from(mask);
     }
     
-    /// 清除物理骨骼索引集合
-    pub fn clear_physics_bone_indices(&mut self) {
-        self.physics_bone_indices.clear();
+    /// 清除物理骨骼掩码
+    pub fn clear_physics_bone_mask(&mut self) {
+        self.physics_bone_mask.clear();
     }
     
     /// 检查是否为物理骨骼
     #[inline]
     pub fn is_physics_bone(&self, index: usize) -> bool {
-        self.physics_bone_indices.contains(&index)
+        self.physics_bone_mask.contains(index)
     }
     
     // ========================================
@@ -291,33 +303,28 @@ impl BoneSet {
         }
     }
     
-    /// 更新骨骼变换
+    /// 更新骨骼变换（不分配内存）
     ///
     /// 参考 nphysics Multibody::update_kinematics
     pub fn update_transforms(&mut self, after_physics: bool) {
         // 1. 更新本地变换（跳过物理骨骼）
-        for &idx in &self.sorted_indices.clone() {
+        for i in 0..self.sorted_indices.len() {
+            let idx = self.sorted_indices[i];
             if self.links[idx].deform_after_physics() != after_physics {
                 continue;
             }
-            if self.physics_bone_indices.contains(&idx) {
+            if self.physics_bone_mask.contains(idx) {
                 continue;
             }
             self.links[idx].compute_local_transform();
         }
         
-        // 2. 从根骨骼递归更新全局变换
-        for &idx in &self.sorted_indices.clone() {
-            if self.links[idx].deform_after_physics() != after_physics {
-                continue;
-            }
-            if self.links[idx].is_root() {
-                self.update_global_transform_recursive(idx);
-            }
-        }
+        // 2. 从根骨骼更新全局变换
+        self.update_root_global_transforms(after_physics);
         
         // 3. 处理附加变换和 IK
-        for &idx in &self.sorted_indices.clone() {
+        for i in 0..self.sorted_indices.len() {
+            let idx = self.sorted_indices[i];
             if self.links[idx].deform_after_physics() != after_physics {
                 continue;
             }
@@ -327,70 +334,81 @@ impl BoneSet {
             
             if needs_append {
                 self.apply_append_transform(idx);
-                self.update_global_transform_recursive(idx);
+                self.update_global_transform_subtree(idx);
             }
             
             if is_ik {
-                self.solve_ik(idx);
+                match self.ik_time_ns {
+                    Some(total) => {
+                        let start = Instant::now();
+                        self.solve_ik(idx);
+                        self.ik_time_ns = Some(total + start.elapsed().as_nanos() as u64);
+                    }
+                    None => self.solve_ik(idx),
+                }
             }
         }
         
         // 4. 最终更新全局变换
-        for &idx in &self.sorted_indices.clone() {
+        self.update_root_global_transforms(after_physics);
+    }
+    
+    /// 已分配的堆字节数（骨骼、名称索引、IK、蒙皮矩阵与层级）
+    pub fn heap_bytes(&self) -> usize {
+        vec_bytes(&self.links)
+            + self.links.iter().map(|link| link.name.capacity()).sum::<usize>()
+            + name_map_bytes(&self.name_to_index)
+            + vec_bytes(&self.sorted_indices)
+            + vec_bytes(&self.ik_solvers)
+            + self.ik_solvers.iter().map(IkSolver::heap_bytes).sum::<usize>()
+            + vec_bytes(&self.ik_solver_of)
+            + vec_bytes(&self.skinning_matrices)
+            + self.hierarchy.heap_bytes()
+    }
+    
+    /// 开始统计 IK 求解耗时（帧耗时统计启用时每帧调用）
+    pub fn begin_ik_timing(&mut self) {
+        self.ik_time_ns = Some(0);
+    }
+    
+    /// 取出并停止统计 IK 求解耗时（纳秒）
+    pub fn take_ik_time_ns(&mut self) -> u64 {
+        self.ik_time_ns.take().unwrap_or(0)
+    }
+    
+    /// 更新所有（与 after_physics 匹配的）根骨骼子树的全局变换
+    fn update_root_global_transforms(&mut self, after_physics: bool) {
+        for i in 0..self.sorted_indices.len() {
+            let idx = self.sorted_indices[i];
             if self.links[idx].deform_after_physics() != after_physics {
                 continue;
             }
             if self.links[idx].is_root() {
-                self.update_global_transform_recursive(idx);
+                self.update_global_transform_subtree(idx);
             }
         }
     }
     
-    /// 递归更新全局变换
+    /// 按先序线性更新骨骼子树的全局变换
     ///
+    /// 物理骨骼保留物理系统设置的全局变换，但其子骨骼仍会更新。
     /// 类似 nphysics Multibody::update_kinematics
-    fn update_global_transform_recursive(&mut self, index: usize) {
-        // 跳过物理骨骼（它们的变换由物理系统设置）
-        if self.physics_bone_indices.contains(&index) {
-            // 仍需递归更新子骨骼
-            let children = self.children_cache[index].clone();
-            for child_idx in children {
-                self.update_global_transform_recursive(child_idx);
-            }
-            return;
-        }
-        
-        // 计算全局变换：local_to_world = parent.local_to_world * local_to_parent
-        let parent_idx = self.links[index].parent_index;
-        if parent_idx >= 0 && (parent_idx as usize) < self.links.len() {
-            let parent_global = self.links[parent_idx as usize].local_to_world;
-            self.links[index].parent_to_world = parent_global;
-            self.links[index].local_to_world = parent_global * self.links[index].local_to_parent;
-        } else {
-            self.links[index].parent_to_world = Mat4::IDENTITY;
-            self.links[index].local_to_world = self.links[index].local_to_parent;
-        }
-        
-        // 递归更新子骨骼
-        let children = self.children_cache[index].clone();
-        for child_idx in children {
-            self.update_global_transform_recursive(child_idx);
-        }
+    #[inline]
+    fn update_global_transform_subtree(&mut self, index: usize) {
+        self.hierarchy.update_subtree(&mut self.links, index, Some(&self.physics_bone_mask));
     }
     
     /// 应用附加变换
     fn apply_append_transform(&mut self, index: usize) {
-        let append_config = match &self.links[index].append_config {
-            Some(config) => config.clone(),
+        let (parent_idx, rate) = match &self.links[index].append_config {
+            Some(config) => (config.parent as usize, config.rate),
             None => return,
         };
         
-        let parent_idx = append_config.parent as usize;
         if parent_idx >= self.links.len() {
             return;
         }
-        
-        let rate = append_config.rate;
+
         let is_append_local = self.links[index].is_append_local();
         
         // 附加旋转
@@ -432,13 +450,11 @@ impl BoneSet {
         self.links[index].compute_local_transform();
     }
     
-    /// IK 求解
+    /// IK 求解（直接借用求解器，不克隆）
     fn solve_ik(&mut self, bone_index: usize) {
-        let solver_idx = self.ik_solvers.iter().position(|s| s.bone_index == bone_index);
-        if let Some(idx) = solver_idx {
-            let solver = self.ik_solvers[idx].clone();
-            solver.solve(&mut self.links, &self.children_cache);
-            self.update_global_transform_recursive(bone_index);
+        if let Some(&Some(idx)) = self.ik_solver_of.get(bone_index) {
+            self.ik_solvers[idx].solve(&mut self.links, &self.hierarchy);
+            self.update_global_transform_subtree(bone_index);
         }
     }
     
@@ -498,6 +514,12 @@ impl BoneSet {
         self.links.get(index).map(|b| b.local_to_world).unwrap_or(Mat4::IDENTITY)
     }
     
+    /// 将所有骨骼的全局变换复制到 out（复用 out 的容量）
+    pub fn copy_global_transforms_into(&self, out: &mut Vec<Mat4>) {
+        out.clear();
+        out.extend(self.links.iter().map(|b| b.local_to_world));
+    }
+    
     /// 设置全局变换（用于物理系统）
     pub fn set_global_transform(&mut self, index: usize, transform: Mat4) {
         if index >= self.links.len() {
@@ -522,7 +544,7 @@ impl BoneSet {
         self.links[index].animation_rotate = rotation;
         self.links[index].animation_translate = translation - self.links[index].body_shift;
         
-        // 4. 递归更新子骨骼
+        // 4. 更新子骨骼
         self.update_children_global_transform(index);
     }
     
@@ -548,21 +570,21 @@ impl BoneSet {
         self.links[index].animation_translate = translation - self.links[index].body_shift;
     }
     
-    /// 递归更新子骨骼全局变换
+    /// 更新所有后代骨骼的全局变换（按先序线性遍历，父骨骼总是先于子骨骼）
     fn update_children_global_transform(&mut self, parent_index: usize) {
-        let parent_global = self.links[parent_index].local_to_world;
-        let children = self.children_cache[parent_index].clone();
-        
-        for child_idx in children {
+        let subtree = self.hierarchy.subtree(parent_index);
+        for &child_idx in subtree.iter().skip(1) {
+            let parent_idx = self.links[child_idx].parent_index as usize;
+            let parent_global = self.links[parent_idx].local_to_world;
             self.links[child_idx].local_to_world = parent_global * self.links[child_idx].local_to_parent;
-            self.update_children_global_transform(child_idx);
         }
     }
     
-    /// 批量更新物理骨骼后，更新非物理骨骼
-    pub fn update_non_physics_children(&mut self, physics_bone_indices: &HashSet<usize>) {
-        for &idx in &self.sorted_indices.clone() {
-            if physics_bone_indices.contains(&idx) {
+    /// 批量更新物理骨骼后，按物理骨骼掩码更新非物理骨骼
+    pub fn update_non_physics_children(&mut self) {
+        for i in 0..self.sorted_indices.len() {
+            let idx = self.sorted_indices[i];
+            if self.physics_bone_mask.contains(idx) {
                 continue;
             }
             
@@ -616,3 +638,157 @@ impl Default for BoneSet {
 }
 
 // ============================================================================
+// 测试
+// ============================================================================
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use crate::skeleton::{AppendConfig, BoneFlags, IkConfig, IkLink};
+    use crate::test_alloc::count_allocations;
+    use std::time::Instant;
+
+    fn add(bones: &mut BoneSet, parent: i32, position: Vec3) -> i32 {
+        let mut bone = BoneLink::new(format!("bone{}", bones.bone_count()));
+        bone.parent_index = parent;
+        bone.initial_position = position;
+        bone.flags = BoneFlags::ROTATABLE | BoneFlags::MOVABLE;
+        bones.add_bone(bone);
+        bones.bone_count() as i32 - 1
+    }
+
+    /// 类人骨架：两条带 IK 的腿、一根附加旋转骨骼，以及 hair_chains 条 8 节头发链
+    fn build_skeleton(hair_chains: usize) -> BoneSet {
+        let mut bones = BoneSet::new();
+        let root = add(&mut bones, -1, Vec3::ZERO);
+        let center = add(&mut bones, root, Vec3::new(0.0, 8.0, 0.0));
+        for side in [-1.0f32, 1.0] {
+            let thigh = add(&mut bones, center, Vec3::new(side, 8.0, 0.0));
+            let knee = add(&mut bones, thigh, Vec3::new(side, 4.5, 0.2));
+            let ankle = add(&mut bones, knee, Vec3::new(side, 1.0, 0.0));
+            let ik = add(&mut bones, root, Vec3::new(side, 1.0, 0.0));
+            let link = bones.get_bone_mut(ik as usize).unwrap();
+            link.flags |= BoneFlags::IK;
+            link.ik_config = Some(IkConfig {
+                target_bone: ankle,
+                iterations: 40,
+                limit_angle: 2.0,
+                links: vec![
+                    IkLink {
+                        bone_index: knee,
+                        has_limits: true,
+                        limit_min: Vec3::new(-std::f32::consts::PI, 0.0, 0.0),
+                        limit_max: Vec3::new(-0.008, 0.0, 0.0),
+                    },
+                    IkLink { bone_index: thigh, has_limits: false, limit_min: Vec3::ZERO, limit_max: Vec3::ZERO },
+                ],
+            });
+        }
+        let head = add(&mut bones, center, Vec3::new(0.0, 14.0, 0.0));
+        let eye = add(&mut bones, head, Vec3::new(0.3, 15.0, 0.5));
+        let link = bones.get_bone_mut(eye as usize).unwrap();
+        link.flags |= BoneFlags::APPEND_ROTATE;
+        link.append_config = Some(AppendConfig { parent: head, rate: 0.5 });
+        for chain in 0..hair_chains {
+            let mut parent = head;
+            for segment in 0..8 {
+                parent = add(&mut bones, parent, Vec3::new(chain as f32 * 0.1, 15.0 - segment as f32, -0.5));
+            }
+        }
+        bones.build_hierarchy();
+        bones
+    }
+
+    /// 模拟一帧动画：写入动画数据后完整更新（物理前 + 物理后 + 蒙皮矩阵）
+    fn animate_frame(bones: &mut BoneSet, t: f32) {
+        bones.begin_update();
+        bones.set_bone_translation(5, Vec3::new(0.0, t.sin() * 0.5, 0.0));
+        for i in 0..bones.bone_count() {
+            bones.set_bone_rotation(i, Quat::from_rotation_x((t + i as f32 * 0.1).sin() * 0.2));
+        }
+        bones.update_transforms(false);
+        bones.update_transforms(true);
+        bones.end_update();
+    }
+
+    #[test]
+    fn subtree_update_matches_parent_chain() {
+        let mut bones = build_skeleton(2);
+        animate_frame(&mut bones, 0.7);
+        for i in 0..bones.bone_count() {
+            let bone = bones.get_bone(i).unwrap();
+            if let Some(parent) = bone.parent_id() {
+                let expected = bones.get_global_transform(parent) * bone.local_to_parent;
+                assert!(bone.local_to_world.abs_diff_eq(expected, 1e-4), "bone {}", i);
+            }
+        }
+    }
+
+    #[test]
+    fn steady_state_update_does_not_allocate() {
+        let mut bones = build_skeleton(4);
+        animate_frame(&mut bones, 0.0);
+        let (allocations, _) = count_allocations(|| {
+            for frame in 1..10 {
+                animate_frame(&mut bones, frame as f32 / 30.0);
+            }
+        });
+        assert_eq!(allocations, 0);
+    }
+
+    /// 旧实现的全局变换传播：逐层递归并克隆子骨骼列表（仅作基准对照）
+    fn legacy_update_recursive(links: &mut [BoneLink], children: &[Vec<usize>], index: usize) {
+        let parent_idx = links[index].parent_index;
+        if parent_idx >= 0 {
+            let parent_global = links[parent_idx as usize].local_to_world;
+            links[index].parent_to_world = parent_global;
+            links[index].local_to_world = parent_global * links[index].local_to_parent;
+        } else {
+            links[index].local_to_world = links[index].local_to_parent;
+        }
+        for child in children[index].clone() {
+            legacy_update_recursive(links, children, child);
+        }
+    }
+
+    /// 每帧骨骼更新的微基准
+    ///
+    /// 运行：cargo test --release bench_bone_update -- --ignored --nocapture
+    #[test]
+    #[ignore]
+    fn bench_bone_update() {
+        const FRAMES: u32 = 2000;
+        let mut bones = build_skeleton(60);
+        animate_frame(&mut bones, 0.0);
+
+        let start = Instant::now();
+        let (allocations, _) = count_allocations(|| {
+            for frame in 0..FRAMES {
+                animate_frame(&mut bones, frame as f32 / 60.0);
+            }
+        });
+        let frame_ns = start.elapsed().as_nanos() / FRAMES as u128;
+        println!(
+            "完整帧更新（{} 骨骼）: {} ns/帧, {} 次分配/帧",
+            bones.bone_count(), frame_ns, allocations / FRAMES as usize,
+        );
+
+        // 全局变换传播：递归 + 克隆子骨骼列表（旧） vs 先序线性遍历（新）
+        let children: Vec<Vec<usize>> = (0..bones.bone_count())
+            .map(|p| (0..bones.bone_count())
+                .filter(|&c| bones.links[c].parent_index == p as i32)
+                .collect())
+            .collect();
+        let start = Instant::now();
+        for _ in 0..FRAMES {
+            legacy_update_recursive(&mut bones.links, &children, 0);
+        }
+        let legacy_ns = start.elapsed().as_nanos() / FRAMES as u128;
+        let start = Instant::now();
+        for _ in 0..FRAMES {
+            bones.hierarchy.update_subtree(&mut bones.links, 0, None);
+        }
+        let flat_ns = start.elapsed().as_nanos() / FRAMES as u128;
+        println!("全局变换传播: 递归克隆 {} ns/帧 -> 先序遍历 {} ns/帧", legacy_ns, flat_ns);
+    }
+}
@@ -8,6 +8,7 @@
 use glam::{Vec3, Quat, Mat3};
 use std::f32::consts::PI;
 
+use super::bone_hierarchy::BoneHierarchy;
 use super::bone_link::{BoneLink, BoneFlags, IkConfig, IkLink};
 
 // ============================================================================
@@ -46,20 +47,30 @@ pub struct IkSolver {
     pub config: IkConfig,
     /// 是否启用
     pub enabled: bool,
+    /// IK 链状态（与 config.links 一一对应，每次求解前重置，复用以免每帧分配）
+    chain_states: Vec<IkChainState>,
 }
 
 impl IkSolver {
     /// 创建新的 IK 求解器
     pub fn new(bone_index: usize, config: IkConfig) -> Self {
+        let chain_states = vec![IkChainState::default(); config.links.len()];
         Self {
             bone_index,
             config,
             enabled: true,
+            chain_states,
         }
     }
     
-    /// 求解 IK
-    pub fn solve(&self, bones: &mut [BoneLink], children_cache: &[Vec<usize>]) {
+    /// 已分配的堆字节数（IK 链配置与链状态）
+    pub fn heap_bytes(&self) -> usize {
+        self.config.links.capacity() * std::mem::size_of::<IkLink>()
+            + self.chain_states.capacity() * std::mem::size_of::<IkChainState>()
+    }
+    
+    /// 求解 IK（不分配内存）
+    pub fn solve(&mut self, bones: &mut [BoneLink], hierarchy: &BoneHierarchy) {
         if !self.enabled {
             return;
         }
@@ -69,11 +80,10 @@ impl IkSolver {
             return;
         }
         
-        // 初始化 IK 链状态
-        let mut chain_states: Vec<IkChainState> = self.config.links
-            .iter()
-            .map(|_| IkChainState::default())
-            .collect();
+        // 初始化 IK 链状态（暂时取出，使迭代求解可以同时借用 self）
+        let mut chain_states = std::mem::take(&mut self.chain_states);
+        chain_states.clear();
+        chain_states.resize(self.config.links.len(), IkChainState::default());
         
         // 初始化 IK 链骨骼
         for link in &self.config.links {
@@ -82,7 +92,7 @@ impl IkSolver {
                 bones[link_idx].ik_rotate = Quat::IDENTITY;
                 bones[link_idx].flags |= BoneFlags::IK_ENABLED;
                 bones[link_idx].compute_local_transform();
-                Self::update_global_transform_recursive(bones, children_cache, link_idx);
+                hierarchy.update_subtree(bones, link_idx, None);
             }
         }
         
@@ -90,7 +100,7 @@ impl IkSolver {
         
         // 迭代求解
         for iteration in 0..self.config.iterations {
-            self.solve_iteration(bones, children_cache, target_idx, iteration, &mut chain_states);
+            self.solve_iteration(bones, hierarchy, target_idx, iteration, &mut chain_states);
             
             // 检查距离
             let target_pos = bones[target_idx].local_to_world.col(3).truncate();
@@ -113,19 +123,21 @@ impl IkSolver {
                     if link_idx < bones.len() {
                         bones[link_idx].ik_rotate = chain_states[i].best_ik_rotate;
                         bones[link_idx].compute_local_transform();
-                        Self::update_global_transform_recursive(bones, children_cache, link_idx);
+                        hierarchy.update_subtree(bones, link_idx, None);
                     }
                 }
                 break;
             }
         }
+        
+        self.chain_states = chain_states;
     }
     
     /// 单次迭代求解
     fn solve_iteration(
         &self,
         bones: &mut [BoneLink],
-        children_cache: &[Vec<usize>],
+        hierarchy: &BoneHierarchy,
         target_idx: usize,
         iteration: u32,
         chain_states: &mut [IkChainState],
@@ -144,7 +156,7 @@ impl IkSolver {
             if link.has_limits {
                 if let Some(axis) = Self::detect_plane_solve_axis(link) {
                     self.solve_plane(
-                        bones, children_cache, target_idx,
+                        bones, hierarchy, target_idx,
                         iteration, chain_idx, axis, chain_states,
                     );
                     continue;
@@ -211,7 +223,7 @@ impl IkSolver {
             // 更新 IK 旋转
             bones[link_idx].ik_rotate = chain_rot * bones[link_idx].animation_rotate.inverse();
             bones[link_idx].compute_local_transform();
-            Self::update_global_transform_recursive(bones, children_cache, link_idx);
+            hierarchy.update_subtree(bones, link_idx, None);
         }
     }
     
@@ -219,7 +231,7 @@ impl IkSolver {
     fn solve_plane(
         &self,
         bones: &mut [BoneLink],
-        children_cache: &[Vec<usize>],
+        hierarchy: &BoneHierarchy,
         target_idx: usize,
         iteration: u32,
         chain_idx: usize,
@@ -303,7 +315,7 @@ impl IkSolver {
         bones[link_idx].ik_rotate = Quat::from_axis_angle(rotate_axis, new_angle)
             * bones[link_idx].animation_rotate.inverse();
         bones[link_idx].compute_local_transform();
-        Self::update_global_transform_recursive(bones, children_cache, link_idx);
+        hierarchy.update_subtree(bones, link_idx, None);
     }
     
     /// 检测是否应使用单轴模式
@@ -419,32 +431,4 @@ impl IkSolver {
         }
         r
     }
-    
-    /// 递归更新全局变换
-    pub(crate) fn update_global_transform_recursive(
-        bones: &mut [BoneLink],
-        children_cache: &[Vec<usize>],
-        idx: usize,
-    ) {
-        if idx >= bones.len() {
-            return;
-        }
-        
-        let parent_idx = bones[idx].parent_index;
-        if parent_idx >= 0 && (parent_idx as usize) < bones.len() {
-            let parent_global = bones[parent_idx as usize].local_to_world;
-            bones[idx].parent_to_world = parent_global;
-            bones[idx].local_to_world = parent_global * bones[idx].local_to_parent;
-        } else {
-            bones[idx].parent_to_world = glam::Mat4::IDENTITY;
-            bones[idx].local_to_world = bones[idx].local_to_parent;
-        }
-        
-        // 递归更新子骨骼
-        if idx < children_cache.len() {
-            for &child_idx in &children_cache[idx] {
-                Self::update_global_transform_recursive(bones, children_cache, child_idx);
-            }
-        }
-    }
 }
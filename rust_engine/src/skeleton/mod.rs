@@ -3,13 +3,18 @@
 //! 核心设计思想：
 //! - BoneLink: 类似 nphysics MultibodyLink，表示单个骨骼节点
 //! - BoneSet: 类似 nphysics Multibody，管理骨骼层次结构
+//! - BoneHierarchy: 层级的扁平先序索引，子树更新为线性遍历
 //! - IkSolver: IK 求解器
 
+mod bone_hierarchy;
 mod bone_link;
+mod bone_mask;
 mod bone_set;
 mod ik_solver;
 
+pub use bone_hierarchy::BoneHierarchy;
 pub use bone_link::{BoneLink, BoneFlags, IkConfig, IkLink, AppendConfig};
+pub use bone_mask::BoneMask;
 pub use bone_set::BoneSet;
 pub use ik_solver::IkSolver;
 
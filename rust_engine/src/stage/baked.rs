@@ -0,0 +1,340 @@
+//! 烘焙舞台的加载与播放
+
+use std::fs::File;
+use std::io::{self, BufReader, Read, Seek, SeekFrom};
+use std::path::Path;
+use std::sync::mpsc::{self, Receiver, Sender, SyncSender};
+use std::sync::{Arc, Mutex};
+
+use byteorder::{LittleEndian, ReadBytesExt};
+use flate2::read::ZlibDecoder;
+use once_cell::sync::Lazy;
+
+use crate::model::memory::vec_bytes;
+use crate::morph::MorphManager;
+use crate::skeleton::BoneManager;
+
+use super::{apply_frame, model_fingerprint, read_words, xor_words, BakeHeader, CAMERA_WORDS, VMD_FPS};
+
+/// 后台解压线程的请求队列（线程启动失败时为 None，播放退回到调用线程解压）
+static CHUNK_LOADER: Lazy<Option<Mutex<Sender<ChunkRequest>>>> = Lazy::new(|| {
+    let (sender, receiver) = mpsc::channel::<ChunkRequest>();
+    std::thread::Builder::new()
+        .name("MMD-BakeLoader".to_string())
+        .spawn(move || {
+            for request in receiver {
+                // 播放端已放弃该块（跳转或被释放）时发送失败，直接丢弃
+                let _ = request.reply.send(request.stage.decode_chunk(request.chunk));
+            }
+        })
+        .map_err(|e| log::error!("烘焙块解压线程启动失败: {}", e))
+        .ok()
+        .map(|_| Mutex::new(sender))
+});
+
+struct ChunkRequest {
+    stage: Arc<BakedStage>,
+    chunk: usize,
+    reply: SyncSender<io::Result<Vec<u32>>>,
+}
+
+/// 已加载的烘焙舞台（可被多个模型共享）
+///
+/// 只常驻头部、块索引与相机轨道；帧数据块在后台线程读取并整块解压。
+pub struct BakedStage {
+    header: BakeHeader,
+    chunks: Vec<(u64, u32)>,
+    camera: Vec<u32>,
+    file: Mutex<File>,
+}
+
+impl BakedStage {
+    /// 打开烘焙文件
+    pub fn open(path: &Path) -> io::Result<Self> {
+        let mut file = File::open(path)?;
+        let header = BakeHeader::read_from(&mut BufReader::new(&mut file))?;
+
+        file.seek(SeekFrom::Start(header.index_offset))?;
+        let mut entries = Vec::with_capacity(header.chunk_count as usize + 1);
+        {
+            let mut reader = BufReader::new(&mut file);
+            for _ in 0..=header.chunk_count {
+                entries.push((reader.read_u64::<LittleEndian>()?, reader.read_u32::<LittleEndian>()?));
+            }
+        }
+        let camera_entry = entries.pop().unwrap_or((0, 0));
+        let expected_chunks = (header.frame_count as usize + header.frames_per_chunk as usize - 1)
+            / header.frames_per_chunk as usize;
+        if entries.len() != expected_chunks {
+            return Err(io::Error::new(io::ErrorKind::InvalidData, "烘焙文件块索引与帧数不一致"));
+        }
+
+        let mut camera = Vec::new();
+        if header.has_camera() {
+            let bytes = read_block(&mut file, camera_entry)?;
+            camera.resize(header.frame_count as usize * CAMERA_WORDS, 0);
+            read_words(&mut ZlibDecoder::new(bytes.as_slice()), &mut camera)?;
+        }
+
+        Ok(Self { header, chunks: entries, camera, file: Mutex::new(file) })
+    }
+
+    pub fn header(&self) -> &BakeHeader {
+        &self.header
+    }
+
+    /// 演出总长度（VMD 帧）
+    pub fn max_frame(&self) -> f32 {
+        self.header.max_frame()
+    }
+
+    pub fn has_camera(&self) -> bool {
+        self.header.has_camera() && !self.camera.is_empty()
+    }
+
+    /// 舞台时间轴（VMD 帧）处的相机数据：位置、旋转、FOV、透视标志
+    pub fn camera_words(&self, frame: f32) -> Option<&[u32]> {
+        if !self.has_camera() {
+            return None;
+        }
+        let start = self.header.sample_index(frame) * CAMERA_WORDS;
+        self.camera.get(start..start + CAMERA_WORDS)
+    }
+
+    /// 模型是否与烘焙时的骨骼/Morph 结构一致
+    pub fn matches(&self, bone_manager: &BoneManager, morph_manager: &MorphManager) -> bool {
+        bone_manager.bone_count() == self.header.bone_count as usize
+            && morph_manager.morph_count() == self.header.morph_count as usize
+            && model_fingerprint(bone_manager, morph_manager) == self.header.fingerprint
+    }
+
+    /// 读取某块的压缩数据
+    fn read_chunk(&self, chunk: usize) -> io::Result<Vec<u8>> {
+        let entry = self.chunks.get(chunk).copied()
+            .ok_or_else(|| io::Error::new(io::ErrorKind::UnexpectedEof, "烘焙块下标越界"))?;
+        let mut file = self.file.lock().unwrap_or_else(|e| e.into_inner());
+        read_block(&mut file, entry)
+    }
+
+    /// 读取并解压整块，逐帧异或还原为完整帧（块内帧依次排列）
+    fn decode_chunk(&self, chunk: usize) -> io::Result<Vec<u32>> {
+        let bytes = self.read_chunk(chunk)?;
+        let frame_words = self.header.frame_words();
+        let per_chunk = self.header.frames_per_chunk as usize;
+        let frames = (self.header.frame_count as usize).saturating_sub(chunk * per_chunk).min(per_chunk);
+        let mut words = vec![0u32; frames * frame_words];
+        read_words(&mut ZlibDecoder::new(bytes.as_slice()), &mut words)?;
+        for frame in 1..frames {
+            let (prev, rest) = words.split_at_mut(frame * frame_words);
+            xor_words(&mut rest[..frame_words], &prev[(frame - 1) * frame_words..]);
+        }
+        Ok(words)
+    }
+
+    /// 常驻内存：块索引与相机轨道（帧数据按需解压，计入各播放状态）
+    pub fn heap_bytes(&self) -> usize {
+        vec_bytes(&self.chunks) + vec_bytes(&self.camera)
+    }
+
+    /// 帧数据占用的压缩字节数
+    pub fn compressed_bytes(&self) -> u64 {
+        self.chunks.iter().map(|&(_, len)| len as u64).sum()
+    }
+}
+
+fn read_block(file: &mut File, (offset, len): (u64, u32)) -> io::Result<Vec<u8>> {
+    file.seek(SeekFrom::Start(offset))?;
+    let mut bytes = vec![0u8; len as usize];
+    file.read_exact(&mut bytes)?;
+    Ok(bytes)
+}
+
+/// 单个模型的烘焙播放状态
+///
+/// 进入某块时即向后台线程请求下一块，顺序播放到块边界时直接换入已解压的数据，
+/// 渲染线程（持有模型锁）不做文件读取与解压；只有跨块跳转等预取未命中时才在调用线程解压。
+/// 每个播放状态最多常驻两块完整帧（约 `frames_per_chunk × frame_words × 8` 字节）。
+pub struct BakedPlayback {
+    stage: Arc<BakedStage>,
+    /// 舞台时间轴（VMD 帧）
+    frame: f32,
+    /// 当前块（已还原的完整帧）
+    current: Option<DecodedChunk>,
+    /// 后台正在解压的块
+    prefetch: Option<PendingChunk>,
+    /// 已应用到模型的帧号
+    applied: Option<usize>,
+}
+
+struct DecodedChunk {
+    index: usize,
+    words: Vec<u32>,
+}
+
+struct PendingChunk {
+    index: usize,
+    receiver: Receiver<io::Result<Vec<u32>>>,
+}
+
+/// 向后台线程请求解压某块（越界或后台线程不可用时返回 None）
+fn request_chunk(stage: &Arc<BakedStage>, chunk: usize) -> Option<PendingChunk> {
+    if chunk >= stage.chunks.len() {
+        return None;
+    }
+    let loader = CHUNK_LOADER.as_ref()?;
+    let (reply, receiver) = mpsc::sync_channel(1);
+    let request = ChunkRequest { stage: Arc::clone(stage), chunk, reply };
+    loader.lock().unwrap_or_else(|e| e.into_inner()).send(request).ok()?;
+    Some(PendingChunk { index: chunk, receiver })
+}
+
+impl BakedPlayback {
+    pub fn new(stage: Arc<BakedStage>) -> Self {
+        let prefetch = request_chunk(&stage, 0);
+        Self {
+            stage,
+            frame: 0.0,
+            current: None,
+            prefetch,
+            applied: None,
+        }
+    }
+
+    pub fn stage(&self) -> &Arc<BakedStage> {
+        &self.stage
+    }
+
+    /// 当前已解压块占用的字节数（后台预取中的下一块在换入后计入）
+    pub fn heap_bytes(&self) -> usize {
+        self.current.as_ref().map_or(0, |c| vec_bytes(&c.words))
+    }
+
+    /// 当前时间轴位置（VMD 帧）
+    pub fn frame(&self) -> f32 {
+        self.frame
+    }
+
+    /// 跳转到指定时间轴位置（VMD 帧）
+    pub fn seek(&mut self, frame: f32) {
+        self.frame = frame.max(0.0);
+    }
+
+    /// 按经过时间推进（播完后停在最后一帧）
+    pub fn advance(&mut self, elapsed: f32) {
+        self.frame = (self.frame + elapsed * VMD_FPS).min(self.stage.max_frame());
+    }
+
+    /// 换入指定块并预取下一块
+    fn load_chunk(&mut self, chunk: usize) -> io::Result<()> {
+        if self.current.as_ref().map_or(false, |c| c.index == chunk) {
+            return Ok(());
+        }
+        let words = match self.prefetch.take() {
+            // 预取通常早已完成；尚未完成时等待后台结果，不重复解压
+            Some(pending) if pending.index == chunk => pending.receiver.recv()
+                .unwrap_or_else(|_| Err(io::Error::new(io::ErrorKind::Other, "烘焙块解压线程已退出")))?,
+            // 跳转到未预取的块：在调用线程解压
+            _ => self.stage.decode_chunk(chunk)?,
+        };
+        self.current = Some(DecodedChunk { index: chunk, words });
+        self.prefetch = request_chunk(&self.stage, chunk + 1);
+        Ok(())
+    }
+
+    /// 把当前时间轴位置的姿态写入模型（与上次应用的帧相同则跳过），返回是否更新了姿态
+    pub fn apply(&mut self, bone_manager: &mut BoneManager, morph_manager: &mut MorphManager) -> bool {
+        let sample = self.stage.header.sample_index(self.frame);
+        if self.applied == Some(sample) {
+            return false;
+        }
+        let per_chunk = self.stage.header.frames_per_chunk as usize;
+        if let Err(e) = self.load_chunk(sample / per_chunk) {
+            log::error!("烘焙舞台读取第 {} 帧失败: {}", sample, e);
+            self.current = None;
+            return false;
+        }
+        let frame_words = self.stage.header.frame_words();
+        let start = (sample % per_chunk) * frame_words;
+        let words = match self.current.as_ref().and_then(|c| c.words.get(start..start + frame_words)) {
+            Some(words) => words,
+            None => return false,
+        };
+        apply_frame(words, bone_manager, morph_manager);
+        self.applied = Some(sample);
+        true
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use crate::morph::{Morph, MorphType};
+    use crate::skeleton::BoneLink;
+    use crate::stage::baker::BakeWriter;
+    use crate::stage::{capture_frame, FLAG_CAMERA};
+    use glam::{Mat4, Quat, Vec3};
+
+    fn managers() -> (BoneManager, MorphManager) {
+        let mut bones = BoneManager::new();
+        bones.add_bone(BoneLink::new(String::from("センター")));
+        bones.add_bone(BoneLink::new(String::from("頭")));
+        bones.build_hierarchy();
+        let mut morphs = MorphManager::new();
+        morphs.add_morph(Morph::new(String::from("あ"), MorphType::Vertex));
+        (bones, morphs)
+    }
+
+    fn pose(bones: &mut BoneManager, morphs: &mut MorphManager, frame: usize) {
+        let t = frame as f32 * 0.1;
+        bones.get_bone_mut(0).unwrap().local_to_world =
+            Mat4::from_rotation_translation(Quat::from_rotation_y(t), Vec3::new(t, 1.0, 0.0));
+        // 第二根骨骼保持静止（异或后为 0）
+        bones.get_bone_mut(1).unwrap().local_to_world = Mat4::from_translation(Vec3::Y);
+        morphs.set_morph_weight(0, (t * 3.0).sin().abs());
+    }
+
+    #[test]
+    fn baked_frames_round_trip_exactly() {
+        let path = std::env::temp_dir().join(format!("mmd_bake_test_{}.mmdbake", std::process::id()));
+        let (mut bones, mut morphs) = managers();
+        let frame_count = 75; // 两个完整块 + 一个不完整块
+        let header = BakeHeader {
+            fps: 30.0,
+            frame_count: 0,
+            bone_count: 2,
+            morph_count: 1,
+            flags: FLAG_CAMERA,
+            fingerprint: model_fingerprint(&bones, &morphs),
+            frames_per_chunk: 30,
+            chunk_count: 0,
+            index_offset: 0,
+        };
+        let mut writer = BakeWriter::create(&path, header).unwrap();
+        let mut expected = Vec::new();
+        let mut words = Vec::new();
+        for frame in 0..frame_count {
+            pose(&mut bones, &mut morphs, frame);
+            capture_frame(&bones, &morphs, &mut words);
+            expected.push(words.clone());
+            writer.push_frame(&words, Some([frame as u32; CAMERA_WORDS])).unwrap();
+        }
+        writer.finish().unwrap();
+
+        let stage = Arc::new(BakedStage::open(&path).unwrap());
+        assert_eq!(stage.header().frame_count, frame_count as u32);
+        assert!(stage.matches(&bones, &morphs));
+        assert_eq!(stage.camera_words(40.0).unwrap()[0], 40);
+
+        let (mut play_bones, mut play_morphs) = managers();
+        let mut playback = BakedPlayback::new(stage);
+        // 顺序播放、向后跳转、跨块跳转
+        for &frame in &[0usize, 1, 2, 29, 30, 31, 5, 74, 61, 60] {
+            playback.seek(frame as f32);
+            assert!(playback.apply(&mut play_bones, &mut play_morphs));
+            let mut actual = Vec::new();
+            capture_frame(&play_bones, &play_morphs, &mut actual);
+            assert_eq!(actual, expected[frame], "frame {}", frame);
+        }
+        let _ = std::fs::remove_file(&path);
+    }
+}
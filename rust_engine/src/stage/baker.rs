@@ -0,0 +1,239 @@
+//! 舞台烘焙器：离线运行舞台演出并写入烘焙文件
+
+use std::fs::File;
+use std::io::{self, BufWriter, Seek, SeekFrom, Write};
+use std::path::{Path, PathBuf};
+use std::sync::Arc;
+
+use byteorder::{LittleEndian, WriteBytesExt};
+use flate2::write::ZlibEncoder;
+use flate2::Compression;
+
+use crate::animation::VmdAnimation;
+use crate::model::MmdModel;
+
+use super::{
+    capture_frame, encode_camera, model_fingerprint, write_words, xor_words, BakeHeader, CAMERA_WORDS,
+    FLAG_CAMERA, HEADER_SIZE, VMD_FPS,
+};
+
+/// 每块帧数（约 0.5 秒）
+const FRAMES_PER_CHUNK: u32 = 30;
+
+/// 烘焙文件写入器
+pub(super) struct BakeWriter {
+    file: BufWriter<File>,
+    header: BakeHeader,
+    /// 当前块（已异或编码的帧持续压缩进去）
+    chunk: Option<ZlibEncoder<Vec<u8>>>,
+    chunk_frames: u32,
+    /// 块内上一帧（异或基准）
+    previous: Vec<u32>,
+    delta: Vec<u32>,
+    offset: u64,
+    index: Vec<(u64, u32)>,
+    camera: Vec<u32>,
+    frames_written: u32,
+}
+
+impl BakeWriter {
+    pub(super) fn create(path: &Path, header: BakeHeader) -> io::Result<Self> {
+        let mut file = BufWriter::new(File::create(path)?);
+        // 先写占位头部，结束时回填帧数与索引位置
+        header.write_to(&mut file)?;
+        Ok(Self {
+            file,
+            header,
+            chunk: None,
+            chunk_frames: 0,
+            previous: Vec::new(),
+            delta: Vec::new(),
+            offset: HEADER_SIZE,
+            index: Vec::new(),
+            camera: Vec::new(),
+            frames_written: 0,
+        })
+    }
+
+    /// 写入一帧（相机仅在头部声明了相机轨道时记录）
+    pub(super) fn push_frame(&mut self, words: &[u32], camera: Option<[u32; CAMERA_WORDS]>) -> io::Result<()> {
+        if self.chunk.is_none() {
+            self.chunk = Some(ZlibEncoder::new(Vec::new(), Compression::default()));
+            self.previous.clear();
+            self.previous.resize(words.len(), 0);
+        }
+        self.delta.clear();
+        self.delta.extend_from_slice(words);
+        xor_words(&mut self.delta, &self.previous);
+        if let Some(ref mut encoder) = self.chunk {
+            write_words(encoder, &self.delta)?;
+        }
+        self.previous.copy_from_slice(words);
+        self.chunk_frames += 1;
+        self.frames_written += 1;
+
+        if let Some(camera) = camera {
+            self.camera.extend_from_slice(&camera);
+        }
+        if self.chunk_frames >= self.header.frames_per_chunk {
+            self.flush_chunk()?;
+        }
+        Ok(())
+    }
+
+    fn write_block(&mut self, bytes: &[u8]) -> io::Result<(u64, u32)> {
+        self.file.write_all(bytes)?;
+        let entry = (self.offset, bytes.len() as u32);
+        self.offset += bytes.len() as u64;
+        Ok(entry)
+    }
+
+    fn flush_chunk(&mut self) -> io::Result<()> {
+        if let Some(encoder) = self.chunk.take() {
+            let bytes = encoder.finish()?;
+            let entry = self.write_block(&bytes)?;
+            self.index.push(entry);
+        }
+        self.chunk_frames = 0;
+        Ok(())
+    }
+
+    /// 写入相机块与索引并回填头部
+    pub(super) fn finish(mut self) -> io::Result<()> {
+        self.flush_chunk()?;
+
+        let mut encoder = ZlibEncoder::new(Vec::new(), Compression::default());
+        write_words(&mut encoder, &self.camera)?;
+        let bytes = encoder.finish()?;
+        let camera_entry = self.write_block(&bytes)?;
+
+        let index_offset = self.offset;
+        for &(offset, len) in self.index.iter().chain(std::iter::once(&camera_entry)) {
+            self.file.write_u64::<LittleEndian>(offset)?;
+            self.file.write_u32::<LittleEndian>(len)?;
+        }
+
+        self.header.frame_count = self.frames_written;
+        self.header.chunk_count = self.index.len() as u32;
+        self.header.index_offset = index_offset;
+        self.file.seek(SeekFrom::Start(0))?;
+        self.header.write_to(&mut self.file)?;
+        self.file.flush()
+    }
+}
+
+/// 舞台烘焙器
+///
+/// 持有一个独立于渲染的模型实例，以固定步长逐帧推进（强制同步物理，结果与墙钟时间无关），
+/// 可分批调用 [`StageBaker::step`]，便于调用方显示进度或中途取消。
+pub struct StageBaker {
+    model: MmdModel,
+    camera: Option<Arc<VmdAnimation>>,
+    writer: BakeWriter,
+    path: PathBuf,
+    fps: f32,
+    frame_count: u32,
+    next_frame: u32,
+    words: Vec<u32>,
+}
+
+impl StageBaker {
+    /// 创建烘焙器
+    ///
+    /// # 参数
+    /// - `model`: 刚加载的模型（烘焙器独占）
+    /// - `motion`: 合并后的舞台动作
+    /// - `camera`: 相机动画（None 表示不记录相机）
+    /// - `path`: 输出文件
+    /// - `fps`: 采样率
+    pub fn new(
+        mut model: MmdModel,
+        motion: Arc<VmdAnimation>,
+        camera: Option<Arc<VmdAnimation>>,
+        path: &Path,
+        fps: f32,
+    ) -> io::Result<Self> {
+        let fps = fps.clamp(1.0, 240.0);
+        let camera = camera.filter(|c| c.has_camera());
+        // 与舞台播放一致：有相机时以相机长度为准
+        let max_frame = match camera {
+            Some(ref c) => c.max_frame(),
+            None => motion.max_frame(),
+        };
+        let frame_count = (max_frame as f32 * fps / VMD_FPS).floor() as u32 + 1;
+
+        // 舞台播放时禁用自动眨眼与视线追踪
+        model.set_auto_blink_enabled(false);
+        model.set_eye_tracking_enabled(false);
+        model.set_synchronous_physics(true);
+        if !model.rigid_bodies.is_empty() {
+            model.init_physics();
+        }
+        model.set_layer_animation(0, Some(motion));
+        model.play_layer(0);
+
+        let header = BakeHeader {
+            fps,
+            frame_count,
+            bone_count: model.bone_manager.bone_count() as u32,
+            morph_count: model.morph_manager.morph_count() as u32,
+            flags: if camera.is_some() { FLAG_CAMERA } else { 0 },
+            fingerprint: model_fingerprint(&model.bone_manager, &model.morph_manager),
+            frames_per_chunk: FRAMES_PER_CHUNK,
+            chunk_count: 0,
+            index_offset: 0,
+        };
+        let writer = BakeWriter::create(path, header)?;
+
+        Ok(Self {
+            model,
+            camera,
+            writer,
+            path: path.to_path_buf(),
+            fps,
+            frame_count,
+            next_frame: 0,
+            words: Vec::new(),
+        })
+    }
+
+    /// 总帧数
+    pub fn frame_count(&self) -> u32 {
+        self.frame_count
+    }
+
+    /// 已烘焙帧数
+    pub fn baked_frames(&self) -> u32 {
+        self.next_frame
+    }
+
+    /// 推进并记录最多 max_frames 帧，返回累计已烘焙帧数
+    pub fn step(&mut self, max_frames: u32) -> io::Result<u32> {
+        let end = self.next_frame.saturating_add(max_frames).min(self.frame_count);
+        while self.next_frame < end {
+            // 首帧不推进时间，直接记录动作起始姿态
+            let dt = if self.next_frame == 0 { 0.0 } else { 1.0 / self.fps };
+            self.model.tick_animation_no_skinning(dt);
+            capture_frame(&self.model.bone_manager, &self.model.morph_manager, &mut self.words);
+
+            let camera = self.camera.as_ref().map(|c| {
+                encode_camera(&c.get_camera_transform(self.next_frame as f32 * VMD_FPS / self.fps))
+            });
+            self.writer.push_frame(&self.words, camera)?;
+            self.next_frame += 1;
+        }
+        Ok(self.next_frame)
+    }
+
+    /// 写完剩余数据并关闭文件（未烘焙完的帧会被截断）
+    pub fn finish(self) -> io::Result<()> {
+        self.writer.finish()
+    }
+
+    /// 放弃烘焙并删除未完成的文件
+    pub fn abort(self) {
+        let path = self.path.clone();
+        drop(self);
+        let _ = std::fs::remove_file(path);
+    }
+}
@@ -0,0 +1,218 @@
+//! 舞台演出烘焙
+//!
+//! 舞台模式实时播放时，每帧都要对合并后的长动作求值、解 IK、步进物理并采样相机轨道。
+//! 烘焙把一次完整的舞台演出离线跑一遍（独立模型实例、同步物理、固定步长，快于实时），
+//! 逐帧记录骨骼全局变换、Morph 权重与相机变换，写入压缩文件；播放时只需解压读取，
+//! 蒙皮矩阵由记录的全局变换按与实时路径相同的公式（`local_to_world * inverse_init`）得出，结果逐位一致。
+//!
+//! ## 文件格式（小端）
+//! | 字段 | 类型 | 说明 |
+//! |------|------|------|
+//! | magic | [u8; 8] | `MMDBAKE\0` |
+//! | version | u32 | [`FORMAT_VERSION`] |
+//! | fps | f32 | 采样率 |
+//! | frame_count | u32 | 采样帧数 |
+//! | bone_count / morph_count | u32 × 2 | 模型骨骼与 Morph 数量 |
+//! | flags | u32 | [`FLAG_CAMERA`] |
+//! | fingerprint | u64 | 骨骼/Morph 名称指纹（播放时校验模型一致） |
+//! | frames_per_chunk | u32 | 每块帧数 |
+//! | chunk_count | u32 | 块数 |
+//! | index_offset | u64 | 块索引位置 |
+//!
+//! 头部之后依次是各帧数据块与相机块，文件末尾为索引（每块 `offset u64 + len u32`，最后一项为相机块）。
+//!
+//! 每帧是 `bone_count × 16 + morph_count` 个 32 位字（全局变换按列主序，随后是 Morph 权重）。
+//! 块内每帧与上一帧逐字异或（块首帧与 0 异或），静止骨骼与不变的 Morph 全部变成 0，再整体 zlib 压缩；
+//! 块之间互不依赖，跳转只需从目标所在块的开头解压。相机块为每帧 8 个字（位置、旋转、FOV、透视标志）。
+
+mod baked;
+mod baker;
+
+pub use baked::{BakedPlayback, BakedStage};
+pub use baker::StageBaker;
+
+use std::io::{self, Read, Write};
+
+use byteorder::{LittleEndian, ReadBytesExt, WriteBytesExt};
+use glam::Mat4;
+
+use crate::animation::CameraFrameTransform;
+use crate::morph::MorphManager;
+use crate::skeleton::BoneManager;
+
+/// 文件标识
+pub const MAGIC: [u8; 8] = *b"MMDBAKE\0";
+/// 格式版本
+pub const FORMAT_VERSION: u32 = 1;
+/// 头部标志：包含相机轨道
+pub const FLAG_CAMERA: u32 = 1;
+/// 头部字节数
+pub const HEADER_SIZE: u64 = 56;
+/// 相机每帧字数
+pub const CAMERA_WORDS: usize = 8;
+/// VMD 帧率（舞台时间轴以 VMD 帧为单位）
+pub const VMD_FPS: f32 = 30.0;
+
+/// 文件头
+#[derive(Debug, Clone, Copy, PartialEq)]
+pub struct BakeHeader {
+    pub fps: f32,
+    pub frame_count: u32,
+    pub bone_count: u32,
+    pub morph_count: u32,
+    pub flags: u32,
+    pub fingerprint: u64,
+    pub frames_per_chunk: u32,
+    pub chunk_count: u32,
+    pub index_offset: u64,
+}
+
+impl BakeHeader {
+    /// 每帧字数
+    pub fn frame_words(&self) -> usize {
+        self.bone_count as usize * 16 + self.morph_count as usize
+    }
+
+    pub fn has_camera(&self) -> bool {
+        self.flags & FLAG_CAMERA != 0
+    }
+
+    /// 舞台时间轴（VMD 帧）对应的采样帧下标
+    pub fn sample_index(&self, frame: f32) -> usize {
+        let index = (frame.max(0.0) * self.fps / VMD_FPS).floor() as usize;
+        index.min(self.frame_count.saturating_sub(1) as usize)
+    }
+
+    /// 演出总长度（VMD 帧）
+    pub fn max_frame(&self) -> f32 {
+        self.frame_count.saturating_sub(1) as f32 * VMD_FPS / self.fps
+    }
+
+    pub fn write_to<W: Write>(&self, out: &mut W) -> io::Result<()> {
+        out.write_all(&MAGIC)?;
+        out.write_u32::<LittleEndian>(FORMAT_VERSION)?;
+        out.write_f32::<LittleEndian>(self.fps)?;
+        out.write_u32::<LittleEndian>(self.frame_count)?;
+        out.write_u32::<LittleEndian>(self.bone_count)?;
+        out.write_u32::<LittleEndian>(self.morph_count)?;
+        out.write_u32::<LittleEndian>(self.flags)?;
+        out.write_u64::<LittleEndian>(self.fingerprint)?;
+        out.write_u32::<LittleEndian>(self.frames_per_chunk)?;
+        out.write_u32::<LittleEndian>(self.chunk_count)?;
+        out.write_u64::<LittleEndian>(self.index_offset)
+    }
+
+    pub fn read_from<R: Read>(input: &mut R) -> io::Result<Self> {
+        let mut magic = [0u8; 8];
+        input.read_exact(&mut magic)?;
+        if magic != MAGIC {
+            return Err(io::Error::new(io::ErrorKind::InvalidData, "不是烘焙舞台文件"));
+        }
+        let version = input.read_u32::<LittleEndian>()?;
+        if version != FORMAT_VERSION {
+            return Err(io::Error::new(io::ErrorKind::InvalidData, format!("不支持的烘焙格式版本 {}", version)));
+        }
+        let header = Self {
+            fps: input.read_f32::<LittleEndian>()?,
+            frame_count: input.read_u32::<LittleEndian>()?,
+            bone_count: input.read_u32::<LittleEndian>()?,
+            morph_count: input.read_u32::<LittleEndian>()?,
+            flags: input.read_u32::<LittleEndian>()?,
+            fingerprint: input.read_u64::<LittleEndian>()?,
+            frames_per_chunk: input.read_u32::<LittleEndian>()?,
+            chunk_count: input.read_u32::<LittleEndian>()?,
+            index_offset: input.read_u64::<LittleEndian>()?,
+        };
+        if !(header.fps > 0.0) || header.frames_per_chunk == 0 {
+            return Err(io::Error::new(io::ErrorKind::InvalidData, "烘焙文件头无效"));
+        }
+        Ok(header)
+    }
+}
+
+/// 骨骼与 Morph 名称指纹（FNV-1a），用于确认烘焙文件与播放模型一致
+pub fn model_fingerprint(bone_manager: &BoneManager, morph_manager: &MorphManager) -> u64 {
+    let mut hash: u64 = 0xcbf2_9ce4_8422_2325;
+    let mut feed = |bytes: &[u8]| {
+        for &b in bytes {
+            hash ^= b as u64;
+            hash = hash.wrapping_mul(0x0100_0000_01b3);
+        }
+    };
+    for i in 0..bone_manager.bone_count() {
+        if let Some(bone) = bone_manager.get_bone(i) {
+            feed(bone.name.as_bytes());
+        }
+        feed(&[0]);
+    }
+    feed(&[0xFF]);
+    for i in 0..morph_manager.morph_count() {
+        if let Some(morph) = morph_manager.get_morph(i) {
+            feed(morph.name.as_bytes());
+        }
+        feed(&[0]);
+    }
+    hash
+}
+
+/// 把模型当前姿态写入帧数据（全局变换 + Morph 权重）
+pub fn capture_frame(bone_manager: &BoneManager, morph_manager: &MorphManager, words: &mut Vec<u32>) {
+    words.clear();
+    for i in 0..bone_manager.bone_count() {
+        let matrix = bone_manager.get_global_transform(i).to_cols_array();
+        words.extend(matrix.iter().map(|v| v.to_bits()));
+    }
+    words.extend((0..morph_manager.morph_count()).map(|i| morph_manager.get_morph_weight(i).to_bits()));
+}
+
+/// 把帧数据还原到模型：写入全局变换并计算蒙皮矩阵，设置 Morph 权重
+pub fn apply_frame(words: &[u32], bone_manager: &mut BoneManager, morph_manager: &mut MorphManager) {
+    let bone_count = bone_manager.bone_count();
+    let (bones, morphs) = words.split_at((bone_count * 16).min(words.len()));
+    for (i, chunk) in bones.chunks_exact(16).enumerate() {
+        if let Some(bone) = bone_manager.get_bone_mut(i) {
+            let mut cols = [0.0f32; 16];
+            for (dst, &src) in cols.iter_mut().zip(chunk) {
+                *dst = f32::from_bits(src);
+            }
+            bone.local_to_world = Mat4::from_cols_array(&cols);
+        }
+    }
+    bone_manager.end_update();
+    for (i, &weight) in morphs.iter().enumerate() {
+        morph_manager.set_morph_weight(i, f32::from_bits(weight));
+    }
+}
+
+/// 相机变换编码为 8 个字
+pub fn encode_camera(transform: &CameraFrameTransform) -> [u32; CAMERA_WORDS] {
+    [
+        transform.position.x.to_bits(),
+        transform.position.y.to_bits(),
+        transform.position.z.to_bits(),
+        transform.rotation.x.to_bits(),
+        transform.rotation.y.to_bits(),
+        transform.rotation.z.to_bits(),
+        transform.fov.to_bits(),
+        transform.is_perspective as u32,
+    ]
+}
+
+/// 逐字异或（编码与解码相同）
+#[inline]
+fn xor_words(dst: &mut [u32], src: &[u32]) {
+    for (d, s) in dst.iter_mut().zip(src) {
+        *d ^= *s;
+    }
+}
+
+fn write_words<W: Write>(out: &mut W, words: &[u32]) -> io::Result<()> {
+    for &w in words {
+        out.write_u32::<LittleEndian>(w)?;
+    }
+    Ok(())
+}
+
+fn read_words<R: Read>(input: &mut R, words: &mut [u32]) -> io::Result<()> {
+    input.read_u32_into::<LittleEndian>(words)
+}